@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package corpus;
+
+public class Circle extends Shape implements Scalable {
+    private final double radius;
+
+    public Circle(double x, double y, double radius) {
+        super(x, y);
+        if (radius < 0) {
+            throw new IllegalArgumentException("radius < 0: " + radius);
+        }
+        this.radius = radius;
+    }
+
+    @Override
+    public double area() {
+        return Math.PI * radius * radius;
+    }
+
+    @Override
+    public double perimeter() {
+        return 2 * Math.PI * radius;
+    }
+
+    @Override
+    public Shape translate(double dx, double dy) {
+        return new Circle(x + dx, y + dy, radius);
+    }
+
+    @Override
+    public Shape scale(double factor) {
+        return new Circle(x, y, radius * factor);
+    }
+}
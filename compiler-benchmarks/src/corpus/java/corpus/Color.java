@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package corpus;
+
+/**
+ * Enum with constructor arguments, a switch and a lookup by name.
+ */
+public enum Color implements Named {
+    RED(0xff0000), GREEN(0x00ff00), BLUE(0x0000ff), BLACK(0), WHITE(0xffffff);
+
+    private final int rgb;
+
+    Color(int rgb) {
+        this.rgb = rgb;
+    }
+
+    public int getRgb() {
+        return rgb;
+    }
+
+    public Color complement() {
+        switch (this) {
+        case RED: return GREEN;
+        case GREEN: return BLUE;
+        case BLUE: return RED;
+        case BLACK: return WHITE;
+        default: return BLACK;
+        }
+    }
+
+    public static Color parse(String s) {
+        switch (s.toLowerCase()) {
+        case "red": return RED;
+        case "green": return GREEN;
+        case "blue": return BLUE;
+        case "black": return BLACK;
+        case "white": return WHITE;
+        default:
+            throw new IllegalArgumentException("Unknown color: " + s);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package corpus;
+
+/**
+ * Entry point of the corpus. Reaches every other corpus class.
+ */
+public class Main {
+
+    public static void main(String[] args) {
+        Registry<Named> registry = new Registry<>();
+        registry.addListener(new Registry.Listener<Named>() {
+            @Override
+            public void added(Named n) {
+                System.out.println("Added " + n.getName());
+            }
+        });
+        Shape[] shapes = {
+            new Circle(0, 0, 1), new Rectangle(1, 1, 2, 3), new Square(2, 2, 4)
+        };
+        double total = 0;
+        for (Shape s : shapes) {
+            registry.register(s);
+            if (s instanceof Scalable) {
+                s = ((Scalable) s).scale(2);
+            }
+            total += s.translate(1, 1).area();
+        }
+        for (Color c : Color.values()) {
+            registry.register(c.complement());
+        }
+        Matrix m = Matrix.identity(4).multiply(Matrix.identity(4).transpose());
+        long v = new Parser(args.length > 0 ? args[0] : "(1+2)*3-4/2").parse();
+        System.out.println(total + " " + m.checksum() + " " + v + " " + Shape.getCount()
+                + " " + registry.names());
+    }
+}
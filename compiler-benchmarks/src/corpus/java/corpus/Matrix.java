@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package corpus;
+
+/**
+ * Arithmetic heavy code with nested loops and array accesses.
+ */
+public class Matrix {
+    private final int rows;
+    private final int cols;
+    private final double[][] values;
+
+    public Matrix(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.values = new double[rows][cols];
+    }
+
+    public static Matrix identity(int n) {
+        Matrix m = new Matrix(n, n);
+        for (int i = 0; i < n; i++) {
+            m.values[i][i] = 1;
+        }
+        return m;
+    }
+
+    public double get(int row, int col) {
+        return values[row][col];
+    }
+
+    public void set(int row, int col, double value) {
+        values[row][col] = value;
+    }
+
+    public Matrix multiply(Matrix o) {
+        if (cols != o.rows) {
+            throw new IllegalArgumentException();
+        }
+        Matrix result = new Matrix(rows, o.cols);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < o.cols; j++) {
+                double sum = 0;
+                for (int k = 0; k < cols; k++) {
+                    sum += values[i][k] * o.values[k][j];
+                }
+                result.values[i][j] = sum;
+            }
+        }
+        return result;
+    }
+
+    public Matrix transpose() {
+        Matrix result = new Matrix(cols, rows);
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                result.values[j][i] = values[i][j];
+            }
+        }
+        return result;
+    }
+
+    public long checksum() {
+        long h = 17;
+        for (double[] row : values) {
+            for (double v : row) {
+                h = h * 31 + Double.doubleToLongBits(v);
+            }
+        }
+        return h;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package corpus;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * Small expression parser with exception handlers, string building and
+ * recursion.
+ */
+public class Parser {
+    private final Reader in;
+    private int c;
+
+    public Parser(String s) {
+        this.in = new StringReader(s);
+    }
+
+    private void next() {
+        try {
+            c = in.read();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public long parse() {
+        next();
+        long v = expr();
+        if (c != -1) {
+            throw error("Unexpected character");
+        }
+        return v;
+    }
+
+    private long expr() {
+        long v = term();
+        while (c == '+' || c == '-') {
+            int op = c;
+            next();
+            v = op == '+' ? v + term() : v - term();
+        }
+        return v;
+    }
+
+    private long term() {
+        long v = factor();
+        while (c == '*' || c == '/' || c == '%') {
+            int op = c;
+            next();
+            long r = factor();
+            try {
+                switch (op) {
+                case '*': v *= r; break;
+                case '/': v /= r; break;
+                default: v %= r; break;
+                }
+            } catch (ArithmeticException e) {
+                throw error("Division by zero");
+            }
+        }
+        return v;
+    }
+
+    private long factor() {
+        if (c == '(') {
+            next();
+            long v = expr();
+            if (c != ')') {
+                throw error("Expected ')'");
+            }
+            next();
+            return v;
+        }
+        if (c == '-') {
+            next();
+            return -factor();
+        }
+        StringBuilder sb = new StringBuilder();
+        while (c >= '0' && c <= '9') {
+            sb.append((char) c);
+            next();
+        }
+        if (sb.length() == 0) {
+            throw error("Expected number");
+        }
+        return Long.parseLong(sb.toString());
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at '" + (char) c + "'");
+    }
+}
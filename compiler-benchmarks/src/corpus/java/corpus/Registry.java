@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package corpus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generic container with synchronization, inner classes and collections.
+ */
+public class Registry<T extends Named> implements Iterable<T> {
+    private final Map<String, T> byName = new HashMap<>();
+    private final List<Listener<? super T>> listeners = new ArrayList<>();
+
+    public interface Listener<T> {
+        void added(T t);
+    }
+
+    public synchronized void register(T t) {
+        if (byName.put(t.getName(), t) == null) {
+            for (Listener<? super T> l : listeners) {
+                l.added(t);
+            }
+        }
+    }
+
+    public synchronized T lookup(String name) {
+        T t = byName.get(name);
+        if (t == null) {
+            throw new NotFoundException(name);
+        }
+        return t;
+    }
+
+    public void addListener(Listener<? super T> l) {
+        synchronized (listeners) {
+            listeners.add(l);
+        }
+    }
+
+    public List<String> names() {
+        List<String> names = new ArrayList<>(byName.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        final Iterator<String> it = names().iterator();
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return byName.get(it.next());
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    public static class NotFoundException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public NotFoundException(String name) {
+            super("Not found: " + name);
+        }
+    }
+}
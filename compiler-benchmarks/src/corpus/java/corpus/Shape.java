@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package corpus;
+
+/**
+ * Root of a small class hierarchy exercising virtual and interface dispatch.
+ */
+public abstract class Shape implements Comparable<Shape>, Named {
+    private static int count;
+
+    protected final double x;
+    protected final double y;
+
+    protected Shape(double x, double y) {
+        this.x = x;
+        this.y = y;
+        count++;
+    }
+
+    public static int getCount() {
+        return count;
+    }
+
+    public abstract double area();
+
+    public double perimeter() {
+        return 0;
+    }
+
+    public Shape translate(double dx, double dy) {
+        return this;
+    }
+
+    @Override
+    public int compareTo(Shape o) {
+        return Double.compare(area(), o.area());
+    }
+
+    @Override
+    public String getName() {
+        return getClass().getSimpleName();
+    }
+
+    @Override
+    public String toString() {
+        return getName() + "(" + x + ", " + y + ")";
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import aura.compiler.clazz.Clazz;
+import aura.compiler.clazz.ClazzInfo;
+
+/**
+ * Benchmarks writing and reading the {@link ClazzInfo}s of the corpus the
+ * same way {@link Clazz#saveClazzInfo()} and {@link Clazz#getClazzInfo()} do
+ * but without touching the file system.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ClazzInfoSerializationBenchmark {
+
+    List<ClazzInfo> clazzInfos = new ArrayList<>();
+    List<byte[]> serialized = new ArrayList<>();
+
+    @Setup
+    public void setup() throws IOException {
+        Corpus corpus = Corpus.load();
+        try {
+            corpus.generateIR();
+            for (Clazz clazz : corpus.getClazzes()) {
+                clazzInfos.add(clazz.getClazzInfo());
+            }
+            serialized = write();
+        } finally {
+            corpus.dispose();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        clazzInfos.clear();
+        serialized.clear();
+    }
+
+    @Benchmark
+    public List<byte[]> write() throws IOException {
+        List<byte[]> result = new ArrayList<>(clazzInfos.size());
+        for (ClazzInfo ci : clazzInfos) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+                oos.writeObject(ci);
+            }
+            result.add(out.toByteArray());
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<ClazzInfo> read() throws IOException, ClassNotFoundException {
+        List<ClazzInfo> result = new ArrayList<>(serialized.size());
+        for (byte[] bytes : serialized) {
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                result.add((ClazzInfo) ois.readObject());
+            }
+        }
+        return result;
+    }
+}
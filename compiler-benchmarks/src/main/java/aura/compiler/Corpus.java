@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+
+import aura.compiler.clazz.Clazz;
+import aura.compiler.clazz.ClazzInfo;
+import aura.compiler.clazz.Path;
+import aura.compiler.config.Arch;
+import aura.compiler.config.Config;
+import aura.compiler.config.Config.FrontendOptLevel;
+import aura.compiler.config.ConfigBuilder;
+import aura.compiler.config.OS;
+import aura.compiler.log.Logger;
+
+/**
+ * The synthetic class corpus the compiler benchmarks run on. The directory
+ * holding the compiled corpus classes and the runtime library are passed in
+ * as system properties by the <code>jmh</code> task. Everything is compiled
+ * for x86_64 Linux and nothing but the LLVM bindings is needed.
+ */
+final class Corpus {
+    static final String CORPUS_DIR_PROPERTY = "aura.benchmarks.corpus";
+    static final String BOOTCLASSPATH_PROPERTY = "aura.benchmarks.bootclasspath";
+
+    private final File workDir;
+    private final Config config;
+    private final List<Clazz> clazzes = new ArrayList<>();
+
+    private Corpus(File workDir, Config config) {
+        this.workDir = workDir;
+        this.config = config;
+        for (Path path : config.getClazzes().getClasspathPaths()) {
+            clazzes.addAll(path.listClasses());
+        }
+        Collections.sort(clazzes);
+    }
+
+    static Corpus load() throws IOException {
+        return load(false, false);
+    }
+
+    /**
+     * Loads the corpus for a debug or release build, optionally a fast
+     * compile build. See {@link Config#isFastCompile()}.
+     */
+    static Corpus load(boolean debug, boolean fastCompile) throws IOException {
+        return load(debug, fastCompile, FrontendOptLevel.none);
+    }
+
+    /**
+     * Loads the corpus for a release build which runs the Jimple
+     * optimizations of the specified {@link FrontendOptLevel}.
+     */
+    static Corpus load(FrontendOptLevel frontendOptLevel) throws IOException {
+        return load(false, false, frontendOptLevel);
+    }
+
+    private static Corpus load(boolean debug, boolean fastCompile, FrontendOptLevel frontendOptLevel)
+            throws IOException {
+
+        File workDir = Files.createTempDirectory("aura-benchmarks").toFile();
+        ConfigBuilder builder = new ConfigBuilder()
+                .home(new BenchmarkHome(workDir))
+                .debug(debug)
+                .fastCompile(fastCompile)
+                .frontendOptLevel(frontendOptLevel)
+                .os(OS.linux)
+                .arch(Arch.x86_64)
+                .skipRuntimeLib(true)
+                .skipLinking(true)
+                .skipInstall(true)
+                .mainClass("corpus.Main")
+                .cacheDir(new File(workDir, "cache"))
+                .tmpDir(new File(workDir, "tmp"))
+                .logger(Logger.NULL_LOGGER);
+        for (String path : getProperty(BOOTCLASSPATH_PROPERTY).split(File.pathSeparator)) {
+            builder.addBootClasspathEntry(new File(path));
+        }
+        builder.addClasspathEntry(new File(getProperty(CORPUS_DIR_PROPERTY)));
+        return new Corpus(workDir, builder.build());
+    }
+
+    private static String getProperty(String name) {
+        String value = System.getProperty(name);
+        if (value == null) {
+            throw new IllegalStateException("System property " + name 
+                    + " not set. Run the benchmarks using the jmh task.");
+        }
+        return value;
+    }
+
+    Config getConfig() {
+        return config;
+    }
+
+    /**
+     * Returns the corpus classes. The runtime library classes on the
+     * bootclasspath are not included.
+     */
+    List<Clazz> getClazzes() {
+        return clazzes;
+    }
+
+    /**
+     * Generates the IR for all corpus classes so that they have up to date
+     * {@link ClazzInfo}s. Returns the total size of the IR in bytes.
+     */
+    long generateIR() throws IOException {
+        ClassCompiler classCompiler = new ClassCompiler(config);
+        long size = 0;
+        for (Clazz clazz : clazzes) {
+            size += classCompiler.generateIR(clazz).length;
+        }
+        return size;
+    }
+
+    /**
+     * Drops all Soot state so that the next benchmark invocation starts from
+     * freshly parsed class files and loads the corpus classes again.
+     */
+    void reloadSootClasses() {
+        config.getClazzes().refresh(0);
+        for (Clazz clazz : clazzes) {
+            clazz.getSootClass();
+        }
+    }
+
+    void dispose() throws IOException {
+        FileUtils.deleteDirectory(workDir);
+    }
+
+    private static class BenchmarkHome extends Config.Home {
+        BenchmarkHome(File dir) {
+            super(dir, false);
+        }
+    }
+}
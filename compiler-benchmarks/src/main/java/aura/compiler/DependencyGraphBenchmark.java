@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.tuple.Triple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import aura.compiler.clazz.Clazz;
+import aura.compiler.config.Config.TreeShakerMode;
+
+/**
+ * Benchmarks building the {@link DependencyGraph} of the corpus and finding
+ * the reachable methods in it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DependencyGraphBenchmark {
+
+    @Param({"conservative", "aggressive"})
+    TreeShakerMode treeShakerMode;
+
+    Corpus corpus;
+
+    @Setup
+    public void setup() throws IOException {
+        corpus = Corpus.load();
+        corpus.generateIR();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        corpus.dispose();
+    }
+
+    @Benchmark
+    public Set<Triple<String, String, String>> findReachableMethods() {
+        DependencyGraph graph = new DependencyGraph(treeShakerMode);
+        for (Clazz clazz : corpus.getClazzes()) {
+            graph.add(clazz, clazz.getClassName().equals(corpus.getConfig().getMainClass()));
+        }
+        return graph.findReachableMethods();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import aura.compiler.clazz.Clazz;
+import aura.compiler.hash.HashTableGenerator;
+import aura.compiler.hash.ModifiedUtf8HashFunction;
+import aura.compiler.llvm.IntegerConstant;
+import aura.compiler.llvm.StructureConstant;
+
+/**
+ * Benchmarks generating the perfect hash tables the {@link Linker} emits for
+ * looking up classes by name. The keys are the names of the runtime library
+ * and corpus classes, made unique with a suffix when more keys than classes
+ * are needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HashTableGeneratorBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int size;
+
+    List<String> keys;
+
+    @Setup
+    public void setup() throws IOException {
+        Corpus corpus = Corpus.load();
+        try {
+            List<Clazz> clazzes = corpus.getConfig().getClazzes().listClasses();
+            keys = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                String name = clazzes.get(i % clazzes.size()).getInternalName();
+                keys.add(i < clazzes.size() ? name : name + "$" + i);
+            }
+        } finally {
+            corpus.dispose();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        keys = null;
+    }
+
+    @Benchmark
+    public StructureConstant generate() {
+        HashTableGenerator<String, IntegerConstant> generator = 
+                new HashTableGenerator<>(new ModifiedUtf8HashFunction());
+        for (int i = 0; i < keys.size(); i++) {
+            generator.put(keys.get(i), new IntegerConstant(i));
+        }
+        return generator.generate();
+    }
+}
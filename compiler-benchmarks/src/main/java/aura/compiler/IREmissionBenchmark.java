@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import aura.compiler.config.Config.FrontendOptLevel;
+
+/**
+ * Benchmarks the front-end of {@link ClassCompiler}: building and optimizing
+ * the Jimple bodies of the corpus classes and emitting their LLVM IR. Soot
+ * only builds a body once so the corpus classes are reloaded before each
+ * invocation. Reloading isn't part of the measurement. Each
+ * {@link FrontendOptLevel} is measured. The benchmark returns the total size
+ * of the IR which shows how much the optimizations shrink it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IREmissionBenchmark {
+
+    @Param({"none", "gvn", "full"})
+    String frontendOptLevel;
+
+    Corpus corpus;
+
+    @Setup
+    public void setup() throws IOException {
+        corpus = Corpus.load(FrontendOptLevel.valueOf(frontendOptLevel));
+    }
+
+    @Setup(Level.Invocation)
+    public void reload() {
+        corpus.reloadSootClasses();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        corpus.dispose();
+    }
+
+    @Benchmark
+    public long generateIR() throws IOException {
+        return corpus.generateIR();
+    }
+}
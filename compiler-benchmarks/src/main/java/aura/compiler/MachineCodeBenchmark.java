@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import aura.compiler.clazz.Clazz;
+
+/**
+ * Benchmarks the back-end of {@link ClassCompiler} for debug builds: turning
+ * the LLVM IR of the corpus classes into object files. <code>debug</code>
+ * goes through assembly and patches the method sizes into it while
+ * <code>fastcompile</code> emits the object files directly and patches
+ * them. The object file cache is cleared before each invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MachineCodeBenchmark {
+
+    @Param({"debug", "fastcompile"})
+    String mode;
+
+    Corpus corpus;
+    Map<Clazz, byte[]> irs;
+
+    @Setup
+    public void setup() throws IOException {
+        corpus = Corpus.load(true, "fastcompile".equals(mode));
+        ClassCompiler classCompiler = new ClassCompiler(corpus.getConfig());
+        irs = new LinkedHashMap<>();
+        for (Clazz clazz : corpus.getClazzes()) {
+            irs.put(clazz, classCompiler.generateIR(clazz));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clearObjectCache() {
+        for (Clazz clazz : irs.keySet()) {
+            corpus.getConfig().getOHashFile(clazz).delete();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        corpus.dispose();
+    }
+
+    @Benchmark
+    public long generateMachineCode() throws IOException {
+        long size = 0;
+        for (Entry<Clazz, byte[]> entry : irs.entrySet()) {
+            Clazz clazz = entry.getKey();
+            ClassCompiler.generateMachineCode(corpus.getConfig(), clazz, entry.getValue(),
+                    Collections.<String>emptyList());
+            size += corpus.getConfig().getOFile(clazz).length();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import aura.compiler.clazz.Clazz;
+import soot.SootClass;
+
+/**
+ * Benchmarks building the {@link VTable}s and {@link ITable}s of the corpus
+ * classes from scratch. This includes the tables of all their superclasses
+ * and superinterfaces in the runtime library.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VTableBenchmark {
+
+    Corpus corpus;
+    List<SootClass> classes = new ArrayList<>();
+    List<SootClass> interfaces = new ArrayList<>();
+
+    @Setup
+    public void setup() throws IOException {
+        corpus = Corpus.load();
+        for (Clazz clazz : corpus.getClazzes()) {
+            SootClass sootClass = clazz.getSootClass();
+            if (sootClass.isInterface()) {
+                interfaces.add(sootClass);
+            } else {
+                classes.add(sootClass);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        corpus.dispose();
+    }
+
+    @Benchmark
+    public VTable.Cache buildVTables() {
+        VTable.Cache cache = new VTable.Cache();
+        for (SootClass sootClass : classes) {
+            cache.get(sootClass);
+        }
+        return cache;
+    }
+
+    @Benchmark
+    public ITable.Cache buildITables() {
+        ITable.Cache cache = new ITable.Cache();
+        for (SootClass sootClass : interfaces) {
+            cache.get(sootClass);
+        }
+        return cache;
+    }
+}
@@ -39,6 +39,7 @@ public class Annotations {
     public static final String CALLBACK = "Laura/rt/bro/annotation/Callback;";
     public static final String STRUCT_MEMBER = "Laura/rt/bro/annotation/StructMember;";
     public static final String GLOBAL_VALUE = "Laura/rt/bro/annotation/GlobalValue;";
+    public static final String LIBRARY = "Laura/rt/bro/annotation/Library;";
     public static final String ARRAY = "Laura/rt/bro/annotation/Array;";
     public static final String BASE_TYPE = "Laura/rt/bro/annotation/BaseType;";
     public static final String STRUCT_RET = "Laura/rt/bro/annotation/StructRet;";
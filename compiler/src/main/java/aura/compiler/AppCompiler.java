@@ -24,6 +24,8 @@ import aura.compiler.plugin.LaunchPlugin;
 import aura.compiler.plugin.PluginArgument;
 import aura.compiler.target.LaunchParameters;
 import aura.compiler.util.AntPathMatcher;
+import aura.compiler.util.PeakHeap;
+import aura.compiler.util.Tracer;
 import org.apache.commons.cli.ParseException;
 import org.apache.commons.exec.ExecuteException;
 import org.apache.commons.io.FileUtils;
@@ -57,6 +59,12 @@ public class AppCompiler {
         }
     };
 
+    /**
+     * The number of milliseconds between polls for changed class files in
+     * -watch mode.
+     */
+    private static final long WATCH_INTERVAL = 500;
+
     private final Config config;
     private final ClassCompiler classCompiler;
     private final Linker linker;
@@ -155,8 +163,15 @@ public class AppCompiler {
             Clazz clazz, Set<Clazz> compileQueue, Set<Clazz> compiled) throws IOException {
 
         boolean result = false;
+        if (config.isFastCompile() && !config.isClean()) {
+            classCompiler.reuseReleaseObject(clazz);
+        }
         if (config.isClean() || classCompiler.mustCompile(clazz)) {
+            long start = System.nanoTime();
             classCompiler.compile(clazz, executor, listener);
+            if (executor instanceof BuildScheduler) {
+                ((BuildScheduler) executor).recordFrontendTime(System.nanoTime() - start);
+            }
             result = true;
         }
         return result;
@@ -196,15 +211,11 @@ public class AppCompiler {
 
         config.getLogger().info("Compiling classes using %d threads", config.getThreads());
 
+        // Soot isn't thread safe so classes are compiled on this thread while
+        // the scheduler generates machine code for previously compiled ones.
         final Executor executor = (config.getThreads() <= 1)
                 ? SAME_THREAD_EXECUTOR
-                : new ThreadPoolExecutor(config.getThreads() - 1, config.getThreads() - 1,
-                        0L, TimeUnit.MILLISECONDS,
-                        // Use a bounded queue to avoid memory problems if the
-                        // worker threads are slower than the enqueuing thread.
-                        // The optimal thread pool size and queue size have been
-                        // determined by trial and error.
-                        new ArrayBlockingQueue<Runnable>((config.getThreads() - 1) * 20));
+                : new BuildScheduler(config, config.getThreads() - 1, BuildScheduler.getDefaultHeapBudget());
         class HandleFailureListener implements ClassCompilerListener {
             volatile Throwable t;
 
@@ -231,7 +242,12 @@ public class AppCompiler {
 
         DependencyGraph dependencyGraph = config.getDependencyGraph();
 
-        TreeSet<Clazz> compileQueue = new TreeSet<>(rootClasses);
+        // Compile the classes which took longest the last time first to keep
+        // the workers busy until the end.
+        TreeSet<Clazz> compileQueue = executor instanceof BuildScheduler
+                ? new TreeSet<>(((BuildScheduler) executor).comparator())
+                : new TreeSet<Clazz>();
+        compileQueue.addAll(rootClasses);
         long start = System.currentTimeMillis();
         Set<Clazz> linkClasses = new HashSet<Clazz>();
         int compiledCount = 0;
@@ -275,6 +291,9 @@ public class AppCompiler {
             } catch (InterruptedException e) {
             }
         }
+        if (executor instanceof BuildScheduler) {
+            ((BuildScheduler) executor).finish();
+        }
 
         if (listenerWrapper.t != null) {
             // The compilation failed. Rethrow the exception in the callback.
@@ -297,7 +316,25 @@ public class AppCompiler {
     }
 
     private void compile() throws IOException {
-        Set<Clazz> linkClasses = compile(getRootClasses(), true, null);
+        try {
+            doCompile();
+        } finally {
+            if (config.getTracer().isEnabled()) {
+                config.getTracer().write();
+                config.getLogger().info("Wrote build trace to %s", config.getTraceFile());
+            }
+        }
+    }
+
+    @SuppressWarnings("try")
+    private void doCompile() throws IOException {
+        Tracer tracer = config.getTracer();
+        PeakHeap.reset();
+        Set<Clazz> linkClasses;
+        try (Tracer.Span span = tracer.span("build", "Compile classes", null)) {
+            linkClasses = compile(getRootClasses(), true, null);
+        }
+        config.getLogger().info("Peak heap usage while compiling: %d MB", PeakHeap.get() >> 20);
 
         if (Thread.currentThread().isInterrupted()) {
             return;
@@ -305,14 +342,22 @@ public class AppCompiler {
 
         if (linkClasses.contains(config.getClazzes().load(TRUSTED_CERTIFICATE_STORE_CLASS))) {
             if (config.getCacerts() != null) {
-                config.addResourcesPath(config.getClazzes().createResourcesBootclasspathPath(
-                        config.getHome().getCacertsPath(config.getCacerts())));
+                Path cacertsPath = config.getClazzes().createResourcesBootclasspathPath(
+                        config.getHome().getCacertsPath(config.getCacerts()));
+                // Already added if this Config has been built before.
+                if (!config.getResourcesPaths().contains(cacertsPath)) {
+                    config.addResourcesPath(cacertsPath);
+                }
             }
         }
 
+        PeakHeap.reset();
         long start = System.currentTimeMillis();
-        linker.link(linkClasses);
+        try (Tracer.Span span = tracer.span("build", "Link", null)) {
+            linker.link(linkClasses);
+        }
         long duration = System.currentTimeMillis() - start;
+        config.getLogger().info("Peak heap usage while linking: %d MB", PeakHeap.get() >> 20);
         if (config.isBuildAsLib()) {
             System.out.println("\nBuild Args: " + config.getTarget().getBuildCommand());
         } else {
@@ -350,7 +395,11 @@ public class AppCompiler {
         boolean run = false;
 
         try {
-            if (configBuilder.getConfig().isArchive()) {
+            if (argParser.getDaemonPort() != -1) {
+                new CompilerDaemon(compiler.config).serve(argParser.getDaemonPort());
+            } else if (argParser.isWatch()) {
+                new CompilerDaemon(compiler.config).watch(WATCH_INTERVAL);
+            } else if (configBuilder.getConfig().isArchive()) {
                 compiler.build();
                 compiler.archive();
             } else {
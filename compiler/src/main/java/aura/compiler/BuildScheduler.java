@@ -0,0 +1,397 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler;
+
+import aura.compiler.clazz.Clazz;
+import aura.compiler.config.Config;
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the machine code generation of compiled classes on a number of worker
+ * threads while the compiling thread keeps running Soot on the next class.
+ * <p>
+ * The time it took to generate machine code for each class is saved in the
+ * cache and used by the next build to order the classes largest-first, both
+ * in the compile queue (see {@link #comparator()}) and among the pending
+ * tasks. The heap used by pending and running tasks is estimated from the
+ * size of their LLVM IR. When the estimate exceeds the heap budget the
+ * compiling thread stops producing more IR and runs pending tasks itself, or
+ * waits for running ones to finish if there are none.
+ * </p>
+ */
+public class BuildScheduler extends AbstractExecutorService {
+    /**
+     * Estimated number of bytes of heap needed per byte of LLVM IR while
+     * generating machine code. The IR, the assembly and the object file are
+     * all held in memory.
+     */
+    static final int HEAP_BYTES_PER_IR_BYTE = 4;
+    /**
+     * Estimated number of nanoseconds needed to generate machine code per
+     * byte of LLVM IR for classes which weren't compiled by the previous
+     * build.
+     */
+    static final long DEFAULT_NANOS_PER_IR_BYTE = 1000;
+
+    private static final String COSTS_FILE = "build-costs.properties";
+
+    private final Config config;
+    private final long heapBudget;
+    private final Map<String, Long> previousCosts;
+    private final Map<String, Long> costs = new HashMap<>();
+    private final PriorityQueue<Task> queue = new PriorityQueue<>();
+    private final List<Worker> workers = new ArrayList<>();
+    private final long startTime = System.nanoTime();
+
+    private boolean shutdown = false;
+    private long heapInUse = 0;
+    private long peakHeapInUse = 0;
+    private long sequence = 0;
+    private long frontendNanos = 0;
+    private long stealNanos = 0;
+    private long waitNanos = 0;
+    private int tasks = 0;
+    private int stolenTasks = 0;
+
+    public BuildScheduler(Config config, int workerCount, long heapBudget) {
+        this.config = config;
+        this.heapBudget = heapBudget;
+        this.previousCosts = loadCosts(new File(config.getCacheDir(), COSTS_FILE));
+        for (int i = 0; i < workerCount; i++) {
+            Worker worker = new Worker(i);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Returns half of the heap which is currently available.
+     */
+    public static long getDefaultHeapBudget() {
+        Runtime rt = Runtime.getRuntime();
+        long available = rt.maxMemory() - (rt.totalMemory() - rt.freeMemory());
+        return Math.max(available / 2, 64L * 1024 * 1024);
+    }
+
+    /**
+     * Returns a {@link Comparator} which orders {@link Clazz}es by the time it
+     * took to generate their machine code in the previous build, most
+     * expensive first, and then by name.
+     */
+    public Comparator<Clazz> comparator() {
+        return new Comparator<Clazz>() {
+            @Override
+            public int compare(Clazz o1, Clazz o2) {
+                int c = Long.compare(getPreviousCost(o2), getPreviousCost(o1));
+                return c != 0 ? c : o1.compareTo(o2);
+            }
+        };
+    }
+
+    private long getPreviousCost(Clazz clazz) {
+        Long cost = previousCosts.get(clazz.getClassName());
+        return cost != null ? cost : 0;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        execute(null, 0, command);
+    }
+
+    /**
+     * Schedules the machine code generation of the specified class.
+     * <code>irSize</code> is the size of its LLVM IR. May block or run
+     * pending tasks in the calling thread if the heap budget is exhausted.
+     */
+    public void execute(String className, int irSize, Runnable command) {
+        long estimate = 0;
+        if (className != null) {
+            Long previous = previousCosts.get(className);
+            estimate = previous != null ? previous : irSize * DEFAULT_NANOS_PER_IR_BYTE;
+        }
+        Task task = new Task(className, (long) irSize * HEAP_BYTES_PER_IR_BYTE, estimate, command);
+        synchronized (this) {
+            if (shutdown) {
+                throw new RejectedExecutionException();
+            }
+            task.sequence = sequence++;
+            queue.add(task);
+            heapInUse += task.heap;
+            peakHeapInUse = Math.max(peakHeapInUse, heapInUse);
+            tasks++;
+            notifyAll();
+        }
+
+        for (;;) {
+            Task stolen;
+            synchronized (this) {
+                if (heapInUse <= heapBudget || shutdown) {
+                    return;
+                }
+                stolen = queue.poll();
+                if (stolen == null) {
+                    long start = System.nanoTime();
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } finally {
+                        waitNanos += System.nanoTime() - start;
+                    }
+                    continue;
+                }
+                stolenTasks++;
+            }
+            long start = System.nanoTime();
+            stolen.run();
+            synchronized (this) {
+                stealNanos += System.nanoTime() - start;
+            }
+        }
+    }
+
+    /**
+     * Records time spent by the compiling thread on a class, including any
+     * time spent in {@link #execute(String, int, Runnable)}.
+     */
+    public synchronized void recordFrontendTime(long nanos) {
+        frontendNanos += nanos;
+    }
+
+    private synchronized Task take() throws InterruptedException {
+        while (queue.isEmpty()) {
+            if (shutdown) {
+                return null;
+            }
+            wait();
+        }
+        return queue.poll();
+    }
+
+    private synchronized void done(Task task, long nanos) {
+        heapInUse -= task.heap;
+        if (task.className != null) {
+            costs.put(task.className, nanos);
+        }
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        shutdown = true;
+        notifyAll();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> pending = new ArrayList<>();
+        synchronized (this) {
+            shutdown = true;
+            for (Task task : queue) {
+                pending.add(task.command);
+                heapInUse -= task.heap;
+            }
+            queue.clear();
+            notifyAll();
+        }
+        for (Worker worker : workers) {
+            worker.interrupt();
+        }
+        return pending;
+    }
+
+    @Override
+    public synchronized boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        if (!isShutdown()) {
+            return false;
+        }
+        for (Worker worker : workers) {
+            if (worker.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Worker worker : workers) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            TimeUnit.NANOSECONDS.timedJoin(worker, remaining);
+        }
+        return isTerminated();
+    }
+
+    /**
+     * Saves the measured costs for the next build and logs how well the
+     * worker threads and the compiling thread have been utilized. Must be
+     * called after this scheduler has terminated.
+     */
+    public synchronized void finish() {
+        Map<String, Long> merged = new HashMap<>(previousCosts);
+        merged.putAll(costs);
+        saveCosts(new File(config.getCacheDir(), COSTS_FILE), merged);
+
+        if (tasks == 0) {
+            return;
+        }
+        long wall = System.nanoTime() - startTime;
+        long busy = 0;
+        for (Worker worker : workers) {
+            busy += worker.busyNanos;
+            config.getLogger().debug("Worker %d was busy %.0f%% of the time", worker.index,
+                    percent(worker.busyNanos, wall));
+        }
+        config.getLogger().info("Generated machine code for %d classes, %d on the compiling thread."
+                + " Workers were busy %.0f%% of %.2f seconds", tasks, stolenTasks,
+                percent(busy, wall * workers.size()), wall / 1e9);
+        config.getLogger().info("Compiling thread: %.2f seconds compiling, %.2f seconds generating"
+                + " machine code, %.2f seconds waiting for heap. Peak estimated heap use %d of %d MB",
+                (frontendNanos - stealNanos - waitNanos) / 1e9, stealNanos / 1e9, waitNanos / 1e9,
+                peakHeapInUse >> 20, heapBudget >> 20);
+    }
+
+    private static double percent(long part, long whole) {
+        return whole > 0 ? part * 100.0 / whole : 0;
+    }
+
+    static Map<String, Long> loadCosts(File file) {
+        Map<String, Long> result = new HashMap<>();
+        if (!file.exists()) {
+            return result;
+        }
+        Properties props = new Properties();
+        InputStream in = null;
+        try {
+            in = new FileInputStream(file);
+            props.load(in);
+        } catch (IOException e) {
+            return result;
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+        for (String name : props.stringPropertyNames()) {
+            try {
+                result.put(name, Long.parseLong(props.getProperty(name)));
+            } catch (NumberFormatException e) {
+            }
+        }
+        return result;
+    }
+
+    private void saveCosts(File file, Map<String, Long> costs) {
+        Properties props = new Properties();
+        for (Map.Entry<String, Long> entry : costs.entrySet()) {
+            props.setProperty(entry.getKey(), entry.getValue().toString());
+        }
+        OutputStream out = null;
+        try {
+            file.getParentFile().mkdirs();
+            out = new FileOutputStream(file);
+            props.store(out, null);
+        } catch (IOException e) {
+            config.getLogger().warn("Failed to save build costs to %s: %s", file, e.getMessage());
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    private class Task implements Comparable<Task>, Runnable {
+        final String className;
+        final long heap;
+        final long estimate;
+        final Runnable command;
+        long sequence;
+
+        Task(String className, long heap, long estimate, Runnable command) {
+            this.className = className;
+            this.heap = heap;
+            this.estimate = estimate;
+            this.command = command;
+        }
+
+        @Override
+        public int compareTo(Task o) {
+            int c = Long.compare(o.estimate, estimate);
+            return c != 0 ? c : Long.compare(sequence, o.sequence);
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            try {
+                command.run();
+            } finally {
+                done(this, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private class Worker extends Thread {
+        final int index;
+        volatile long busyNanos;
+
+        Worker(int index) {
+            super("BuildScheduler-" + index);
+            this.index = index;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (;;) {
+                    Task task = take();
+                    if (task == null) {
+                        return;
+                    }
+                    long start = System.nanoTime();
+                    task.run();
+                    busyNanos += System.nanoTime() - start;
+                }
+            } catch (InterruptedException e) {
+            }
+        }
+    }
+}
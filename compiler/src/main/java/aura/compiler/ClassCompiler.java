@@ -35,6 +35,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
@@ -43,13 +44,22 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import aura.compiler.clazz.Dependency;
+import aura.compiler.clazz.DirectoryPath;
+import aura.compiler.clazz.InlinedMethodDependency;
 import aura.compiler.config.Arch;
 import aura.compiler.config.Config;
 import aura.compiler.config.OS;
 import aura.compiler.llvm.*;
+import aura.compiler.opt.BoxingEliminator;
+import aura.compiler.opt.LockElider;
+import aura.compiler.opt.RedundancyEliminator;
+import aura.compiler.opt.StaticConstantPropagator;
+import aura.compiler.opt.WriteOnlyFieldEliminator;
 import aura.compiler.plugin.CompilerPlugin;
 import aura.compiler.trampoline.Checkcast;
 import aura.compiler.trampoline.Trampoline;
+import aura.compiler.util.DigestUtil;
+import aura.compiler.util.Tracer;
 import aura.compiler.util.io.HfsCompressor;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -106,6 +116,7 @@ import aura.llvm.binding.Attribute;
 import aura.llvm.binding.CodeGenFileType;
 import aura.llvm.binding.CodeGenOptLevel;
 import aura.llvm.binding.RelocMode;
+import aura.llvm.binding.Visibility;
 
 import soot.BooleanType;
 import soot.ByteType;
@@ -125,6 +136,7 @@ import soot.VoidType;
 import soot.jimple.Jimple;
 import soot.jimple.JimpleBody;
 import soot.jimple.internal.JReturnVoidStmt;
+import soot.tagkit.AnnotationTag;
 import soot.tagkit.ConstantValueTag;
 import soot.tagkit.Tag;
 
@@ -134,6 +146,8 @@ import soot.tagkit.Tag;
  */
 public class ClassCompiler {
     private static final int DUMMY_METHOD_SIZE = 0x01abcdef;
+    private static final int DUMMY_PREFORMED_METHOD_SIZE = 0x01abcdf0;
+    private static final String INTERNAL_LIBRARY = "__internal__"; // Library.INTERNAL
     public static final int CI_PUBLIC = 0x1;
     public static final int CI_FINAL = 0x2;
     public static final int CI_INTERFACE = 0x4;
@@ -190,6 +204,19 @@ public class ClassCompiler {
     public static final int DESC_S = 7;
     public static final int DESC_Z = 8;
     public static final int DESC_V = 9;
+
+    private static final int METHOD_TYPE_BRIDGE = 0x20000000;
+    private static final int METHOD_TYPE_CALLBACK = 0x40000000;
+
+    /**
+     * The runtime <code>Field</code> and <code>Method</code> structs (see 
+     * <code>aura/types.h</code>) emitted preformed next to the info struct.
+     */
+    private static final StructureType FIELD = new StructureType(Type.I8_PTR, 
+            Type.I8_PTR, Type.I8_PTR, Type.I8_PTR, Type.I32, Type.I8_PTR);
+    private static final StructureType METHOD = new StructureType(Type.I8_PTR, 
+            Type.I8_PTR, Type.I8_PTR, Type.I8_PTR, Type.I32, Type.I32, Type.I32, 
+            Type.I8_PTR, Type.I8_PTR, Type.I8_PTR, Type.I8_PTR);
     
     private SootClass sootClass;
     
@@ -208,6 +235,9 @@ public class ClassCompiler {
     private StructureType classType;
     private StructureType instanceType;
     
+    private Global preformedFields;
+    private Global preformedMethods;
+    
     private final Config config;
     private final MethodCompiler javaMethodCompiler;
     private final BroMethodCompiler bridgeMethodCompiler;
@@ -232,6 +262,44 @@ public class ClassCompiler {
         this.trampolineResolver = new TrampolineCompiler(config);
     }
     
+    /**
+     * Copies the cached object file, line numbers object file and
+     * {@link ClazzInfo} of the specified class from the cache of the last
+     * release build into the cache of this fast compile build if they are
+     * newer. Only done for classes in archives, which rarely change during
+     * development. {@link #mustCompile(Clazz)} then checks the copied files
+     * as usual so a stale release object is recompiled.
+     */
+    public void reuseReleaseObject(Clazz clazz) throws IOException {
+        if (!config.isFastCompile() || clazz.getPath() instanceof DirectoryPath) {
+            return;
+        }
+        File oFile = config.getOFile(clazz);
+        File infoFile = config.getInfoFile(clazz);
+        File releaseOFile = config.getReleaseCacheFile(oFile);
+        File releaseInfoFile = config.getReleaseCacheFile(infoFile);
+        if (!releaseOFile.exists() || !releaseInfoFile.exists() 
+                || releaseOFile.lastModified() <= oFile.lastModified()) {
+            return;
+        }
+        File linesOFile = config.getLinesOFile(clazz);
+        File releaseLinesOFile = config.getReleaseCacheFile(linesOFile);
+        // Read the previous ClazzInfo before it's overwritten
+        clazz.getCachedClazzInfo();
+        // Copies preserve the timestamps which mustCompile() relies on
+        FileUtils.copyFile(releaseOFile, oFile);
+        FileUtils.copyFile(releaseInfoFile, infoFile);
+        if (releaseLinesOFile.exists()) {
+            FileUtils.copyFile(releaseLinesOFile, linesOFile);
+        } else {
+            linesOFile.delete();
+        }
+        // The object key is that of the fast compile IR which we don't have
+        config.getOHashFile(clazz).delete();
+        clazz.reloadClazzInfo();
+        config.getLogger().debug("Reusing release object file for %s", clazz);
+    }
+
     public boolean mustCompile(Clazz clazz) {
         File oFile = config.getOFile(clazz);
         if (!oFile.exists() || oFile.lastModified() < clazz.lastModified() || oFile.length() == 0) {
@@ -268,6 +336,10 @@ public class ClassCompiler {
                     // depClazz has been changed since the last time clazz was built 
                     return true;
                 }
+                if (dep instanceof InlinedMethodDependency && !isSummaryUnchanged(depClazz, (InlinedMethodDependency) dep)) {
+                    // The inlined body of a method in depClazz has changed
+                    return true;
+                }
             }
         }
         
@@ -278,16 +350,25 @@ public class ClassCompiler {
         return dependencies.isEmpty();
     }
     
+    private static boolean isSummaryUnchanged(Clazz depClazz, InlinedMethodDependency dep) {
+        ClazzInfo ci = depClazz.getClazzInfo();
+        MethodInfo mi = ci != null ? ci.getMethod(dep.getMethodName(), dep.getMethodDesc()) : null;
+        return Objects.equals(dep.getSummary(), mi != null ? mi.getSummary() : null);
+    }
+    
+    @SuppressWarnings("try")
     public void compile(Clazz clazz, Executor executor, ClassCompilerListener listener) throws IOException {
         reset();        
         
         Arch arch = config.getArch();
         OS os = config.getOs();
 
-        try {
+        try (Tracer.Span span = config.getTracer().span("frontend", "Generate IR", clazz.getClassName())) {
             config.getLogger().info("Compiling %s (%s %s %s)", clazz, os, arch, config.isDebug() ? "debug" : "release");
             output.reset();
             compile(clazz, output);
+            // Everything needed from here on is in the IR and the ClazzInfo.
+            clazz.releaseBodies();
         } catch (Throwable t) {
             if (t instanceof IOException) {
                 throw (IOException) t;
@@ -305,6 +386,21 @@ public class ClassCompiler {
         scheduleMachineCodeGeneration(executor, listener, config, clazz, output.toByteArray(), cCode);
     }
 
+    /**
+     * Returns the key used to decide whether the object file of a class can be
+     * reused. The generated LLVM IR and C code contain everything that
+     * affects the machine code except for the compiler itself.
+     */
+    static String getObjectKey(Config config, byte[] llData, List<String> cCode) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(Version.getVersion()).append('\n');
+        sb.append(config.getArch().getLlvmCpu()).append('\n');
+        for (String s : cCode) {
+            sb.append(s);
+        }
+        return DigestUtil.sha1(sb.toString().getBytes("UTF-8"), llData);
+    }
+
     private static void scheduleMachineCodeGeneration(Executor executor, final ClassCompilerListener listener,
             final Config config, final Clazz clazz, final byte[] llData, final List<String> cCode) {
         
@@ -321,7 +417,11 @@ public class ClassCompiler {
         };
         
         try {
-            executor.execute(task);
+            if (executor instanceof BuildScheduler) {
+                ((BuildScheduler) executor).execute(clazz.getClassName(), llData.length, task);
+            } else {
+                executor.execute(task);
+            }
         } catch (RejectedExecutionException e) {
             if (!(executor instanceof ExecutorService) || !((ExecutorService) executor).isShutdown()) {
                 // The task was rejected, probably because all workers are busy. Run it in this thread instead.
@@ -330,7 +430,44 @@ public class ClassCompiler {
         }
     }
     
-    private static void generateMachineCode(Config config, Clazz clazz, byte[] llData, List<String> cCode) throws IOException {
+    @SuppressWarnings("try")
+    static void generateMachineCode(Config config, Clazz clazz, byte[] llData, List<String> cCode) throws IOException {
+        try (Tracer.Span span = config.getTracer().span("backend", "Generate machine code", clazz.getClassName())) {
+            if (!doGenerateMachineCode(config, clazz, llData, cCode, canEmitObjectFile(config))) {
+                config.getLogger().debug("Failed to patch the method sizes of %s in its object file. "
+                        + "Generating it through assembly instead.", clazz);
+                doGenerateMachineCode(config, clazz, llData, cCode, false);
+            }
+        }
+    }
+
+    /**
+     * Object files can be emitted directly, skipping the assembly round trip
+     * of {@link #patchAsmWithFunctionSizes}, in fast compile builds for ELF
+     * targets. The method sizes are then patched into the object file using
+     * the symbol sizes. Mach-O symbols have no sizes.
+     */
+    private static boolean canEmitObjectFile(Config config) {
+        return config.isFastCompile() && config.getOs().getFamily() != OS.Family.darwin
+                && !config.isDumpIntermediates();
+    }
+
+    @SuppressWarnings("try")
+    private static Module parseIR(Tracer tracer, Context context, byte[] llData, Clazz clazz) {
+        try (Tracer.Span span = tracer.span("backend", "Parse LLVM IR", clazz.getClassName())) {
+            return Module.parseIR(context, llData, clazz.getClassName());
+        }
+    }
+
+    /**
+     * Returns <code>false</code> if <code>emitObjectFile</code> is
+     * <code>true</code> and the method sizes couldn't be patched into the
+     * object file.
+     */
+    @SuppressWarnings("try")
+    private static boolean doGenerateMachineCode(Config config, Clazz clazz, byte[] llData, List<String> cCode,
+            boolean emitObjectFile) throws IOException {
+        Tracer tracer = config.getTracer();
 
         if (config.isDumpIntermediates()) {
             File llFile = config.getLlFile(clazz);
@@ -344,9 +481,35 @@ public class ClassCompiler {
             }
         }
 
+        /*
+         * A class is often recompiled without any of its methods having
+         * changed, e.g. when a class it depends on has changed in a way which
+         * doesn't affect it. Running LLVM is by far the most expensive part of
+         * compiling a class so the object file is reused if the IR is the same
+         * as the last time it was generated.
+         */
         File oFile = config.getOFile(clazz);
+        File oHashFile = config.getOHashFile(clazz);
+        String objectKey = getObjectKey(config, llData, cCode);
+        if (oFile.exists() && oHashFile.exists() 
+                && objectKey.equals(FileUtils.readFileToString(oHashFile, "ASCII"))) {
+            config.getLogger().debug("Reusing object file for %s. Its LLVM IR hasn't changed.", clazz);
+            tracer.instant("backend", "Object file cache hit", clazz.getClassName());
+            // mustCompile() compares the object file's timestamp with those
+            // of the class and its dependencies. Without this the class
+            // would be recompiled on every build from now on.
+            long now = System.currentTimeMillis();
+            oFile.setLastModified(now);
+            File linesOFile = config.getLinesOFile(clazz);
+            if (linesOFile.exists()) {
+                linesOFile.setLastModified(now);
+            }
+            return true;
+        }
+        tracer.instant("backend", "Object file cache miss", clazz.getClassName());
+        oHashFile.delete();
         try (Context context = new Context()) {
-            try (Module module = Module.parseIR(context, llData, clazz.getClassName())) {
+            try (Module module = parseIR(tracer, context, llData, clazz)) {
                 
                 if (!cCode.isEmpty()) {
                     int size = 0;
@@ -374,8 +537,14 @@ public class ClassCompiler {
                         }
                     }
                 }
+
+                // Nothing outside the executable references the code we
+                // generate. Hidden symbols stay out of the dynamic symbol
+                // table and are called directly rather than through the GOT.
+                module.setDefinitionsVisibility(Visibility.HiddenVisibility);
                 
-                try (PassManager passManager = createPassManager(config)) {
+                try (PassManager passManager = createPassManager(config);
+                        Tracer.Span span = tracer.span("backend", "Optimize LLVM IR", clazz.getClassName())) {
                     passManager.run(module);
                 }
 
@@ -396,25 +565,46 @@ public class ClassCompiler {
                     targetMachine.setDataSections(true);
                     targetMachine.getOptions().setNoFramePointerElim(true);
                     targetMachine.getOptions().setPositionIndependentExecutable(!config.isDebug()); // NOTE: Doesn't have any effect on x86. See #503.
+                    if (config.isFastCompile()) {
+                        // FastISel is already the default at CodeGenLevelNone but be explicit
+                        targetMachine.getOptions().setEnableFastISel(true);
+                    }
 
                     ByteArrayOutputStream output = new ByteArrayOutputStream(256 * 1024);
-                    targetMachine.emit(module, output, CodeGenFileType.AssemblyFile);
+                    if (emitObjectFile) {
+                        try (Tracer.Span span = tracer.span("backend", "Codegen", clazz.getClassName())) {
+                            targetMachine.emit(module, output, CodeGenFileType.ObjectFile);
+                        }
+                        oFile.getParentFile().mkdirs();
+                        new HfsCompressor().compress(oFile, output.toByteArray(), config);
+                        try (Tracer.Span span = tracer.span("backend", "Patch method sizes", clazz.getClassName())) {
+                            if (!patchObjectWithFunctionSizes(clazz, oFile)) {
+                                oFile.delete();
+                                return false;
+                            }
+                        }
+                    } else {
+                        try (Tracer.Span span = tracer.span("backend", "Codegen", clazz.getClassName())) {
+                            targetMachine.emit(module, output, CodeGenFileType.AssemblyFile);
+                        }
+                        try (Tracer.Span span = tracer.span("backend", "Assemble", clazz.getClassName())) {
+                            byte[] asm = output.toByteArray();
+                            output.reset();
+                            patchAsmWithFunctionSizes(config, clazz, new ByteArrayInputStream(asm), output);
+                            asm = output.toByteArray();
 
-                    byte[] asm = output.toByteArray();
-                    output.reset();
-                    patchAsmWithFunctionSizes(config, clazz, new ByteArrayInputStream(asm), output);
-                    asm = output.toByteArray();
+                            if (config.isDumpIntermediates()) {
+                                File sFile = config.getSFile(clazz);
+                                sFile.getParentFile().mkdirs();
+                                FileUtils.writeByteArrayToFile(sFile, asm);
+                            }
 
-                    if (config.isDumpIntermediates()) {
-                        File sFile = config.getSFile(clazz);
-                        sFile.getParentFile().mkdirs();
-                        FileUtils.writeByteArrayToFile(sFile, asm);
+                            oFile.getParentFile().mkdirs();
+                            ByteArrayOutputStream oFileBytes = new ByteArrayOutputStream();
+                            targetMachine.assemble(asm, clazz.getClassName(), oFileBytes);                                                                                               
+                            new HfsCompressor().compress(oFile, oFileBytes.toByteArray(), config);
+                        }
                     }
-
-                    oFile.getParentFile().mkdirs();
-                    ByteArrayOutputStream oFileBytes = new ByteArrayOutputStream();
-                    targetMachine.assemble(asm, clazz.getClassName(), oFileBytes);                                                                                               
-                    new HfsCompressor().compress(oFile, oFileBytes.toByteArray(), config);
                     
                     for (CompilerPlugin plugin : config.getCompilerPlugins()) {
                         plugin.afterObjectFile(config, clazz, oFile);
@@ -537,6 +727,8 @@ public class ClassCompiler {
                     }
                 }
             }
+            FileUtils.writeStringToFile(oHashFile, objectKey, "ASCII");
+            return true;
         } catch (Throwable t) {
             if (oFile.exists()) {
                 oFile.delete();
@@ -598,6 +790,10 @@ public class ClassCompiler {
             String currentFunction = null;
             while ((line = in.readLine()) != null) {
                 if (currentFunction == null) {
+                    if (line.contains(String.valueOf(DUMMY_PREFORMED_METHOD_SIZE))) {
+                        patchPreformedMethodSize(in, out, methodImplPattern, functionNames, localLabelPrefix);
+                        continue;
+                    }
                     out.write(line);
                     out.write('\n');
                     int colon = line.indexOf(':');
@@ -627,6 +823,10 @@ public class ClassCompiler {
             }
             
             while ((line = in.readLine()) != null) {
+                if (line.contains(String.valueOf(DUMMY_PREFORMED_METHOD_SIZE))) {
+                    patchPreformedMethodSize(in, out, methodImplPattern, functionNames, localLabelPrefix);
+                    continue;
+                }
                 out.write(line);
                 out.write('\n');
                 Matcher matcher = methodImplPattern.matcher(line);
@@ -651,6 +851,106 @@ public class ClassCompiler {
         }
     }
     
+    /**
+     * Replaces the {@link #DUMMY_METHOD_SIZE} and
+     * {@link #DUMMY_PREFORMED_METHOD_SIZE} placeholders in an object file
+     * emitted directly by LLVM with the sizes of the method functions. Each
+     * non-abstract method has one placeholder of each kind, in the info
+     * struct and the preformed method list respectively, and they occur in
+     * the order of the methods of the class. If any placeholder count doesn't
+     * match or a size is missing nothing is patched and <code>false</code> is
+     * returned.
+     */
+    private static boolean patchObjectWithFunctionSizes(Clazz clazz, File oFile) throws IOException {
+        Map<String, Long> symbolSizes = new HashMap<>();
+        try (ObjectFile objectFile = ObjectFile.load(oFile)) {
+            for (Symbol symbol : objectFile.getSymbols()) {
+                symbolSizes.put(symbol.getName(), symbol.getSize());
+            }
+        }
+        List<Long> sizes = new ArrayList<>();
+        for (SootMethod method : clazz.getSootClass().getMethods()) {
+            if (!method.isAbstract()) {
+                Long size = symbolSizes.get(Symbols.methodSymbol(method));
+                if (size == null || size <= 0) {
+                    return false;
+                }
+                sizes.add(size);
+            }
+        }
+        byte[] data = FileUtils.readFileToByteArray(oFile);
+        if (!replaceInts(data, DUMMY_METHOD_SIZE, sizes) 
+                || !replaceInts(data, DUMMY_PREFORMED_METHOD_SIZE, sizes)) {
+            return false;
+        }
+        FileUtils.writeByteArrayToFile(oFile, data);
+        return true;
+    }
+
+    /**
+     * Replaces the occurrences of the little endian 32-bit
+     * <code>placeholder</code> in <code>data</code> with the values in order.
+     * Returns <code>false</code> and leaves <code>data</code> untouched if the
+     * number of occurrences differs from the number of values.
+     */
+    static boolean replaceInts(byte[] data, int placeholder, List<Long> values) {
+        List<Integer> offsets = new ArrayList<>();
+        for (int i = 0; i + 4 <= data.length; i++) {
+            if ((data[i] & 0xff) == (placeholder & 0xff)
+                    && (data[i + 1] & 0xff) == ((placeholder >>> 8) & 0xff)
+                    && (data[i + 2] & 0xff) == ((placeholder >>> 16) & 0xff)
+                    && (data[i + 3] & 0xff) == (placeholder >>> 24)) {
+                offsets.add(i);
+                if (offsets.size() > values.size()) {
+                    return false;
+                }
+            }
+        }
+        if (offsets.size() != values.size()) {
+            return false;
+        }
+        for (int i = 0; i < offsets.size(); i++) {
+            int offset = offsets.get(i);
+            long value = values.get(i);
+            data[offset] = (byte) value;
+            data[offset + 1] = (byte) (value >>> 8);
+            data[offset + 2] = (byte) (value >>> 16);
+            data[offset + 3] = (byte) (value >>> 24);
+        }
+        return true;
+    }
+
+    /**
+     * In a preformed <code>Method</code> the size precedes the 
+     * <code>impl</code> pointer. Looks ahead for the <code>impl</code> 
+     * function and writes its size in place of the dummy size line which has 
+     * just been read.
+     */
+    private static void patchPreformedMethodSize(BufferedReader in, BufferedWriter out, 
+            Pattern methodImplPattern, Set<String> functionNames, String localLabelPrefix) throws IOException {
+        
+        List<String> lines = new ArrayList<>();
+        String functionName = null;
+        String line = null;
+        while (functionName == null && (line = in.readLine()) != null) {
+            lines.add(line);
+            Matcher matcher = methodImplPattern.matcher(line);
+            if (matcher.matches() && functionNames.contains(matcher.group(1))) {
+                functionName = matcher.group(1);
+            }
+        }
+        if (functionName == null) {
+            throw new CompilerException("Failed to find the function of a preformed Method");
+        }
+        out.write("\t.long\t");
+        out.write("\"" + localLabelPrefix + functionName + "_end\" - \"" + functionName + "\"");
+        out.write('\n');
+        for (String l : lines) {
+            out.write(l);
+            out.write('\n');
+        }
+    }
+    
     private void reset() {
         output.reset();
         sootClass = null;
@@ -661,8 +961,22 @@ public class ClassCompiler {
         instanceFields = null;
         classType = null;
         instanceType = null;
+        preformedFields = null;
+        preformedMethods = null;
     }
     
+    /**
+     * Generates the LLVM IR for the specified class and resets its
+     * {@link ClazzInfo} without scheduling any machine code generation. Used
+     * by the compiler benchmarks to measure the front-end on its own.
+     */
+    byte[] generateIR(Clazz clazz) throws IOException {
+        reset();
+        compile(clazz, output);
+        return output.toByteArray();
+    }
+
+    @SuppressWarnings("try")
     private void compile(Clazz clazz, OutputStream out) throws IOException {
         javaMethodCompiler.reset(clazz);
         bridgeMethodCompiler.reset(clazz);
@@ -679,11 +993,17 @@ public class ClassCompiler {
             compilerPlugin.beforeClass(config, clazz, mb);
         }
         
-        sootClass = clazz.getSootClass();
+        try (Tracer.Span span = config.getTracer().span("soot", "Load class", clazz.getClassName())) {
+            sootClass = clazz.getSootClass();
+        }
         trampolines = new HashMap<>();
         catches = new HashSet<String>();
         classFields = Types.getClassFields(config.getOs(), config.getArch(), sootClass);
         instanceFields = Types.getInstanceFields(config.getOs(), config.getArch(), sootClass);
+        if (!WriteOnlyFieldEliminator.getRemovedFields(sootClass).isEmpty()) {
+            config.getLogger().debug("Removed write-only fields %s from %s", 
+                    WriteOnlyFieldEliminator.getRemovedFields(sootClass), clazz);
+        }
         classType = Types.getClassType(config.getOs(), config.getArch(), sootClass);
         instanceType = Types.getInstanceType(config.getOs(), config.getArch(), sootClass);
         
@@ -778,6 +1098,45 @@ public class ClassCompiler {
             }
         }
         
+        StaticConstantPropagator staticConstantPropagator = javaMethodCompiler.getStaticConstantPropagator();
+        if (!staticConstantPropagator.getFieldsPropagated().isEmpty()) {
+            config.getLogger().debug("Propagated effectively final static fields %s into %d reads, "
+                    + "folded %d branches and removed %d unreachable statements in %s", 
+                    staticConstantPropagator.getFieldsPropagated(), staticConstantPropagator.getReadsReplaced(), 
+                    staticConstantPropagator.getBranchesFolded(), staticConstantPropagator.getUnitsRemoved(), clazz);
+        }
+        BoxingEliminator boxingEliminator = javaMethodCompiler.getBoxingEliminator();
+        if (boxingEliminator.getBoxesEliminated() > 0 || boxingEliminator.getUnboxesEliminated() > 0 
+                || boxingEliminator.getConstantsFolded() > 0) {
+            config.getLogger().debug("Eliminated %d boxing and %d unboxing calls and folded %d constant boxes in %s", 
+                    boxingEliminator.getBoxesEliminated(), boxingEliminator.getUnboxesEliminated(), 
+                    boxingEliminator.getConstantsFolded(), clazz);
+        }
+        if (javaMethodCompiler.getStringConcatFuser().getChainsFused() > 0) {
+            config.getLogger().debug("Fused %d string concatenations in %s", 
+                    javaMethodCompiler.getStringConcatFuser().getChainsFused(), clazz);
+        }
+        if (javaMethodCompiler.getCastEliminator().getCastsEliminated() > 0) {
+            config.getLogger().debug("Eliminated %d redundant casts in %s", 
+                    javaMethodCompiler.getCastEliminator().getCastsEliminated(), clazz);
+        }
+        LockElider lockElider = javaMethodCompiler.getLockElider();
+        if (lockElider.getMonitorsRemoved() > 0 || lockElider.getCallsUnsynchronized() > 0) {
+            config.getLogger().debug("Removed %d monitor operations and %d synchronized calls on unshared objects in %s", 
+                    lockElider.getMonitorsRemoved(), lockElider.getCallsUnsynchronized(), clazz);
+        }
+        RedundancyEliminator redundancyEliminator = javaMethodCompiler.getRedundancyEliminator();
+        if (redundancyEliminator.getExpressionsReused() > 0 || redundancyEliminator.getChecksEliminated() > 0
+                || redundancyEliminator.getLoadsForwarded() > 0) {
+            config.getLogger().debug("Reused %d computed expressions, eliminated %d redundant type checks "
+                    + "and forwarded %d loads in %s", redundancyEliminator.getExpressionsReused(), 
+                    redundancyEliminator.getChecksEliminated(), redundancyEliminator.getLoadsForwarded(), clazz);
+        }
+        if (javaMethodCompiler.getCallsInlined() > 0) {
+            config.getLogger().debug("Inlined %d calls to trivial methods in other classes in %s", 
+                    javaMethodCompiler.getCallsInlined(), clazz);
+        }
+        
         for (Trampoline trampoline : trampolines.keySet()) {
             Set<String> deps = new HashSet<String>();
             Set<Triple<String, String, String>> mDeps = new HashSet<>();
@@ -858,6 +1217,14 @@ public class ClassCompiler {
             classInfoStruct = new Global(Symbols.infoStructSymbol(clazz.getInternalName()), Type.I8_PTR, true);
         }
         mb.addGlobal(classInfoStruct);
+        // Must come after the info struct. patchAsmWithFunctionSizes() fills
+        // in the sizes of the preformed Methods.
+        if (preformedFields != null) {
+            mb.addGlobal(preformedFields);
+        }
+        if (preformedMethods != null) {
+            mb.addGlobal(preformedMethods);
+        }
         /*
          * Emit an internal i8* alias for the info struct which MethodCompiler
          * can use when referencing this info struct in exception landing pads
@@ -911,9 +1278,48 @@ public class ClassCompiler {
                 ci.addInvoke(t.getTarget() + "." + ((Invoke) t).getMethodName() + ((Invoke) t).getMethodDesc());
             }
         }
+        for (String symbol : getInternalLibrarySymbols(sootClass)) {
+            ci.addExportedSymbol(symbol);
+        }
         clazz.saveClazzInfo();
     }
 
+    /**
+     * Returns the symbols which the <code>@Bridge</code> and
+     * <code>@GlobalValue</code> methods of a class annotated with <code>@Library(Library.INTERNAL)</code>
+     * are bound to. The runtime resolves these using <code>dlsym()</code> on
+     * the executable itself so they have to be exported. The symbols of
+     * optional methods are returned as <code>symbol*</code> patterns. Both ld
+     * and ld64 accept patterns which match nothing while ld64 fails on plain
+     * symbols which aren't defined.
+     */
+    static List<String> getInternalLibrarySymbols(SootClass sootClass) {
+        AnnotationTag library = Annotations.getAnnotation(sootClass, Annotations.LIBRARY);
+        if (library == null || !INTERNAL_LIBRARY.equals(Annotations.readStringElem(library, "value", null))) {
+            return Collections.emptyList();
+        }
+        List<String> symbols = new ArrayList<>();
+        for (SootMethod m : sootClass.getMethods()) {
+            AnnotationTag annotation = Annotations.getAnnotation(m, Annotations.BRIDGE);
+            if (annotation != null && Annotations.readBooleanElem(annotation, "dynamic", false)) {
+                // Dynamic @Bridge methods are called through a pointer
+                continue;
+            }
+            if (annotation == null) {
+                annotation = Annotations.getAnnotation(m, Annotations.GLOBAL_VALUE);
+            }
+            if (annotation == null) {
+                continue;
+            }
+            String symbol = Annotations.readStringElem(annotation, "symbol", "");
+            if (symbol.isEmpty()) {
+                symbol = m.getName();
+            }
+            symbols.add(Annotations.readBooleanElem(annotation, "optional", false) ? symbol + "*" : symbol);
+        }
+        return symbols;
+    }
+
     private static void addClassDependencyIfNeeded(Clazz clazz, soot.Type type, boolean weak) {
         if (type instanceof RefLikeType) {
             addClassDependencyIfNeeded(clazz, Types.getDescriptor(type), weak);
@@ -1028,6 +1434,40 @@ public class ClassCompiler {
         } else {
             ITable itable = config.getITableCache().get(sootClass);
             ITable.Entry entry = itable.getEntry(m);
+            
+            // Fast path: the IMT slot of the method is owned by this interface.
+            // A class which doesn't implement the interface never has such a
+            // slot.
+            String typeInfoName = Symbols.typeInfoSymbol(Types.getInternalName(sootClass));
+            if (!mb.hasSymbol(typeInfoName)) {
+                mb.addGlobal(new Global(typeInfoName, Linkage.external, Type.I8_PTR, true));
+            }
+            int slot = ITable.getImtSlot(m.getName(), Types.getDescriptor(m));
+            Value classPtr = call(function, Functions.OBJECT_CLASS, function.getParameterRef(1));
+            Value itablesPtr = call(function, Functions.CLASS_ITABLES, classPtr);
+            Value imtPtr = call(function, Functions.ITABLES_IMT, itablesPtr);
+            Variable ownerPtr = function.newVariable(Type.I8_PTR_PTR);
+            function.add(new Getelementptr(ownerPtr, imtPtr, slot * 2));
+            Variable owner = function.newVariable(Type.I8_PTR);
+            function.add(new Load(owner, ownerPtr.ref()));
+            Variable owned = function.newVariable(Type.I1);
+            function.add(new Icmp(owned, Icmp.Condition.eq, owner.ref(), 
+                    new ConstantBitcast(new GlobalRef(typeInfoName, Type.I8_PTR), Type.I8_PTR)));
+            Label imtLabel = new Label();
+            Label itablesLabel = new Label();
+            function.add(new Br(owned.ref(), function.newBasicBlockRef(imtLabel), function.newBasicBlockRef(itablesLabel)));
+            function.newBasicBlock(imtLabel);
+            Variable funcPtrPtr = function.newVariable(Type.I8_PTR_PTR);
+            function.add(new Getelementptr(funcPtrPtr, imtPtr, slot * 2 + 1));
+            Variable funcPtr = function.newVariable(Type.I8_PTR);
+            function.add(new Load(funcPtr, funcPtrPtr.ref()));
+            Variable imtF = function.newVariable(function.getType());
+            function.add(new Bitcast(imtF, funcPtr.ref(), imtF.getType()));
+            Value imtResult = Functions.tailcall(function, imtF.ref(), function.getParameterRefs());
+            function.add(new Ret(imtResult));
+            
+            // Slow path: empty, conflicting or foreign IMT slot, search the ITables
+            function.newBasicBlock(itablesLabel);
             List<Value> args = new ArrayList<Value>();
             args.add(function.getParameterRef(0));
             args.add(getInfoStruct(function, sootClass));
@@ -1068,10 +1508,12 @@ public class ClassCompiler {
             HashSet<SootClass> interfaces = new HashSet<SootClass>();
             collectInterfaces(sootClass, interfaces);
             List<Constant> tables = new ArrayList<Constant>();
+            List<ITable> itables = new ArrayList<ITable>();
             int i = 0;
             for (SootClass ifs : interfaces) {
                 ITable itable = config.getITableCache().get(ifs);
                 if (itable.size() > 0) {
+                    itables.add(itable);
                     String name = Symbols.itableSymbol(Types.getInternalName(sootClass), i++);
                     String typeInfoName = Symbols.typeInfoSymbol(Types.getInternalName(ifs));
                     if (!mb.hasSymbol(typeInfoName)) {
@@ -1089,10 +1531,20 @@ public class ClassCompiler {
             if (tables.isEmpty()) {
                 return new NullConstant(Type.I8_PTR);
             } else {
+                // Abstract classes are never the class of an object so they 
+                // don't need an IMT.
+                Constant imt = new NullConstant(Type.I8_PTR);
+                if (!sootClass.isAbstract()) {
+                    Global imtStruct = new Global(Symbols.imtSymbol(Types.getInternalName(sootClass)), Linkage._private,
+                            ITable.getImt(mb, sootClass, itables), true);
+                    mb.addGlobal(imtStruct);
+                    imt = new ConstantBitcast(imtStruct.ref(), Type.I8_PTR);
+                }
                 Global itablesStruct = new Global(Symbols.itablesSymbol(Types.getInternalName(sootClass)), Linkage._private,
                         new StructureConstantBuilder()
                             .add(new IntegerConstant((short) tables.size()))
                             .add(tables.get(0)) // cache value must never be null
+                            .add(imt)
                             .add(new ArrayConstantBuilder(Type.I8_PTR).add(tables).build())
                             .build());
                 mb.addGlobal(itablesStruct);
@@ -1146,7 +1598,9 @@ public class ClassCompiler {
         } else {
             header.add(new NullConstant(Type.I8_PTR));
         }
-        mb.addGlobal(new Global(Symbols.typeInfoSymbol(Types.getInternalName(sootClass)), Linkage.external, Type.I8_PTR, true));
+        if (!mb.hasSymbol(Symbols.typeInfoSymbol(Types.getInternalName(sootClass)))) {
+            mb.addGlobal(new Global(Symbols.typeInfoSymbol(Types.getInternalName(sootClass)), Linkage.external, Type.I8_PTR, true));
+        }
         header.add(new GlobalRef(Symbols.typeInfoSymbol(Types.getInternalName(sootClass)), Type.I8_PTR)); // TypeInfo* generated by Linker
 
         if (!sootClass.isInterface()) {
@@ -1165,6 +1619,10 @@ public class ClassCompiler {
         }
         header.add(new IntegerConstant((short) countReferences(classFields)));
         header.add(new IntegerConstant((short) countReferences(instanceFields)));
+        String fieldsSymbol = Symbols.preformedFieldsSymbol(Types.getInternalName(sootClass));
+        String methodsSymbol = Symbols.preformedMethodsSymbol(Types.getInternalName(sootClass));
+        List<Preformed> fields = new ArrayList<>();
+        List<Preformed> methods = new ArrayList<>();
 
         PackedStructureConstantBuilder body = new PackedStructureConstantBuilder();
         body.add(new IntegerConstant((short) sootClass.getInterfaceCount()));
@@ -1239,16 +1697,25 @@ public class ClassCompiler {
             if (!(t instanceof PrimType)) {
                 body.add(getString(Types.getDescriptor(f)));
             }
+            Constant offset = null;
             if (f.isStatic()) {
                 int index = classFields.indexOf(f);
-                body.add(Types.offsetof(classType, 1, index, 1));
+                offset = Types.offsetof(classType, 1, index, 1);
             } else {
                 int index = instanceFields.indexOf(f);
-                body.add(Types.offsetof(instanceType, 1, 1 + index, 1));
+                offset = Types.offsetof(instanceType, 1, 1 + index, 1);
             }
+            body.add(offset);
+            Constant attributes = new NullConstant(Type.I8_PTR);
             if (attributesEncoder.fieldHasAttributes(f)) {
-                body.add(new ConstantBitcast(attributesEncoder.getFieldAttributes(f).ref(), Type.I8_PTR));
+                attributes = new ConstantBitcast(attributesEncoder.getFieldAttributes(f).ref(), Type.I8_PTR);
+                body.add(attributes);
             }
+            
+            // ClassField.address holds the offset until bc.c knows the Class
+            fields.add(new Preformed(new Constant[] {getString(f.getName()), 
+                    getString(Types.getDescriptor(f)), new IntegerConstant(getFieldAccess(flags)), attributes}, 
+                    f.isStatic() ? new ConstantInttoptr(offset, Type.I8_PTR) : offset));
         }
         
         VTable vtable = !sootClass.isInterface() ? config.getVTableCache().get(sootClass) : null;
@@ -1307,22 +1774,30 @@ public class ClassCompiler {
             }
             body.add(new IntegerConstant((short) flags));            
 
-            Constant viTableIndex = new IntegerConstant((short) -1);
+            short viTableIndex = -1;
             if (vtable != null) {
                 VTable.Entry entry = vtable.getEntry(m);
                 if (entry != null) {
-                    viTableIndex = new IntegerConstant((short) entry.getIndex());
+                    viTableIndex = (short) entry.getIndex();
                 }
             } else {
                 ITable.Entry entry = itable.getEntry(m);
                 if (entry != null) {
-                    viTableIndex = new IntegerConstant((short) entry.getIndex());
+                    viTableIndex = (short) entry.getIndex();
                 }
             }
-            body.add(viTableIndex);            
+            body.add(new IntegerConstant(viTableIndex));            
             
             body.add(getString(m.getName()));
             
+            int access = getMethodAccess(flags);
+            Constant attributes = new NullConstant(Type.I8_PTR);
+            Constant impl = new NullConstant(Type.I8_PTR);
+            Constant size = new IntegerConstant(0);
+            Constant synchronizedImpl = new NullConstant(Type.I8_PTR);
+            Constant linetable = new NullConstant(Type.I8_PTR);
+            Constant extra = (flags & MI_NATIVE) != 0 ? new NullConstant(Type.I8_PTR) : null;
+            
             if ((flags & MI_COMPACT_DESC) > 0) {
                 int desc = 0;
                 if (t.equals(BooleanType.v())) {
@@ -1349,13 +1824,17 @@ public class ClassCompiler {
                 body.add(getString(Types.getDescriptor(m)));
             }
             if (attributesEncoder.methodHasAttributes(m)) {
-                body.add(new ConstantBitcast(attributesEncoder.getMethodAttributes(m).ref(), Type.I8_PTR));
+                attributes = new ConstantBitcast(attributesEncoder.getMethodAttributes(m).ref(), Type.I8_PTR);
+                body.add(attributes);
             }
             if (!m.isAbstract()) {
-                body.add(new ConstantBitcast(new FunctionRef(Symbols.methodSymbol(m), Types.getFunctionType(m)), Type.I8_PTR));
+                impl = new ConstantBitcast(new FunctionRef(Symbols.methodSymbol(m), Types.getFunctionType(m)), Type.I8_PTR);
+                size = new IntegerConstant(DUMMY_PREFORMED_METHOD_SIZE);
+                body.add(impl);
                 body.add(new IntegerConstant(DUMMY_METHOD_SIZE)); // Size of function. This value will be modified later by patching the .s file.
                 if (m.isSynchronized()) {
-                    body.add(new ConstantBitcast(new FunctionRef(Symbols.synchronizedWrapperSymbol(m), Types.getFunctionType(m)), Type.I8_PTR));
+                    synchronizedImpl = new ConstantBitcast(new FunctionRef(Symbols.synchronizedWrapperSymbol(m), Types.getFunctionType(m)), Type.I8_PTR);
+                    body.add(synchronizedImpl);
                 }
                 if ((flags & MI_NATIVE) == 0) {
                     // Cannot use m.isNative() in the condition above since methods which are native in the
@@ -1367,28 +1846,149 @@ public class ClassCompiler {
                     Global linetableGlobal = new Global(Symbols.linetableSymbol(m), Linkage.weak, new IntegerConstant(-1));
                     mb.addGlobal(linetableGlobal);
                     body.add(linetableGlobal.ref());
+                    linetable = new ConstantBitcast(linetableGlobal.ref(), Type.I8_PTR);
                 }
             }
             if (Annotations.hasBridgeAnnotation(m)) {
                 if (!Annotations.readBooleanElem(Annotations.getAnnotation(m, Annotations.BRIDGE), "dynamic", false)) {
-                    body.add(new GlobalRef(Symbols.bridgePtrSymbol(m), Type.I8_PTR));
+                    GlobalRef targetFnPtr = new GlobalRef(Symbols.bridgePtrSymbol(m), Type.I8_PTR);
+                    body.add(targetFnPtr);
+                    extra = new ConstantBitcast(targetFnPtr, Type.I8_PTR);
+                    access |= METHOD_TYPE_BRIDGE;
                 } else {
                     body.add(new NullConstant(Type.I8_PTR));
                 }
             } else if (Annotations.hasGlobalValueAnnotation(m)) {
-                body.add(new GlobalRef(Symbols.globalValuePtrSymbol(m), Type.I8_PTR));
+                GlobalRef targetFnPtr = new GlobalRef(Symbols.globalValuePtrSymbol(m), Type.I8_PTR);
+                body.add(targetFnPtr);
+                extra = new ConstantBitcast(targetFnPtr, Type.I8_PTR);
+                access |= METHOD_TYPE_BRIDGE;
             }
             if (Annotations.hasCallbackAnnotation(m)) {
-                body.add(new AliasRef(Symbols.callbackPtrSymbol(m), Type.I8_PTR));
+                extra = new AliasRef(Symbols.callbackPtrSymbol(m), Type.I8_PTR);
+                body.add(extra);
+                access |= METHOD_TYPE_CALLBACK;
             }
+            
+            methods.add(new Preformed(new Constant[] {getString(m.getName()), 
+                    getString(Types.getDescriptor(m)), new IntegerConstant((int) viTableIndex), 
+                    new IntegerConstant(access), size, attributes, impl, synchronizedImpl, linetable}, extra));
         }
         
+        preformedFields = createPreformedList(fieldsSymbol, FIELD, fields);
+        preformedMethods = createPreformedList(methodsSymbol, METHOD, methods);
+        header.add(getPreformedListHead(preformedFields, fields.size()));
+        header.add(getPreformedListHead(preformedMethods, methods.size()));
+        
         // Return the struct {header, body}. To be compatible with the C code in classinfo.c 
         // it is important that the header is padded the same as in C so that the body starts
         // after sizeof(ClassInfoHeader) bytes.
         return new StructureConstantBuilder().add(header.build()).add(body.build()).build();
     }
 
+    /**
+     * Values of a preformed <code>Field</code> or <code>Method</code> 
+     * following the <code>next</code> and <code>clazz</code> pointers. 
+     * <code>extra</code> is the trailing member of the extended struct 
+     * (<code>ClassField</code>, <code>NativeMethod</code>, etc) or 
+     * <code>null</code> for a plain <code>Method</code>.
+     */
+    private static class Preformed {
+        final Constant[] values;
+        final Constant extra;
+        
+        Preformed(Constant[] values, Constant extra) {
+            this.values = values;
+            this.extra = extra;
+        }
+    }
+    
+    /**
+     * Creates a global holding the specified structs linked together through
+     * their <code>next</code> pointers in reverse order, i.e. the last struct
+     * is the head of the list. This is the same order as bc.c used to get when
+     * prepending the structs it allocated while reading the info struct. The
+     * <code>clazz</code> pointers are left <code>NULL</code> and filled in by
+     * bc.c once the <code>Class</code> has been allocated.
+     */
+    private Global createPreformedList(String name, StructureType type, List<Preformed> entries) {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        Type[] types = new Type[entries.size()];
+        for (int i = 0; i < types.length; i++) {
+            Constant extra = entries.get(i).extra;
+            types[i] = extra != null ? new StructureType(type, extra.getType()) : type;
+        }
+        GlobalRef ref = new GlobalRef(name, new StructureType(types));
+        StructureConstantBuilder list = new StructureConstantBuilder();
+        for (int i = 0; i < types.length; i++) {
+            Preformed entry = entries.get(i);
+            StructureConstantBuilder struct = new StructureConstantBuilder();
+            if (i == 0) {
+                struct.add(new NullConstant(Type.I8_PTR));
+            } else {
+                struct.add(new ConstantBitcast(new ConstantGetelementptr(ref, 0, i - 1), Type.I8_PTR));
+            }
+            struct.add(new NullConstant(Type.I8_PTR));
+            for (Constant value : entry.values) {
+                struct.add(value);
+            }
+            if (entry.extra != null) {
+                list.add(new StructureConstantBuilder().add(struct.build()).add(entry.extra).build());
+            } else {
+                list.add(struct.build());
+            }
+        }
+        return new Global(name, Linkage._private, list.build());
+    }
+    
+    private Constant getPreformedListHead(Global list, int count) {
+        if (list == null) {
+            return new NullConstant(Type.I8_PTR);
+        }
+        return new ConstantBitcast(new ConstantGetelementptr(list.ref(), 0, count - 1), Type.I8_PTR);
+    }
+    
+    /**
+     * Converts info struct field flags into <code>ACC_*</code> flags like
+     * <code>readFieldInfo()</code> in classinfo.c does.
+     */
+    private static int getFieldAccess(int flags) {
+        int access = 0;
+        if ((flags & FI_ACCESS_MASK) == FI_PUBLIC) access |= Modifier.PUBLIC;
+        if ((flags & FI_ACCESS_MASK) == FI_PRIVATE) access |= Modifier.PRIVATE;
+        if ((flags & FI_ACCESS_MASK) == FI_PROTECTED) access |= Modifier.PROTECTED;
+        if ((flags & FI_STATIC) != 0) access |= Modifier.STATIC;
+        if ((flags & FI_FINAL) != 0) access |= Modifier.FINAL;
+        if ((flags & FI_VOLATILE) != 0) access |= Modifier.VOLATILE;
+        if ((flags & FI_TRANSIENT) != 0) access |= Modifier.TRANSIENT;
+        if ((flags & FI_SYNTHETIC) != 0) access |= 0x1000;
+        if ((flags & FI_ENUM) != 0) access |= Modifier.ENUM;
+        return access;
+    }
+    
+    /**
+     * Converts info struct method flags into <code>ACC_*</code> flags like
+     * <code>readMethodInfo()</code> in classinfo.c does.
+     */
+    private static int getMethodAccess(int flags) {
+        int access = 0;
+        if ((flags & MI_ACCESS_MASK) == MI_PUBLIC) access |= Modifier.PUBLIC;
+        if ((flags & MI_ACCESS_MASK) == MI_PRIVATE) access |= Modifier.PRIVATE;
+        if ((flags & MI_ACCESS_MASK) == MI_PROTECTED) access |= Modifier.PROTECTED;
+        if ((flags & MI_STATIC) != 0) access |= Modifier.STATIC;
+        if ((flags & MI_FINAL) != 0) access |= Modifier.FINAL;
+        if ((flags & MI_SYNCHRONIZED) != 0) access |= Modifier.SYNCHRONIZED;
+        if ((flags & MI_BRIDGE) != 0) access |= 0x0040;
+        if ((flags & MI_VARARGS) != 0) access |= 0x0080;
+        if ((flags & MI_NATIVE) != 0) access |= Modifier.NATIVE;
+        if ((flags & MI_ABSTRACT) != 0) access |= Modifier.ABSTRACT;
+        if ((flags & MI_STRICT) != 0) access |= Modifier.STRICTFP;
+        if ((flags & MI_SYNTHETIC) != 0) access |= 0x1000;
+        return access;
+    }
+
     private Function compileMethod(AbstractMethodCompiler methodCompiler, SootMethod method) {
         Function fn = methodCompiler.compile(mb, method);
         for (Trampoline t : methodCompiler.getTrampolines()) {
@@ -1471,12 +2071,12 @@ public class ClassCompiler {
         if (Modifier.isVolatile(field.getModifiers())) {
             fn.add(new Fence(Ordering.seq_cst));
             if (LongType.v().equals(field.getType())) {
-                fn.add(new Load(result, fieldPtr, false, Ordering.unordered, 8));
+                fn.add(new Load(result, fieldPtr, false, Ordering.unordered, 8)).addMetadata(Tbaa.field(field));
             } else {
-                fn.add(new Load(result, fieldPtr));
+                fn.add(new Load(result, fieldPtr)).addMetadata(Tbaa.field(field));
             }
         } else {
-            fn.add(new Load(result, fieldPtr));
+            fn.add(new Load(result, fieldPtr)).addMetadata(Tbaa.field(field));
         }
         fn.add(new Ret(new VariableRef(result)));
         return fn;
@@ -1503,13 +2103,13 @@ public class ClassCompiler {
         }
         if (Modifier.isVolatile(field.getModifiers()) || !field.isStatic() && Modifier.isFinal(field.getModifiers())) {
             if (LongType.v().equals(field.getType())) {
-                fn.add(new Store(value, fieldPtr, false, Ordering.unordered, 8));
+                fn.add(new Store(value, fieldPtr, false, Ordering.unordered, 8)).addMetadata(Tbaa.field(field));
             } else {
-                fn.add(new Store(value, fieldPtr));
+                fn.add(new Store(value, fieldPtr)).addMetadata(Tbaa.field(field));
             }
             fn.add(new Fence(Ordering.seq_cst));
         } else {
-            fn.add(new Store(value, fieldPtr));
+            fn.add(new Store(value, fieldPtr)).addMetadata(Tbaa.field(field));
         }
         fn.add(new Ret());
         return fn;
@@ -1530,7 +2130,8 @@ public class ClassCompiler {
         fn.add(new Icmp(initialized, Icmp.Condition.eq, initializedFlag.ref(), new IntegerConstant(CI_INITIALIZED)));
         Label trueLabel = new Label();
         Label falseLabel = new Label();
-        fn.add(new Br(initialized.ref(), fn.newBasicBlockRef(trueLabel), fn.newBasicBlockRef(falseLabel)));
+        fn.add(new Br(initialized.ref(), fn.newBasicBlockRef(trueLabel), fn.newBasicBlockRef(falseLabel)))
+                .addMetadata(ColdCode.LIKELY);
         fn.newBasicBlock(trueLabel);
         Value result = call(fn, targetFn, fn.getParameterRefs());
         fn.add(new Ret(result));
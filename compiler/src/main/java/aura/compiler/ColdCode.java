@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import aura.compiler.config.OS;
+import aura.compiler.llvm.IntegerConstant;
+import aura.compiler.llvm.MetadataNode;
+import aura.compiler.llvm.MetadataString;
+import aura.compiler.llvm.ProfMetadata;
+import aura.compiler.llvm.UnnamedMetadataRef;
+import aura.compiler.llvm.Value;
+
+/**
+ * Marks exception and slow-path code as cold. Branches guarding such code get
+ * branch weights which make LLVM's block placement move the cold blocks to the
+ * end of the function. The runtime functions these blocks call (the
+ * <code>_bcThrow*</code> functions, class initialization) are declared
+ * <code>cold</code> in <code>header.ll</code>. Functions which do nothing but
+ * throw are emitted as <code>cold</code> and placed in a separate text
+ * section, away from the code which actually runs.
+ */
+public class ColdCode {
+    /**
+     * The weight of the likely successor of a branch. The unlikely successor
+     * has weight 1.
+     */
+    public static final int LIKELY_WEIGHT = 2000;
+
+    /**
+     * Branch weights for a conditional branch whose true successor is hot.
+     * Defined in <code>header.ll</code>.
+     */
+    public static final ProfMetadata LIKELY = new ProfMetadata(new UnnamedMetadataRef(22));
+    /**
+     * Branch weights for a conditional branch whose false successor is hot.
+     * Defined in <code>header.ll</code>.
+     */
+    public static final ProfMetadata UNLIKELY = new ProfMetadata(new UnnamedMetadataRef(23));
+
+    /**
+     * Returns the branch weights of a <code>switch</code> whose default
+     * destination is hot and whose <code>cases</code> alternative
+     * destinations are all cold.
+     */
+    public static ProfMetadata switchDefaultLikely(int cases) {
+        List<Value> values = new ArrayList<>();
+        values.add(new MetadataString("branch_weights"));
+        values.add(new IntegerConstant(LIKELY_WEIGHT));
+        for (int i = 0; i < cases; i++) {
+            values.add(new IntegerConstant(1));
+        }
+        return new ProfMetadata(new MetadataNode(values));
+    }
+
+    /**
+     * Returns the name of the section cold functions are placed in on the
+     * specified {@link OS}.
+     */
+    public static String section(OS os) {
+        if (os.getFamily() == OS.Family.darwin) {
+            return "__TEXT,__text_unlikely,regular,pure_instructions";
+        }
+        return ".text.unlikely";
+    }
+}
@@ -33,6 +33,7 @@ public class CommandArgs {
     public static final String DEBUG_LIBS = "g";
     public static final String DEBUG_LIBS_LOGS = "use-debug-libs";
     public static final String FORCE_LINK = "forcelink";
+    public static final String FRONTEND_OPT_LONG = "frontendopt";
     public static final String HELP = "?";
     public static final String HELP_LONG = "help";
     public static final String HOME = "h";
@@ -52,11 +53,18 @@ public class CommandArgs {
     public static final String TEMP_LONG = "tmp";
     public static final String THREADS = "j";
     public static final String THREADS_LONG = "threads";
+    public static final String TRACE_LONG = "trace";
+    public static final String SIZE_REPORT_LONG = "sizereport";
+    public static final String RECORD_STARTUP_ORDER_LONG = "recordstartuporder";
+    public static final String ORDER_FILE_LONG = "orderfile";
+    public static final String FAST_COMPILE_LONG = "fastcompile";
     public static final String TREESHAKE = "m";
     public static final String TREESHAKE_LONG = "treeshake";
     public static final String VERBOSE = "v";
     public static final String VERBOSE_LONG = "verbose";
     public static final String VERSION_LONG = "version";
+    public static final String DAEMON_LONG = "daemon";
+    public static final String WATCH_LONG = "watch";
     public static final String CONFIG = "f";
     public static final String CONFIG_LONG = "config";
     public static final String DUMP_CONFIG = "D";
@@ -272,6 +280,83 @@ public class CommandArgs {
                 .hasArg()
                 .build());
 
+        options.addOption(Option.builder()
+                .required(false)
+                .desc("The redundancy elimination to do before code generation in release" +
+                        " builds. 'none', 'gvn' or 'full'. 'gvn' reuses previously computed" +
+                        " expressions, array lengths and type checks. 'full' also reuses" +
+                        " field and array element loads within basic blocks. Default is 'none'")
+                .longOpt(FRONTEND_OPT_LONG)
+                .hasArg()
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .desc("Keep running after the first build and rebuild whenever a build" +
+                        " command is received on the specified port on the loopback" +
+                        " interface. Only classes changed since the previous build are" +
+                        " recompiled. Commands must be prefixed with the token the daemon" +
+                        " writes to daemon-<port>.token in the cache directory.")
+                .longOpt(DAEMON_LONG)
+                .hasArg()
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .desc("Keep running after the first build and rebuild whenever class" +
+                        " files in the classpath directories change. Only the changed" +
+                        " classes are recompiled.")
+                .longOpt(WATCH_LONG)
+                .hasArg(false)
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .desc("Write a trace of the build phases of every class and of the linker" +
+                        " to the specified file. The file can be opened in chrome://tracing" +
+                        " or Perfetto.")
+                .longOpt(TRACE_LONG)
+                .hasArg()
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .desc("Write a report to the specified file which attributes the size of the" +
+                        " object files linked into the executable to classes, packages and" +
+                        " the reason they were linked.")
+                .longOpt(SIZE_REPORT_LONG)
+                .hasArg()
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .desc("Instrument compiled methods to record the order in which they are" +
+                        " first called. The executable writes the order to the file given" +
+                        " by -rvm:StartupOrderFile=<file> or to startup.order in the" +
+                        " current directory.")
+                .longOpt(RECORD_STARTUP_ORDER_LONG)
+                .hasArg(false)
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .desc("Lay out the methods listed in the specified file, e.g. a file" +
+                        " recorded by a -recordstartuporder build, first and in the listed" +
+                        " order in the executable.")
+                .longOpt(ORDER_FILE_LONG)
+                .hasArg()
+                .build());
+
+        options.addOption(Option.builder()
+                .required(false)
+                .desc("Build for fast edit-compile-run cycles. Implies a debug build." +
+                        " Object files are emitted without going through assembly and" +
+                        " classes in jar files reuse the object files of the last release" +
+                        " build if they are still up to date.")
+                .longOpt(FAST_COMPILE_LONG)
+                .hasArg(false)
+                .build());
+
         options.addOption(Option.builder(THREADS)
                 .required(false)
                 .desc("The number of threads to use during class compilation. By" +
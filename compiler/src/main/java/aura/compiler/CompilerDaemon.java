@@ -0,0 +1,311 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler;
+
+import aura.compiler.clazz.Clazz;
+import aura.compiler.clazz.DirectoryPath;
+import aura.compiler.clazz.Path;
+import aura.compiler.config.Config;
+import org.apache.commons.io.IOUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Set;
+
+/**
+ * Keeps a {@link Config} and everything hanging off it (the class path
+ * index, the parsed {@link aura.compiler.clazz.ClazzInfo}s, the
+ * {@link DependencyGraph} and, as long as no class has changed, the Soot
+ * <code>Scene</code>) in memory between builds. Only the classes modified
+ * since the previous build are recompiled before the executable is relinked.
+ * <p>
+ * Builds are triggered either over a socket bound to the loopback interface
+ * (see {@link #serve(int)} and {@link #send(File, int, String)}) or by
+ * watching the class path directories for class files written by javac (see
+ * {@link #watch(long)}).
+ * </p>
+ * <p>
+ * The dependency graph only ever grows. Edges removed from a modified class
+ * are kept which may make the tree shaker keep a few more methods than a cold
+ * build would.
+ * </p>
+ */
+public class CompilerDaemon {
+    public static final String BUILD_COMMAND = "build";
+    public static final String STOP_COMMAND = "stop";
+
+    /**
+     * How long to wait, in milliseconds, for a client which has connected to
+     * send its command.
+     */
+    private static final int READ_TIMEOUT = 10000;
+
+    private Config config;
+    private AppCompiler compiler;
+    private long lastBuild = -1;
+    private boolean failed = false;
+
+    public CompilerDaemon(Config config) {
+        this.config = config;
+        this.compiler = new AppCompiler(config);
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * Builds the executable. Everything which is still valid after the
+     * previous build is reused. The {@link Config} is rebuilt from scratch if
+     * the previous build failed, if a jar file on the class path has been
+     * replaced or if {@link Config#isClean()} since compiled classes have
+     * released their bodies.
+     */
+    public synchronized void build() throws IOException {
+        long start = System.currentTimeMillis();
+        if (lastBuild != -1) {
+            if (failed || config.isClean() || jarsChangedSince(lastBuild)) {
+                config.getLogger().info("Starting a cold build");
+                config = config.builder().build();
+                compiler = new AppCompiler(config);
+            } else {
+                Set<Clazz> modified = config.getClazzes().refresh(lastBuild);
+                if (modified.isEmpty()) {
+                    config.getLogger().info("No classes have changed since the last build");
+                } else {
+                    config.getLogger().info("%d classes have changed since the last build", modified.size());
+                }
+            }
+        }
+        lastBuild = start;
+        failed = true;
+        compiler.build();
+        failed = false;
+        config.getLogger().info("Build finished in %.2f seconds",
+                (System.currentTimeMillis() - start) / 1000.0);
+    }
+
+    /**
+     * Polls the class path directories every <code>interval</code>
+     * milliseconds and rebuilds once class files have been written and no
+     * more writes have been seen for another <code>interval</code>. Returns
+     * when the current thread is interrupted.
+     */
+    public void watch(long interval) throws IOException {
+        tryBuild();
+        config.getLogger().info("Watching for changes...");
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Thread.sleep(interval);
+                if (changedSince(lastBuild)) {
+                    // Let javac finish writing before building.
+                    long seen;
+                    do {
+                        seen = System.currentTimeMillis();
+                        Thread.sleep(interval);
+                    } while (changedSince(seen));
+                    tryBuild();
+                    config.getLogger().info("Watching for changes...");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Does a first build to warm up and then listens for commands on the
+     * specified port on the loopback interface. Any local user can connect to
+     * the port so the daemon writes a random token to a file only readable by
+     * its owner (see {@link #getTokenFile(File, int)}). Each connection sends
+     * a single line, the token followed by a space and either
+     * {@value #BUILD_COMMAND} or {@value #STOP_COMMAND}, and gets a single
+     * line back which starts with <code>OK</code> or <code>FAILED</code>.
+     * Connections which don't send a line within 10 seconds are dropped.
+     * Returns after a {@value #STOP_COMMAND} command has been received.
+     */
+    public void serve(int port) throws IOException {
+        tryBuild();
+        try (ServerSocket serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress())) {
+            String token = createToken();
+            File tokenFile = getTokenFile(config.getCacheDir(), serverSocket.getLocalPort());
+            writeTokenFile(tokenFile, token);
+            config.getLogger().info("Compiler daemon listening on port %d", serverSocket.getLocalPort());
+            try {
+                boolean stop = false;
+                while (!stop) {
+                    Socket socket = serverSocket.accept();
+                    try {
+                        socket.setSoTimeout(READ_TIMEOUT);
+                        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF8"));
+                        PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), "UTF8"), true);
+                        String command = checkToken(token, in.readLine());
+                        if (command == null) {
+                            config.getLogger().warn("Rejected a command without a valid token");
+                            out.println("FAILED Invalid token");
+                        } else {
+                            stop = handle(command, out);
+                        }
+                    } catch (SocketTimeoutException e) {
+                        config.getLogger().warn("Timed out waiting for a command");
+                    } catch (IOException e) {
+                        config.getLogger().warn("Failed to read command: %s", e.getMessage());
+                    } finally {
+                        IOUtils.closeQuietly(socket);
+                    }
+                }
+            } finally {
+                tokenFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Returns the file in the specified cache directory which the daemon
+     * listening on the specified port writes its token to.
+     */
+    public static File getTokenFile(File cacheDir, int port) {
+        return new File(cacheDir, "daemon-" + port + ".token");
+    }
+
+    static String createToken() {
+        byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b & 0xff));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes the token to a file which only the current user can read.
+     */
+    static void writeTokenFile(File file, String token) throws IOException {
+        file.getParentFile().mkdirs();
+        file.delete();
+        try {
+            Files.createFile(file.toPath(),
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system
+            Files.createFile(file.toPath());
+            file.setReadable(false, false);
+            file.setWritable(false, false);
+            file.setReadable(true, true);
+            file.setWritable(true, true);
+        }
+        Files.write(file.toPath(), token.getBytes("UTF8"));
+    }
+
+    /**
+     * Returns the command in a line received from a client or
+     * <code>null</code> if the line doesn't start with the specified token.
+     */
+    static String checkToken(String token, String line) throws IOException {
+        if (line == null) {
+            return null;
+        }
+        int space = line.indexOf(' ');
+        if (space == -1) {
+            return null;
+        }
+        // Compare in constant time
+        if (!MessageDigest.isEqual(token.getBytes("UTF8"), line.substring(0, space).getBytes("UTF8"))) {
+            return null;
+        }
+        return line.substring(space + 1);
+    }
+
+    /**
+     * Handles a single command. Returns <code>true</code> if the daemon
+     * should stop.
+     */
+    boolean handle(String command, PrintWriter out) {
+        if (BUILD_COMMAND.equals(command)) {
+            long start = System.currentTimeMillis();
+            Throwable t = tryBuild();
+            if (t == null) {
+                out.printf("OK %.2f%n", (System.currentTimeMillis() - start) / 1000.0);
+            } else {
+                out.println("FAILED " + t.getMessage());
+            }
+            return false;
+        }
+        if (STOP_COMMAND.equals(command)) {
+            out.println("OK");
+            return true;
+        }
+        out.println("FAILED Unknown command: " + command);
+        return false;
+    }
+
+    /**
+     * Sends a command to a daemon listening on the specified port and returns
+     * its reply. The daemon's token is read from its token file in the
+     * specified cache directory.
+     */
+    public static String send(File cacheDir, int port, String command) throws IOException {
+        String token = new String(Files.readAllBytes(getTokenFile(cacheDir, port).toPath()), "UTF8").trim();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), "UTF8"), true);
+            out.println(token + " " + command);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF8"));
+            return in.readLine();
+        }
+    }
+
+    private Throwable tryBuild() {
+        try {
+            build();
+            return null;
+        } catch (Throwable t) {
+            config.getLogger().error("Build failed: %s", t.getMessage());
+            return t;
+        }
+    }
+
+    private boolean jarsChangedSince(long timestamp) {
+        for (Path path : config.getClazzes().getPaths()) {
+            if (!(path instanceof DirectoryPath) && path.hasChangedSince(timestamp)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean changedSince(long timestamp) {
+        for (Path path : config.getClazzes().getPaths()) {
+            if (path.hasChangedSince(timestamp)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -35,6 +35,8 @@ public class ConfigBuilderArgParser extends ArgParser<ConfigBuilder> {
     Options options;
     private boolean run;
     private boolean archive;
+    private int daemonPort = -1;
+    private boolean watch;
 
     public ConfigBuilderArgParser(Options options, String[] args) {
         super(options, args);
@@ -158,6 +160,32 @@ public class ConfigBuilderArgParser extends ArgParser<ConfigBuilder> {
             case FORCE_LINK:
                 return setForceLink(configBuilder, option.getValuesList());
 
+            case FRONTEND_OPT_LONG:
+                return setFrontendOpt(configBuilder, option.getValue());
+
+            case TRACE_LONG:
+                return setTraceFile(configBuilder, option.getValue());
+
+            case SIZE_REPORT_LONG:
+                return setSizeReportFile(configBuilder, option.getValue());
+
+            case RECORD_STARTUP_ORDER_LONG:
+                return recordStartupOrder(configBuilder);
+
+            case ORDER_FILE_LONG:
+                return setOrderFile(configBuilder, option.getValue());
+
+            case FAST_COMPILE_LONG:
+                return fastCompile(configBuilder);
+
+            case DAEMON_LONG:
+                daemonPort = parsePort(option.getValue());
+                return configBuilder;
+
+            case WATCH_LONG:
+                watch = true;
+                return configBuilder;
+
             case THREADS:
             case THREADS_LONG:
                 return setThreads(configBuilder, option.getValue());
@@ -247,6 +275,30 @@ public class ConfigBuilderArgParser extends ArgParser<ConfigBuilder> {
         return configBuilder;
     }
 
+    private int parsePort(String value) {
+        try {
+            int port = Integer.parseInt(value);
+            if (port < 0 || port > 65535) {
+                throw new IllegalArgumentException("Illegal daemon port: " + value);
+            }
+            return port;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unparsable daemon port: " + value);
+        }
+    }
+
+    /**
+     * Returns the port specified with -daemon or -1 if no daemon should be
+     * started.
+     */
+    public int getDaemonPort() {
+        return daemonPort;
+    }
+
+    public boolean isWatch() {
+        return watch;
+    }
+
     public ConfigBuilder setForceLink(ConfigBuilder configBuilder, List<String> values) {
         Optional.ofNullable(values).ifPresent(l ->l.forEach(value -> {
             if (value.contains(":")) {
@@ -268,6 +320,36 @@ public class ConfigBuilderArgParser extends ArgParser<ConfigBuilder> {
         return configBuilder;
     }
 
+    public ConfigBuilder setFrontendOpt(ConfigBuilder configBuilder, String value) {
+        configBuilder.frontendOptLevel(Config.FrontendOptLevel.valueOf(value));
+        return configBuilder;
+    }
+
+
+    public ConfigBuilder setTraceFile(ConfigBuilder configBuilder, String value) {
+        configBuilder.traceFile(new File(value));
+        return configBuilder;
+    }
+
+    public ConfigBuilder setSizeReportFile(ConfigBuilder configBuilder, String value) {
+        configBuilder.sizeReportFile(new File(value));
+        return configBuilder;
+    }
+
+    public ConfigBuilder recordStartupOrder(ConfigBuilder configBuilder) {
+        configBuilder.recordStartupOrder(true);
+        return configBuilder;
+    }
+
+    public ConfigBuilder fastCompile(ConfigBuilder configBuilder) {
+        configBuilder.fastCompile(true);
+        return configBuilder;
+    }
+
+    public ConfigBuilder setOrderFile(ConfigBuilder configBuilder, String value) {
+        configBuilder.orderFile(new File(value));
+        return configBuilder;
+    }
 
     public ConfigBuilder dumpConfiguration(ConfigBuilder configBuilder, String value) {
         if (value != null && value.equals("-")) {
@@ -482,6 +564,8 @@ public class ConfigBuilderArgParser extends ArgParser<ConfigBuilder> {
     public boolean validateArgs(CommandLine cli) throws IllegalArgumentException {
        if (archive && run) {
             throw new IllegalArgumentException("Specify either -run or -createipa/-archive, not both");
+       } else if (cli.hasOption(DAEMON_LONG) && cli.hasOption(WATCH_LONG)) {
+            throw new IllegalArgumentException("Specify either -daemon or -watch, not both");
        } else {
            if (cli.getOptions() == null || cli.getOptions().length == 0 ) {
                return false;
@@ -64,6 +64,32 @@ public class DependencyGraph {
 
     private final Config.TreeShakerMode treeShakerMode;
 
+    /**
+     * The reason a class is part of the executable.
+     */
+    public enum Reachability {
+        /**
+         * The class is in the root set, e.g. the main class or a class
+         * matching a force link pattern.
+         */
+        root,
+        /**
+         * The class is reachable from the root set through strong dependencies
+         * only.
+         */
+        strong,
+        /**
+         * The class is only reachable through weak dependencies followed by
+         * the tree shaker.
+         */
+        weak,
+        /**
+         * The class isn't reachable from the root set, e.g. because it was
+         * linked as a <code>META-INF/services</code> implementation.
+         */
+        unreachable
+    }
+
     public DependencyGraph(Config.TreeShakerMode treeShakerMode) {
         this.treeShakerMode = treeShakerMode;
     }
@@ -170,11 +196,7 @@ public class DependencyGraph {
      * creating this {@link DependencyGraph}.
      */
     public Set<String> findReachableClasses() {
-        if (reachableNodes.isEmpty()) {
-            for (ClassNode node : roots) {
-                visitReachableNodes(node, reachableNodes);
-            }
-        }
+        findReachableNodes();
         Set<String> classes = new HashSet<>();
         for (Node node : reachableNodes) {
             if (node instanceof ClassNode) {
@@ -190,11 +212,7 @@ public class DependencyGraph {
      * method owner, method name and method descriptor.
      */
     public Set<Triple<String, String, String>> findReachableMethods() {
-        if (reachableNodes.isEmpty()) {
-            for (ClassNode node : roots) {
-                visitReachableNodes(node, reachableNodes);
-            }
-        }
+        findReachableNodes();
         Set<Triple<String, String, String>> methods = new HashSet<>();
         for (Node node : reachableNodes) {
             if (node instanceof MethodNode) {
@@ -205,6 +223,49 @@ public class DependencyGraph {
         return methods;
     }
 
+    /**
+     * Determines why each class added to this graph is reachable given the
+     * {@link Config.TreeShakerMode} set when creating this
+     * {@link DependencyGraph}.
+     */
+    public Map<String, Reachability> findClassReachability() {
+        findReachableNodes();
+        Set<Node> stronglyReachable = new HashSet<>();
+        for (ClassNode node : roots) {
+            visitStronglyReachableNodes(node, stronglyReachable);
+        }
+        Map<String, Reachability> result = new HashMap<>();
+        for (ClassNode node : classNodes.values()) {
+            Reachability reachability = Reachability.unreachable;
+            if (roots.contains(node)) {
+                reachability = Reachability.root;
+            } else if (stronglyReachable.contains(node)) {
+                reachability = Reachability.strong;
+            } else if (reachableNodes.contains(node)) {
+                reachability = Reachability.weak;
+            }
+            result.put(node.className, reachability);
+        }
+        return result;
+    }
+
+    private void findReachableNodes() {
+        if (reachableNodes.isEmpty()) {
+            for (ClassNode node : roots) {
+                visitReachableNodes(node, reachableNodes);
+            }
+        }
+    }
+
+    private void visitStronglyReachableNodes(Node node, Set<Node> visited) {
+        if (!visited.contains(node)) {
+            visited.add(node);
+            for (Node child : node.strongEdges) {
+                visitStronglyReachableNodes(child, visited);
+            }
+        }
+    }
+
     private void visitReachableNodes(Node node, Set<Node> visited) {
         if (!visited.contains(node)) {
             visited.add(node);
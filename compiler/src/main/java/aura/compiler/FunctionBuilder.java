@@ -19,6 +19,7 @@ package aura.compiler;
 import aura.compiler.clazz.Clazz;
 import aura.compiler.clazz.ClazzInfo;
 import aura.compiler.clazz.MethodInfo;
+import aura.compiler.config.OS;
 import aura.compiler.llvm.*;
 import aura.compiler.trampoline.Trampoline;
 import soot.SootClass;
@@ -101,6 +102,16 @@ public class FunctionBuilder {
         this.section = section;
         return this;
     }
+
+    /**
+     * Marks the function as never being on a hot path. Cold functions are
+     * never inlined, optimized for size and placed in the section returned by
+     * {@link ColdCode#section(OS)}.
+     */
+    public FunctionBuilder cold(OS os) {
+        return attribs(FunctionAttribute.cold, FunctionAttribute.noinline, FunctionAttribute.optsize)
+                .section(ColdCode.section(os));
+    }
     
     public Function build() {
         Type[] ptypes = type.getParameterTypes();
@@ -107,6 +107,7 @@ public class Functions {
     public static final FunctionRef CHECK_LOWER = new FunctionRef("checklower", new FunctionType(Type.VOID, Types.ENV_PTR, Types.OBJECT_PTR, Type.I32));
     public static final FunctionRef CHECK_UPPER = new FunctionRef("checkupper", new FunctionType(Type.VOID, Types.ENV_PTR, Types.OBJECT_PTR, Type.I32));
     public static final FunctionRef CHECK_STACK_OVERFLOW = new FunctionRef("checkso", new FunctionType(Type.VOID));
+    public static final FunctionRef RECORD_ENTRY = new FunctionRef("recordentry", new FunctionType(Type.VOID, Types.ENV_PTR, Type.I8_PTR, Type.I8_PTR));
     public static final FunctionRef ARRAY_LENGTH = new FunctionRef("arraylength", new FunctionType(Type.I32, Types.OBJECT_PTR));
     public static final FunctionRef BALOAD = new FunctionRef("baload", new FunctionType(Type.I8, Types.OBJECT_PTR, Type.I32));
     public static final FunctionRef SALOAD = new FunctionRef("saload", new FunctionType(Type.I16, Types.OBJECT_PTR, Type.I32));
@@ -142,14 +143,18 @@ public class Functions {
     public static final FunctionRef LDC_CLASS_WRAPPER = new FunctionRef("ldcClassWrapper", new FunctionType(Types.OBJECT_PTR, Types.ENV_PTR, Type.I8_PTR_PTR));
     public static final FunctionRef CHECKCAST_WRAPPER = new FunctionRef("checkcastWrapper", new FunctionType(Types.OBJECT_PTR, Types.ENV_PTR, Type.I8_PTR_PTR, Types.OBJECT_PTR));
     public static final FunctionRef INSTANCEOF_WRAPPER = new FunctionRef("instanceofWrapper", new FunctionType(Type.I32, Types.ENV_PTR, Type.I8_PTR_PTR, Types.OBJECT_PTR));
-    public static final FunctionRef CHECKCAST_CLASS = new FunctionRef("checkcast_class", new FunctionType(Types.OBJECT_PTR, Types.ENV_PTR, Type.I8_PTR_PTR, Types.OBJECT_PTR, Type.I32, Type.I32));
+    public static final FunctionRef CHECKCAST_CLASS = new FunctionRef("checkcast_class", new FunctionType(Types.OBJECT_PTR, Types.ENV_PTR, Type.I8_PTR_PTR, Types.OBJECT_PTR, Type.I32, Type.I32, Type.I32));
     public static final FunctionRef CHECKCAST_INTERFACE = new FunctionRef("checkcast_interface", new FunctionType(Types.OBJECT_PTR, Types.ENV_PTR, Type.I8_PTR_PTR, Types.OBJECT_PTR, Type.I32));
+    public static final FunctionRef CHECKCAST_INTERFACE_RANGE = new FunctionRef("checkcast_interface_range", new FunctionType(Types.OBJECT_PTR, Types.ENV_PTR, Type.I8_PTR_PTR, Types.OBJECT_PTR, Type.I32, Type.I32, Type.I32));
     public static final FunctionRef CHECKCAST_PRIM_ARRAY = new FunctionRef("checkcast_prim_array", new FunctionType(Types.OBJECT_PTR, Types.ENV_PTR, Types.CLASS_PTR, Types.OBJECT_PTR));
-    public static final FunctionRef INSTANCEOF_CLASS = new FunctionRef("instanceof_class", new FunctionType(Type.I32, Types.ENV_PTR, Type.I8_PTR_PTR, Types.OBJECT_PTR, Type.I32, Type.I32));
+    public static final FunctionRef INSTANCEOF_CLASS = new FunctionRef("instanceof_class", new FunctionType(Type.I32, Types.ENV_PTR, Type.I8_PTR_PTR, Types.OBJECT_PTR, Type.I32, Type.I32, Type.I32));
     public static final FunctionRef INSTANCEOF_INTERFACE = new FunctionRef("instanceof_interface", new FunctionType(Type.I32, Types.ENV_PTR, Type.I8_PTR_PTR, Types.OBJECT_PTR, Type.I32));
+    public static final FunctionRef INSTANCEOF_INTERFACE_RANGE = new FunctionRef("instanceof_interface_range", new FunctionType(Type.I32, Types.ENV_PTR, Type.I8_PTR_PTR, Types.OBJECT_PTR, Type.I32, Type.I32, Type.I32));
     public static final FunctionRef INSTANCEOF_PRIM_ARRAY = new FunctionRef("instanceof_prim_array", new FunctionType(Type.I32, Types.ENV_PTR, Types.CLASS_PTR, Types.OBJECT_PTR));
     public static final FunctionRef OBJECT_CLASS = new FunctionRef("Object_class", new FunctionType(Types.CLASS_PTR, Types.OBJECT_PTR));
     public static final FunctionRef CLASS_VITABLE = new FunctionRef("Class_vitable", new FunctionType(Types.VITABLE_PTR, Types.CLASS_PTR));
+    public static final FunctionRef CLASS_ITABLES = new FunctionRef("Class_itables", new FunctionType(Types.ITABLES_PTR, Types.CLASS_PTR));
+    public static final FunctionRef ITABLES_IMT = new FunctionRef("ITables_imt", new FunctionType(Type.I8_PTR_PTR, Types.ITABLES_PTR));
     public static final FunctionRef MONITORENTER = new FunctionRef("monitorenter", new FunctionType(Type.VOID, Types.ENV_PTR, Types.OBJECT_PTR));
     public static final FunctionRef MONITOREXIT = new FunctionRef("monitorexit", new FunctionType(Type.VOID, Types.ENV_PTR, Types.OBJECT_PTR));
     public static final FunctionRef PUSH_NATIVE_FRAME = new FunctionRef("pushNativeFrame", new FunctionType(Type.VOID, Types.ENV_PTR));
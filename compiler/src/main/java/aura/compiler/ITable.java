@@ -21,15 +21,23 @@ import static aura.compiler.Functions.*;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import aura.compiler.hash.MurmurHash3;
 import aura.compiler.llvm.FunctionRef;
 import aura.compiler.llvm.IntegerConstant;
+import aura.compiler.llvm.NullConstant;
 import aura.compiler.llvm.StructureConstantBuilder;
 import aura.compiler.llvm.Type;
+import aura.compiler.llvm.ArrayConstant;
 import aura.compiler.llvm.ArrayConstantBuilder;
+import aura.compiler.llvm.Constant;
 import aura.compiler.llvm.ConstantBitcast;
 import aura.compiler.llvm.FunctionDeclaration;
+import aura.compiler.llvm.Global;
+import aura.compiler.llvm.GlobalRef;
+import aura.compiler.llvm.Linkage;
 import aura.compiler.llvm.StructureConstant;
 
 import soot.SootClass;
@@ -39,9 +47,17 @@ import soot.SootMethod;
  * Creates an interface table for a specific interface class.
  */
 public class ITable {
+    /**
+     * The number of slots in the IMT. Must match <code>IMT_SIZE</code> in 
+     * <code>aura/types.h</code>.
+     */
+    public static final int IMT_SIZE = 32;
+    
+    private final String interfaceName;
     private Entry[] entries;
 
     private ITable(SootClass clazz) {
+        this.interfaceName = Types.getInternalName(clazz);
         ArrayList<Entry> entries = new ArrayList<Entry>();
         for (SootMethod method : clazz.getMethods()) {
             if (!method.isStatic() && method.isPublic()) {
@@ -93,35 +109,7 @@ public class ITable {
         }
         ArrayConstantBuilder table = new ArrayConstantBuilder(Type.I8_PTR);
         for (Entry entry : entries) {
-            ResolvedEntry resolvedEntry = entry.resolve(clazz);
-            if (resolvedEntry == null) {
-                FunctionRef defaultFunctionRef = entry.getFunctionRef();
-                if (defaultFunctionRef != null) {
-                    if (!mb.hasSymbol(defaultFunctionRef.getName())) {
-                        mb.addFunctionDeclaration(new FunctionDeclaration(defaultFunctionRef));
-                    }
-                    table.add(new ConstantBitcast(defaultFunctionRef, Type.I8_PTR));
-                } else {
-                    table.add(new ConstantBitcast(BC_ABSTRACT_METHOD_CALLED, Type.I8_PTR));
-                }
-            } else if (Modifier.isAbstract(resolvedEntry.getModifiers())) {
-                table.add(new ConstantBitcast(BC_ABSTRACT_METHOD_CALLED, Type.I8_PTR));
-            } else if (!Modifier.isPublic(resolvedEntry.getModifiers())) {
-                table.add(new ConstantBitcast(BC_NON_PUBLIC_METHOD_CALLED, Type.I8_PTR));
-            } else {
-                /*
-                 * Found a non-abstract method implementation. Either on the
-                 * class, in one of its super classes or a default method in an
-                 * implemented interface.
-                 */
-                FunctionRef functionRef = resolvedEntry.getFunctionRef();
-                if (!resolvedEntry.declaringClass.equals(clazz.getName())) {
-                    if (!mb.hasSymbol(functionRef.getName())) {
-                        mb.addFunctionDeclaration(new FunctionDeclaration(functionRef));
-                    }
-                }
-                table.add(new ConstantBitcast(functionRef, Type.I8_PTR));
-            }
+            table.add(new ConstantBitcast(resolve(mb, clazz, entry), Type.I8_PTR));
         }
         return new StructureConstantBuilder()
                     .add(new IntegerConstant((short) entries.length))
@@ -129,6 +117,103 @@ public class ITable {
                     .build();
     }
     
+    /**
+     * Returns the function the specified class uses for the specified entry
+     * in this {@link ITable}.
+     */
+    private FunctionRef resolve(ModuleBuilder mb, SootClass clazz, Entry entry) {
+        ResolvedEntry resolvedEntry = entry.resolve(clazz);
+        if (resolvedEntry == null) {
+            FunctionRef defaultFunctionRef = entry.getFunctionRef();
+            if (defaultFunctionRef != null) {
+                if (!mb.hasSymbol(defaultFunctionRef.getName())) {
+                    mb.addFunctionDeclaration(new FunctionDeclaration(defaultFunctionRef));
+                }
+                return defaultFunctionRef;
+            } else {
+                return BC_ABSTRACT_METHOD_CALLED;
+            }
+        } else if (Modifier.isAbstract(resolvedEntry.getModifiers())) {
+            return BC_ABSTRACT_METHOD_CALLED;
+        } else if (!Modifier.isPublic(resolvedEntry.getModifiers())) {
+            return BC_NON_PUBLIC_METHOD_CALLED;
+        } else {
+            /*
+             * Found a non-abstract method implementation. Either on the
+             * class, in one of its super classes or a default method in an
+             * implemented interface.
+             */
+            FunctionRef functionRef = resolvedEntry.getFunctionRef();
+            if (!resolvedEntry.declaringClass.equals(clazz.getName())) {
+                if (!mb.hasSymbol(functionRef.getName())) {
+                    mb.addFunctionDeclaration(new FunctionDeclaration(functionRef));
+                }
+            }
+            return functionRef;
+        }
+    }
+    
+    /**
+     * Returns the IMT slot of the interface method with the specified name 
+     * and descriptor. The slot only depends on the selector so the lookup 
+     * function of an interface method and the IMTs of the implementing 
+     * classes agree on it without knowing about each other.
+     */
+    public static int getImtSlot(String name, String desc) {
+        return MurmurHash3.fmix32((name + desc).hashCode()) & (IMT_SIZE - 1);
+    }
+    
+    /**
+     * Creates the interface method table (IMT) of the specified class. Each
+     * slot is a pair of the <code>TypeInfo</code> of an interface and the
+     * function the interface methods hashed to the slot by
+     * {@link #getImtSlot(String, String)} resolve to. The lookup function of
+     * an interface method only uses a slot owned by its own interface so
+     * classes which don't implement the interface still end up in
+     * <code>_bcLookupInterfaceMethodImpl</code> and get an
+     * <code>IncompatibleClassChangeError</code>.
+     * <p>
+     * If the methods of several interfaces share a slot and resolve to the
+     * same function the interface with the lowest name owns the slot. Empty 
+     * slots and slots with conflicting implementations are 
+     * <code>null</code> which makes the lookup function fall back to 
+     * searching the class's {@link ITable}s.
+     */
+    public static ArrayConstant getImt(ModuleBuilder mb, SootClass clazz, List<ITable> itables) {
+        String[] owners = new String[IMT_SIZE];
+        FunctionRef[] slots = new FunctionRef[IMT_SIZE];
+        boolean[] conflicts = new boolean[IMT_SIZE];
+        for (ITable itable : itables) {
+            for (Entry entry : itable.entries) {
+                int slot = getImtSlot(entry.name, entry.desc);
+                FunctionRef fn = itable.resolve(mb, clazz, entry);
+                if (slots[slot] == null) {
+                    slots[slot] = fn;
+                    owners[slot] = itable.interfaceName;
+                } else if (!slots[slot].getName().equals(fn.getName())) {
+                    conflicts[slot] = true;
+                } else if (itable.interfaceName.compareTo(owners[slot]) < 0) {
+                    owners[slot] = itable.interfaceName;
+                }
+            }
+        }
+        ArrayConstantBuilder imt = new ArrayConstantBuilder(Type.I8_PTR);
+        for (int i = 0; i < IMT_SIZE; i++) {
+            if (slots[i] != null && !conflicts[i]) {
+                String typeInfoName = Symbols.typeInfoSymbol(owners[i]);
+                if (!mb.hasSymbol(typeInfoName)) {
+                    mb.addGlobal(new Global(typeInfoName, Linkage.external, Type.I8_PTR, true));
+                }
+                imt.add(new ConstantBitcast(new GlobalRef(typeInfoName, Type.I8_PTR), Type.I8_PTR));
+                imt.add(new ConstantBitcast(slots[i], Type.I8_PTR));
+            } else {
+                imt.add(new NullConstant(Type.I8_PTR));
+                imt.add(new NullConstant(Type.I8_PTR));
+            }
+        }
+        return imt.build();
+    }
+    
     public static class Cache {
         Map<String, ITable> cache = new HashMap<String, ITable>();
         public ITable get(SootClass clazz) {
@@ -28,10 +28,12 @@ import aura.compiler.hash.ModifiedUtf8HashFunction;
 import aura.compiler.llvm.*;
 import aura.compiler.llvm.Function;
 import aura.compiler.plugin.CompilerPlugin;
+import aura.compiler.util.Tracer;
 import aura.llvm.*;
 import aura.llvm.Module;
 import aura.llvm.binding.CodeGenFileType;
 import aura.llvm.binding.RelocMode;
+import aura.llvm.binding.Visibility;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.tuple.Triple;
 
@@ -62,6 +64,18 @@ public class Linker {
         Clazz clazz;
         List<Clazz> children = new ArrayList<Clazz>();
         int id;
+        /**
+         * The highest id of any subclass of this class. Ids are assigned in
+         * depth-first preorder so the ids of all linked subclasses of this
+         * class are in the range [id, lastSubclassId].
+         */
+        int lastSubclassId;
+        /**
+         * For interfaces: the single class whose subtree contains all linked
+         * classes implementing this interface or <code>null</code> if there
+         * is no such class.
+         */
+        TypeInfo implementor;
         /**
          * Ordered list of TypeInfos for each superclass of this class and the
          * class itself. Empty if this is an interface.
@@ -145,6 +159,7 @@ public class Linker {
         return new ArrayConstantBuilder(I8).add(bb.array()).build();
     }
 
+    @SuppressWarnings("try")
     public void link(Set<Clazz> classes) throws IOException {
         for (CompilerPlugin plugin : config.getCompilerPlugins()) {
             plugin.beforeLinker(config, this, classes);
@@ -159,6 +174,8 @@ public class Linker {
                     os, arch, config.isDebug() ? "debug" : "release");
         }
 
+        Tracer tracer = config.getTracer();
+        Tracer.Span buildSpan = tracer.span("linker", "Build linker modules", null);
         ModuleBuilder mb = new ModuleBuilder();
         mb.addInclude(getClass().getClassLoader().getResource(String.format("header-%s-%s.ll", os.getFamily(), arch)));
         mb.addInclude(getClass().getClassLoader().getResource("header.ll"));
@@ -185,12 +202,10 @@ public class Linker {
                 new ModifiedUtf8HashFunction());
         HashTableGenerator<String, Constant> cpHashGen = new HashTableGenerator<String, Constant>(
                 new ModifiedUtf8HashFunction());
-        int classCount = 0;
         Map<ClazzInfo, TypeInfo> typeInfos = new HashMap<ClazzInfo, TypeInfo>();
         for (Clazz clazz : linkClasses) {
             TypeInfo typeInfo = new TypeInfo();
             typeInfo.clazz = clazz;
-            typeInfo.id = classCount++;
             typeInfos.put(clazz.getClazzInfo(), typeInfo);
 
             StructureConstant infoErrorStruct = createClassInfoErrorStruct(mb, clazz.getClazzInfo());
@@ -253,7 +268,7 @@ public class Linker {
             mbs[i].addInclude(getClass().getClassLoader().getResource("header.ll"));
 
             Function fn = new FunctionBuilder("_stripped_method" + i, new FunctionType(VOID, Types.ENV_PTR))
-                    .linkage(external).build();
+                    .linkage(external).cold(config.getOs()).build();
             call(fn, BC_THROW_NO_SUCH_METHOD_ERROR, fn.getParameterRef(0),
                     mbs[i].getString("Method has been stripped out of the executable"));
             fn.add(new Unreachable());
@@ -266,7 +281,9 @@ public class Linker {
         mb.addGlobal(new Global("_bcStrippedMethodStubs", stubRefsArray.build()));
         Random rnd = new Random();
 
+        assignTypeIds(linkClasses, typeInfos);
         buildTypeInfos(typeInfos);
+        findImplementors(typeInfos);
         Set<String> checkcasts = new HashSet<>();
         Set<String> instanceofs = new HashSet<>();
         Set<String> invokes = new HashSet<>();
@@ -360,13 +377,26 @@ public class Linker {
             }
         }
         config.getLogger().info("%d methods out of %d included in the executable", reachableMethodCount, totalMethodCount);
+        buildSpan.close();
 
         List<File> objectFiles = new ArrayList<File>();
 
         generateMachineCode(config, mbs, objectFiles);
 
+        SizeReport sizeReport = null;
+        if (config.getSizeReportFile() != null) {
+            sizeReport = new SizeReport(config, reachableMethods,
+                    config.getDependencyGraph().findClassReachability());
+            for (File f : objectFiles) {
+                sizeReport.add(SizeReport.LINKER, f);
+            }
+        }
+
         for (Clazz clazz : linkClasses) {
             objectFiles.add(config.getOFile(clazz));
+            if (sizeReport != null) {
+                sizeReport.add(clazz.getInternalName(), config.getOFile(clazz));
+            }
         }
 
         /*
@@ -376,10 +406,31 @@ public class Linker {
             File f = config.getLinesOFile(clazz);
             if (f.exists() && f.length() > 0) {
                 objectFiles.add(f);
+                if (sizeReport != null) {
+                    sizeReport.add(clazz.getInternalName(), f);
+                }
             }
         }
 
-        config.getTarget().build(objectFiles);
+        if (sizeReport != null) {
+            sizeReport.write(config.getSizeReportFile());
+        }
+
+        try (Tracer.Span span = tracer.span("linker", "Link executable", null)) {
+            config.getTarget().build(objectFiles, getExportedSymbols(linkClasses));
+        }
+    }
+
+    /**
+     * Returns the symbols which the specified classes need exported from the
+     * executable.
+     */
+    private static Set<String> getExportedSymbols(Set<Clazz> linkClasses) {
+        Set<String> symbols = new TreeSet<String>();
+        for (Clazz clazz : linkClasses) {
+            symbols.addAll(clazz.getClazzInfo().getExportedSymbols());
+        }
+        return symbols;
     }
 
     private void generateMachineCode(final Config config, ModuleBuilder[] mbs,
@@ -399,8 +450,9 @@ public class Linker {
             final ModuleBuilder mb = mbs[i];
             final int num = i;
             executor.execute(new Runnable() {
+                @SuppressWarnings("try")
                 public void run() {
-                    try {
+                    try (Tracer.Span span = config.getTracer().span("linker", "Generate machine code", "linker" + num)) {
                         File linkerO = generateMachineCode(config, mb, num);
                         synchronized (objectFiles) {
                             objectFiles.add(linkerO);
@@ -447,6 +499,7 @@ public class Linker {
                 FileUtils.writeStringToFile(linkerLl, ir, "utf-8");
             }
             try (Module module = Module.parseIR(context, ir, "linker" + num + ".ll")) {
+                module.setDefinitionsVisibility(Visibility.HiddenVisibility);
                 try (PassManager passManager = new PassManager()) {
                     passManager.addAlwaysInlinerPass();
                     passManager.addPromoteMemoryToRegisterPass();
@@ -532,6 +585,106 @@ public class Linker {
         return typeInfo;
     }
 
+    /**
+     * Assigns ids to all classes in depth-first preorder of the class
+     * hierarchy so that a class and all its subclasses occupy a contiguous
+     * range of ids. Interfaces are assigned ids after all classes. The ids
+     * must be assigned before {@link #buildTypeInfos(Map)} orders the
+     * interface tables by id.
+     */
+    private void assignTypeIds(Set<Clazz> linkClasses, Map<ClazzInfo, TypeInfo> typeInfos) {
+        // TypeInfo equality is based on ids which haven't been assigned yet
+        Map<TypeInfo, List<TypeInfo>> subclasses = new IdentityHashMap<>();
+        List<TypeInfo> roots = new ArrayList<>();
+        List<TypeInfo> interfaces = new ArrayList<>();
+        // linkClasses is sorted so the resulting ids are deterministic
+        for (Clazz clazz : linkClasses) {
+            ClazzInfo ci = clazz.getClazzInfo();
+            TypeInfo typeInfo = typeInfos.get(ci);
+            if (ci.isInterface()) {
+                interfaces.add(typeInfo);
+                continue;
+            }
+            TypeInfo superTypeInfo = ci.hasSuperclass() ? typeInfos.get(ci.getSuperclass()) : null;
+            if (superTypeInfo == null) {
+                roots.add(typeInfo);
+            } else {
+                List<TypeInfo> l = subclasses.get(superTypeInfo);
+                if (l == null) {
+                    l = new ArrayList<>();
+                    subclasses.put(superTypeInfo, l);
+                }
+                l.add(typeInfo);
+            }
+        }
+
+        int id = 0;
+        for (TypeInfo root : roots) {
+            id = assignTypeIds(root, id, subclasses);
+        }
+        for (TypeInfo typeInfo : interfaces) {
+            typeInfo.id = id++;
+            typeInfo.lastSubclassId = typeInfo.id;
+        }
+    }
+
+    private int assignTypeIds(TypeInfo root, int id, Map<TypeInfo, List<TypeInfo>> subclasses) {
+        // Iterative to cope with deep class hierarchies. A TypeInfo is pushed 
+        // twice: the first time it's popped it's given an id, the second time
+        // all its subclasses have been numbered.
+        Set<TypeInfo> visited = Collections.newSetFromMap(new IdentityHashMap<TypeInfo, Boolean>());
+        LinkedList<TypeInfo> stack = new LinkedList<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            TypeInfo typeInfo = stack.pop();
+            if (visited.add(typeInfo)) {
+                typeInfo.id = id++;
+                stack.push(typeInfo);
+                List<TypeInfo> l = subclasses.get(typeInfo);
+                if (l != null) {
+                    for (int i = l.size() - 1; i >= 0; i--) {
+                        stack.push(l.get(i));
+                    }
+                }
+            } else {
+                typeInfo.lastSubclassId = id - 1;
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Finds the interfaces whose linked implementations all descend from a
+     * single class. Casts to such interfaces can be checked using the id
+     * range of that class.
+     */
+    private void findImplementors(Map<ClazzInfo, TypeInfo> typeInfos) {
+        Map<TypeInfo, Integer> counts = new HashMap<>();
+        for (TypeInfo typeInfo : typeInfos.values()) {
+            ClazzInfo ci = typeInfo.clazz.getClazzInfo();
+            if (typeInfo.error || ci.isInterface()) {
+                continue;
+            }
+            TypeInfo superTypeInfo = typeInfo.classTypes.length > 1 
+                    ? typeInfo.classTypes[typeInfo.classTypes.length - 2] : null;
+            for (TypeInfo ifTypeInfo : typeInfo.interfaceTypes) {
+                if (superTypeInfo != null 
+                        && Arrays.binarySearch(superTypeInfo.interfaceTypes, ifTypeInfo) >= 0) {
+                    // Inherited from the superclass which has already been counted
+                    continue;
+                }
+                Integer count = counts.get(ifTypeInfo);
+                counts.put(ifTypeInfo, count == null ? 1 : count + 1);
+                ifTypeInfo.implementor = typeInfo;
+            }
+        }
+        for (Entry<TypeInfo, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() > 1) {
+                entry.getKey().implementor = null;
+            }
+        }
+    }
+
     private void buildTypeInfos(Map<ClazzInfo, TypeInfo> typeInfos) {
         for (TypeInfo typeInfo : typeInfos.values()) {
             buildTypeInfo(typeInfo, typeInfos);
@@ -638,7 +791,15 @@ public class Linker {
             Value result = call(fn, CHECKCAST_CLASS, fn.getParameterRef(0), info,
                     fn.getParameterRef(1),
                     new IntegerConstant((typeInfo.classTypes.length - 1) * 4 + 5 * 4),
-                    new IntegerConstant(typeInfo.id));
+                    new IntegerConstant(typeInfo.id),
+                    new IntegerConstant(typeInfo.lastSubclassId));
+            fn.add(new Ret(result));
+        } else if (typeInfo.implementor != null) {
+            Value result = call(fn, CHECKCAST_INTERFACE_RANGE, fn.getParameterRef(0), info,
+                    fn.getParameterRef(1),
+                    new IntegerConstant(typeInfo.id),
+                    new IntegerConstant(typeInfo.implementor.id),
+                    new IntegerConstant(typeInfo.implementor.lastSubclassId));
             fn.add(new Ret(result));
         } else {
             Value result = call(fn, CHECKCAST_INTERFACE, fn.getParameterRef(0), info,
@@ -660,7 +821,15 @@ public class Linker {
             Value result = call(fn, INSTANCEOF_CLASS, fn.getParameterRef(0), info,
                     fn.getParameterRef(1),
                     new IntegerConstant((typeInfo.classTypes.length - 1) * 4 + 5 * 4),
-                    new IntegerConstant(typeInfo.id));
+                    new IntegerConstant(typeInfo.id),
+                    new IntegerConstant(typeInfo.lastSubclassId));
+            fn.add(new Ret(result));
+        } else if (typeInfo.implementor != null) {
+            Value result = call(fn, INSTANCEOF_INTERFACE_RANGE, fn.getParameterRef(0), info,
+                    fn.getParameterRef(1),
+                    new IntegerConstant(typeInfo.id),
+                    new IntegerConstant(typeInfo.implementor.id),
+                    new IntegerConstant(typeInfo.implementor.lastSubclassId));
             fn.add(new Ret(result));
         } else {
             Value result = call(fn, INSTANCEOF_INTERFACE, fn.getParameterRef(0), info,
@@ -29,6 +29,11 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 
+import aura.compiler.clazz.Clazz;
+import aura.compiler.clazz.ClazzInfo;
+import aura.compiler.clazz.InlinedMethodDependency;
+import aura.compiler.clazz.MethodInfo;
+import aura.compiler.clazz.MethodSummary;
 import aura.compiler.config.Config;
 import aura.compiler.llvm.*;
 import aura.compiler.llvm.Invoke;
@@ -87,6 +92,15 @@ import aura.compiler.llvm.Variable;
 import aura.compiler.llvm.VariableRef;
 import aura.compiler.llvm.Xor;
 import aura.compiler.llvm.Zext;
+import aura.compiler.opt.BoxingEliminator;
+import aura.compiler.opt.CastEliminator;
+import aura.compiler.opt.LockElider;
+import aura.compiler.opt.RedundancyEliminator;
+import aura.compiler.opt.MethodSummarizer;
+import aura.compiler.opt.StaticConstantPropagator;
+import aura.compiler.opt.StringConcatFuser;
+import aura.compiler.opt.UnsynchronizedCallTag;
+import aura.compiler.opt.WriteOnlyFieldEliminator;
 import aura.compiler.trampoline.Anewarray;
 import aura.compiler.trampoline.Checkcast;
 import aura.compiler.trampoline.GetField;
@@ -102,6 +116,8 @@ import aura.compiler.trampoline.New;
 import aura.compiler.trampoline.PutField;
 import aura.compiler.trampoline.PutStatic;
 import aura.compiler.trampoline.Trampoline;
+import aura.compiler.trampoline.UnsynchronizedInvokespecial;
+import aura.compiler.util.Tracer;
 
 import soot.Body;
 import soot.CharType;
@@ -180,6 +196,7 @@ import soot.jimple.VirtualInvokeExpr;
 import soot.jimple.XorExpr;
 import soot.jimple.toolkits.annotation.tags.ArrayCheckTag;
 import soot.jimple.toolkits.annotation.tags.NullCheckTag;
+import soot.tagkit.ConstantValueTag;
 import soot.tagkit.DoubleConstantValueTag;
 import soot.tagkit.FloatConstantValueTag;
 import soot.tagkit.IntegerConstantValueTag;
@@ -201,21 +218,69 @@ public class MethodCompiler extends AbstractMethodCompiler {
     
     private Variable dims;
     
+    private final StaticConstantPropagator staticConstantPropagator = new StaticConstantPropagator();
+    private final BoxingEliminator boxingEliminator = new BoxingEliminator();
+    private final StringConcatFuser stringConcatFuser = new StringConcatFuser();
+    private final CastEliminator castEliminator = new CastEliminator();
+    private final LockElider lockElider = new LockElider();
+    private final RedundancyEliminator redundancyEliminator = new RedundancyEliminator();
+    private int callsInlined;
+    
     public MethodCompiler(Config config) {
         super(config);
     }
     
-    protected Function doCompile(ModuleBuilder moduleBuilder, SootMethod method) {
-        function = createMethodFunction(method);
-        moduleBuilder.addFunction(function);
-        this.moduleBuilder = moduleBuilder;
-        
-        env = function.getParameterRef(0);
-
-        trapsAt = new HashMap<Unit, List<Trap>>();
-        
-        Body body = method.retrieveActiveBody();
-        
+    @Override
+    public void reset(Clazz clazz) {
+        super.reset(clazz);
+        staticConstantPropagator.reset();
+        boxingEliminator.reset();
+        stringConcatFuser.reset();
+        castEliminator.reset();
+        lockElider.reset();
+        redundancyEliminator.reset();
+        redundancyEliminator.setLoadForwarding(config.getFrontendOptLevel() == Config.FrontendOptLevel.full);
+        callsInlined = 0;
+    }
+    
+    public StaticConstantPropagator getStaticConstantPropagator() {
+        return staticConstantPropagator;
+    }
+    
+    public BoxingEliminator getBoxingEliminator() {
+        return boxingEliminator;
+    }
+    
+    public StringConcatFuser getStringConcatFuser() {
+        return stringConcatFuser;
+    }
+    
+    public CastEliminator getCastEliminator() {
+        return castEliminator;
+    }
+    
+    public LockElider getLockElider() {
+        return lockElider;
+    }
+    
+    public RedundancyEliminator getRedundancyEliminator() {
+        return redundancyEliminator;
+    }
+    
+    /**
+     * Returns the number of calls to trivial methods in other classes which
+     * have been replaced by the callee's {@link MethodSummary} since the last
+     * {@link #reset(Clazz)}.
+     */
+    public int getCallsInlined() {
+        return callsInlined;
+    }
+    
+    /**
+     * Runs the Soot packs and our own Jimple optimizations on the body of the
+     * specified method.
+     */
+    private void optimize(SootMethod method, Body body) {
         NopStmt prependedNop = null;
         if (method.isStatic() && !body.getUnits().getFirst().getBoxesPointingToThis().isEmpty()) {
             // Fix for issue #1. This prevents an NPE in Soot's ArrayBoundsCheckerAnalysis. The NPE
@@ -229,6 +294,19 @@ public class MethodCompiler extends AbstractMethodCompiler {
         
         PackManager.v().getPack("jtp").apply(body);
         PackManager.v().getPack("jop").apply(body);
+        if (!config.isDebug()) {
+            staticConstantPropagator.transform(body);
+            boxingEliminator.transform(body);
+            stringConcatFuser.transform(body);
+            castEliminator.transform(body);
+            addCastDependencies(method);
+            lockElider.transform(body);
+            if (config.getFrontendOptLevel() != Config.FrontendOptLevel.none) {
+                redundancyEliminator.transform(body);
+            }
+        }
+        clazz.getClazzInfo().getMethod(method.getName(), Types.getDescriptor(method))
+                .setSummary(MethodSummarizer.summarize(body));
         PackManager.v().getPack("jap").apply(body);
 
         if (body.getUnits().getFirst() == prependedNop && prependedNop.getBoxesPointingToThis().isEmpty()) {
@@ -236,6 +314,42 @@ public class MethodCompiler extends AbstractMethodCompiler {
             // ArrayBoundsCheckerAnalysis which has now been run.
             body.getUnits().getNonPatchingChain().removeFirst();
         }
+    }
+
+    /**
+     * Records the classes whose supertypes the casts removed by the
+     * {@link CastEliminator} depend on as dependencies of the method. If one
+     * of them no longer extends the cast type the method has to be recompiled
+     * or the removed check would let objects of the wrong type through.
+     */
+    private void addCastDependencies(SootMethod method) {
+        MethodInfo mi = clazz.getClazzInfo().getMethod(method.getName(), Types.getDescriptor(method));
+        for (String className : castEliminator.getDependencies()) {
+            if (!className.equals(clazz.getInternalName())) {
+                mi.addClassDependency(className, false);
+            }
+        }
+    }
+
+    @SuppressWarnings("try")
+    protected Function doCompile(ModuleBuilder moduleBuilder, SootMethod method) {
+        function = createMethodFunction(method);
+        moduleBuilder.addFunction(function);
+        this.moduleBuilder = moduleBuilder;
+        
+        env = function.getParameterRef(0);
+
+        trapsAt = new HashMap<Unit, List<Trap>>();
+        
+        Tracer tracer = config.getTracer();
+        Body body;
+        try (Tracer.Span span = tracer.span("soot", "Build Jimple", method.getSignature())) {
+            body = method.retrieveActiveBody();
+        }
+        
+        try (Tracer.Span span = tracer.span("soot", "Optimize Jimple", method.getSignature())) {
+            optimize(method, body);
+        }
         
         PatchingChain<Unit> units = body.getUnits();
         Map<Unit, List<Unit>> branchTargets = getBranchTargets(body);
@@ -277,6 +391,11 @@ public class MethodCompiler extends AbstractMethodCompiler {
             function.add(new Alloca(dims, new ArrayType(multiANewArrayMaxDims, Type.I32)));
         }
         
+        if (config.isRecordStartupOrder()) {
+            Global recorded = moduleBuilder.newGlobal(new IntegerConstant((byte) 0));
+            call(RECORD_ENTRY, env, recorded.ref(), moduleBuilder.getString(function.getName()));
+        }
+
         if (emitCheckStackOverflow) {
             call(CHECK_STACK_OVERFLOW);
         }
@@ -365,7 +484,9 @@ public class MethodCompiler extends AbstractMethodCompiler {
             for (Entry<Unit, Integer> entry : trapHandlers.entrySet()) {
                 alt.put(new IntegerConstant(entry.getValue() + 1), function.newBasicBlockRef(new Label(entry.getKey())));
             }
-            function.add(new Switch(result, function.newBasicBlockRef(new Label(units.getFirst())), alt));
+            // rvmTrycatchEnter() returns 0 when entering the method. Landing pads are cold.
+            function.add(new Switch(result, function.newBasicBlockRef(new Label(units.getFirst())), alt))
+                    .addMetadata(ColdCode.switchDefaultLikely(alt.size()));
             if (!branchTargets.containsKey(units.getFirst())) {
                 function.newBasicBlock(new Label(units.getFirst()));
             }
@@ -641,6 +762,28 @@ public class MethodCompiler extends AbstractMethodCompiler {
         return result == null ? null : result.ref();
     }
     
+    private Value call(Unit unit, Value fn, Argument ... args) {
+        Variable result = null;
+        Type returnType = ((FunctionType) fn.getType()).getReturnType();
+        if (returnType != Type.VOID) {
+            result = function.newVariable(returnType);
+        }
+        function.add(new Call(result, fn, args)).attach(unit);
+        return result == null ? null : result.ref();
+    }
+    
+    /**
+     * Wraps a reference which has already been null checked in an
+     * {@link Argument} marked <code>nonnull</code> and
+     * <code>dereferenceable</code> for the size of the object header (plus
+     * the length field for arrays).
+     */
+    private Argument checked(Value ref, boolean array) {
+        int ptrSize = config.getArch().is32Bit() ? 4 : 8;
+        int size = 2 * ptrSize + (array ? 4 : 0);
+        return new Argument(ref, ParameterAttribute.nonnull, ParameterAttribute.dereferenceable(size));
+    }
+    
 //    private Value callOrInvoke(Unit unit, Value fn, Value ... args) {
 //        Variable result = null;
 //        Type returnType = ((FunctionType) fn.getType()).getReturnType();
@@ -748,6 +891,17 @@ public class MethodCompiler extends AbstractMethodCompiler {
         }
         Value result = null;
         FunctionRef functionRef = config.isDebug() ? null : Intrinsics.getIntrinsic(sootMethod, stmt, expr);
+        if (functionRef == null && !config.isDebug()) {
+            SootMethod callee = getInlinableCallee(expr);
+            MethodSummary summary = callee != null ? getInlinableSummary(callee) : null;
+            if (summary != null) {
+                result = inline(stmt, callee, summary, args);
+                if (result != null) {
+                    return widenToI32Value(stmt, result, methodRef.returnType().equals(CharType.v()));
+                }
+                return null;
+            }
+        }
         if (functionRef == null) {
             Trampoline trampoline = null;
             String targetClassName = Types.getInternalName(methodRef.declaringClass());
@@ -766,12 +920,19 @@ public class MethodCompiler extends AbstractMethodCompiler {
             } else if (expr instanceof InterfaceInvokeExpr) {
                 trampoline = new Invokeinterface(this.className, targetClassName, methodName, methodDesc);
             }
+            UnsynchronizedCallTag unsynchronizedTag = (UnsynchronizedCallTag) stmt.getTag(UnsynchronizedCallTag.NAME);
+            if (unsynchronizedTag != null && unsynchronizedTag.getExactClass() != null) {
+                // The receiver is confined to this thread and its class is known
+                String exactClassName = unsynchronizedTag.getExactClass();
+                trampoline = new UnsynchronizedInvokespecial(this.className, exactClassName, 
+                        methodName, methodDesc, exactClassName);
+            }
             trampolines.add(trampoline);
 
             if (canCallDirectly(expr)) {
                 SootMethod method = this.sootMethod.getDeclaringClass().getMethod(methodRef.name(), 
                         methodRef.parameterTypes(), methodRef.returnType());
-                if (method.isSynchronized()) {
+                if (method.isSynchronized() && unsynchronizedTag == null) {
                     functionRef = FunctionBuilder.synchronizedWrapper(method).ref();
                 } else {
                     functionRef = createMethodFunction(method).ref();
@@ -788,6 +949,207 @@ public class MethodCompiler extends AbstractMethodCompiler {
         }
     }
 
+    /**
+     * Returns the method in another class called by the specified expression
+     * if the call is statically bound to it and may be inlined, i.e. the
+     * callee is static, private, final or declared in a final class and
+     * accessible from this class. Static methods are only considered if
+     * calling them never triggers a static initializer.
+     */
+    private SootMethod getInlinableCallee(InvokeExpr expr) {
+        if (expr instanceof InterfaceInvokeExpr) {
+            return null;
+        }
+        SootMethodRef methodRef = expr.getMethodRef();
+        SootClass target = methodRef.declaringClass();
+        if (target.equals(sootClass) || target.isPhantom() || target.isInterface()
+                || !target.declaresMethod(methodRef.name(), methodRef.parameterTypes(), methodRef.returnType())) {
+            return null;
+        }
+        SootMethod callee = target.getMethod(methodRef.name(), methodRef.parameterTypes(), methodRef.returnType());
+        if (callee.isStatic() != (expr instanceof StaticInvokeExpr) || callee.isConstructor()
+                || callee.isAbstract() || callee.isNative() || callee.isSynchronized()) {
+            return null;
+        }
+        if (expr instanceof VirtualInvokeExpr && !Modifier.isFinal(target.getModifiers()) 
+                && !Modifier.isFinal(callee.getModifiers()) && !callee.isPrivate()) {
+            return null;
+        }
+        if (callee.isStatic() && hasStaticInitializer(target)) {
+            return null;
+        }
+        return isAccessible(callee) ? callee : null;
+    }
+
+    /**
+     * Returns the {@link MethodSummary} recorded for the specified method
+     * the last time its class was compiled or <code>null</code> if there is
+     * none or the class has changed since. Only the {@link ClazzInfo} which
+     * was in the cache when the build started is used and never one produced
+     * during the build. That way the result doesn't depend on the order
+     * classes are compiled in. Clean builds don't use the cache so nothing is
+     * inlined.
+     * <p>
+     * The summary, or <code>null</code>, is recorded as an
+     * {@link InlinedMethodDependency} whether it's inlined or not. That makes
+     * the next build recompile this method once the callee's summary has
+     * changed, e.g. when it has become available. The fields and methods
+     * referenced by the summary must still exist for it to be returned.
+     */
+    private MethodSummary getInlinableSummary(SootMethod callee) {
+        MethodSummary summary = null;
+        if (!config.isClean()) {
+            Clazz target = config.getClazzes().load(Types.getInternalName(callee.getDeclaringClass()));
+            ClazzInfo ci = target != null ? target.getCachedClazzInfo() : null;
+            MethodInfo mi = ci != null && ci.isUpToDate() 
+                    ? ci.getMethod(callee.getName(), Types.getDescriptor(callee)) : null;
+            summary = mi != null ? mi.getSummary() : null;
+        }
+        clazz.getClazzInfo().getMethod(sootMethod.getName(), Types.getDescriptor(sootMethod))
+            .addInlinedMethodDependency(Types.getInternalName(callee.getDeclaringClass()), 
+                    callee.getName(), Types.getDescriptor(callee), summary);
+        if (summary == null) {
+            return null;
+        }
+        switch (summary.getKind()) {
+        case GETFIELD:
+        case PUTFIELD:
+            return getSummaryField(callee, summary) != null ? summary : null;
+        case FORWARD_STATIC:
+            SootMethod forwardTo = getSummaryMethod(summary);
+            if (forwardTo == null || !forwardTo.isStatic() || forwardTo.isNative() || !isAccessible(forwardTo)) {
+                return null;
+            }
+            return summary;
+        default:
+            return summary;
+        }
+    }
+
+    private Value inline(Stmt stmt, SootMethod callee, MethodSummary summary, List<Value> args) {
+        callsInlined++;
+        
+        switch (summary.getKind()) {
+        case GETFIELD:
+            return call(stmt, getInlinedAccessor(getSummaryField(callee, summary), true), 
+                    new Argument(env), checked(args.get(1), false));
+        case PUTFIELD:
+            call(stmt, getInlinedAccessor(getSummaryField(callee, summary), false), 
+                    new Argument(env), checked(args.get(1), false), new Argument(args.get(2)));
+            return null;
+        case CONSTANT:
+            Object c = summary.getConstant();
+            if (c == null) {
+                return new NullConstant(Types.OBJECT_PTR);
+            } else if (c instanceof Integer) {
+                return new IntegerConstant((Integer) c);
+            } else if (c instanceof Long) {
+                return new IntegerConstant((Long) c);
+            } else if (c instanceof Float) {
+                return new FloatingPointConstant((Float) c);
+            } else if (c instanceof Double) {
+                return new FloatingPointConstant((Double) c);
+            }
+            return call(stmt, ldcString((String) c), env);
+        default:
+            Trampoline trampoline = new Invokestatic(this.className, summary.getOwner(), 
+                    summary.getName(), summary.getDesc());
+            trampolines.add(trampoline);
+            List<Value> forwardArgs = new ArrayList<>();
+            forwardArgs.add(env);
+            forwardArgs.addAll(args.subList(callee.isStatic() ? 1 : 2, args.size()));
+            return call(stmt, trampoline.getFunctionRef(), forwardArgs.toArray(new Value[0]));
+        }
+    }
+
+    private boolean isAccessible(SootMethod method) {
+        Clazz target = config.getClazzes().load(Types.getInternalName(method.getDeclaringClass()));
+        if (target == null || !Access.checkClassAccessible(target, clazz)) {
+            return false;
+        }
+        // Protected instance methods also need a check of the receiver's class
+        if (method.isProtected() && !method.isStatic()) {
+            return false;
+        }
+        return Access.checkMemberAccessible(method, clazz, target, null);
+    }
+
+    private static boolean hasStaticInitializer(SootClass sc) {
+        // java.lang.Object is always initialized
+        for (; sc.hasSuperclass(); sc = sc.getSuperclass()) {
+            if (sc.isPhantom() || sc.declaresMethodByName("<clinit>")) {
+                return true;
+            }
+            for (SootField f : WriteOnlyFieldEliminator.getFields(sc)) {
+                // ClassCompiler adds a <clinit> to initialize fields with
+                // ConstantValueTags
+                if (f.isStatic() && hasConstantValueTag(f)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasConstantValueTag(SootField f) {
+        for (Tag tag : f.getTags()) {
+            if (tag instanceof ConstantValueTag) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static SootField getSummaryField(SootMethod callee, MethodSummary summary) {
+        for (SootField f : WriteOnlyFieldEliminator.getFields(callee.getDeclaringClass())) {
+            if (!f.isStatic() && f.getName().equals(summary.getName()) 
+                    && Types.getDescriptor(f.getType()).equals(summary.getDesc())) {
+                return f;
+            }
+        }
+        return null;
+    }
+
+    private SootMethod getSummaryMethod(MethodSummary summary) {
+        Clazz owner = config.getClazzes().load(summary.getOwner());
+        if (owner == null) {
+            return null;
+        }
+        for (SootMethod m : owner.getSootClass().getMethods()) {
+            if (m.getName().equals(summary.getName()) && Types.getDescriptor(m).equals(summary.getDesc())) {
+                return m;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns an accessor for an instance field in another class which
+     * doesn't go through a trampoline and thus skips the access checks. Used
+     * when inlining the bodies of accessible trivial methods.
+     */
+    private FunctionRef getInlinedAccessor(SootField field, boolean getter) {
+        String name = getter ? Symbols.inlinedGetterSymbol(field) : Symbols.inlinedSetterSymbol(field);
+        FunctionType type = getter 
+                ? new FunctionType(Types.getType(field.getType()), Types.ENV_PTR, Types.OBJECT_PTR)
+                : new FunctionType(Type.VOID, Types.ENV_PTR, Types.OBJECT_PTR, Types.getType(field.getType()));
+        if (!moduleBuilder.hasSymbol(name)) {
+            Function fn = new FunctionBuilder(name, type).linkage(Linkage._private)
+                    .attribs(FunctionAttribute.alwaysinline, FunctionAttribute.optsize).build();
+            List<SootField> classFields = Collections.emptyList();
+            StructureType classType = new StructureType();
+            List<SootField> instanceFields = Types.getInstanceFields(config.getOs(), config.getArch(), field.getDeclaringClass());
+            StructureType instanceType = Types.getInstanceType(config.getOs(), config.getArch(), field.getDeclaringClass());
+            if (getter) {
+                ClassCompiler.createFieldGetter(fn, field, classFields, classType, instanceFields, instanceType);
+            } else {
+                ClassCompiler.createFieldSetter(fn, field, classFields, classType, instanceFields, instanceType);
+            }
+            moduleBuilder.addFunction(fn);
+        }
+        return new FunctionRef(name, type);
+    }
+
     private void checkNull(Stmt stmt, Value base) {
         NullCheckTag nullCheckTag = (NullCheckTag) stmt.getTag("NullCheckTag");
         if (nullCheckTag == null || nullCheckTag.needCheck()) {
@@ -863,7 +1225,7 @@ public class MethodCompiler extends AbstractMethodCompiler {
                 Value index = immediate(stmt, (Immediate) ref.getIndex());
                 checkNull(stmt, base);
                 checkBounds(stmt, base, index);
-                result = call(stmt, getArrayLoad(ref.getType()), base, index);
+                result = call(stmt, getArrayLoad(ref.getType()), checked(base, true), new Argument(index));
                 result = widenToI32Value(stmt, result, Types.isUnsigned(ref.getType()));
             }
         } else if (rightOp instanceof InstanceFieldRef) {
@@ -883,7 +1245,7 @@ public class MethodCompiler extends AbstractMethodCompiler {
                 trampolines.add(trampoline);
                 fn = trampoline.getFunctionRef();
             }
-            result = call(stmt, fn, env, base);
+            result = call(stmt, fn, new Argument(env), checked(base, false));
             result = widenToI32Value(stmt, result, Types.isUnsigned(ref.getType()));
         } else if (rightOp instanceof StaticFieldRef) {
             StaticFieldRef ref = (StaticFieldRef) rightOp;
@@ -1126,7 +1488,7 @@ public class MethodCompiler extends AbstractMethodCompiler {
                 Value op = immediate(stmt, (Immediate) ((LengthExpr) rightOp).getOp());
                 checkNull(stmt, op);
                 Variable v = function.newVariable(Type.I32);
-                function.add(new Call(v, ARRAY_LENGTH, op)).attach(stmt);
+                function.add(new Call(v, ARRAY_LENGTH, checked(op, true))).attach(stmt);
                 result = v.ref();
             } else if (rightOp instanceof NegExpr) {
                 NegExpr expr = (NegExpr) rightOp;
@@ -1164,7 +1526,8 @@ public class MethodCompiler extends AbstractMethodCompiler {
                 if (leftOp.getType() instanceof RefLikeType) {
                     call(stmt, BC_SET_OBJECT_ARRAY_ELEMENT, env, base, index, narrowedResult);
                 } else {
-                    call(stmt, getArrayStore(leftOp.getType()), base, index, narrowedResult);
+                    call(stmt, getArrayStore(leftOp.getType()), checked(base, true), 
+                            new Argument(index), new Argument(narrowedResult));
                 }
             } else if (leftOp instanceof InstanceFieldRef) {
                 InstanceFieldRef ref = (InstanceFieldRef) leftOp;
@@ -1183,7 +1546,7 @@ public class MethodCompiler extends AbstractMethodCompiler {
                     trampolines.add(trampoline);
                     fn = trampoline.getFunctionRef();
                 }
-                call(stmt, fn, env, base, narrowedResult);
+                call(stmt, fn, new Argument(env), checked(base, false), new Argument(narrowedResult));
             } else if (leftOp instanceof StaticFieldRef) {
                 StaticFieldRef ref = (StaticFieldRef) leftOp;
                 FunctionRef fn = null;
@@ -1238,9 +1601,27 @@ public class MethodCompiler extends AbstractMethodCompiler {
         Variable result = function.newVariable(Type.I1);
         function.add(new Icmp(result, c, op1, op2)).attach(stmt);
         Unit nextUnit = sootMethod.getActiveBody().getUnits().getSuccOf(stmt);
-        function.add(new Br(new VariableRef(result), 
+        Instruction br = function.add(new Br(new VariableRef(result), 
                 function.newBasicBlockRef(new Label(stmt.getTarget())), 
                 function.newBasicBlockRef(new Label(nextUnit)))).attach(stmt);
+        boolean targetThrows = throwsUnconditionally(stmt.getTarget());
+        boolean nextThrows = throwsUnconditionally(nextUnit);
+        if (targetThrows != nextThrows) {
+            br.addMetadata(targetThrows ? ColdCode.UNLIKELY : ColdCode.LIKELY);
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the straight-line code starting at the
+     * specified {@link Unit} always ends in a <code>throw</code>. Such code
+     * is typically an argument check and is treated as cold.
+     */
+    private boolean throwsUnconditionally(Unit unit) {
+        PatchingChain<Unit> units = sootMethod.getActiveBody().getUnits();
+        while (unit != null && unit.fallsThrough() && !unit.branches()) {
+            unit = units.getSuccOf(unit);
+        }
+        return unit instanceof ThrowStmt;
     }
     
     private void lookupSwitch(LookupSwitchStmt stmt) {
@@ -109,7 +109,7 @@ public class ModuleBuilder {
     }
     
     public UnnamedMetadata newUnnamedMetadata(Metadata value) {
-        UnnamedMetadata md = new UnnamedMetadata(unnamedMetadata.size(), value);
+        UnnamedMetadata md = new UnnamedMetadata(Tbaa.RESERVED_METADATA + unnamedMetadata.size(), value);
         unnamedMetadata.put(md.getIndex(), md);
         return md;
     }
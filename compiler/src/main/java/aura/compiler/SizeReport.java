@@ -0,0 +1,360 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import aura.compiler.DependencyGraph.Reachability;
+import aura.compiler.config.Config;
+import aura.compiler.config.OS;
+import aura.llvm.ObjectFile;
+import aura.llvm.SectionIterator;
+import aura.llvm.Symbol;
+
+/**
+ * Attributes the bytes of the object files linked into an executable to the
+ * classes they were compiled from. The bytes of each object file are split
+ * by section into text, data and metadata and by symbol into the origins in
+ * {@link Origin}. The bytes which aren't covered by any symbol, e.g. private
+ * constants and unwind info, are reported as {@link Origin#unattributed}.
+ * Object files generated by the {@link Linker} are reported as a single
+ * pseudo class. The report groups the classes by package and by the
+ * {@link Reachability} determined by the {@link DependencyGraph}.
+ * <p>
+ * Sizes are those of the object files before linking. Stripped methods are
+ * still present in the object files but are dropped by the native linker if
+ * it strips dead code.
+ */
+public class SizeReport {
+    static final String LINKER = "(linker)";
+
+    enum Section {
+        text, data, metadata
+    }
+
+    enum Origin {
+        /** A reachable method. */
+        method,
+        /** A trampoline to a method or field in another class. */
+        trampoline,
+        /** An unreachable method which has been replaced by a stub. */
+        stripped,
+        /** Class info, type info, vtables and itables. */
+        classinfo,
+        /** Runtime visible attributes and annotations. */
+        reflection,
+        /** String literals. */
+        string,
+        /** Any other symbol, e.g. wrappers and accessors. */
+        other,
+        /** Bytes not covered by any symbol. */
+        unattributed
+    }
+
+    private static class Entry {
+        final String name;
+        final long[] sections = new long[Section.values().length];
+        final long[] origins = new long[Origin.values().length];
+
+        Entry(String name) {
+            this.name = name;
+        }
+
+        long total() {
+            long total = 0;
+            for (long size : sections) {
+                total += size;
+            }
+            return total;
+        }
+
+        long[] getOrigins() {
+            long[] result = origins.clone();
+            long attributed = 0;
+            for (long size : origins) {
+                attributed += size;
+            }
+            result[Origin.unattributed.ordinal()] = Math.max(0, total() - attributed);
+            return result;
+        }
+    }
+
+    private final Config config;
+    private final String symbolPrefix;
+    private final Set<String> reachableMethods;
+    private final Map<String, Reachability> reachability;
+    private final Map<String, Entry> entries = new TreeMap<>();
+
+    /**
+     * Creates a new {@link SizeReport}. <code>reachableMethods</code> holds
+     * the methods kept by the tree shaker formatted as
+     * <code>owner.name desc</code> without the space.
+     */
+    public SizeReport(Config config, Set<String> reachableMethods, Map<String, Reachability> reachability) {
+        this.config = config;
+        this.symbolPrefix = config.getOs().getFamily() == OS.Family.darwin ? "_" : "";
+        this.reachableMethods = reachableMethods;
+        this.reachability = reachability;
+    }
+
+    /**
+     * Adds the object file compiled from the class with the specified internal
+     * name. Use {@link #LINKER} for object files generated by the
+     * {@link Linker}.
+     */
+    public void add(String internalName, File oFile) {
+        Entry entry = getEntry(internalName);
+        try (ObjectFile objectFile = ObjectFile.load(oFile)) {
+            for (Symbol symbol : objectFile.getSymbols()) {
+                addSymbol(entry, symbol.getName(), symbol.getSize());
+            }
+            try (SectionIterator it = objectFile.getSectionIterator()) {
+                while (it.hasNext()) {
+                    addSection(entry, it.getName(), it.getSize());
+                    it.next();
+                }
+            }
+        }
+    }
+
+    private Entry getEntry(String internalName) {
+        Entry entry = entries.get(internalName);
+        if (entry == null) {
+            entry = new Entry(internalName);
+            entries.put(internalName, entry);
+        }
+        return entry;
+    }
+
+    void addSymbol(String internalName, String name, long size) {
+        addSymbol(getEntry(internalName), name, size);
+    }
+
+    void addSection(String internalName, String name, long size) {
+        addSection(getEntry(internalName), name, size);
+    }
+
+    private void addSymbol(Entry entry, String name, long size) {
+        if (size > 0) {
+            if (name.startsWith(symbolPrefix)) {
+                name = name.substring(symbolPrefix.length());
+            }
+            entry.origins[getOrigin(name).ordinal()] += size;
+        }
+    }
+
+    private void addSection(Entry entry, String name, long size) {
+        Section section = getSection(name);
+        if (section != null) {
+            entry.sections[section.ordinal()] += size;
+        }
+    }
+
+    /**
+     * Returns the {@link Section} bytes in the section with the specified name
+     * are attributed to or <code>null</code> if the section won't end up in
+     * the executable, e.g. relocations and the symbol table.
+     */
+    static Section getSection(String name) {
+        if (name == null || name.isEmpty() || name.startsWith(".rel") || name.equals(".symtab")
+                || name.equals(".strtab") || name.equals(".shstrtab") || name.equals(".group")
+                || name.startsWith(".note") || name.startsWith(".llvm")) {
+            return null;
+        }
+        if (name.contains("text")) {
+            return Section.text;
+        }
+        if (name.contains("debug") || name.contains("eh_frame") || name.contains("unwind")
+                || name.contains("except_table")) {
+            return Section.metadata;
+        }
+        return Section.data;
+    }
+
+    Origin getOrigin(String symbol) {
+        if (symbol.startsWith(Symbols.EXTERNAL_SYMBOL_PREFIX)) {
+            String s = symbol.substring(Symbols.EXTERNAL_SYMBOL_PREFIX.length());
+            int paren = s.indexOf('(');
+            int dot = paren == -1 ? -1 : s.lastIndexOf('.', paren);
+            if (dot == -1) {
+                return Origin.other;
+            }
+            String key = s.substring(0, dot).replace('.', '/') + s.substring(dot);
+            return reachableMethods.contains(key) ? Origin.method : Origin.stripped;
+        }
+        if (symbol.startsWith("_stripped_method")) {
+            return Origin.stripped;
+        }
+        if (symbol.startsWith("str_")) {
+            return Origin.string;
+        }
+        if (symbol.startsWith(Symbols.INTERNAL_SYMBOL_PREFIX) && symbol.endsWith("]")) {
+            String type = symbol.substring(symbol.lastIndexOf('[') + 1, symbol.length() - 1);
+            if (type.indexOf('(') != -1) {
+                return Origin.trampoline;
+            }
+            switch (type) {
+            case "cattributes":
+            case "mattributes":
+            case "fattributes":
+                return Origin.reflection;
+            case "ldcstring":
+                return Origin.string;
+            case "info":
+            case "infostruct":
+            case "typeinfo":
+            case "vtable":
+            case "imt":
+            case "itables":
+            case "fields":
+            case "methods":
+                return Origin.classinfo;
+            default:
+                return type.startsWith("itable") ? Origin.classinfo : Origin.other;
+            }
+        }
+        return Origin.other;
+    }
+
+    String getReachability(String internalName) {
+        if (LINKER.equals(internalName)) {
+            return LINKER;
+        }
+        Reachability r = reachability.get(internalName);
+        return r != null ? r.name() : Reachability.unreachable.name();
+    }
+
+    static String getPackage(String internalName) {
+        if (LINKER.equals(internalName)) {
+            return LINKER;
+        }
+        int index = internalName.lastIndexOf('/');
+        return index == -1 ? "(default)" : internalName.substring(0, index).replace('/', '.');
+    }
+
+    private List<Entry> group(boolean byPackage) {
+        Map<String, Entry> groups = new TreeMap<>();
+        for (Entry entry : entries.values()) {
+            String key = byPackage ? getPackage(entry.name) : getReachability(entry.name);
+            Entry group = groups.get(key);
+            if (group == null) {
+                group = new Entry(key);
+                groups.put(key, group);
+            }
+            for (int i = 0; i < entry.sections.length; i++) {
+                group.sections[i] += entry.sections[i];
+            }
+            for (int i = 0; i < entry.origins.length; i++) {
+                group.origins[i] += entry.origins[i];
+            }
+        }
+        return sortBySize(groups.values());
+    }
+
+    private static List<Entry> sortBySize(Iterable<Entry> entries) {
+        List<Entry> result = new ArrayList<>();
+        for (Entry entry : entries) {
+            result.add(entry);
+        }
+        Collections.sort(result, new Comparator<Entry>() {
+            public int compare(Entry o1, Entry o2) {
+                int c = Long.compare(o2.total(), o1.total());
+                return c != 0 ? c : o1.name.compareTo(o2.name);
+            }
+        });
+        return result;
+    }
+
+    public void write(File file) throws IOException {
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            write(out);
+        }
+        config.getLogger().info("Wrote size report for %d classes to %s", entries.size(), file);
+    }
+
+    void write(PrintWriter out) {
+        Entry total = new Entry("total");
+        for (Entry entry : entries.values()) {
+            for (int i = 0; i < entry.sections.length; i++) {
+                total.sections[i] += entry.sections[i];
+            }
+            for (int i = 0; i < entry.origins.length; i++) {
+                total.origins[i] += entry.origins[i];
+            }
+        }
+
+        out.format("Code size report (%s %s), %d bytes in %d classes%n", config.getOs(), config.getArch(),
+                total.total(), entries.size());
+        out.println("Sizes are taken from the object files before linking.");
+        out.println();
+        out.println("By section");
+        for (Section section : Section.values()) {
+            out.format("%12d  %s%n", total.sections[section.ordinal()], section);
+        }
+        out.println();
+        out.println("By origin");
+        long[] origins = total.getOrigins();
+        for (Origin origin : Origin.values()) {
+            out.format("%12d  %s%n", origins[origin.ordinal()], origin);
+        }
+        out.println();
+        out.println("By reachability");
+        writeTable(out, "reachability", group(false), false);
+        out.println();
+        out.println("By package");
+        writeTable(out, "package", group(true), false);
+        out.println();
+        out.println("By class");
+        writeTable(out, "reachability class", sortBySize(entries.values()), true);
+    }
+
+    private void writeTable(PrintWriter out, String name, List<Entry> rows, boolean classes) {
+        StringBuilder header = new StringBuilder();
+        header.append(String.format("%12s", "total"));
+        for (Section section : Section.values()) {
+            header.append(String.format(" %10s", section));
+        }
+        for (Origin origin : Origin.values()) {
+            header.append(String.format(" %12s", origin));
+        }
+        out.println(header.append("  ").append(name));
+        for (Entry entry : rows) {
+            out.format("%12d", entry.total());
+            for (long size : entry.sections) {
+                out.format(" %10d", size);
+            }
+            for (long size : entry.getOrigins()) {
+                out.format(" %12d", size);
+            }
+            if (classes) {
+                out.format("  %s %s%n", getReachability(entry.name), entry.name.replace('/', '.'));
+            } else {
+                out.format("  %s%n", entry.name);
+            }
+        }
+    }
+}
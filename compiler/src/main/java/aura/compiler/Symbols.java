@@ -194,6 +194,14 @@ public class Symbols {
         return fieldSymbol(fieldRef, "set");
     }
 
+    public static String inlinedGetterSymbol(SootField field) {
+        return fieldSymbol(field, "inlinedget");
+    }
+
+    public static String inlinedSetterSymbol(SootField field) {
+        return fieldSymbol(field, "inlinedset");
+    }
+
     public static String fieldAttributesSymbol(SootField field) {
         return fieldSymbol(field, "fattributes");
     }
@@ -283,6 +291,14 @@ public class Symbols {
         return classSymbol(classInternalName, "infostruct");
     }
 
+    public static String preformedFieldsSymbol(String classInternalName) {
+        return classSymbol(classInternalName, "fields");
+    }
+
+    public static String preformedMethodsSymbol(String classInternalName) {
+        return classSymbol(classInternalName, "methods");
+    }
+
     public static String typeInfoSymbol(String classInternalName) {
         return classSymbol(classInternalName, "typeinfo");
     }
@@ -291,6 +307,10 @@ public class Symbols {
         return classSymbol(classInternalName, "vtable");
     }
 
+    public static String imtSymbol(String classInternalName) {
+        return classSymbol(classInternalName, "imt");
+    }
+
     public static String itableSymbol(String classInternalName) {
         return classSymbol(classInternalName, "itable");
     }
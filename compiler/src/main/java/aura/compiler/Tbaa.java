@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler;
+
+import soot.SootField;
+import aura.compiler.llvm.IntegerConstant;
+import aura.compiler.llvm.MetadataNode;
+import aura.compiler.llvm.MetadataString;
+import aura.compiler.llvm.TbaaMetadata;
+import aura.compiler.llvm.UnnamedMetadataRef;
+
+/**
+ * Type-based alias analysis (TBAA) metadata for Java heap accesses. The root
+ * of the hierarchy and the nodes used by the object and array helpers are
+ * defined in <code>header.ll</code> using the unnamed metadata indexes below.
+ * Fields get one type node each, named after the field's identity, which
+ * tells LLVM that stores to one field never clobber another field or any
+ * array element.
+ */
+public class Tbaa {
+    /**
+     * The number of unnamed metadata indexes reserved by
+     * <code>header.ll</code>. Generated unnamed metadata must be numbered
+     * from this index and up.
+     */
+    public static final int RESERVED_METADATA = 32;
+
+    public static final UnnamedMetadataRef ROOT = new UnnamedMetadataRef(0);
+
+    /**
+     * Returns the access tag to attach to loads and stores of the specified
+     * field.
+     */
+    public static TbaaMetadata field(SootField field) {
+        String name = Types.getInternalName(field.getDeclaringClass()) + "." 
+                + field.getName() + ":" + Types.getDescriptor(field);
+        MetadataNode type = new MetadataNode(new MetadataString(name), ROOT, 
+                new IntegerConstant(0L));
+        return new TbaaMetadata(new MetadataNode(type, type, new IntegerConstant(0L)));
+    }
+}
@@ -20,6 +20,7 @@ import aura.compiler.clazz.Clazz;
 import aura.compiler.config.Config;
 import aura.compiler.llvm.*;
 import aura.compiler.llvm.Value;
+import aura.compiler.opt.WriteOnlyFieldEliminator;
 import aura.compiler.trampoline.*;
 import aura.compiler.trampoline.Invoke;
 import org.apache.commons.lang3.tuple.ImmutableTriple;
@@ -90,7 +91,7 @@ public class TrampolineCompiler {
          * ClassCompiler will be overridden with a function which throws an
          * appropriate exception.
          */
-        Function errorFn = new FunctionBuilder(t).linkage(external).build();
+        Function errorFn = new FunctionBuilder(t).linkage(external).cold(config.getOs()).build();
         if (!checkClassExists(errorFn, t) || !checkClassAccessible(errorFn, t)) {
             mb.addFunction(errorFn);
             return;
@@ -262,7 +263,7 @@ public class TrampolineCompiler {
                 && !Modifier.isFinal(rm.getModifiers())
                 && !Modifier.isPrivate(rm.getModifiers())) {
             fnName = Symbols.lookupWrapperSymbol(rm);
-        } else if (rm.isSynchronized()) {
+        } else if (rm.isSynchronized() && !(t instanceof UnsynchronizedInvokespecial)) {
             fnName = Symbols.synchronizedWrapperSymbol(rm);
         } else {
             fnName = Symbols.methodSymbol(rm);
@@ -634,7 +635,7 @@ public class TrampolineCompiler {
     }
     
     private SootField getField(SootClass clazz, String name, String desc) {
-        for (SootField f : clazz.getFields()) {
+        for (SootField f : WriteOnlyFieldEliminator.getFields(clazz)) {
             if (name.equals(f.getName()) && desc.equals(Types.getDescriptor(f))) {
                 return f;
             }
@@ -41,6 +41,7 @@ import aura.compiler.llvm.StructureType;
 import aura.compiler.llvm.Type;
 import aura.compiler.llvm.Value;
 import aura.compiler.llvm.Variable;
+import aura.compiler.opt.WriteOnlyFieldEliminator;
 
 import soot.BooleanType;
 import soot.ByteType;
@@ -85,6 +86,8 @@ public class Types {
     // Dummy VITable type definition. The real one is in header.ll
     public static final StructureType VITABLE = new StructureType("VITable", Type.I8_PTR);
     public static final Type VITABLE_PTR = new PointerType(VITABLE);
+    public static final StructureType ITABLES = new StructureType("ITables", Type.I8_PTR);
+    public static final Type ITABLES_PTR = new PointerType(ITABLES);
     
     public static final Type OBJECT_PTR = new PointerType(OBJECT);
     public static final Type METHOD_PTR = new PointerType(new OpaqueType("Method"));
@@ -573,8 +576,9 @@ public class Types {
     }
     
     public static List<SootField> getFields(final OS os, final Arch arch, SootClass clazz, boolean ztatic) {
+        // Write-only fields must be gone before the layout is computed
         List<SootField> l = new ArrayList<SootField>();
-        for (SootField f : clazz.getFields()) {
+        for (SootField f : WriteOnlyFieldEliminator.getFields(clazz)) {
             if (ztatic == f.isStatic()) {
                 l.add(f);
             }
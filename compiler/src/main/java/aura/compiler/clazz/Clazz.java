@@ -27,13 +27,24 @@ import java.io.ObjectOutputStream;
 
 import org.apache.commons.io.IOUtils;
 
+import aura.compiler.opt.WriteOnlyFieldEliminator;
+import soot.Body;
+import soot.MethodSource;
 import soot.SootClass;
+import soot.SootMethod;
 
 /**
  *
  * @version $Id$
  */
 public abstract class Clazz implements Comparable<Clazz> {
+    private static final MethodSource RELEASED_METHOD_SOURCE = new MethodSource() {
+        @Override
+        public Body getBody(SootMethod m, String phaseName) {
+            throw new IllegalStateException("The body of " + m.getSignature() + " has been released");
+        }
+    };
+
     final Clazzes clazzes;
     private final String fileName;
     private final String className;
@@ -41,6 +52,8 @@ public abstract class Clazz implements Comparable<Clazz> {
     private final AbstractPath path;
 
     private ClazzInfo clazzInfo = null; 
+    private ClazzInfo cachedClazzInfo = null;
+    private boolean cachedClazzInfoRead = false;
     private SootClass sootClass = null;
     
     Clazz(Clazzes clazzes, String fileName, AbstractPath path) {
@@ -73,24 +86,62 @@ public abstract class Clazz implements Comparable<Clazz> {
     
     public ClazzInfo getClazzInfo() {
         if (clazzInfo == null) {
-            File infoFile = clazzes.getConfig().getInfoFile(this);
-            if (infoFile.exists()) {
-                ObjectInputStream ois = null;
-                try {
-                    ois = new ObjectInputStream(
-                            new BufferedInputStream(new FileInputStream(infoFile)));
-                    clazzInfo = (ClazzInfo) ois.readObject();
-                    clazzInfo.setClazz(this);
-                } catch (IOException e) {
-                } catch (ClassNotFoundException e) {
-                } finally {
-                    IOUtils.closeQuietly(ois);
-                }
-            }
+            clazzInfo = readClazzInfo();
         }
         return clazzInfo;
     }
 
+    /**
+     * Returns the {@link ClazzInfo} which was in the cache when the current
+     * build started or <code>null</code> if there was none. Unlike
+     * {@link #getClazzInfo()} this doesn't change when the class is compiled
+     * during the build and it's never modified, so what other classes read
+     * from it doesn't depend on the order the classes are compiled in.
+     */
+    public synchronized ClazzInfo getCachedClazzInfo() {
+        if (!cachedClazzInfoRead) {
+            cachedClazzInfo = readClazzInfo();
+            cachedClazzInfoRead = true;
+        }
+        return cachedClazzInfo;
+    }
+
+    /**
+     * Drops the {@link ClazzInfo} returned by {@link #getCachedClazzInfo()}
+     * before another build.
+     */
+    synchronized void resetCachedClazzInfo() {
+        cachedClazzInfo = null;
+        cachedClazzInfoRead = false;
+    }
+
+    private ClazzInfo readClazzInfo() {
+        File infoFile = clazzes.getConfig().getInfoFile(this);
+        if (infoFile.exists()) {
+            ObjectInputStream ois = null;
+            try {
+                ois = new ObjectInputStream(
+                        new BufferedInputStream(new FileInputStream(infoFile)));
+                ClazzInfo ci = (ClazzInfo) ois.readObject();
+                ci.setClazz(this);
+                return ci;
+            } catch (IOException e) {
+            } catch (ClassNotFoundException e) {
+            } finally {
+                IOUtils.closeQuietly(ois);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Drops the {@link ClazzInfo} read from the cache so that it's read again
+     * the next time it's needed, e.g. after the cached file was replaced.
+     */
+    public void reloadClazzInfo() {
+        clazzInfo = null;
+    }
+
     public ClazzInfo resetClazzInfo() {
         clazzInfo = new ClazzInfo(this, getSootClass());
         return clazzInfo;
@@ -100,6 +151,8 @@ public abstract class Clazz implements Comparable<Clazz> {
         if (clazzInfo == null) {
             throw new IllegalStateException();
         }
+        // Read the previous ClazzInfo before it's overwritten
+        getCachedClazzInfo();
         File infoFile = clazzes.getConfig().getInfoFile(this);
         infoFile.getParentFile().mkdirs();
         ObjectOutputStream oos = null;
@@ -112,6 +165,40 @@ public abstract class Clazz implements Comparable<Clazz> {
 
     }
     
+    /**
+     * Drops the cached {@link SootClass} since Soot is about to be
+     * reinitialized. If <code>modified</code> the cached {@link ClazzInfo} is
+     * dropped as well so that it's reread once the class has been recompiled.
+     */
+    void reset(boolean modified) {
+        sootClass = null;
+        if (modified) {
+            clazzInfo = null;
+        }
+    }
+
+    /**
+     * Releases the Jimple bodies of this class once it has been compiled. Only
+     * the {@link ClazzInfo} is needed after that. The method sources are
+     * released as well since they keep the parsed class file reachable.
+     * Retrieving a body after this throws an {@link IllegalStateException}.
+     */
+    public void releaseBodies() {
+        if (sootClass == null) {
+            return;
+        }
+        // Field layouts of subclasses may need the bodies otherwise.
+        WriteOnlyFieldEliminator.apply(sootClass);
+        for (SootMethod method : sootClass.getMethods()) {
+            if (method.hasActiveBody()) {
+                method.releaseActiveBody();
+            }
+            if (method.isConcrete()) {
+                method.setSource(RELEASED_METHOD_SOURCE);
+            }
+        }
+    }
+
     public SootClass getSootClass() {
         if (sootClass == null) {
             sootClass = clazzes.getSootClass(this);
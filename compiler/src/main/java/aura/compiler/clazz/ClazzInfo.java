@@ -37,7 +37,7 @@ import soot.SootMethod;
  *
  */
 public class ClazzInfo implements Serializable {
-    private static final long serialVersionUID = 99L;
+    private static final long serialVersionUID = 100L;
     
     private int modifiers;
     private String name;
@@ -50,8 +50,10 @@ public class ClazzInfo implements Serializable {
     private final Set<String> checkcasts = new HashSet<String>();
     private final Set<String> instanceofs = new HashSet<String>();
     private final Set<String> invokes = new HashSet<String>();
+    private final Set<String> exportedSymbols = new HashSet<String>();
     private boolean isStruct;
     private boolean isEnum;
+    private long lastModified;
     
     private transient Clazz clazz;
     
@@ -62,6 +64,7 @@ public class ClazzInfo implements Serializable {
         modifiers = sootClass.getModifiers();
         name = sootClass.getName();
         internalName = Types.getInternalName(sootClass);
+        lastModified = clazz.lastModified();
     }
     
     private ClazzInfo(String internalName) {
@@ -111,6 +114,14 @@ public class ClazzInfo implements Serializable {
         return clazz;
     }
     
+    /**
+     * Returns <code>true</code> if this {@link ClazzInfo} was created from the
+     * current version of the class file.
+     */
+    public boolean isUpToDate() {
+        return clazz != null && clazz.lastModified() == lastModified;
+    }
+    
     public boolean isStruct() {
         return isStruct;
     }
@@ -307,6 +318,19 @@ public class ClazzInfo implements Serializable {
         invokes.add(className);
     }
 
+    /**
+     * Returns the symbols, or symbol patterns, which have to be in the
+     * executable's dynamic symbol table for this class to work. These are the
+     * symbols which the runtime looks up using <code>dlsym()</code>.
+     */
+    public Set<String> getExportedSymbols() {
+        return exportedSymbols;
+    }
+
+    public void addExportedSymbol(String symbol) {
+        exportedSymbols.add(symbol);
+    }
+
     public boolean isPublic() {
         return (modifiers & Modifier.PUBLIC) > 0;
     }
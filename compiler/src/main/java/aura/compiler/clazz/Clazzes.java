@@ -28,6 +28,7 @@ import java.util.Map;
 import java.util.Set;
 
 import aura.compiler.config.Config;
+import aura.compiler.opt.WriteOnlyFieldEliminator;
 
 import soot.Scene;
 import soot.SootClass;
@@ -164,6 +165,48 @@ public class Clazzes {
         return Collections.unmodifiableList(allClasses);
     }
 
+    /**
+     * Prepares for another build with the same {@link Config} after javac has
+     * rewritten class files in directory {@link Path}s. The directories are
+     * rescanned for added and removed class files and the {@link Clazz}es
+     * which have been added or modified since <code>timestamp</code> are
+     * returned. If anything has changed all {@link Clazz}es drop their
+     * {@link SootClass} and Soot will be reinitialized the next time one is
+     * needed. Soot classes reference each other directly so there's no way to
+     * reload only the modified ones. Unmodified {@link Clazz}es keep their
+     * {@link ClazzInfo}.
+     */
+    public Set<Clazz> refresh(long timestamp) {
+        boolean changed = false;
+        for (Path p : paths) {
+            if (p instanceof DirectoryPath) {
+                changed |= ((DirectoryPath) p).refresh();
+            }
+        }
+        if (changed) {
+            cache.clear();
+            allClasses.clear();
+            populateCache();
+        }
+        Set<Clazz> modified = new HashSet<Clazz>();
+        for (Clazz clazz : allClasses) {
+            clazz.resetCachedClazzInfo();
+            if (clazz.getPath() instanceof DirectoryPath && clazz.lastModified() >= timestamp) {
+                modified.add(clazz);
+            }
+        }
+        if (changed || !modified.isEmpty()) {
+            for (Clazz clazz : allClasses) {
+                clazz.reset(modified.contains(clazz));
+            }
+            for (Path p : paths) {
+                ((AbstractPath) p).generatedClasses.clear();
+            }
+            sootInitialized = false;
+        }
+        return modified;
+    }
+
     SootClass getSootClass(Clazz clazz) {
         if (!sootInitialized) {
             initializeSoot(this);
@@ -191,6 +234,9 @@ public class Clazzes {
 
     private static void initializeSoot(Clazzes clazzes) {
         soot.G.reset();
+        WriteOnlyFieldEliminator.configure(
+                clazzes.config.getTreeShakerMode() == Config.TreeShakerMode.aggressive,
+                clazzes.config.getForceLinkClasses());
         Options.v().set_output_format(Options.output_format_jimple);
         Options.v().set_include_all(true);
         Options.v().set_print_tags_in_output(true);
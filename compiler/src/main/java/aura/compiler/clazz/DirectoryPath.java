@@ -23,7 +23,9 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -86,10 +88,33 @@ public class DirectoryPath extends AbstractPath {
     public boolean hasChangedSince(long timestamp) {
         return hasChangedSince(file, timestamp);
     }
+
+    /**
+     * Rescans this directory for added and removed class files. The
+     * {@link Clazz}es of class files which are still there are kept. Returns
+     * <code>true</code> if the set of classes has changed.
+     */
+    boolean refresh() {
+        if (clazzSet == null) {
+            return false;
+        }
+        Map<String, Clazz> previous = new HashMap<String, Clazz>();
+        for (Clazz clazz : clazzSet) {
+            previous.put(clazz.getFileName(), clazz);
+        }
+        Set<Clazz> s = new TreeSet<Clazz>();
+        for (File f : listClassFiles()) {
+            Clazz clazz = new DirectoryPathClazz(clazzes, this, file, f);
+            Clazz old = previous.get(clazz.getFileName());
+            s.add(old != null ? old : clazz);
+        }
+        boolean changed = !s.equals(clazzSet);
+        clazzSet = s;
+        return changed;
+    }
     
     static class DirectoryPathClazz extends Clazz {
         private final File f;
-        private byte[] bytes = null;
         
         DirectoryPathClazz(Clazzes clazzes, AbstractPath path, File dir, File f) {
             super(clazzes, 
@@ -99,10 +124,8 @@ public class DirectoryPath extends AbstractPath {
         }
 
         public byte[] getBytes() throws IOException {
-            if (bytes == null) {
-                bytes = FileUtils.readFileToByteArray(f);
-            }
-            return bytes;
+            // Reread when needed instead of being kept for the whole build.
+            return FileUtils.readFileToByteArray(f);
         }
         
         public long lastModified() {
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.clazz;
+
+import java.util.Objects;
+
+/**
+ * Records that a method may have inlined the {@link MethodSummary} of a
+ * method in another class. The summary is <code>null</code> if none was
+ * available. In addition to being an ordinary invoke dependency the caller
+ * has to be recompiled if the summary of the callee changes.
+ */
+public class InlinedMethodDependency extends InvokeMethodDependency {
+    private static final long serialVersionUID = 1L;
+
+    private final MethodSummary summary;
+
+    InlinedMethodDependency(String owner, String name, String desc, MethodSummary summary, 
+            String path, boolean inBootClasspath, boolean weak) {
+        super(owner, name, desc, path, inBootClasspath, weak);
+        this.summary = summary;
+    }
+
+    public MethodSummary getSummary() {
+        return summary;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hashCode(summary);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!super.equals(obj)) {
+            return false;
+        }
+        return Objects.equals(summary, ((InlinedMethodDependency) obj).summary);
+    }
+}
@@ -38,6 +38,7 @@ public class MethodInfo implements Serializable {
     private boolean weaklyLinked;
     private boolean stronglyLinked;
     private Map<String, Dependency> dependencies = new HashMap<>();
+    private MethodSummary summary;
 
     MethodInfo(ClazzInfo ci, int modifiers, String name, String desc, boolean callback, boolean weaklyLinked,
             boolean strongyLinked) {
@@ -82,6 +83,16 @@ public class MethodInfo implements Serializable {
         }
     }
 
+    public void addInlinedMethodDependency(String owner, String name, String desc, MethodSummary summary) {
+        String key = "Inlined." + owner + "." + name + desc;
+        if (!dependencies.containsKey(key)) {
+            Clazz clazz = this.ci.getClazz().clazzes.load(owner);
+            String path = clazz != null ? clazz.getPath().getFile().getAbsolutePath() : null;
+            boolean inBootClasspath = clazz != null ? clazz.isInBootClasspath() : false;
+            dependencies.put(key, new InlinedMethodDependency(owner, name, desc, summary, path, inBootClasspath, false));
+        }
+    }
+
     public void addSuperMethodDependency(String owner, String name, String desc, boolean weak) {
         String key = "Super." + owner + "." + name + desc;
         if (!dependencies.containsKey(key)) {
@@ -110,6 +121,19 @@ public class MethodInfo implements Serializable {
         return desc;
     }
 
+    /**
+     * Returns the {@link MethodSummary} of this method or <code>null</code>
+     * if the method isn't trivial enough to be inlined into callers in other
+     * classes.
+     */
+    public MethodSummary getSummary() {
+        return summary;
+    }
+
+    public void setSummary(MethodSummary summary) {
+        this.summary = summary;
+    }
+
     public boolean isPublic() {
         return (modifiers & Modifier.PUBLIC) > 0;
     }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.clazz;
+
+import java.io.Serializable;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * Compact description of a trivial method body which callers in other classes
+ * may inline instead of calling the method through a trampoline. Summaries
+ * are symbolic (they refer to fields and methods by name and descriptor) so
+ * they stay valid as long as the class declaring the summarized method
+ * doesn't change.
+ */
+public final class MethodSummary implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Kind {
+        /**
+         * <code>return this.field;</code>
+         */
+        GETFIELD,
+        /**
+         * <code>this.field = p0;</code>
+         */
+        PUTFIELD,
+        /**
+         * <code>return constant;</code>. The constant is an {@link Integer},
+         * {@link Long}, {@link Float}, {@link Double}, {@link String} or
+         * <code>null</code>.
+         */
+        CONSTANT,
+        /**
+         * <code>return Owner.method(p0, p1, ...);</code> where the
+         * parameters are passed on unchanged and in order.
+         */
+        FORWARD_STATIC
+    }
+
+    private final Kind kind;
+    private final String owner;
+    private final String name;
+    private final String desc;
+    private final Object constant;
+
+    private MethodSummary(Kind kind, String owner, String name, String desc, Object constant) {
+        this.kind = kind;
+        this.owner = owner;
+        this.name = name;
+        this.desc = desc;
+        this.constant = constant;
+    }
+
+    public static MethodSummary getField(String owner, String name, String desc) {
+        return new MethodSummary(Kind.GETFIELD, owner, name, desc, null);
+    }
+
+    public static MethodSummary putField(String owner, String name, String desc) {
+        return new MethodSummary(Kind.PUTFIELD, owner, name, desc, null);
+    }
+
+    public static MethodSummary constant(Object constant) {
+        if (constant != null && !(constant instanceof Integer) && !(constant instanceof Long)
+                && !(constant instanceof Float) && !(constant instanceof Double) 
+                && !(constant instanceof String)) {
+            throw new IllegalArgumentException("Unsupported constant: " + constant.getClass());
+        }
+        return new MethodSummary(Kind.CONSTANT, null, null, null, constant);
+    }
+
+    public static MethodSummary forwardStatic(String owner, String name, String desc) {
+        return new MethodSummary(Kind.FORWARD_STATIC, owner, name, desc, null);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the internal name of the class declaring the field or the
+     * forwarded to method. <code>null</code> for {@link Kind#CONSTANT}.
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+    public Object getConstant() {
+        return constant;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + ((constant == null) ? 0 : constant.hashCode());
+        result = prime * result + ((desc == null) ? 0 : desc.hashCode());
+        result = prime * result + ((kind == null) ? 0 : kind.hashCode());
+        result = prime * result + ((name == null) ? 0 : name.hashCode());
+        result = prime * result + ((owner == null) ? 0 : owner.hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        MethodSummary other = (MethodSummary) obj;
+        return kind == other.kind 
+                && (owner == null ? other.owner == null : owner.equals(other.owner))
+                && (name == null ? other.name == null : name.equals(other.name))
+                && (desc == null ? other.desc == null : desc.equals(other.desc))
+                && (constant == null ? other.constant == null : constant.equals(other.constant));
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this);
+    }
+}
@@ -75,7 +75,6 @@ public class ZipFilePath extends AbstractPath {
     
     private class ZipFilePathClazz extends Clazz {
         private final ZipEntry entry;
-        private byte[] bytes = null;
         
         ZipFilePathClazz(ZipEntry entry) {
             super(ZipFilePath.this.clazzes, entry.getName(), ZipFilePath.this);
@@ -83,16 +82,14 @@ public class ZipFilePath extends AbstractPath {
         }
 
         public byte[] getBytes() throws IOException {
-            if (bytes == null) {
-                InputStream in = null;
-                try {
-                    in = zipFile.getInputStream(entry);
-                    bytes = IOUtils.toByteArray(in);
-                } finally {
-                    IOUtils.closeQuietly(in);
-                }
+            // Reread when needed instead of being kept for the whole build.
+            InputStream in = null;
+            try {
+                in = zipFile.getInputStream(entry);
+                return IOUtils.toByteArray(in);
+            } finally {
+                IOUtils.closeQuietly(in);
             }
-            return bytes;
         }
         
         public long lastModified() {
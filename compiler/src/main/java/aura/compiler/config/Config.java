@@ -32,6 +32,7 @@ import aura.compiler.target.ConsoleTarget;
 import aura.compiler.target.Target;
 import aura.compiler.util.DigestUtil;
 import aura.compiler.util.InfoPList;
+import aura.compiler.util.Tracer;
 import aura.compiler.util.io.RamDiskTools;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -76,6 +77,16 @@ public class Config {
         none, conservative, aggressive
     };
 
+    /**
+     * Redundancy elimination done on Jimple before code generation in release
+     * builds. <code>gvn</code> reuses values of pure expressions, array
+     * lengths and type checks. <code>full</code> additionally forwards field
+     * and array element loads.
+     */
+    public enum FrontendOptLevel {
+        none, gvn, full
+    };
+
     @Element(required = false)
     protected Boolean archive = null;
     @Element(required = false)
@@ -130,6 +141,8 @@ public class Config {
     protected String targetType;
     @Element(required = false, name = "treeShaker")
     protected TreeShakerMode treeShakerMode;
+    @Element(required = false, name = "frontendOpt")
+    protected FrontendOptLevel frontendOptLevel;
     @Element(required = false)
     protected String iosSdkVersion;
     @Element(required = false, name = "iosInfoPList")
@@ -153,13 +166,18 @@ public class Config {
     protected File tmpDir;
     protected File cacheDir = new File(System.getProperty("user.home"), ".aura/cache");
     protected File ccBinPath = null;
+    protected File traceFile = null;
+    protected File sizeReportFile = null;
+    protected File orderFile = null;
 
     protected boolean clean = false;
     protected boolean debug = false;
+    protected boolean fastCompile = false;
     protected boolean useDebugLibs = false;
     protected boolean skipLinking = false;
     protected boolean skipInstall = false;
     protected boolean dumpIntermediates = false;
+    protected boolean recordStartupOrder = false;
     protected int threads = Runtime.getRuntime().availableProcessors();
     protected Logger logger = Logger.NULL_LOGGER;
 
@@ -173,6 +191,7 @@ public class Config {
     protected transient Target target = null;
     protected transient File osArchDepLibDir;
     protected transient File osArchCacheDir;
+    protected transient File releaseOsArchCacheDir;
     protected transient Clazzes clazzes;
     protected transient VTable.Cache vtableCache;
     protected transient ITable.Cache itableCache;
@@ -181,6 +200,7 @@ public class Config {
     protected transient MarshalerLookup marshalerLookup;
     protected transient Config configBeforeBuild;
     protected transient DependencyGraph dependencyGraph;
+    protected transient Tracer tracer;
     protected transient Arch sliceArch;
 
     protected Config() throws IOException {
@@ -229,6 +249,23 @@ public class Config {
         return osArchCacheDir;
     }
 
+    /**
+     * Returns the file in the cache of the release build with this
+     * {@link Config}'s settings which corresponds to the specified file in
+     * this build's cache.
+     */
+    public File getReleaseCacheFile(File file) {
+        String relativePath = osArchCacheDir.toURI().relativize(file.toURI()).getPath();
+        return new File(releaseOsArchCacheDir, relativePath);
+    }
+
+    private String getCacheDirName(boolean debug) {
+        return (debug ? (fastCompile ? "debug-fast" : "debug") : "release")
+                + (getTreeShakerMode() == TreeShakerMode.aggressive ? "-aggressive" : "")
+                + (!debug && getFrontendOptLevel() != FrontendOptLevel.none ? "-" + getFrontendOptLevel() : "")
+                + (recordStartupOrder ? "-startuporder" : "");
+    }
+
     public File getCcBinPath() {
         return ccBinPath;
     }
@@ -266,6 +303,17 @@ public class Config {
         return debug;
     }
 
+    /**
+     * Returns <code>true</code> if this is a debug build which trades code
+     * quality for compile speed. Fast compile builds emit object files
+     * directly instead of going through assembly and reuse the objects of
+     * the last release build for classes in archives. They have their own
+     * cache.
+     */
+    public boolean isFastCompile() {
+        return fastCompile;
+    }
+
     public boolean isUseDebugLibs() {
         return useDebugLibs;
     }
@@ -325,6 +373,48 @@ public class Config {
     public DependencyGraph getDependencyGraph() {
         return dependencyGraph;
     }
+
+    /**
+     * Returns the file the build trace will be written to or
+     * <code>null</code> if the build isn't traced.
+     */
+    public File getTraceFile() {
+        return traceFile;
+    }
+
+    /**
+     * Returns the file the {@link aura.compiler.Linker} writes the code size
+     * report to or <code>null</code> if no report should be written.
+     */
+    public File getSizeReportFile() {
+        return sizeReportFile;
+    }
+
+    /**
+     * Returns <code>true</code> if compiled methods should record the order
+     * in which they are first called. The recorded order can be passed back
+     * to a later build using {@link #getOrderFile()}.
+     */
+    public boolean isRecordStartupOrder() {
+        return recordStartupOrder;
+    }
+
+    /**
+     * Returns the file listing the symbols of the methods in the order they
+     * should be laid out in the executable or <code>null</code> if the
+     * linker should use its default order.
+     */
+    public File getOrderFile() {
+        return orderFile;
+    }
+
+    /**
+     * Returns the {@link Tracer} used to record the phases of the build.
+     * Never <code>null</code>.
+     */
+    public Tracer getTracer() {
+        return tracer != null ? tracer : Tracer.NULL_TRACER;
+    }
     
     public File getTmpDir() {
         if (tmpDir == null) {
@@ -472,6 +562,10 @@ public class Config {
         return treeShakerMode == null ? TreeShakerMode.none : treeShakerMode;
     }
 
+    public FrontendOptLevel getFrontendOptLevel() {
+        return frontendOptLevel == null ? FrontendOptLevel.none : frontendOptLevel;
+    }
+
     public String getIosSdkVersion() {
         return iosSdkVersion;
     }
@@ -570,6 +664,10 @@ public class Config {
         return new File(getCacheDir(clazz.getPath()), getFileName(clazz, "class.info"));
     }
 
+    public File getOHashFile(Clazz clazz) {
+        return new File(getCacheDir(clazz.getPath()), getFileName(clazz, "class.o.sha1"));
+    }
+
     public File getCacheDir(Path path) {
         File srcRoot = path.getFile().getParentFile();
         String name = path.getFile().getName();
@@ -848,6 +946,7 @@ public class Config {
             treeShakerMode = TreeShakerMode.none;
         }
         dependencyGraph = new DependencyGraph(getTreeShakerMode());
+        tracer = traceFile != null ? new Tracer(traceFile) : Tracer.NULL_TRACER;
 
         RamDiskTools ramDiskTools = new RamDiskTools();
         ramDiskTools.setupRamDisk(this, this.cacheDir, this.tmpDir);
@@ -856,8 +955,12 @@ public class Config {
 
         File osDir = new File(cacheDir, os.toString());
         File archDir = new File(osDir, sliceArch.toString());
-        osArchCacheDir = new File(archDir, debug ? "debug" : "release");
+        // The aggressive tree shaker removes write-only fields which changes
+        // object layouts. Its objects can't be mixed with those of other modes.
+        // Neither can the instrumented objects of -recordstartuporder builds.
+        osArchCacheDir = new File(archDir, getCacheDirName(debug));
         osArchCacheDir.mkdirs();
+        releaseOsArchCacheDir = new File(archDir, getCacheDirName(false));
 
         this.clazzes = new Clazzes(this, realBootclasspath, classpath);
 
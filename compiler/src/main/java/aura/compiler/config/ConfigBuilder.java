@@ -134,6 +134,17 @@ public class ConfigBuilder {
         return this;
     }
 
+    /**
+     * Enables fast compile builds. Implies a debug build.
+     */
+    public ConfigBuilder fastCompile(boolean b) {
+        config.fastCompile = b;
+        if (b) {
+            config.debug = true;
+        }
+        return this;
+    }
+
     public ConfigBuilder useDebugLibs(boolean b) {
         config.useDebugLibs = b;
         return this;
@@ -144,6 +155,26 @@ public class ConfigBuilder {
         return this;
     }
 
+    public ConfigBuilder traceFile(File traceFile) {
+        config.traceFile = traceFile;
+        return this;
+    }
+
+    public ConfigBuilder sizeReportFile(File sizeReportFile) {
+        config.sizeReportFile = sizeReportFile;
+        return this;
+    }
+
+    public ConfigBuilder recordStartupOrder(boolean b) {
+        config.recordStartupOrder = b;
+        return this;
+    }
+
+    public ConfigBuilder orderFile(File orderFile) {
+        config.orderFile = orderFile;
+        return this;
+    }
+
     public ConfigBuilder skipRuntimeLib(boolean b) {
         config.skipRuntimeLib = b;
         return this;
@@ -190,6 +221,11 @@ public class ConfigBuilder {
         return this;
     }
 
+    public ConfigBuilder frontendOptLevel(Config.FrontendOptLevel frontendOptLevel) {
+        config.frontendOptLevel = frontendOptLevel;
+        return this;
+    }
+
     public ConfigBuilder clearForceLinkClasses() {
         if (config.forceLinkClasses != null) {
             config.forceLinkClasses.clear();
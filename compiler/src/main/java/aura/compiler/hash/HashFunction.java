@@ -22,6 +22,6 @@ package aura.compiler.hash;
  */
 public interface HashFunction<K> {
 
-    int hash(K k);
+    int hash(K k, int seed);
     
 }
@@ -16,8 +16,15 @@
  */
 package aura.compiler.hash;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import aura.compiler.llvm.Constant;
 import aura.compiler.llvm.IntegerConstant;
@@ -27,119 +34,169 @@ import aura.compiler.llvm.StructureConstantBuilder;
 import aura.compiler.llvm.Type;
 
 /**
- * Generates static hash tables in the form of a {@link StructureConstant} using
- * a {@link HashFunction}.
+ * Generates static minimal perfect hash tables in the form of a
+ * {@link StructureConstant} using a {@link HashFunction}. The keys are hashed
+ * into buckets of on average {@link #AVERAGE_BUCKET_SIZE} keys. Each bucket
+ * gets a displacement value which, mixed with a key's hash, gives the key's
+ * index into a value table with exactly one slot per key (hash and
+ * displace). A lookup is one hash, one displacement load and one compare of
+ * the key found at the resulting index.
+ * <p>
+ * The generated table looks like:
+ * <pre>
+ * {count, size, seed, displacement[0], ..., displacement[size - 1], value[0], ..., value[count - 1]}
+ * </pre>
+ * and the index of a key <code>k</code> is
+ * <pre>
+ * h = hash(k, seed)
+ * d = displacement[h &amp; (size - 1)]
+ * index = (fmix32(h ^ d) * count) &gt;&gt;&gt; 32
+ * </pre>
+ * where the multiplication is done in unsigned 64-bit arithmetic.
  */
 public class HashTableGenerator<K, V extends Constant> {
     private static final IntegerType INDEX_TYPE = Type.I32;
+    private static final int AVERAGE_BUCKET_SIZE = 4;
+    private static final int MAX_DISPLACEMENT = 1 << 24;
+    private static final int MAX_SEEDS = 64;
+    public static final int DEFAULT_SEED = 0x1ce79e5c;
 
     private final HashFunction<K> function;
-    private List<Entry<K, V>>[] table;
-    private int tableSize;
-    private int count = 0;
-    private double loadFactor;
+    private final int initialSeed;
+    private final Map<K, V> entries = new LinkedHashMap<>();
     
     public HashTableGenerator(HashFunction<K> function) {
-        this(function, 4, 0.75);
+        this(function, DEFAULT_SEED);
     }
     
-    public HashTableGenerator(HashFunction<K> function, int tableSize) {
-        this(function, tableSize, 0.75);
-    }
-    
-    public HashTableGenerator(HashFunction<K> function, int tableSize, double loadFactor) {
+    public HashTableGenerator(HashFunction<K> function, int initialSeed) {
         this.function = function;
-        this.tableSize = tableSize;
-        this.loadFactor = loadFactor;
-        allocateTable();
-    }
-    
-    @SuppressWarnings("unchecked")
-    private void allocateTable() {
-        this.table = new List[1 << tableSize];
+        this.initialSeed = initialSeed;
     }
     
     public void put(K k, V v) {
-        int h = function.hash(k);
-        putNoRehash(new Entry<K, V>(h, k, v));
-        if (count > loadFactor * table.length) {
-            rehash();
-        }
+        entries.put(k, v);
     }
     
-    private void rehash() {
-        List<Entry<K, V>>[] oldTable = table;
-        tableSize++;
-        count = 0;
-        allocateTable();
-        for (int i = 0; i < oldTable.length; i++) {
-            if (oldTable[i] != null) {
-                for (Entry<K, V> entry : oldTable[i]) {
-                    putNoRehash(entry);
-                }
-            }
-        }
+    /**
+     * Returns the index of the value table slot for a key with the 
+     * specified hash.
+     */
+    static int index(int h, int displacement, int count) {
+        return (int) (((MurmurHash3.fmix32(h ^ displacement) & 0xffffffffL) * count) >>> 32);
     }
     
-    private void putNoRehash(Entry<K, V> entry) {
-        int idx = entry.h & ((1 << tableSize) - 1);
-        if (table[idx] == null) {
-            table[idx] = new LinkedList<Entry<K, V>>();
+    public StructureConstant generate() {
+        List<K> keys = new ArrayList<>(entries.keySet());
+        int bucketCount = 1;
+        while (bucketCount * AVERAGE_BUCKET_SIZE < keys.size()) {
+            bucketCount <<= 1;
         }
-        for (Entry<K, V> e : table[idx]) {
-            if (e.h == entry.h && (e.k.equals(entry.k))) {
-                e.v = entry.v;
-                return;
+        
+        int seed = initialSeed;
+        for (int i = 0; i < MAX_SEEDS; i++) {
+            int[] hashes = new int[keys.size()];
+            for (int j = 0; j < hashes.length; j++) {
+                hashes[j] = function.hash(keys.get(j), seed);
+            }
+            int[] displacements = new int[bucketCount];
+            int[] slots = displace(hashes, displacements);
+            if (slots != null) {
+                StructureConstantBuilder builder = new StructureConstantBuilder();
+                builder.add(new IntegerConstant(keys.size()));
+                builder.add(new IntegerConstant(bucketCount, INDEX_TYPE));
+                builder.add(new IntegerConstant(seed, INDEX_TYPE));
+                for (int d : displacements) {
+                    builder.add(new IntegerConstant(d, INDEX_TYPE));
+                }
+                for (int slot : slots) {
+                    builder.add(entries.get(keys.get(slot)));
+                }
+                return builder.build();
             }
+            seed = MurmurHash3.fmix32(seed + 1);
         }
-        table[idx].add(entry);
-        count++;
+        throw new IllegalStateException("Failed to generate a perfect hash table for " 
+                + keys.size() + " keys");
     }
     
-    public StructureConstant generate() {
-        StructureConstantBuilder builder = new StructureConstantBuilder();
-        int start = 0;
-        builder.add(new IntegerConstant(count));
-        builder.add(new IntegerConstant(table.length, INDEX_TYPE));
-        builder.add(new IntegerConstant(start, INDEX_TYPE));
-        for (int i = 1; i <= table.length; i++) {
-            if (table[i - 1] == null) {
-                builder.add(new IntegerConstant(start, INDEX_TYPE));                
-            } else {
-                start += table[i - 1].size();
-                builder.add(new IntegerConstant(start, INDEX_TYPE));
+    /**
+     * Finds a displacement for each bucket which maps the keys in the bucket
+     * to free slots. Returns the key index in each slot or <code>null</code>
+     * if no perfect hash could be found with these hashes.
+     */
+    private int[] displace(final int[] hashes, int[] displacements) {
+        int count = hashes.length;
+        int mask = displacements.length - 1;
+        
+        // Keys with identical hashes can never be told apart.
+        Set<Integer> seen = new HashSet<>();
+        for (int h : hashes) {
+            if (!seen.add(h)) {
+                return null;
             }
         }
-        for (int i = 0; i < table.length; i++) {
-            if (table[i] != null) {
-                for (Entry<K, V> entry : table[i]) {
-                    builder.add(entry.v);
+        
+        List<List<Integer>> buckets = new ArrayList<>();
+        for (int i = 0; i < displacements.length; i++) {
+            buckets.add(new ArrayList<Integer>());
+        }
+        for (int i = 0; i < count; i++) {
+            buckets.get(hashes[i] & mask).add(i);
+        }
+        // Place the largest buckets first while there are plenty of free slots
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < displacements.length; i++) {
+            order.add(i);
+        }
+        final List<List<Integer>> b = buckets;
+        Collections.sort(order, new Comparator<Integer>() {
+            public int compare(Integer o1, Integer o2) {
+                return Integer.compare(b.get(o2).size(), b.get(o1).size());
+            }
+        });
+        
+        int[] slots = new int[count];
+        Arrays.fill(slots, -1);
+        int[] candidates = new int[AVERAGE_BUCKET_SIZE];
+        for (int bucketIndex : order) {
+            List<Integer> bucket = buckets.get(bucketIndex);
+            if (bucket.isEmpty()) {
+                break;
+            }
+            if (candidates.length < bucket.size()) {
+                candidates = new int[bucket.size()];
+            }
+            int d = 0;
+            for (; d < MAX_DISPLACEMENT; d++) {
+                if (fits(hashes, bucket, d, slots, candidates)) {
+                    break;
                 }
             }
+            if (d == MAX_DISPLACEMENT) {
+                return null;
+            }
+            displacements[bucketIndex] = d;
+            for (int i = 0; i < bucket.size(); i++) {
+                slots[candidates[i]] = bucket.get(i);
+            }
         }
-        return builder.build();
+        return slots;
     }
     
-    private static class Entry<K, V> {
-        int h;
-        K k;
-        V v;
-        Entry(int h, K k, V v) {
-            this.h = h;
-            this.k = k;
-            this.v = v;
-        }
-        @Override
-        public int hashCode() {
-            return h;
-        }
-        @SuppressWarnings("unchecked")
-        @Override
-        public boolean equals(Object obj) {
-            Entry<K, V> e = (Entry<K, V>) obj;
-            return this.h == e.h 
-                    && (this.k == e.k || this.k.equals(e.k))
-                    && (this.v == e.v || this.v.equals(e.v));
+    private static boolean fits(int[] hashes, List<Integer> bucket, int d, int[] slots, int[] candidates) {
+        for (int i = 0; i < bucket.size(); i++) {
+            int slot = index(hashes[bucket.get(i)], d, slots.length);
+            if (slots[slot] != -1) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (candidates[j] == slot) {
+                    return false;
+                }
+            }
+            candidates[i] = slot;
         }
+        return true;
     }
 }
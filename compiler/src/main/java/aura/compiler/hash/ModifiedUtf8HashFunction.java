@@ -24,8 +24,8 @@ import aura.compiler.Strings;
  */
 public class ModifiedUtf8HashFunction implements HashFunction<String> {
     @Override
-    public int hash(String k) {
+    public int hash(String k, int seed) {
         byte[] data = Strings.stringToModifiedUtf8Z(k);
-        return MurmurHash3.murmurhash3_x86_32(data, 0, data.length, 0x1ce79e5c);
+        return MurmurHash3.murmurhash3_x86_32(data, 0, data.length, seed);
     }
 }
@@ -20,8 +20,45 @@ package aura.compiler.llvm;
  *
  * @version $Id$
  */
-public enum ParameterAttribute {
+public final class ParameterAttribute {
 
-    sret, byval;
-    
+    public static final ParameterAttribute sret = new ParameterAttribute("sret");
+    public static final ParameterAttribute byval = new ParameterAttribute("byval");
+    public static final ParameterAttribute nonnull = new ParameterAttribute("nonnull");
+
+    private final String name;
+
+    private ParameterAttribute(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns a <code>dereferenceable(&lt;n&gt;)</code> attribute telling LLVM
+     * that at least <code>bytes</code> bytes can be loaded from the pointer
+     * without trapping.
+     */
+    public static ParameterAttribute dereferenceable(long bytes) {
+        return new ParameterAttribute("dereferenceable(" + bytes + ")");
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        return name.equals(((ParameterAttribute) obj).name);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.llvm;
+
+/**
+ * {@link Metadata} used to attach a type-based alias analysis access tag to
+ * load and store instructions.
+ */
+public class TbaaMetadata extends Metadata {
+    private final Metadata value;
+
+    public TbaaMetadata(Metadata value) {
+        this.value = value;
+    }
+
+    @Override
+    public String toString() {
+        return "!tbaa " + value;
+    }
+    
+}
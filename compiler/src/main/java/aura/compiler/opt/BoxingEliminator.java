@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.opt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import soot.Body;
+import soot.BodyTransformer;
+import soot.BooleanType;
+import soot.ByteType;
+import soot.CharType;
+import soot.DoubleType;
+import soot.FloatType;
+import soot.IntType;
+import soot.Local;
+import soot.LongType;
+import soot.PatchingChain;
+import soot.RefType;
+import soot.Scene;
+import soot.ShortType;
+import soot.SootMethodRef;
+import soot.Type;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.AssignStmt;
+import soot.jimple.IntConstant;
+import soot.jimple.Jimple;
+import soot.jimple.StaticInvokeExpr;
+import soot.jimple.VirtualInvokeExpr;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+import soot.toolkits.scalar.LocalDefs;
+import soot.toolkits.scalar.LocalUses;
+import soot.toolkits.scalar.SimpleLocalDefs;
+import soot.toolkits.scalar.SimpleLocalUses;
+import soot.toolkits.scalar.UnitValueBoxPair;
+
+/**
+ * Removes primitive boxing operations which are only ever unboxed again.
+ * <p>
+ * A call to one of the primitive wrapper <code>valueOf(x)</code> methods
+ * whose result is only used by calls to the matching <code>xxxValue()</code>
+ * method is replaced by a copy of <code>x</code>, saving the static call and
+ * the cache lookup or allocation. If the boxed value escapes (it's stored,
+ * passed to a method, returned, etc.) the box is kept but unboxing calls
+ * which can only see this box are still replaced. Boxing of
+ * <code>boolean</code> constants is folded into reads of
+ * {@link Boolean#TRUE} and {@link Boolean#FALSE}.
+ * </p>
+ */
+public class BoxingEliminator extends BodyTransformer {
+    private static final Map<String, String> UNBOX_METHODS = new HashMap<>();
+
+    static {
+        UNBOX_METHODS.put("java.lang.Boolean", "booleanValue");
+        UNBOX_METHODS.put("java.lang.Byte", "byteValue");
+        UNBOX_METHODS.put("java.lang.Short", "shortValue");
+        UNBOX_METHODS.put("java.lang.Character", "charValue");
+        UNBOX_METHODS.put("java.lang.Integer", "intValue");
+        UNBOX_METHODS.put("java.lang.Long", "longValue");
+        UNBOX_METHODS.put("java.lang.Float", "floatValue");
+        UNBOX_METHODS.put("java.lang.Double", "doubleValue");
+    }
+
+    private int boxesEliminated;
+    private int unboxesEliminated;
+    private int constantsFolded;
+    private int tmpCounter;
+
+    /**
+     * Returns the primitive type boxed by the specified wrapper class or
+     * <code>null</code> if the class isn't a primitive wrapper. Soot's types
+     * are singletons which change whenever Soot is reset so they cannot be
+     * cached.
+     */
+    private static Type getPrimitiveType(String className) {
+        switch (className) {
+        case "java.lang.Boolean": return BooleanType.v();
+        case "java.lang.Byte": return ByteType.v();
+        case "java.lang.Short": return ShortType.v();
+        case "java.lang.Character": return CharType.v();
+        case "java.lang.Integer": return IntType.v();
+        case "java.lang.Long": return LongType.v();
+        case "java.lang.Float": return FloatType.v();
+        case "java.lang.Double": return DoubleType.v();
+        default: return null;
+        }
+    }
+
+    /**
+     * Resets the statistics returned by {@link #getBoxesEliminated()},
+     * {@link #getUnboxesEliminated()} and {@link #getConstantsFolded()}.
+     */
+    public void reset() {
+        boxesEliminated = 0;
+        unboxesEliminated = 0;
+        constantsFolded = 0;
+        tmpCounter = 0;
+    }
+
+    /**
+     * Returns the number of boxing calls removed since the last
+     * {@link #reset()}.
+     */
+    public int getBoxesEliminated() {
+        return boxesEliminated;
+    }
+
+    /**
+     * Returns the number of unboxing calls removed since the last
+     * {@link #reset()}.
+     */
+    public int getUnboxesEliminated() {
+        return unboxesEliminated;
+    }
+
+    /**
+     * Returns the number of boxing calls on constants which have been folded
+     * into reads of the cached instances since the last {@link #reset()}.
+     */
+    public int getConstantsFolded() {
+        return constantsFolded;
+    }
+
+    @Override
+    protected void internalTransform(Body body, String phaseName, @SuppressWarnings("rawtypes") Map options) {
+        List<AssignStmt> boxes = new ArrayList<>();
+        for (Unit unit : body.getUnits()) {
+            if (isBox(unit)) {
+                boxes.add((AssignStmt) unit);
+            }
+        }
+        if (boxes.isEmpty()) {
+            return;
+        }
+
+        ExceptionalUnitGraph graph = new ExceptionalUnitGraph(body);
+        LocalDefs localDefs = new SimpleLocalDefs(graph);
+        LocalUses localUses = new SimpleLocalUses(graph, localDefs);
+        PatchingChain<Unit> units = body.getUnits();
+
+        for (AssignStmt box : boxes) {
+            Local boxLocal = (Local) box.getLeftOp();
+            StaticInvokeExpr expr = (StaticInvokeExpr) box.getRightOp();
+            String className = expr.getMethodRef().declaringClass().getName();
+            Value value = expr.getArg(0);
+
+            List<AssignStmt> unboxes = new ArrayList<>();
+            boolean escapes = false;
+            for (Object o : localUses.getUsesOf(box)) {
+                Unit use = ((UnitValueBoxPair) o).getUnit();
+                if (isUnbox(use, boxLocal, className) 
+                        && localDefs.getDefsOfAt(boxLocal, use).size() == 1) {
+                    unboxes.add((AssignStmt) use);
+                } else {
+                    escapes = true;
+                }
+            }
+
+            if (!unboxes.isEmpty()) {
+                // Copy the value at the point of boxing since the local it
+                // came from may be reassigned before it's unboxed.
+                Local tmp = Jimple.v().newLocal("$unboxed" + (tmpCounter++), getPrimitiveType(className));
+                body.getLocals().add(tmp);
+                if (escapes) {
+                    units.insertAfter(Jimple.v().newAssignStmt(tmp, value), box);
+                } else {
+                    box.setLeftOp(tmp);
+                    box.setRightOp(value);
+                    boxesEliminated++;
+                }
+                for (AssignStmt unbox : unboxes) {
+                    unbox.setRightOp(tmp);
+                    unboxesEliminated++;
+                }
+            }
+
+            if (escapes && "java.lang.Boolean".equals(className) && value instanceof IntConstant) {
+                String name = ((IntConstant) value).value != 0 ? "TRUE" : "FALSE";
+                RefType type = RefType.v("java.lang.Boolean");
+                box.setRightOp(Jimple.v().newStaticFieldRef(
+                        Scene.v().makeFieldRef(type.getSootClass(), name, type, true)));
+                constantsFolded++;
+            }
+        }
+    }
+
+    private static boolean isBox(Unit unit) {
+        if (!(unit instanceof AssignStmt)) {
+            return false;
+        }
+        AssignStmt stmt = (AssignStmt) unit;
+        if (!(stmt.getLeftOp() instanceof Local) || !(stmt.getRightOp() instanceof StaticInvokeExpr)) {
+            return false;
+        }
+        SootMethodRef ref = ((StaticInvokeExpr) stmt.getRightOp()).getMethodRef();
+        String className = ref.declaringClass().getName();
+        Type primitiveType = getPrimitiveType(className);
+        return primitiveType != null 
+                && "valueOf".equals(ref.name()) 
+                && ref.parameterTypes().size() == 1
+                && primitiveType.equals(ref.parameterType(0))
+                && ref.returnType().equals(RefType.v(className));
+    }
+
+    private static boolean isUnbox(Unit unit, Local boxLocal, String className) {
+        if (!(unit instanceof AssignStmt)) {
+            return false;
+        }
+        AssignStmt stmt = (AssignStmt) unit;
+        if (!(stmt.getRightOp() instanceof VirtualInvokeExpr)) {
+            return false;
+        }
+        VirtualInvokeExpr expr = (VirtualInvokeExpr) stmt.getRightOp();
+        SootMethodRef ref = expr.getMethodRef();
+        return expr.getBase() == boxLocal
+                && className.equals(ref.declaringClass().getName())
+                && UNBOX_METHODS.get(className).equals(ref.name())
+                && ref.parameterTypes().isEmpty();
+    }
+}
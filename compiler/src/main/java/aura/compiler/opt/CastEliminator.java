@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.opt;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import soot.ArrayType;
+import soot.Body;
+import soot.BodyTransformer;
+import soot.Local;
+import soot.NullType;
+import soot.RefType;
+import soot.SootClass;
+import soot.Type;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.AssignStmt;
+import soot.jimple.CastExpr;
+import soot.jimple.NewExpr;
+import soot.jimple.NullConstant;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+import soot.toolkits.scalar.LocalDefs;
+import soot.toolkits.scalar.SimpleLocalDefs;
+
+/**
+ * Removes reference casts which are known to always succeed.
+ * <p>
+ * A cast <code>x = (T) y</code> is redundant if the type Soot has inferred
+ * for <code>y</code> is a class (or array) type which is a subtype of
+ * <code>T</code>. Interface types aren't enforced by the bytecode verifier so
+ * a local of interface type is only trusted if every definition reaching the
+ * cast is itself a cast or allocation of a subtype of <code>T</code>. Casts
+ * which survive this pass are compiled into class id range checks by the
+ * {@link aura.compiler.Linker}.
+ * </p>
+ * <p>
+ * Removing a cast bakes the current class hierarchy into the caller. The
+ * classes walked to prove a removed cast redundant are returned by
+ * {@link #getDependencies()} and must be recorded as dependencies of the
+ * method so that it's recompiled if any of them changes.
+ * </p>
+ */
+public class CastEliminator extends BodyTransformer {
+    private int castsEliminated;
+    private final Set<String> dependencies = new HashSet<>();
+
+    /**
+     * Resets the statistics returned by {@link #getCastsEliminated()}.
+     */
+    public void reset() {
+        castsEliminated = 0;
+    }
+
+    /**
+     * Returns the number of casts removed since the last {@link #reset()}.
+     */
+    public int getCastsEliminated() {
+        return castsEliminated;
+    }
+
+    /**
+     * Returns the internal names of the classes whose supertypes the casts
+     * removed from the last transformed body depend on.
+     */
+    public Set<String> getDependencies() {
+        return dependencies;
+    }
+
+    @Override
+    protected void internalTransform(Body body, String phaseName, @SuppressWarnings("rawtypes") Map options) {
+        dependencies.clear();
+        List<AssignStmt> casts = new ArrayList<>();
+        for (Unit unit : body.getUnits()) {
+            if (unit instanceof AssignStmt && ((AssignStmt) unit).getRightOp() instanceof CastExpr) {
+                CastExpr expr = (CastExpr) ((AssignStmt) unit).getRightOp();
+                if (expr.getCastType() instanceof RefType || expr.getCastType() instanceof ArrayType) {
+                    casts.add((AssignStmt) unit);
+                }
+            }
+        }
+        if (casts.isEmpty()) {
+            return;
+        }
+
+        LocalDefs localDefs = null;
+        for (AssignStmt stmt : casts) {
+            CastExpr expr = (CastExpr) stmt.getRightOp();
+            Value op = expr.getOp();
+            Type castType = expr.getCastType();
+            Set<SootClass> walked = new HashSet<>();
+            boolean redundant = false;
+            if (op instanceof NullConstant || isTrustedSubtype(op.getType(), castType, walked)) {
+                redundant = true;
+            } else if (op instanceof Local && isSubtype(op.getType(), castType, walked)) {
+                if (localDefs == null) {
+                    localDefs = new SimpleLocalDefs(new ExceptionalUnitGraph(body));
+                }
+                redundant = allDefsAreSubtypes(localDefs, (Local) op, stmt, castType, new HashSet<Unit>(), walked);
+            }
+            if (redundant) {
+                stmt.setRightOp(op);
+                castsEliminated++;
+                for (SootClass sc : walked) {
+                    dependencies.add(sc.getName().replace('.', '/'));
+                }
+            }
+        }
+    }
+
+    private static boolean allDefsAreSubtypes(LocalDefs localDefs, Local local, Unit unit, 
+            Type castType, Set<Unit> visited, Set<SootClass> walked) {
+
+        List<Unit> defs = localDefs.getDefsOfAt(local, unit);
+        if (defs.isEmpty()) {
+            return false;
+        }
+        for (Unit def : defs) {
+            if (!visited.add(def)) {
+                // Already checked or a loop of copies
+                continue;
+            }
+            if (!(def instanceof AssignStmt)) {
+                // Parameters and caught exceptions
+                return false;
+            }
+            Value right = ((AssignStmt) def).getRightOp();
+            if (right instanceof Local) {
+                // Follow copies
+                if (!allDefsAreSubtypes(localDefs, (Local) right, def, castType, visited, walked)) {
+                    return false;
+                }
+                continue;
+            }
+            Type type = null;
+            if (right instanceof CastExpr) {
+                type = ((CastExpr) right).getCastType();
+            } else if (right instanceof NewExpr) {
+                type = ((NewExpr) right).getBaseType();
+            } else if (right instanceof NullConstant) {
+                continue;
+            } else {
+                return false;
+            }
+            if (!isSubtype(type, castType, walked)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns <code>true</code> if values of the specified static type are
+     * guaranteed by the verifier to be instances of <code>target</code>. The
+     * classes walked are added to <code>walked</code>.
+     */
+    private static boolean isTrustedSubtype(Type type, Type target, Set<SootClass> walked) {
+        if (type instanceof NullType || type instanceof ArrayType) {
+            return isSubtype(type, target, walked);
+        }
+        if (type instanceof RefType) {
+            SootClass sc = ((RefType) type).getSootClass();
+            return !sc.isPhantom() && !sc.isInterface() && isSubtype(type, target, walked);
+        }
+        return false;
+    }
+
+    private static boolean isSubtype(Type type, Type target, Set<SootClass> walked) {
+        if (type.equals(target) || type instanceof NullType) {
+            return true;
+        }
+        if (!(target instanceof RefType)) {
+            // Array targets are left to the runtime check
+            return false;
+        }
+        String targetName = ((RefType) target).getClassName();
+        if ("java.lang.Object".equals(targetName)) {
+            return type instanceof RefType || type instanceof ArrayType;
+        }
+        if (type instanceof ArrayType) {
+            return "java.lang.Cloneable".equals(targetName) || "java.io.Serializable".equals(targetName);
+        }
+        if (!(type instanceof RefType)) {
+            return false;
+        }
+        Set<SootClass> visited = new HashSet<SootClass>();
+        boolean result = isSubclass(((RefType) type).getSootClass(), targetName, visited);
+        walked.addAll(visited);
+        return result;
+    }
+
+    private static boolean isSubclass(SootClass sc, String targetName, Set<SootClass> visited) {
+        if (!visited.add(sc) || sc.isPhantom()) {
+            return false;
+        }
+        if (targetName.equals(sc.getName())) {
+            return true;
+        }
+        if (sc.hasSuperclass() && isSubclass(sc.getSuperclass(), targetName, visited)) {
+            return true;
+        }
+        for (SootClass ifs : sc.getInterfaces()) {
+            if (isSubclass(ifs, targetName, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,431 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.opt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import soot.Body;
+import soot.BodyTransformer;
+import soot.Local;
+import soot.RefType;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.SootMethodRef;
+import soot.Unit;
+import soot.Value;
+import soot.ValueBox;
+import soot.jimple.AssignStmt;
+import soot.jimple.CastExpr;
+import soot.jimple.IdentityStmt;
+import soot.jimple.IfStmt;
+import soot.jimple.InstanceInvokeExpr;
+import soot.jimple.InstanceOfExpr;
+import soot.jimple.InvokeExpr;
+import soot.jimple.Jimple;
+import soot.jimple.MonitorStmt;
+import soot.jimple.NewExpr;
+import soot.jimple.StaticInvokeExpr;
+import soot.jimple.Stmt;
+import soot.jimple.ThisRef;
+
+/**
+ * Removes monitor operations on objects which are confined to the current
+ * thread and coarsens nested locking of an already held monitor.
+ * <p>
+ * Objects allocated in a method of one of the legacy synchronized library
+ * classes (e.g. {@link StringBuffer} or {@link java.util.Vector}) which never
+ * escape the method (they're never stored, passed as arguments, returned or
+ * thrown) can't be locked by any other thread. <code>monitorenter</code> and
+ * <code>monitorexit</code> on such objects are removed and calls to their
+ * synchronized methods are tagged with an {@link UnsynchronizedCallTag} so
+ * that the method compiler binds them directly to the method body rather than
+ * to the synchronized wrapper. Methods of these classes which let
+ * <code>this</code> escape (iterators, views, etc.) make the receiver escape.
+ * </p>
+ * <p>
+ * In synchronized methods the monitor is already held for the whole method.
+ * Nested <code>synchronized (this)</code> blocks in instance methods are
+ * removed and calls to other synchronized methods using the same monitor are
+ * tagged so they skip the synchronized wrapper when called directly.
+ * </p>
+ */
+public class LockElider extends BodyTransformer {
+    /**
+     * Maps the classes we know the methods of to the methods which return
+     * <code>this</code>.
+     */
+    private static final Map<String, Set<String>> RETURNS_THIS = new HashMap<>();
+    /**
+     * Maps the classes we know the methods of to the methods which let 
+     * <code>this</code> escape.
+     */
+    private static final Map<String, Set<String>> LEAKS_THIS = new HashMap<>();
+    /**
+     * Methods which require the monitor to be held by the caller.
+     */
+    private static final Set<String> MONITOR_METHODS = new HashSet<>(
+            Arrays.asList("wait", "notify", "notifyAll"));
+
+    static {
+        Set<String> none = Collections.emptySet();
+        RETURNS_THIS.put("java.lang.StringBuffer", new HashSet<>(Arrays.asList(
+                "append", "appendCodePoint", "delete", "deleteCharAt", "insert", "replace", "reverse")));
+        LEAKS_THIS.put("java.lang.StringBuffer", none);
+        RETURNS_THIS.put("java.util.Vector", none);
+        LEAKS_THIS.put("java.util.Vector", new HashSet<>(Arrays.asList(
+                "elements", "iterator", "listIterator", "parallelStream", "spliterator", "stream", "subList")));
+        RETURNS_THIS.put("java.util.Stack", none);
+        LEAKS_THIS.put("java.util.Stack", LEAKS_THIS.get("java.util.Vector"));
+        RETURNS_THIS.put("java.util.Hashtable", none);
+        LEAKS_THIS.put("java.util.Hashtable", new HashSet<>(Arrays.asList(
+                "elements", "entrySet", "keys", "keySet", "values")));
+        RETURNS_THIS.put("java.io.ByteArrayOutputStream", none);
+        LEAKS_THIS.put("java.io.ByteArrayOutputStream", none);
+        RETURNS_THIS.put("java.io.PrintStream", new HashSet<>(Arrays.asList(
+                "append", "format", "printf")));
+        LEAKS_THIS.put("java.io.PrintStream", none);
+    }
+
+    private int monitorsRemoved;
+    private int callsUnsynchronized;
+
+    /**
+     * Resets the statistics returned by {@link #getMonitorsRemoved()} and
+     * {@link #getCallsUnsynchronized()}.
+     */
+    public void reset() {
+        monitorsRemoved = 0;
+        callsUnsynchronized = 0;
+    }
+
+    /**
+     * Returns the number of <code>monitorenter</code> and 
+     * <code>monitorexit</code> statements removed since the last
+     * {@link #reset()}.
+     */
+    public int getMonitorsRemoved() {
+        return monitorsRemoved;
+    }
+
+    /**
+     * Returns the number of calls to synchronized methods which have been 
+     * tagged to skip locking since the last {@link #reset()}.
+     */
+    public int getCallsUnsynchronized() {
+        return callsUnsynchronized;
+    }
+
+    @Override
+    protected void internalTransform(Body body, String phaseName, @SuppressWarnings("rawtypes") Map options) {
+        SootMethod method = body.getMethod();
+        Map<Local, String> confined = findConfinedLocals(body);
+        Set<Local> thisLocals = Collections.emptySet();
+        if (method.isSynchronized() && !method.isStatic()) {
+            thisLocals = getThisLocals(body);
+        }
+        if (confined.isEmpty() && !method.isSynchronized()) {
+            return;
+        }
+
+        List<Unit> monitors = new ArrayList<>();
+        for (Unit unit : body.getUnits()) {
+            if (unit instanceof MonitorStmt) {
+                Value op = ((MonitorStmt) unit).getOp();
+                if (confined.containsKey(op) || thisLocals.contains(op)) {
+                    monitors.add(unit);
+                }
+            } else if (((Stmt) unit).containsInvokeExpr()) {
+                InvokeExpr expr = ((Stmt) unit).getInvokeExpr();
+                if (expr instanceof InstanceInvokeExpr) {
+                    Value base = ((InstanceInvokeExpr) expr).getBase();
+                    String exactClass = confined.get(base);
+                    if (exactClass != null) {
+                        SootMethod target = resolve(exactClass, expr.getMethodRef());
+                        if (target != null && target.isSynchronized()) {
+                            unit.addTag(new UnsynchronizedCallTag(exactClass.replace('.', '/')));
+                            callsUnsynchronized++;
+                        }
+                    } else if (thisLocals.contains(base)) {
+                        unit.addTag(new UnsynchronizedCallTag(null));
+                    }
+                } else if (expr instanceof StaticInvokeExpr && method.isSynchronized() && method.isStatic()
+                        && expr.getMethodRef().declaringClass() == method.getDeclaringClass()) {
+                    unit.addTag(new UnsynchronizedCallTag(null));
+                }
+            }
+        }
+        for (Unit unit : monitors) {
+            body.getUnits().swapWith(unit, Jimple.v().newNopStmt());
+            monitorsRemoved++;
+        }
+    }
+
+    /**
+     * Returns the this local and any locals which are only ever assigned
+     * copies of it.
+     */
+    private static Set<Local> getThisLocals(Body body) {
+        Map<Local, List<Unit>> defs = new HashMap<>();
+        Local thisLocal = null;
+        for (Unit unit : body.getUnits()) {
+            for (ValueBox box : unit.getDefBoxes()) {
+                if (box.getValue() instanceof Local) {
+                    add(defs, (Local) box.getValue(), unit);
+                }
+            }
+            if (unit instanceof IdentityStmt && ((IdentityStmt) unit).getRightOp() instanceof ThisRef) {
+                thisLocal = (Local) ((IdentityStmt) unit).getLeftOp();
+            }
+        }
+        // The bytecode may reuse the slot of this for something else
+        if (thisLocal == null || defs.get(thisLocal).size() != 1) {
+            return Collections.emptySet();
+        }
+        Set<Local> result = new HashSet<>();
+        result.add(thisLocal);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Local local : defs.keySet()) {
+                if (result.contains(local)) {
+                    continue;
+                }
+                boolean copy = true;
+                for (Unit def : defs.get(local)) {
+                    if (!(def instanceof AssignStmt) || !result.contains(((AssignStmt) def).getRightOp())) {
+                        copy = false;
+                        break;
+                    }
+                }
+                if (copy) {
+                    result.add(local);
+                    changed = true;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static SootMethod resolve(String className, SootMethodRef ref) {
+        SootClass sc = RefType.v(className).getSootClass();
+        String subSignature = ref.getSubSignature().getString();
+        while (sc != null && !sc.isPhantom()) {
+            if (sc.declaresMethod(subSignature)) {
+                return sc.getMethod(subSignature);
+            }
+            sc = sc.hasSuperclass() ? sc.getSuperclass() : null;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the locals which only ever reference objects allocated in this
+     * method which never escape it, mapped to the name of the class of the
+     * allocated objects.
+     */
+    private static Map<Local, String> findConfinedLocals(Body body) {
+        Map<Local, List<Unit>> defs = new HashMap<>();
+        Map<Local, List<Unit>> uses = new HashMap<>();
+        boolean hasAllocations = false;
+        for (Unit unit : body.getUnits()) {
+            for (ValueBox box : unit.getDefBoxes()) {
+                if (box.getValue() instanceof Local) {
+                    add(defs, (Local) box.getValue(), unit);
+                }
+            }
+            for (ValueBox box : unit.getUseBoxes()) {
+                if (box.getValue() instanceof Local) {
+                    add(uses, (Local) box.getValue(), unit);
+                }
+            }
+            if (unit instanceof AssignStmt && ((AssignStmt) unit).getRightOp() instanceof NewExpr) {
+                hasAllocations |= RETURNS_THIS.containsKey(
+                        ((NewExpr) ((AssignStmt) unit).getRightOp()).getBaseType().getClassName());
+            }
+        }
+        if (!hasAllocations) {
+            return Collections.emptyMap();
+        }
+
+        // Determine the class of the objects each local may reference. 
+        // Locals which may reference objects of different classes, or objects
+        // not allocated here, are dropped.
+        Map<Local, String> classes = new HashMap<>();
+        Set<Local> rejected = new HashSet<>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Local local : defs.keySet()) {
+                if (rejected.contains(local) || !(local.getType() instanceof RefType)) {
+                    continue;
+                }
+                String className = classes.get(local);
+                boolean reject = false;
+                for (Unit def : defs.get(local)) {
+                    String c = getDefClass(def, classes, rejected);
+                    if (c == null) {
+                        reject = true;
+                        break;
+                    }
+                    if (!c.isEmpty()) {
+                        if (className != null && !className.equals(c)) {
+                            reject = true;
+                            break;
+                        }
+                        className = c;
+                    }
+                }
+                if (reject) {
+                    rejected.add(local);
+                    classes.remove(local);
+                    changed = true;
+                } else if (className != null && !className.equals(classes.get(local))) {
+                    classes.put(local, className);
+                    changed = true;
+                }
+            }
+        }
+
+        // Drop locals which are used in ways which may let the object escape
+        // and, transitively, locals which copy from them.
+        changed = true;
+        while (changed) {
+            changed = false;
+            for (Local local : new ArrayList<>(classes.keySet())) {
+                List<Unit> l = uses.get(local);
+                boolean escapes = false;
+                if (l != null) {
+                    for (Unit use : l) {
+                        if (escapes(local, classes.get(local), use, classes)) {
+                            escapes = true;
+                            break;
+                        }
+                    }
+                }
+                if (!escapes) {
+                    for (Unit def : defs.get(local)) {
+                        if (getDefClass(def, classes, rejected) == null) {
+                            escapes = true;
+                            break;
+                        }
+                    }
+                }
+                if (escapes) {
+                    classes.remove(local);
+                    rejected.add(local);
+                    changed = true;
+                }
+            }
+        }
+        return classes;
+    }
+
+    private static void add(Map<Local, List<Unit>> map, Local local, Unit unit) {
+        List<Unit> l = map.get(local);
+        if (l == null) {
+            l = new ArrayList<>();
+            map.put(local, l);
+        }
+        l.add(unit);
+    }
+
+    /**
+     * Returns the name of the class of the object assigned by the specified
+     * definition, the empty string if it copies a local whose class isn't 
+     * known yet or <code>null</code> if the object may not be confined.
+     */
+    private static String getDefClass(Unit def, Map<Local, String> classes, Set<Local> rejected) {
+        if (!(def instanceof AssignStmt)) {
+            return null;
+        }
+        Value right = ((AssignStmt) def).getRightOp();
+        if (right instanceof NewExpr) {
+            String className = ((NewExpr) right).getBaseType().getClassName();
+            return RETURNS_THIS.containsKey(className) ? className : null;
+        }
+        Local source = null;
+        if (right instanceof Local) {
+            source = (Local) right;
+        } else if (right instanceof CastExpr && ((CastExpr) right).getOp() instanceof Local) {
+            source = (Local) ((CastExpr) right).getOp();
+        } else if (right instanceof InstanceInvokeExpr) {
+            source = (Local) ((InstanceInvokeExpr) right).getBase();
+            String className = classes.get(source);
+            if (className != null 
+                    && !RETURNS_THIS.get(className).contains(((InstanceInvokeExpr) right).getMethodRef().name())) {
+                return null;
+            }
+        }
+        if (source == null || rejected.contains(source)) {
+            return null;
+        }
+        String className = classes.get(source);
+        return className != null ? className : "";
+    }
+
+    private static boolean escapes(Local local, String className, Unit use, Map<Local, String> classes) {
+        if (use instanceof MonitorStmt || use instanceof IfStmt) {
+            return false;
+        }
+        if (use instanceof AssignStmt) {
+            Value left = ((AssignStmt) use).getLeftOp();
+            Value right = ((AssignStmt) use).getRightOp();
+            if (right == local || right instanceof CastExpr) {
+                return !isConfined(left, classes);
+            }
+            if (right instanceof InstanceOfExpr) {
+                return false;
+            }
+            if (right instanceof InvokeExpr) {
+                if (escapes(local, className, (InvokeExpr) right)) {
+                    return true;
+                }
+                // Methods returning this create an alias which must be confined too
+                return RETURNS_THIS.get(className).contains(((InvokeExpr) right).getMethodRef().name())
+                        && !isConfined(left, classes);
+            }
+            // Stored in a field or an array or used to access a field
+            return true;
+        }
+        if (use instanceof Stmt && ((Stmt) use).containsInvokeExpr()) {
+            return escapes(local, className, ((Stmt) use).getInvokeExpr());
+        }
+        // Returned or thrown
+        return true;
+    }
+
+    private static boolean escapes(Local local, String className, InvokeExpr expr) {
+        if (!(expr instanceof InstanceInvokeExpr) || ((InstanceInvokeExpr) expr).getBase() != local
+                || expr.getArgs().contains(local)) {
+            // Passed as an argument
+            return true;
+        }
+        String name = expr.getMethodRef().name();
+        return LEAKS_THIS.get(className).contains(name) || MONITOR_METHODS.contains(name);
+    }
+
+    private static boolean isConfined(Value v, Map<Local, String> classes) {
+        return v instanceof Local && classes.containsKey(v);
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.opt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import aura.compiler.Types;
+import aura.compiler.clazz.MethodSummary;
+
+import soot.Body;
+import soot.Local;
+import soot.SootClass;
+import soot.SootFieldRef;
+import soot.SootMethod;
+import soot.SootMethodRef;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.AssignStmt;
+import soot.jimple.Constant;
+import soot.jimple.DoubleConstant;
+import soot.jimple.FloatConstant;
+import soot.jimple.IdentityStmt;
+import soot.jimple.InstanceFieldRef;
+import soot.jimple.IntConstant;
+import soot.jimple.InvokeExpr;
+import soot.jimple.InvokeStmt;
+import soot.jimple.LongConstant;
+import soot.jimple.NopStmt;
+import soot.jimple.NullConstant;
+import soot.jimple.ParameterRef;
+import soot.jimple.ReturnStmt;
+import soot.jimple.ReturnVoidStmt;
+import soot.jimple.StaticInvokeExpr;
+import soot.jimple.StringConstant;
+import soot.jimple.ThisRef;
+
+/**
+ * Creates {@link MethodSummary} objects for trivial methods. A method is
+ * trivial if its (optimized) body, apart from identity statements, consists
+ * of nothing but one of:
+ * <ul>
+ * <li><code>return this.f;</code></li>
+ * <li><code>this.f = p0; return;</code></li>
+ * <li><code>return &lt;constant&gt;;</code></li>
+ * <li><code>[return] Owner.m(p0, p1, ...);</code></li>
+ * </ul>
+ * Fields have to be declared by the class declaring the method. The
+ * summaries are recorded in the method's {@link aura.compiler.clazz.MethodInfo}
+ * so that callers in other classes can inline them.
+ */
+public class MethodSummarizer {
+
+    /**
+     * Returns the {@link MethodSummary} for the specified method body or
+     * <code>null</code> if the method isn't trivial.
+     */
+    public static MethodSummary summarize(Body body) {
+        SootMethod method = body.getMethod();
+        if (method.isSynchronized() || method.getName().startsWith("<") || !body.getTraps().isEmpty()) {
+            return null;
+        }
+        
+        Local thisLocal = null;
+        Local[] params = new Local[method.getParameterCount()];
+        List<Unit> units = new ArrayList<>();
+        for (Unit unit : body.getUnits()) {
+            if (unit instanceof IdentityStmt) {
+                IdentityStmt stmt = (IdentityStmt) unit;
+                if (stmt.getRightOp() instanceof ThisRef) {
+                    thisLocal = (Local) stmt.getLeftOp();
+                } else if (stmt.getRightOp() instanceof ParameterRef) {
+                    params[((ParameterRef) stmt.getRightOp()).getIndex()] = (Local) stmt.getLeftOp();
+                } else {
+                    return null;
+                }
+            } else if (!(unit instanceof NopStmt)) {
+                if (units.size() == 2) {
+                    return null;
+                }
+                units.add(unit);
+            }
+        }
+
+        if (units.size() == 1) {
+            if (units.get(0) instanceof ReturnStmt) {
+                Value op = ((ReturnStmt) units.get(0)).getOp();
+                if (op instanceof Constant) {
+                    return constant((Constant) op);
+                }
+            }
+            return null;
+        }
+        if (units.size() != 2) {
+            return null;
+        }
+        
+        Unit first = units.get(0);
+        Unit last = units.get(1);
+        if (last instanceof ReturnVoidStmt) {
+            if (first instanceof InvokeStmt) {
+                return forwardStatic(method, ((InvokeStmt) first).getInvokeExpr(), params);
+            }
+            if (first instanceof AssignStmt && params.length == 1) {
+                AssignStmt stmt = (AssignStmt) first;
+                if (stmt.getRightOp() == params[0] && isOwnField(method, thisLocal, stmt.getLeftOp())) {
+                    SootFieldRef fieldRef = ((InstanceFieldRef) stmt.getLeftOp()).getFieldRef();
+                    if (fieldRef.type().equals(method.getParameterType(0)) && !method.getDeclaringClass().getField(fieldRef.name(), fieldRef.type()).isFinal()) {
+                        return MethodSummary.putField(Types.getInternalName(fieldRef.declaringClass()), 
+                                fieldRef.name(), Types.getDescriptor(fieldRef.type()));
+                    }
+                }
+            }
+            return null;
+        }
+        if (last instanceof ReturnStmt && first instanceof AssignStmt) {
+            AssignStmt stmt = (AssignStmt) first;
+            if (((ReturnStmt) last).getOp() != stmt.getLeftOp()) {
+                return null;
+            }
+            if (stmt.getRightOp() instanceof InvokeExpr) {
+                return forwardStatic(method, (InvokeExpr) stmt.getRightOp(), params);
+            }
+            if (isOwnField(method, thisLocal, stmt.getRightOp())) {
+                SootFieldRef fieldRef = ((InstanceFieldRef) stmt.getRightOp()).getFieldRef();
+                if (fieldRef.type().equals(method.getReturnType())) {
+                    return MethodSummary.getField(Types.getInternalName(fieldRef.declaringClass()), 
+                            fieldRef.name(), Types.getDescriptor(fieldRef.type()));
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isOwnField(SootMethod method, Local thisLocal, Value v) {
+        if (thisLocal == null || !(v instanceof InstanceFieldRef) || ((InstanceFieldRef) v).getBase() != thisLocal) {
+            return false;
+        }
+        SootFieldRef fieldRef = ((InstanceFieldRef) v).getFieldRef();
+        SootClass declaringClass = method.getDeclaringClass();
+        return fieldRef.declaringClass().equals(declaringClass) 
+                && declaringClass.declaresField(fieldRef.name(), fieldRef.type());
+    }
+
+    private static MethodSummary constant(Constant c) {
+        if (c instanceof IntConstant) {
+            return MethodSummary.constant(((IntConstant) c).value);
+        } else if (c instanceof LongConstant) {
+            return MethodSummary.constant(((LongConstant) c).value);
+        } else if (c instanceof FloatConstant) {
+            return MethodSummary.constant(((FloatConstant) c).value);
+        } else if (c instanceof DoubleConstant) {
+            return MethodSummary.constant(((DoubleConstant) c).value);
+        } else if (c instanceof StringConstant) {
+            return MethodSummary.constant(((StringConstant) c).value);
+        } else if (c instanceof NullConstant) {
+            return MethodSummary.constant(null);
+        }
+        // Class constants need an ldc trampoline. Not worth it.
+        return null;
+    }
+
+    private static MethodSummary forwardStatic(SootMethod method, InvokeExpr expr, Local[] params) {
+        if (!(expr instanceof StaticInvokeExpr)) {
+            return null;
+        }
+        SootMethodRef methodRef = expr.getMethodRef();
+        if (!methodRef.returnType().equals(method.getReturnType())
+                || !methodRef.parameterTypes().equals(method.getParameterTypes())) {
+            return null;
+        }
+        for (int i = 0; i < params.length; i++) {
+            if (params[i] == null || expr.getArg(i) != params[i]) {
+                return null;
+            }
+        }
+        return MethodSummary.forwardStatic(Types.getInternalName(methodRef.declaringClass()), 
+                methodRef.name(), Types.getDescriptor(methodRef));
+    }
+}
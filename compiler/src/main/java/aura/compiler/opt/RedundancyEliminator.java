@@ -0,0 +1,427 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.opt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import soot.ArrayType;
+import soot.Body;
+import soot.BodyTransformer;
+import soot.EquivalentValue;
+import soot.Local;
+import soot.Modifier;
+import soot.PrimType;
+import soot.SootClass;
+import soot.SootField;
+import soot.SootFieldRef;
+import soot.Trap;
+import soot.Type;
+import soot.Unit;
+import soot.Value;
+import soot.ValueBox;
+import soot.jimple.ArrayRef;
+import soot.jimple.AssignStmt;
+import soot.jimple.BinopExpr;
+import soot.jimple.CastExpr;
+import soot.jimple.Constant;
+import soot.jimple.DivExpr;
+import soot.jimple.EnterMonitorStmt;
+import soot.jimple.ExitMonitorStmt;
+import soot.jimple.FieldRef;
+import soot.jimple.InstanceFieldRef;
+import soot.jimple.InstanceOfExpr;
+import soot.jimple.LengthExpr;
+import soot.jimple.NegExpr;
+import soot.jimple.NewExpr;
+import soot.jimple.RemExpr;
+import soot.jimple.StaticFieldRef;
+import soot.jimple.Stmt;
+import soot.toolkits.graph.BriefUnitGraph;
+import soot.toolkits.graph.DominatorsFinder;
+import soot.toolkits.graph.MHGDominatorsFinder;
+
+/**
+ * Removes redundant computations, loads and checks.
+ * <p>
+ * Locals which are defined exactly once are treated as SSA values. An
+ * expression over such locals computed by <code>y = e</code> is reused by
+ * every <code>x = e</code> which <code>y = e</code> dominates (global value
+ * numbering). Besides arithmetic this covers array lengths, which never
+ * change, and <code>checkcast</code>/<code>instanceof</code> checks, which
+ * always give the same result for the same value. Expressions which can throw
+ * are only reused if no trap covers the dominating computation, since the
+ * handler could otherwise resume execution without it having completed.
+ * </p>
+ * <p>
+ * If load forwarding is enabled, field and array element loads are also
+ * reused within a basic block, both from earlier loads and from earlier
+ * stores. Java has no aliasing between different fields or between arrays of
+ * different primitive types, so only stores to the same field or to a
+ * compatible array, calls, monitors and anything which could run a static
+ * initializer invalidate a load. Loads of volatile fields are never reused.
+ * </p>
+ */
+public class RedundancyEliminator extends BodyTransformer {
+    private boolean loadForwarding;
+    private int expressionsReused;
+    private int checksEliminated;
+    private int loadsForwarded;
+
+    /**
+     * Enables or disables forwarding of field and array element loads.
+     */
+    public void setLoadForwarding(boolean loadForwarding) {
+        this.loadForwarding = loadForwarding;
+    }
+
+    /**
+     * Resets the statistics returned by {@link #getExpressionsReused()},
+     * {@link #getChecksEliminated()} and {@link #getLoadsForwarded()}.
+     */
+    public void reset() {
+        expressionsReused = 0;
+        checksEliminated = 0;
+        loadsForwarded = 0;
+    }
+
+    /**
+     * Returns the number of arithmetic and array length expressions replaced
+     * by a previously computed value since the last {@link #reset()}.
+     */
+    public int getExpressionsReused() {
+        return expressionsReused;
+    }
+
+    /**
+     * Returns the number of <code>checkcast</code> and <code>instanceof</code>
+     * checks replaced by a previously computed value since the last
+     * {@link #reset()}.
+     */
+    public int getChecksEliminated() {
+        return checksEliminated;
+    }
+
+    /**
+     * Returns the number of loads replaced by a previously loaded or stored
+     * value since the last {@link #reset()}.
+     */
+    public int getLoadsForwarded() {
+        return loadsForwarded;
+    }
+
+    @Override
+    protected void internalTransform(Body body, String phaseName, @SuppressWarnings("rawtypes") Map options) {
+        Set<Local> ssaLocals = findSingleDefLocals(body);
+        if (ssaLocals.isEmpty()) {
+            return;
+        }
+        numberValues(body, ssaLocals);
+        if (loadForwarding) {
+            forwardLoads(body, ssaLocals);
+        }
+    }
+
+    private void numberValues(Body body, Set<Local> ssaLocals) {
+        List<AssignStmt> candidates = new ArrayList<>();
+        for (Unit unit : body.getUnits()) {
+            if (unit instanceof AssignStmt && isNumberable((AssignStmt) unit, ssaLocals)) {
+                candidates.add((AssignStmt) unit);
+            }
+        }
+        if (candidates.size() < 2) {
+            return;
+        }
+
+        Set<Unit> trapped = getTrappedUnits(body);
+        DominatorsFinder<Unit> dominators = null;
+        Map<EquivalentValue, List<AssignStmt>> available = new HashMap<>();
+        for (AssignStmt stmt : candidates) {
+            EquivalentValue key = new EquivalentValue(stmt.getRightOp());
+            List<AssignStmt> defs = available.get(key);
+            if (defs == null) {
+                defs = new ArrayList<>();
+                available.put(key, defs);
+            }
+            AssignStmt reused = null;
+            for (AssignStmt def : defs) {
+                if (!def.getLeftOp().getType().equals(stmt.getLeftOp().getType())) {
+                    continue;
+                }
+                if (canThrow(def.getRightOp()) && trapped.contains(def)) {
+                    continue;
+                }
+                if (dominators == null) {
+                    dominators = new MHGDominatorsFinder<Unit>(new BriefUnitGraph(body));
+                }
+                if (dominators.isDominatedBy(stmt, def)) {
+                    reused = def;
+                    break;
+                }
+            }
+            if (reused != null) {
+                Value right = stmt.getRightOp();
+                if (right instanceof CastExpr && !(((CastExpr) right).getCastType() instanceof PrimType)
+                        || right instanceof InstanceOfExpr) {
+                    checksEliminated++;
+                } else {
+                    expressionsReused++;
+                }
+                stmt.setRightOp(reused.getLeftOp());
+            } else if (ssaLocals.contains(stmt.getLeftOp())) {
+                defs.add(stmt);
+            }
+        }
+    }
+
+    private void forwardLoads(Body body, Set<Local> ssaLocals) {
+        SootClass declaringClass = body.getMethod().getDeclaringClass();
+        Set<Unit> blockStarts = getBlockStarts(body);
+        Map<EquivalentValue, Value> available = new HashMap<>();
+        for (Unit unit : body.getUnits()) {
+            if (blockStarts.contains(unit)) {
+                available.clear();
+            }
+            Stmt stmt = (Stmt) unit;
+            if (stmt instanceof AssignStmt) {
+                AssignStmt assign = (AssignStmt) stmt;
+                Value right = assign.getRightOp();
+                if (isForwardableLoad(right, ssaLocals)) {
+                    Value value = available.get(new EquivalentValue(right));
+                    if (value != null && (value instanceof Constant 
+                            || value.getType().equals(assign.getLeftOp().getType()))) {
+                        assign.setRightOp(value);
+                        loadsForwarded++;
+                        continue;
+                    }
+                }
+            }
+
+            kill(stmt, declaringClass, available);
+
+            if (stmt instanceof AssignStmt) {
+                AssignStmt assign = (AssignStmt) stmt;
+                Value left = assign.getLeftOp();
+                Value right = assign.getRightOp();
+                if (isForwardableLoad(right, ssaLocals) && ssaLocals.contains(left)) {
+                    available.put(new EquivalentValue(right), left);
+                } else if (isForwardableLoad(left, ssaLocals) 
+                        && (right instanceof Constant || ssaLocals.contains(right))) {
+                    available.put(new EquivalentValue(left), right);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the loads from <code>available</code> which the specified
+     * {@link Stmt} may change the value of.
+     */
+    private static void kill(Stmt stmt, SootClass declaringClass, Map<EquivalentValue, Value> available) {
+        if (available.isEmpty()) {
+            return;
+        }
+        if (stmt.containsInvokeExpr() || stmt instanceof EnterMonitorStmt || stmt instanceof ExitMonitorStmt) {
+            available.clear();
+            return;
+        }
+        for (Object o : stmt.getUseAndDefBoxes()) {
+            Value v = ((ValueBox) o).getValue();
+            if (v instanceof NewExpr) {
+                // Could run a static initializer
+                available.clear();
+                return;
+            }
+            if (v instanceof FieldRef) {
+                SootField field = resolveField((FieldRef) v);
+                if (field == null) {
+                    // Throws NoSuchFieldError or IncompatibleClassChangeError
+                    available.clear();
+                    return;
+                }
+                if (field.isStatic() && !field.getDeclaringClass().equals(declaringClass)) {
+                    // Could run a static initializer
+                    available.clear();
+                    return;
+                }
+            }
+        }
+        if (!(stmt instanceof AssignStmt)) {
+            return;
+        }
+        Value left = ((AssignStmt) stmt).getLeftOp();
+        if (left instanceof Local) {
+            return;
+        }
+        for (Iterator<EquivalentValue> it = available.keySet().iterator(); it.hasNext();) {
+            Value load = it.next().getValue();
+            if (left instanceof FieldRef && load instanceof FieldRef) {
+                // The references may name the field through different
+                // classes so only the name and type are compared
+                SootFieldRef l = ((FieldRef) left).getFieldRef();
+                SootFieldRef r = ((FieldRef) load).getFieldRef();
+                if (l.name().equals(r.name()) && l.type().equals(r.type())) {
+                    it.remove();
+                }
+            } else if (left instanceof ArrayRef && load instanceof ArrayRef) {
+                if (mayAlias(((ArrayRef) left).getBase().getType(), ((ArrayRef) load).getBase().getType())) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private static boolean mayAlias(Type t1, Type t2) {
+        if (t1 instanceof ArrayType && t2 instanceof ArrayType) {
+            Type e1 = ((ArrayType) t1).getElementType();
+            Type e2 = ((ArrayType) t2).getElementType();
+            if (e1 instanceof PrimType || e2 instanceof PrimType) {
+                return e1.equals(e2);
+            }
+        }
+        return true;
+    }
+
+    private static boolean isForwardableLoad(Value v, Set<Local> ssaLocals) {
+        if (v instanceof InstanceFieldRef) {
+            InstanceFieldRef ref = (InstanceFieldRef) v;
+            SootField field = resolveField(ref);
+            return field != null && !isVolatile(field) && ssaLocals.contains(ref.getBase());
+        }
+        if (v instanceof StaticFieldRef) {
+            SootField field = resolveField((StaticFieldRef) v);
+            return field != null && !isVolatile(field);
+        }
+        if (v instanceof ArrayRef) {
+            ArrayRef ref = (ArrayRef) v;
+            return ssaLocals.contains(ref.getBase()) 
+                    && (ref.getIndex() instanceof Constant || ssaLocals.contains(ref.getIndex()));
+        }
+        return false;
+    }
+
+    /**
+     * Returns the field referenced by the specified {@link FieldRef} or
+     * <code>null</code> if it doesn't exist, is a phantom or is static when
+     * the reference isn't or vice versa. Such references are compiled into trampolines
+     * which throw <code>NoSuchFieldError</code> or
+     * <code>IncompatibleClassChangeError</code> and must never be forwarded.
+     */
+    private static SootField resolveField(FieldRef ref) {
+        try {
+            SootField field = ref.getField();
+            if (field.isPhantom() || field.isStatic() != (ref instanceof StaticFieldRef)) {
+                return null;
+            }
+            return field;
+        } catch (RuntimeException e) {
+            // Soot throws FieldResolutionFailedException (or a plain
+            // RuntimeException) if the field can't be found.
+            return null;
+        }
+    }
+
+    private static boolean isVolatile(SootField field) {
+        return Modifier.isVolatile(field.getModifiers());
+    }
+
+    private static boolean isNumberable(AssignStmt stmt, Set<Local> ssaLocals) {
+        if (!(stmt.getLeftOp() instanceof Local)) {
+            return false;
+        }
+        Value right = stmt.getRightOp();
+        if (!(right instanceof BinopExpr || right instanceof NegExpr || right instanceof CastExpr
+                || right instanceof InstanceOfExpr || right instanceof LengthExpr)) {
+            return false;
+        }
+        for (Object o : right.getUseBoxes()) {
+            Value v = ((ValueBox) o).getValue();
+            if (v instanceof Local && !ssaLocals.contains(v)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean canThrow(Value v) {
+        if (v instanceof DivExpr || v instanceof RemExpr) {
+            Type type = v.getType();
+            return !(type instanceof soot.FloatType || type instanceof soot.DoubleType);
+        }
+        if (v instanceof CastExpr) {
+            return !(((CastExpr) v).getCastType() instanceof PrimType);
+        }
+        return v instanceof InstanceOfExpr || v instanceof LengthExpr;
+    }
+
+    /**
+     * Returns the locals which are defined exactly once in the specified 
+     * {@link Body}.
+     */
+    static Set<Local> findSingleDefLocals(Body body) {
+        Map<Local, Integer> defCounts = new HashMap<>();
+        for (Unit unit : body.getUnits()) {
+            for (ValueBox box : unit.getDefBoxes()) {
+                if (box.getValue() instanceof Local) {
+                    Local local = (Local) box.getValue();
+                    Integer count = defCounts.get(local);
+                    defCounts.put(local, count == null ? 1 : count + 1);
+                }
+            }
+        }
+        Set<Local> result = new HashSet<>();
+        for (Map.Entry<Local, Integer> entry : defCounts.entrySet()) {
+            if (entry.getValue() == 1) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    private static Set<Unit> getTrappedUnits(Body body) {
+        Set<Unit> result = new HashSet<>();
+        for (Trap trap : body.getTraps()) {
+            for (Iterator<Unit> it = body.getUnits().iterator(trap.getBeginUnit(), 
+                    body.getUnits().getPredOf(trap.getEndUnit())); it.hasNext();) {
+                result.add(it.next());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the units which can be reached other than by falling through
+     * from the preceding unit.
+     */
+    private static Set<Unit> getBlockStarts(Body body) {
+        Set<Unit> result = new HashSet<>();
+        for (Unit unit : body.getUnits()) {
+            if (!unit.getBoxesPointingToThis().isEmpty()) {
+                result.add(unit);
+            }
+        }
+        for (Trap trap : body.getTraps()) {
+            result.add(trap.getHandlerUnit());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.opt;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import soot.Body;
+import soot.BodyTransformer;
+import soot.Local;
+import soot.PatchingChain;
+import soot.SootClass;
+import soot.SootField;
+import soot.SootFieldRef;
+import soot.SootMethod;
+import soot.Trap;
+import soot.Unit;
+import soot.Value;
+import soot.ValueBox;
+import soot.jimple.AssignStmt;
+import soot.jimple.ClassConstant;
+import soot.jimple.ConditionExpr;
+import soot.jimple.Constant;
+import soot.jimple.EqExpr;
+import soot.jimple.GeExpr;
+import soot.jimple.GtExpr;
+import soot.jimple.IfStmt;
+import soot.jimple.IntConstant;
+import soot.jimple.Jimple;
+import soot.jimple.LeExpr;
+import soot.jimple.LtExpr;
+import soot.jimple.NeExpr;
+import soot.jimple.NopStmt;
+import soot.jimple.NullConstant;
+import soot.jimple.StaticFieldRef;
+import soot.jimple.StringConstant;
+import soot.toolkits.graph.BriefUnitGraph;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+import soot.toolkits.graph.UnitGraph;
+import soot.toolkits.scalar.LocalDefs;
+import soot.toolkits.scalar.SimpleLocalDefs;
+
+/**
+ * Propagates the values of effectively final static fields into the methods
+ * reading them and removes the code made dead by it.
+ * <p>
+ * A <code>private static</code> field which isn't <code>final</code> is
+ * effectively final if the only write to it is the assignment of a constant
+ * in <code>&lt;clinit&gt;</code> and no code which could read the field can
+ * run before that assignment. Only the declaring class can write to a private
+ * field so this can be decided for one class at a time. Reads of such fields
+ * in methods other than <code>&lt;clinit&gt;</code> are replaced with the
+ * constant. Conditional branches on the constant (e.g. 
+ * <code>if (DEBUG)</code>) are then folded and code which has become
+ * unreachable is removed which also gets rid of the trampolines and 
+ * dependencies it would otherwise have caused.
+ * </p>
+ * <p>
+ * Writes through reflection or JNI are not detected.
+ * </p>
+ */
+public class StaticConstantPropagator extends BodyTransformer {
+    private SootClass analyzedClass;
+    private Map<SootField, Constant> constants = new HashMap<>();
+    private final Set<String> fieldsPropagated = new TreeSet<>();
+    private int readsReplaced;
+    private int branchesFolded;
+    private int unitsRemoved;
+
+    /**
+     * Resets the statistics returned by {@link #getFieldsPropagated()},
+     * {@link #getReadsReplaced()}, {@link #getBranchesFolded()} and
+     * {@link #getUnitsRemoved()}. Must be called before the methods of
+     * another class are transformed.
+     */
+    public void reset() {
+        analyzedClass = null;
+        constants = new HashMap<>();
+        fieldsPropagated.clear();
+        readsReplaced = 0;
+        branchesFolded = 0;
+        unitsRemoved = 0;
+    }
+
+    /**
+     * Returns the names of the fields which have been replaced by their
+     * values in at least one method since the last {@link #reset()}.
+     */
+    public Set<String> getFieldsPropagated() {
+        return fieldsPropagated;
+    }
+
+    /**
+     * Returns the number of field reads replaced by constants since the last
+     * {@link #reset()}.
+     */
+    public int getReadsReplaced() {
+        return readsReplaced;
+    }
+
+    /**
+     * Returns the number of conditional branches folded since the last
+     * {@link #reset()}.
+     */
+    public int getBranchesFolded() {
+        return branchesFolded;
+    }
+
+    /**
+     * Returns the number of unreachable statements removed since the last
+     * {@link #reset()}.
+     */
+    public int getUnitsRemoved() {
+        return unitsRemoved;
+    }
+
+    @Override
+    protected void internalTransform(Body body, String phaseName, @SuppressWarnings("rawtypes") Map options) {
+        SootMethod method = body.getMethod();
+        if (method.getDeclaringClass() != analyzedClass) {
+            analyzedClass = method.getDeclaringClass();
+            constants = findConstants(analyzedClass);
+        }
+        if (constants.isEmpty() || method.getName().equals("<clinit>")) {
+            return;
+        }
+
+        boolean replaced = false;
+        for (Unit unit : body.getUnits()) {
+            for (ValueBox box : unit.getUseBoxes()) {
+                if (box.getValue() instanceof StaticFieldRef) {
+                    SootField field = getOwnField(analyzedClass, (StaticFieldRef) box.getValue());
+                    Constant c = field != null ? constants.get(field) : null;
+                    if (c != null) {
+                        box.setValue(c);
+                        fieldsPropagated.add(field.getName());
+                        readsReplaced++;
+                        replaced = true;
+                    }
+                }
+            }
+        }
+        if (replaced && foldBranches(body)) {
+            removeUnreachableCode(body);
+        }
+    }
+
+    /**
+     * Finds the effectively final static fields of the specified class and
+     * their values.
+     */
+    static Map<SootField, Constant> findConstants(SootClass sc) {
+        Map<SootField, Constant> values = new HashMap<>();
+        if (!sc.declaresMethodByName("<clinit>")) {
+            return values;
+        }
+        Set<SootField> candidates = new HashSet<>();
+        for (SootField f : WriteOnlyFieldEliminator.getFields(sc)) {
+            if (f.isStatic() && f.isPrivate() && !Modifier.isFinal(f.getModifiers())) {
+                candidates.add(f);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return values;
+        }
+
+        SootMethod clinit = sc.getMethodByName("<clinit>");
+        Set<SootField> rejected = new HashSet<>();
+        for (SootMethod m : sc.getMethods()) {
+            if (!m.isConcrete()) {
+                continue;
+            }
+            // Only the leading constant stores in <clinit> are certain to
+            // happen before any code which could read the fields.
+            boolean leading = m == clinit;
+            for (Unit unit : m.retrieveActiveBody().getUnits()) {
+                for (ValueBox box : unit.getDefBoxes()) {
+                    if (box.getValue() instanceof StaticFieldRef) {
+                        SootField f = getOwnField(sc, (StaticFieldRef) box.getValue());
+                        if (f == null || !candidates.contains(f)) {
+                            continue;
+                        }
+                        Value right = ((AssignStmt) unit).getRightOp();
+                        if (leading && isPropagatable(right) && !values.containsKey(f)) {
+                            values.put(f, (Constant) right);
+                        } else {
+                            rejected.add(f);
+                        }
+                    }
+                }
+                leading = leading && isConstantStore(sc, unit);
+            }
+        }
+        values.keySet().removeAll(rejected);
+        return values;
+    }
+
+    private static SootField getOwnField(SootClass sc, StaticFieldRef ref) {
+        SootFieldRef fieldRef = ref.getFieldRef();
+        if (!fieldRef.declaringClass().equals(sc) || !sc.declaresField(fieldRef.name(), fieldRef.type())) {
+            return null;
+        }
+        return sc.getField(fieldRef.name(), fieldRef.type());
+    }
+
+    private static boolean isPropagatable(Value v) {
+        // Class constants may throw NoClassDefFoundError
+        return v instanceof Constant && !(v instanceof ClassConstant);
+    }
+
+    private static boolean isConstantStore(SootClass sc, Unit unit) {
+        if (unit instanceof NopStmt) {
+            return true;
+        }
+        if (!(unit instanceof AssignStmt)) {
+            return false;
+        }
+        AssignStmt stmt = (AssignStmt) unit;
+        return stmt.getLeftOp() instanceof StaticFieldRef 
+                && getOwnField(sc, (StaticFieldRef) stmt.getLeftOp()) != null
+                && isPropagatable(stmt.getRightOp());
+    }
+
+    /**
+     * Folds the conditional branches which compare constants. Returns
+     * <code>true</code> if any branch was folded.
+     */
+    private boolean foldBranches(Body body) {
+        List<IfStmt> ifs = new ArrayList<>();
+        for (Unit unit : body.getUnits()) {
+            if (unit instanceof IfStmt) {
+                ifs.add((IfStmt) unit);
+            }
+        }
+        if (ifs.isEmpty()) {
+            return false;
+        }
+        
+        LocalDefs localDefs = new SimpleLocalDefs(new ExceptionalUnitGraph(body));
+        Map<IfStmt, Boolean> folded = new HashMap<>();
+        for (IfStmt stmt : ifs) {
+            ConditionExpr cond = (ConditionExpr) stmt.getCondition();
+            Constant op1 = getConstant(localDefs, cond.getOp1(), stmt);
+            Constant op2 = getConstant(localDefs, cond.getOp2(), stmt);
+            Boolean result = op1 != null && op2 != null ? evaluate(cond, op1, op2) : null;
+            if (result != null) {
+                folded.put(stmt, result);
+            }
+        }
+        PatchingChain<Unit> units = body.getUnits();
+        for (Map.Entry<IfStmt, Boolean> entry : folded.entrySet()) {
+            IfStmt stmt = entry.getKey();
+            if (entry.getValue()) {
+                units.swapWith(stmt, Jimple.v().newGotoStmt(stmt.getTarget()));
+            } else {
+                units.remove(stmt);
+            }
+            branchesFolded++;
+        }
+        return !folded.isEmpty();
+    }
+
+    private static Constant getConstant(LocalDefs localDefs, Value v, Unit unit) {
+        if (v instanceof Constant) {
+            return (Constant) v;
+        }
+        if (v instanceof Local) {
+            List<Unit> defs = localDefs.getDefsOfAt((Local) v, unit);
+            if (defs.size() == 1 && defs.get(0) instanceof AssignStmt) {
+                Value right = ((AssignStmt) defs.get(0)).getRightOp();
+                if (right instanceof Constant) {
+                    return (Constant) right;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Boolean evaluate(ConditionExpr cond, Constant op1, Constant op2) {
+        if (op1 instanceof IntConstant && op2 instanceof IntConstant) {
+            int a = ((IntConstant) op1).value;
+            int b = ((IntConstant) op2).value;
+            if (cond instanceof EqExpr) {
+                return a == b;
+            } else if (cond instanceof NeExpr) {
+                return a != b;
+            } else if (cond instanceof LtExpr) {
+                return a < b;
+            } else if (cond instanceof LeExpr) {
+                return a <= b;
+            } else if (cond instanceof GtExpr) {
+                return a > b;
+            } else if (cond instanceof GeExpr) {
+                return a >= b;
+            }
+        } else if (isReference(op1) && isReference(op2) && (op1 instanceof NullConstant || op2 instanceof NullConstant)) {
+            boolean same = op1 instanceof NullConstant && op2 instanceof NullConstant;
+            if (cond instanceof EqExpr) {
+                return same;
+            } else if (cond instanceof NeExpr) {
+                return !same;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isReference(Constant c) {
+        return c instanceof NullConstant || c instanceof StringConstant;
+    }
+
+    /**
+     * Removes the statements which can't be reached from the first statement
+     * of the body and the traps which no longer cover any reachable
+     * statement. Exception handlers are considered reachable if their trap
+     * covers a reachable statement.
+     */
+    private void removeUnreachableCode(Body body) {
+        PatchingChain<Unit> units = body.getUnits();
+        UnitGraph graph = new BriefUnitGraph(body);
+        Set<Unit> reachable = new HashSet<>();
+        Deque<Unit> worklist = new ArrayDeque<>();
+        worklist.add(units.getFirst());
+        Set<Trap> liveTraps = new HashSet<>();
+        while (!worklist.isEmpty()) {
+            while (!worklist.isEmpty()) {
+                Unit unit = worklist.removeFirst();
+                if (reachable.add(unit)) {
+                    worklist.addAll(graph.getSuccsOf(unit));
+                }
+            }
+            for (Trap trap : body.getTraps()) {
+                if (!liveTraps.contains(trap) && coversAny(units, trap, reachable)) {
+                    liveTraps.add(trap);
+                    worklist.add(trap.getHandlerUnit());
+                }
+            }
+        }
+        
+        for (Iterator<Trap> it = body.getTraps().iterator(); it.hasNext();) {
+            if (!liveTraps.contains(it.next())) {
+                it.remove();
+            }
+        }
+        for (Unit unit : new ArrayList<>(units)) {
+            if (!reachable.contains(unit)) {
+                units.remove(unit);
+                unitsRemoved++;
+            }
+        }
+        for (Iterator<Trap> it = body.getTraps().iterator(); it.hasNext();) {
+            Trap trap = it.next();
+            if (trap.getBeginUnit() == trap.getEndUnit()) {
+                it.remove();
+            }
+        }
+    }
+
+    private static boolean coversAny(PatchingChain<Unit> units, Trap trap, Set<Unit> reachable) {
+        for (Iterator<Unit> it = units.iterator(trap.getBeginUnit(), units.getPredOf(trap.getEndUnit())); it.hasNext();) {
+            if (reachable.contains(it.next())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
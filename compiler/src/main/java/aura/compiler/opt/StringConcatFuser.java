@@ -0,0 +1,375 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.opt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import soot.ArrayType;
+import soot.Body;
+import soot.BodyTransformer;
+import soot.BooleanType;
+import soot.CharType;
+import soot.DoubleType;
+import soot.FloatType;
+import soot.IntType;
+import soot.Local;
+import soot.LongType;
+import soot.PatchingChain;
+import soot.RefType;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethodRef;
+import soot.Type;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.AssignStmt;
+import soot.jimple.Constant;
+import soot.jimple.IntConstant;
+import soot.jimple.InvokeStmt;
+import soot.jimple.Jimple;
+import soot.jimple.NewExpr;
+import soot.jimple.SpecialInvokeExpr;
+import soot.jimple.StaticInvokeExpr;
+import soot.jimple.StringConstant;
+import soot.jimple.VirtualInvokeExpr;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+import soot.toolkits.scalar.LocalDefs;
+import soot.toolkits.scalar.LocalUses;
+import soot.toolkits.scalar.SimpleLocalDefs;
+import soot.toolkits.scalar.SimpleLocalUses;
+import soot.toolkits.scalar.UnitValueBoxPair;
+
+/**
+ * Fuses <code>new StringBuilder().append(a).append(b)...toString()</code>
+ * chains, as emitted by javac for string concatenation, into calls to the
+ * runtime's <code>aura.rt.StringConcat</code> helper. The fused code computes
+ * the exact length of the result, allocates the <code>char[]</code> once and
+ * wraps it in a <code>String</code> without the copy made by
+ * <code>StringBuilder.toString()</code>.
+ * <p>
+ * Each piece is captured at its original <code>append()</code> site, so
+ * pieces which aren't <code>String</code>s, <code>char</code>s,
+ * <code>int</code>s or <code>long</code>s are converted using
+ * <code>String.valueOf()</code> at the same point as
+ * <code>StringBuilder</code> would have converted them. Only chains where
+ * the builder never escapes (every intermediate builder reference is used
+ * exactly once by the next link in the chain) are fused.
+ * </p>
+ */
+public class StringConcatFuser extends BodyTransformer {
+    static final String STRING_BUILDER = "java.lang.StringBuilder";
+    static final String STRING_CONCAT = "aura.rt.StringConcat";
+
+    private int chainsFused;
+    private int tmpCounter;
+
+    /**
+     * A piece of the concatenation. <code>value</code> is a local or a
+     * constant of type <code>String</code>, <code>char</code>,
+     * <code>int</code> or <code>long</code>.
+     */
+    private static class Piece {
+        final Value value;
+        final Type type;
+
+        Piece(Value value, Type type) {
+            this.value = value;
+            this.type = type;
+        }
+    }
+
+    public void reset() {
+        chainsFused = 0;
+        tmpCounter = 0;
+    }
+
+    /**
+     * Returns the number of chains fused since the last {@link #reset()}.
+     */
+    public int getChainsFused() {
+        return chainsFused;
+    }
+
+    @Override
+    protected void internalTransform(Body body, String phaseName, @SuppressWarnings("rawtypes") Map options) {
+        List<AssignStmt> news = new ArrayList<>();
+        for (Unit unit : body.getUnits()) {
+            if (unit instanceof AssignStmt) {
+                AssignStmt stmt = (AssignStmt) unit;
+                if (stmt.getLeftOp() instanceof Local && stmt.getRightOp() instanceof NewExpr
+                        && STRING_BUILDER.equals(((NewExpr) stmt.getRightOp()).getBaseType().getClassName())) {
+                    news.add(stmt);
+                }
+            }
+        }
+        if (news.isEmpty()) {
+            return;
+        }
+
+        ExceptionalUnitGraph graph = new ExceptionalUnitGraph(body);
+        LocalDefs localDefs = new SimpleLocalDefs(graph);
+        LocalUses localUses = new SimpleLocalUses(graph, localDefs);
+
+        for (AssignStmt newStmt : news) {
+            fuse(body, newStmt, localDefs, localUses);
+        }
+    }
+
+    private void fuse(Body body, AssignStmt newStmt, LocalDefs localDefs, LocalUses localUses) {
+        Local sb = (Local) newStmt.getLeftOp();
+        List<Unit> uses = getUses(localUses, newStmt);
+        if (uses.size() != 2) {
+            return;
+        }
+
+        // Find the constructor call and the first link of the chain.
+        InvokeStmt init = null;
+        Unit next = null;
+        for (Unit use : uses) {
+            if (use instanceof InvokeStmt && ((InvokeStmt) use).getInvokeExpr() instanceof SpecialInvokeExpr) {
+                init = (InvokeStmt) use;
+            } else {
+                next = use;
+            }
+        }
+        if (init == null || next == null || localDefs.getDefsOfAt(sb, init).size() != 1) {
+            return;
+        }
+        SpecialInvokeExpr initExpr = (SpecialInvokeExpr) init.getInvokeExpr();
+        SootMethodRef initRef = initExpr.getMethodRef();
+        if (initExpr.getBase() != sb || !"<init>".equals(initRef.name())) {
+            return;
+        }
+        Value initPiece = null;
+        if (initRef.parameterTypes().size() == 1) {
+            // new StringBuilder(String) throws NPE on null. Only accept
+            // values which are known to be non-null.
+            if (!isString(initRef.parameterType(0)) 
+                    || !isNonNullString(initExpr.getArg(0), init, localDefs)) {
+                return;
+            }
+            initPiece = initExpr.getArg(0);
+        } else if (!initRef.parameterTypes().isEmpty()) {
+            return;
+        }
+
+        // Walk the chain of append() calls up to the final toString().
+        List<AssignStmt> appends = new ArrayList<>();
+        AssignStmt toString = null;
+        Local current = sb;
+        while (toString == null) {
+            if (!(next instanceof AssignStmt) || localDefs.getDefsOfAt(current, next).size() != 1) {
+                return;
+            }
+            AssignStmt stmt = (AssignStmt) next;
+            if (!(stmt.getLeftOp() instanceof Local) || !(stmt.getRightOp() instanceof VirtualInvokeExpr)) {
+                return;
+            }
+            VirtualInvokeExpr expr = (VirtualInvokeExpr) stmt.getRightOp();
+            SootMethodRef ref = expr.getMethodRef();
+            if (expr.getBase() != current || !STRING_BUILDER.equals(ref.declaringClass().getName())) {
+                return;
+            }
+            if ("toString".equals(ref.name()) && ref.parameterTypes().isEmpty()) {
+                toString = stmt;
+            } else if ("append".equals(ref.name()) && ref.parameterTypes().size() == 1
+                    && isFusable(ref.parameterType(0))) {
+                appends.add(stmt);
+                List<Unit> nextUses = getUses(localUses, stmt);
+                if (nextUses.size() != 1) {
+                    return;
+                }
+                current = (Local) stmt.getLeftOp();
+                next = nextUses.get(0);
+            } else {
+                return;
+            }
+        }
+        if (initPiece == null && appends.isEmpty()) {
+            return;
+        }
+
+        PatchingChain<Unit> units = body.getUnits();
+        List<Piece> pieces = new ArrayList<>();
+        if (initPiece != null) {
+            Local tmp = newLocal(body, RefType.v("java.lang.String"));
+            units.swapWith(init, Jimple.v().newAssignStmt(tmp, initPiece));
+            pieces.add(new Piece(tmp, tmp.getType()));
+        } else {
+            units.remove(init);
+        }
+        units.remove(newStmt);
+
+        // Capture each piece at its append() site.
+        for (AssignStmt append : appends) {
+            VirtualInvokeExpr expr = (VirtualInvokeExpr) append.getRightOp();
+            Type paramType = expr.getMethodRef().parameterType(0);
+            Value arg = expr.getArg(0);
+            SootMethodRef conversion = getConversion(paramType);
+            if (conversion == null && arg instanceof Constant) {
+                // Constants don't need to be captured.
+                units.remove(append);
+                pieces.add(new Piece(arg, paramType));
+            } else {
+                Local tmp = newLocal(body, getPieceType(paramType));
+                append.setLeftOp(tmp);
+                if (conversion == null) {
+                    append.setRightOp(arg);
+                } else {
+                    append.setRightOp(Jimple.v().newStaticInvokeExpr(conversion, arg));
+                }
+                pieces.add(new Piece(tmp, tmp.getType()));
+            }
+        }
+
+        // Compute the length, fill the array and create the String at the
+        // toString() site.
+        List<Unit> fused = new ArrayList<>();
+        int constantLength = 0;
+        List<Piece> variablePieces = new ArrayList<>();
+        for (Piece piece : pieces) {
+            if (piece.value instanceof StringConstant) {
+                constantLength += ((StringConstant) piece.value).value.length();
+            } else if (piece.type == CharType.v()) {
+                constantLength++;
+            } else {
+                variablePieces.add(piece);
+            }
+        }
+        SootClass concatClass = RefType.v(STRING_CONCAT).getSootClass();
+        Local length = newLocal(body, IntType.v());
+        fused.add(Jimple.v().newAssignStmt(length, IntConstant.v(constantLength)));
+        for (Piece piece : variablePieces) {
+            SootMethodRef ref = Scene.v().makeMethodRef(concatClass, "length", 
+                    list(IntType.v(), piece.type), IntType.v(), true);
+            fused.add(Jimple.v().newAssignStmt(length, Jimple.v().newStaticInvokeExpr(ref, length, piece.value)));
+        }
+        ArrayType charArrayType = ArrayType.v(CharType.v(), 1);
+        Local buf = newLocal(body, charArrayType);
+        fused.add(Jimple.v().newAssignStmt(buf, Jimple.v().newNewArrayExpr(CharType.v(), length)));
+        Local pos = newLocal(body, IntType.v());
+        fused.add(Jimple.v().newAssignStmt(pos, IntConstant.v(0)));
+        for (Piece piece : pieces) {
+            SootMethodRef ref = Scene.v().makeMethodRef(concatClass, "put", 
+                    list(charArrayType, IntType.v(), piece.type), IntType.v(), true);
+            fused.add(Jimple.v().newAssignStmt(pos, Jimple.v().newStaticInvokeExpr(ref, buf, pos, piece.value)));
+        }
+        units.insertBefore(fused, toString);
+        SootMethodRef newString = Scene.v().makeMethodRef(concatClass, "newString", 
+                list(charArrayType), RefType.v("java.lang.String"), true);
+        toString.setRightOp(Jimple.v().newStaticInvokeExpr(newString, buf));
+
+        chainsFused++;
+    }
+
+    private Local newLocal(Body body, Type type) {
+        Local local = Jimple.v().newLocal("$concat" + (tmpCounter++), type);
+        body.getLocals().add(local);
+        return local;
+    }
+
+    private static List<Unit> getUses(LocalUses localUses, Unit unit) {
+        List<Unit> result = new ArrayList<>();
+        for (Object o : localUses.getUsesOf(unit)) {
+            result.add(((UnitValueBoxPair) o).getUnit());
+        }
+        return result;
+    }
+
+    private static List<Type> list(Type ... types) {
+        List<Type> result = new ArrayList<>();
+        Collections.addAll(result, types);
+        return result;
+    }
+
+    private static boolean isString(Type type) {
+        return type instanceof RefType && "java.lang.String".equals(((RefType) type).getClassName());
+    }
+
+    /**
+     * Returns <code>true</code> if the specified value is a
+     * <code>String</code> constant or has been produced by
+     * <code>String.valueOf()</code> (which never returns <code>null</code>).
+     */
+    private static boolean isNonNullString(Value value, Unit unit, LocalDefs localDefs) {
+        if (value instanceof StringConstant) {
+            return true;
+        }
+        if (!(value instanceof Local)) {
+            return false;
+        }
+        List<Unit> defs = localDefs.getDefsOfAt((Local) value, unit);
+        if (defs.size() != 1 || !(defs.get(0) instanceof AssignStmt)) {
+            return false;
+        }
+        Value rightOp = ((AssignStmt) defs.get(0)).getRightOp();
+        if (!(rightOp instanceof StaticInvokeExpr)) {
+            return false;
+        }
+        SootMethodRef ref = ((StaticInvokeExpr) rightOp).getMethodRef();
+        return "java.lang.String".equals(ref.declaringClass().getName()) && "valueOf".equals(ref.name());
+    }
+
+    /**
+     * Returns <code>true</code> if <code>append()</code> calls taking the
+     * specified type can be fused.
+     */
+    private static boolean isFusable(Type type) {
+        if (type instanceof RefType) {
+            String name = ((RefType) type).getClassName();
+            return "java.lang.String".equals(name) || "java.lang.Object".equals(name)
+                    || "java.lang.CharSequence".equals(name) || "java.lang.StringBuffer".equals(name);
+        }
+        if (type instanceof ArrayType) {
+            return type.equals(ArrayType.v(CharType.v(), 1));
+        }
+        return type == BooleanType.v() || type == CharType.v() || type == IntType.v()
+                || type == LongType.v() || type == FloatType.v() || type == DoubleType.v();
+    }
+
+    /**
+     * Returns the type of the value passed to the helper for an
+     * <code>append()</code> call taking the specified type.
+     */
+    private static Type getPieceType(Type type) {
+        if (type == CharType.v() || type == IntType.v() || type == LongType.v()) {
+            return type;
+        }
+        return RefType.v("java.lang.String");
+    }
+
+    /**
+     * Returns the <code>String.valueOf()</code> method used to convert an
+     * appended value of the specified type to a <code>String</code> or
+     * <code>null</code> if the value can be passed to the helper as is.
+     */
+    private static SootMethodRef getConversion(Type type) {
+        if (type == CharType.v() || type == IntType.v() || type == LongType.v() || isString(type)) {
+            return null;
+        }
+        Type paramType = type;
+        if (type instanceof RefType) {
+            paramType = RefType.v("java.lang.Object");
+        }
+        RefType stringType = RefType.v("java.lang.String");
+        return Scene.v().makeMethodRef(stringType.getSootClass(), "valueOf", 
+                list(paramType), stringType, true);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.opt;
+
+import soot.tagkit.AttributeValueException;
+import soot.tagkit.Tag;
+
+/**
+ * Attached by {@link LockElider} to invoke statements which may call the
+ * target method without acquiring its monitor, either because the receiver
+ * never leaves the current thread or because the monitor is already held by
+ * the calling method.
+ */
+public class UnsynchronizedCallTag implements Tag {
+    public static final String NAME = "UnsynchronizedCallTag";
+
+    private final String exactClass;
+
+    UnsynchronizedCallTag(String exactClass) {
+        this.exactClass = exactClass;
+    }
+
+    /**
+     * Returns the internal name of the exact runtime class of the receiver or
+     * <code>null</code> if unknown. If known the call can be bound directly
+     * to the method resolved in that class.
+     */
+    public String getExactClass() {
+        return exactClass;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] getValue() throws AttributeValueException {
+        throw new AttributeValueException();
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.opt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import aura.compiler.Types;
+import aura.compiler.util.AntPathMatcher;
+
+import soot.Body;
+import soot.Local;
+import soot.SootClass;
+import soot.SootField;
+import soot.SootFieldRef;
+import soot.SootMethod;
+import soot.Unit;
+import soot.ValueBox;
+import soot.jimple.AssignStmt;
+import soot.jimple.IdentityStmt;
+import soot.jimple.InstanceFieldRef;
+import soot.jimple.StringConstant;
+import soot.jimple.ThisRef;
+import soot.tagkit.Tag;
+import soot.tagkit.VisibilityAnnotationTag;
+import soot.util.Chain;
+
+/**
+ * Removes private instance fields which are never read from their classes
+ * when the aggressive tree shaker is used. Stores to such fields are removed
+ * from the method bodies and the fields themselves are removed from the
+ * {@link SootClass} before {@link Types#getFields} computes the object layout
+ * of the class, so instances of the class shrink.
+ * <p>
+ * A private field can only be accessed by the declaring class which makes it
+ * possible to decide whether it is read without knowing the rest of the
+ * program. A field is kept if it is written to through anything but 
+ * <code>this</code> (e.g. by a synthetic accessor used by an inner class),
+ * if its name occurs as a string constant in the class (it may be looked up
+ * using reflection, e.g. by an atomic field updater) or if it has 
+ * annotations. All fields are kept in classes which match one of the force
+ * linked class patterns (the reflection configuration), in classes which
+ * declare native methods (JNI code may access the fields), in
+ * {@link java.io.Serializable} classes and in structs.
+ * </p>
+ * <p>
+ * Soot is global and so is the configuration of this class. It's set up by
+ * {@link #configure(boolean, List)} whenever Soot is initialized.
+ * </p>
+ */
+public class WriteOnlyFieldEliminator {
+    private static boolean enabled;
+    private static List<AntPathMatcher> keepPatterns = Collections.emptyList();
+    private static Map<SootClass, List<String>> removedFields = new IdentityHashMap<>();
+
+    /**
+     * Enables or disables this optimization. Classes matching any of the
+     * <code>keepClasses</code> patterns will keep all their fields.
+     */
+    public static synchronized void configure(boolean enabled, List<String> keepClasses) {
+        WriteOnlyFieldEliminator.enabled = enabled;
+        keepPatterns = new ArrayList<>();
+        for (String pattern : keepClasses) {
+            if (pattern != null && !pattern.trim().isEmpty()) {
+                keepPatterns.add(new AntPathMatcher(pattern.trim(), "."));
+            }
+        }
+        removedFields = new IdentityHashMap<>();
+    }
+
+    /**
+     * Returns the names of the fields which have been removed from the
+     * specified class.
+     */
+    public static synchronized List<String> getRemovedFields(SootClass sc) {
+        List<String> l = removedFields.get(sc);
+        return l != null ? l : Collections.<String>emptyList();
+    }
+
+    /**
+     * Returns the fields of the specified class after its write-only fields
+     * have been removed. Fields are only removed by {@link #apply(SootClass)}
+     * which holds the lock of this class and runs at most once per class, so
+     * the returned {@link Chain} never changes after this returns, whichever
+     * thread compiles the class. Code which reads the fields of a class other
+     * than the one being compiled must use this rather than
+     * {@link SootClass#getFields()}.
+     */
+    public static Chain<SootField> getFields(SootClass sc) {
+        apply(sc);
+        return sc.getFields();
+    }
+
+    /**
+     * Removes the write-only private instance fields of the specified class
+     * unless it has already been done. Does nothing if this optimization
+     * hasn't been enabled.
+     */
+    public static synchronized void apply(SootClass sc) {
+        if (!enabled || sc.isPhantom() || removedFields.containsKey(sc)) {
+            return;
+        }
+        List<String> removed = new ArrayList<>();
+        removedFields.put(sc, removed);
+        
+        Set<SootField> candidates = new HashSet<>();
+        for (SootField f : sc.getFields()) {
+            if (!f.isStatic() && f.isPrivate() && !hasAnnotations(f)) {
+                candidates.add(f);
+            }
+        }
+        if (candidates.isEmpty() || mustKeepFields(sc)) {
+            return;
+        }
+
+        Set<String> strings = new HashSet<>();
+        for (SootMethod m : sc.getMethods()) {
+            if (!m.isConcrete()) {
+                continue;
+            }
+            Body body = m.retrieveActiveBody();
+            Local thisLocal = getThisLocal(body);
+            for (Unit unit : body.getUnits()) {
+                for (ValueBox box : unit.getUseBoxes()) {
+                    if (box.getValue() instanceof InstanceFieldRef) {
+                        candidates.remove(getOwnField(sc, (InstanceFieldRef) box.getValue()));
+                    } else if (box.getValue() instanceof StringConstant) {
+                        strings.add(((StringConstant) box.getValue()).value);
+                    }
+                }
+                for (ValueBox box : unit.getDefBoxes()) {
+                    if (box.getValue() instanceof InstanceFieldRef 
+                            && ((InstanceFieldRef) box.getValue()).getBase() != thisLocal) {
+                        // Removing the store would also remove the implicit null check
+                        candidates.remove(getOwnField(sc, (InstanceFieldRef) box.getValue()));
+                    }
+                }
+            }
+        }
+        for (Iterator<SootField> it = candidates.iterator(); it.hasNext();) {
+            if (strings.contains(it.next().getName())) {
+                it.remove();
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        for (SootMethod m : sc.getMethods()) {
+            if (!m.isConcrete()) {
+                continue;
+            }
+            for (Iterator<Unit> it = m.retrieveActiveBody().getUnits().snapshotIterator(); it.hasNext();) {
+                Unit unit = it.next();
+                if (unit instanceof AssignStmt && ((AssignStmt) unit).getLeftOp() instanceof InstanceFieldRef
+                        && candidates.contains(getOwnField(sc, (InstanceFieldRef) ((AssignStmt) unit).getLeftOp()))) {
+                    m.getActiveBody().getUnits().remove(unit);
+                }
+            }
+        }
+        for (SootField f : candidates) {
+            sc.removeField(f);
+            removed.add(f.getName());
+        }
+        Collections.sort(removed);
+    }
+
+    private static boolean mustKeepFields(SootClass sc) {
+        for (AntPathMatcher matcher : keepPatterns) {
+            if (matcher.matches(sc.getName())) {
+                return true;
+            }
+        }
+        if (Types.isStruct(sc) || isSerializable(sc, new HashSet<SootClass>())) {
+            return true;
+        }
+        for (SootMethod m : sc.getMethods()) {
+            if (m.isNative()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSerializable(SootClass sc, Set<SootClass> visited) {
+        if (!visited.add(sc)) {
+            return false;
+        }
+        if ("java.lang.Object".equals(sc.getName())) {
+            return false;
+        }
+        if (sc.isPhantom() || "java.io.Serializable".equals(sc.getName())) {
+            // Be conservative with phantom classes
+            return true;
+        }
+        for (SootClass ifs : sc.getInterfaces()) {
+            if (isSerializable(ifs, visited)) {
+                return true;
+            }
+        }
+        return sc.hasSuperclass() && isSerializable(sc.getSuperclass(), visited);
+    }
+
+    private static boolean hasAnnotations(SootField f) {
+        for (Tag tag : f.getTags()) {
+            if (tag instanceof VisibilityAnnotationTag) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Local getThisLocal(Body body) {
+        for (Unit unit : body.getUnits()) {
+            if (unit instanceof IdentityStmt && ((IdentityStmt) unit).getRightOp() instanceof ThisRef) {
+                return (Local) ((IdentityStmt) unit).getLeftOp();
+            }
+        }
+        return null;
+    }
+
+    private static SootField getOwnField(SootClass sc, InstanceFieldRef ref) {
+        SootFieldRef fieldRef = ref.getFieldRef();
+        if (!fieldRef.declaringClass().equals(sc) || !sc.declaresField(fieldRef.name(), fieldRef.type())) {
+            return null;
+        }
+        return sc.getField(fieldRef.name(), fieldRef.type());
+    }
+}
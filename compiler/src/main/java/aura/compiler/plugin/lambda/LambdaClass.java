@@ -26,14 +26,16 @@ public class LambdaClass {
     private final String targetMethodName;
     private final List<Type> targetMethodParameters;
     private final Type targetMethodReturnType;
+    private final String singletonFieldName;
 
     public LambdaClass(String lambdaClassName, byte[] classData, String targetMethodName,
-            List<Type> targetMethodParameters, Type targetMethodReturnType) {
+            List<Type> targetMethodParameters, Type targetMethodReturnType, String singletonFieldName) {
         this.lambdaClassName = lambdaClassName;
         this.classData = classData;
         this.targetMethodName = targetMethodName;
         this.targetMethodParameters = targetMethodParameters;
         this.targetMethodReturnType = targetMethodReturnType;
+        this.singletonFieldName = singletonFieldName;
     }
 
     public String getLambdaClassName() {
@@ -55,4 +57,13 @@ public class LambdaClass {
     public Type getTargetMethodReturnType() {
         return targetMethodReturnType;
     }
+
+    /**
+     * Returns the name of the static field holding the single instance of
+     * the lambda class or <code>null</code> if a new instance has to be
+     * created using the target method for every evaluation of the lambda.
+     */
+    public String getSingletonFieldName() {
+        return singletonFieldName;
+    }
 }
@@ -38,15 +38,40 @@ import soot.SootMethodHandle;
 import soot.SootMethodRef;
 import soot.SootMethodType;
 import soot.Type;
+import soot.Value;
 import soot.VoidType;
+import soot.jimple.ClassConstant;
+import soot.jimple.DoubleConstant;
+import soot.jimple.FloatConstant;
+import soot.jimple.IntConstant;
+import soot.jimple.LongConstant;
+import soot.jimple.NullConstant;
+import soot.jimple.NumericConstant;
+import soot.jimple.StringConstant;
 
 public class LambdaClassGenerator {
     private static int CLASS_VERSION = 51;
+    static final String SINGLETON_FIELD_NAME = "instance$Lambda";
     private int counter = 1;
 
+    /**
+     * Returns <code>true</code> if the specified captured value is a constant
+     * which can be pushed by the static initializer of a lambda class.
+     */
+    public static boolean isConstantCapture(Value value) {
+        return value instanceof NumericConstant || value instanceof StringConstant
+                || value instanceof ClassConstant || value instanceof NullConstant;
+    }
+
+    /**
+     * Generates the lambda class for a call site. If
+     * <code>constantCaptures</code> isn't <code>null</code> the values
+     * captured by the call site are the specified constants and the lambda
+     * will be instantiated once like a lambda which doesn't capture anything.
+     */
     public LambdaClass generate(SootClass caller, String invokedName, SootMethodRef invokedType,
             SootMethodType samMethodType, SootMethodHandle implMethod, SootMethodType instantiatedMethodType,
-            List<Type> markerInterfaces, List<SootMethodType> bridgeMethods) {
+            List<Type> markerInterfaces, List<SootMethodType> bridgeMethods, List<Value> constantCaptures) {
         ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
 
         String lambdaClassName = caller.getName().replace('.', '/') + "$$Lambda$" + (counter++);
@@ -61,16 +86,19 @@ public class LambdaClassGenerator {
         cw.visit(CLASS_VERSION, ACC_FINAL + ACC_SUPER + ACC_SYNTHETIC, lambdaClassName, null, "java/lang/Object",
                 interfaces.toArray(new String[interfaces.size()]));
 
-        String targetMethod = "<init>";
+        String targetMethod = null;
+        String singletonField = null;
         createFieldsAndConstructor(lambdaClassName, cw, invokedType, samMethodType, implMethod, instantiatedMethodType);
 
-        // if we perform capturing, we can't cache the
-        // lambda instance. We need to create a factory method
+        // if we perform capturing of non-constant values, we can't cache 
+        // the lambda instance. We need to create a factory method
         // that returns a new instance of the lambda
-        // every time the lambda is invoked. That method
-        // will be invoked instead of the <init> method
-        // of the lambda by LambdaPlugin.
-        if (!invokedType.parameterTypes().isEmpty()) {
+        // every time the lambda is invoked. Otherwise the single
+        // instance is created by the static initializer of the lambda
+        // class and LambdaPlugin reads it from a static final field.
+        if (invokedType.parameterTypes().isEmpty() || constantCaptures != null) {
+            singletonField = createSingleton(lambdaClassName, cw, invokedType, constantCaptures);
+        } else {
             targetMethod = createFactory(lambdaClassName, cw, invokedType, samMethodType, implMethod,
                     instantiatedMethodType);
         }
@@ -89,7 +117,7 @@ public class LambdaClassGenerator {
         cw.visitEnd();
 
         return new LambdaClass(lambdaClassName, cw.toByteArray(), targetMethod, invokedType.parameterTypes(),
-                invokedType.returnType());
+                invokedType.returnType(), singletonField);
     }
 
     private void createForwardingMethod(SootClass caller, String lambdaClassName, ClassWriter cw, String name,
@@ -354,6 +382,49 @@ public class LambdaClassGenerator {
         mv.visitEnd();
     }
 
+    private String createSingleton(String lambdaClassName, ClassWriter cw, SootMethodRef invokedType,
+            List<Value> constantCaptures) {
+        cw.visitField(ACC_STATIC + ACC_FINAL + ACC_SYNTHETIC, SINGLETON_FIELD_NAME, "L" + lambdaClassName + ";", 
+                null, null);
+
+        MethodVisitor mv = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+        mv.visitCode();
+        mv.visitTypeInsn(NEW, lambdaClassName);
+        mv.visitInsn(DUP);
+        if (constantCaptures != null) {
+            for (Value value : constantCaptures) {
+                pushConstant(mv, value);
+            }
+        }
+        mv.visitMethodInsn(INVOKESPECIAL, lambdaClassName, "<init>",
+                Types.getDescriptor(invokedType.parameterTypes(), VoidType.v()), false);
+        mv.visitFieldInsn(PUTSTATIC, lambdaClassName, SINGLETON_FIELD_NAME, "L" + lambdaClassName + ";");
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
+        return SINGLETON_FIELD_NAME;
+    }
+
+    private void pushConstant(MethodVisitor mv, Value value) {
+        if (value instanceof NullConstant) {
+            mv.visitInsn(ACONST_NULL);
+        } else if (value instanceof IntConstant) {
+            mv.visitLdcInsn(((IntConstant) value).value);
+        } else if (value instanceof LongConstant) {
+            mv.visitLdcInsn(((LongConstant) value).value);
+        } else if (value instanceof FloatConstant) {
+            mv.visitLdcInsn(((FloatConstant) value).value);
+        } else if (value instanceof DoubleConstant) {
+            mv.visitLdcInsn(((DoubleConstant) value).value);
+        } else if (value instanceof StringConstant) {
+            mv.visitLdcInsn(((StringConstant) value).value);
+        } else if (value instanceof ClassConstant) {
+            mv.visitLdcInsn(org.objectweb.asm.Type.getObjectType(((ClassConstant) value).getValue()));
+        } else {
+            throw new CompilerException("Unsupported constant capture: " + value);
+        }
+    }
+
     private String createFactory(String lambdaClassName, ClassWriter cw, SootMethodRef invokedType,
             SootMethodType samMethodType, SootMethodHandle implMethod, SootMethodType instantiatedMethodType) {
         MethodVisitor mv = cw.visitMethod(ACC_STATIC, "get$Lambda",
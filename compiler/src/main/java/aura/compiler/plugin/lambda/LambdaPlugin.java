@@ -36,12 +36,10 @@ import aura.compiler.clazz.Clazz;
 
 import soot.Body;
 import soot.Local;
-import soot.Modifier;
 import soot.PatchingChain;
 import soot.RefType;
 import soot.Scene;
 import soot.SootClass;
-import soot.SootField;
 import soot.SootMethod;
 import soot.SootMethodHandle;
 import soot.SootMethodRef;
@@ -57,7 +55,6 @@ import soot.jimple.DefinitionStmt;
 import soot.jimple.DynamicInvokeExpr;
 import soot.jimple.IntConstant;
 import soot.jimple.Jimple;
-import soot.jimple.NullConstant;
 import soot.util.Switch;
 
 public class LambdaPlugin extends AbstractCompilerPlugin {
@@ -97,7 +94,6 @@ public class LambdaPlugin extends AbstractCompilerPlugin {
             return;
         }
 
-        int tmpCounter = 0;
         Body body = method.retrieveActiveBody();
         PatchingChain<Unit> units = body.getUnits();
         for (Unit unit = units.getFirst(); unit != null; unit = body.getUnits().getSuccOf(unit)) {
@@ -176,9 +172,20 @@ public class LambdaPlugin extends AbstractCompilerPlugin {
                                 }
                             }
                             
+                            // lambdas capturing only constants always
+                            // capture the same values and can be shared
+                            List<Value> constantCaptures = new ArrayList<>();
+                            for (Value arg : expr.getArgs()) {
+                                if (!LambdaClassGenerator.isConstantCapture(arg)) {
+                                    constantCaptures = null;
+                                    break;
+                                }
+                                constantCaptures.add(arg);
+                            }
+
                             // generate the lambda class
                             callSite = generator.generate(caller, invokedName, invokedType, samMethodType, implMethod,
-                                    instantiatedMethodType, markerInterfaces, bridgeMethods);
+                                    instantiatedMethodType, markerInterfaces, bridgeMethods, constantCaptures);
                             File f = clazz.getPath().getGeneratedClassFile(callSite.getLambdaClassName());
                             FileUtils.writeByteArrayToFile(f, callSite.getClassData());
                             // The lambda class is created after the caller is
@@ -193,34 +200,14 @@ public class LambdaPlugin extends AbstractCompilerPlugin {
                             Local l = (Local) ((DefinitionStmt) unit).getLeftOp();
                             Type samType = callSite.getTargetMethodReturnType();
                             LinkedList<Unit> newUnits = new LinkedList<>();
-                            if (callSite.getTargetMethodName().equals("<init>")) {
-                                // Constant lambda. Create an instance once and
-                                // reuse for
-                                // every call.
-                                String fieldName = lambdaClass.getName()
-                                        .substring(lambdaClass.getName().lastIndexOf('.') + 1);
-                                SootField field = new SootField(fieldName, lambdaClass.getType(),
-                                        Modifier.STATIC | Modifier.PRIVATE | Modifier.TRANSIENT
-                                                | 0x1000 /* SYNTHETIC */);
-                                method.getDeclaringClass().addField(field);
-                                // l = LambdaClass.lambdaField
-                                newUnits.add(
-                                        Jimple.v().newAssignStmt(l, Jimple.v().newStaticFieldRef(field.makeRef())));
-                                // if l != null goto succOfInvokedynamic
-                                newUnits.add(Jimple.v().newIfStmt(Jimple.v().newNeExpr(l, NullConstant.v()),
-                                        units.getSuccOf(unit)));
-                                // $tmpX = new LambdaClass()
-                                Local tmp = Jimple.v().newLocal("$tmp" + (tmpCounter++), lambdaClass.getType());
-                                body.getLocals().add(tmp);
-                                newUnits.add(
-                                        Jimple.v().newAssignStmt(tmp, Jimple.v().newNewExpr(lambdaClass.getType())));
-                                newUnits.add(Jimple.v().newInvokeStmt(Jimple.v().newSpecialInvokeExpr(tmp,
-                                        Scene.v().makeConstructorRef(lambdaClass, Collections.<Type> emptyList()))));
-                                // LambdaClass.lambdaField = $tmpX
-                                newUnits.add(
-                                        Jimple.v().newAssignStmt(Jimple.v().newStaticFieldRef(field.makeRef()), tmp));
-                                // l = $tmpX
-                                newUnits.add(Jimple.v().newAssignStmt(l, tmp));
+                            if (callSite.getSingletonFieldName() != null) {
+                                // Non-capturing or constant capturing lambda.
+                                // The lambda class creates the single instance
+                                // when initialized.
+                                // l = LambdaClass.instance$Lambda
+                                newUnits.add(Jimple.v().newAssignStmt(l, Jimple.v().newStaticFieldRef(
+                                        Scene.v().makeFieldRef(lambdaClass, callSite.getSingletonFieldName(),
+                                                lambdaClass.getType(), true))));
                             } else {
                                 // Static factory method returns the lambda to
                                 // use.
@@ -88,11 +88,47 @@ public abstract class AbstractTarget implements Target {
         return Collections.emptyList();
     }
 
-    public void build(List<File> objectFiles) throws IOException {
-        build(objectFiles, false);
+    public void build(List<File> objectFiles, Collection<String> classExportedSymbols) throws IOException {
+        build(objectFiles, classExportedSymbols, false);
+    }
+
+    /**
+     * Returns the symbols, or symbol patterns, to export from the executable.
+     * Only what is looked up at runtime is exported: native method
+     * implementations and JNI_OnLoad functions, which the VM finds using
+     * dlsym(), the symbols of <code>@Library(Library.INTERNAL)</code> bound
+     * methods in <code>classExportedSymbols</code>, which the bro runtime
+     * finds using dlsym(), plus whatever the target and the user ask for.
+     * Everything else stays out of the dynamic symbol table.
+     * <code>@Callback</code> functions are reached through their class info
+     * and don't need to be exported.
+     */
+    static List<String> getExportedSymbols(List<String> targetExportedSymbols,
+            Collection<String> classExportedSymbols, List<String> configExportedSymbols) {
+
+        List<String> exportedSymbols = new ArrayList<String>();
+        exportedSymbols.addAll(targetExportedSymbols);
+        exportedSymbols.add("Java_*");
+        exportedSymbols.add("JNI_OnLoad");
+        exportedSymbols.add("JNI_OnLoad_*");
+        exportedSymbols.addAll(classExportedSymbols);
+        exportedSymbols.addAll(configExportedSymbols);
+        return exportedSymbols;
+    }
+
+    /**
+     * Returns the contents of an ld dynamic list which makes the specified
+     * symbols global and all other symbols local.
+     */
+    static String toDynamicList(List<String> exportedSymbols) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n    ");
+        sb.append(StringUtils.join(exportedSymbols, ";\n    "));
+        sb.append(";\n};\n");
+        return sb.toString();
     }
 
-    public void build(List<File> objectFiles, boolean dryRun) throws IOException {
+    public void build(List<File> objectFiles, Collection<String> classExportedSymbols, boolean dryRun) throws IOException {
         File outFile = new File(config.getTmpDir(), config.getExecutableName());
 
         if (!config.isBuildAsLib()) {
@@ -137,27 +173,35 @@ public abstract class AbstractTarget implements Target {
         ccArgs.add("-L");
         ccArgs.add(config.getOsArchDepLibDir().getAbsolutePath());
 
-        List<String> exportedSymbols = new ArrayList<String>();
-        exportedSymbols.addAll(getTargetExportedSymbols());
-        exportedSymbols.add("JNI_OnLoad_*");
-        exportedSymbols.add("*");
-        exportedSymbols.addAll(config.getExportedSymbols());
+        List<String> exportedSymbols = getExportedSymbols(getTargetExportedSymbols(),
+                classExportedSymbols, config.getExportedSymbols());
+
+        // Have the linker write a map file which lists what it dead stripped
+        File mapFile = new File(config.getTmpDir(), "linker.map");
+
+        OrderFile orderFile = null;
+        if (config.getOrderFile() != null) {
+            orderFile = OrderFile.read(config.getOrderFile());
+            config.getLogger().info("Ordering %d functions as listed in %s",
+                    orderFile.getSymbols().size(), config.getOrderFile());
+        }
 
         if (config.getOs().getFamily() == OS.Family.linux || config.getOs() == OS.freebsd) {
             ccArgs.add("-Wl,-rpath=$ORIGIN");
             ccArgs.add("-Wl,--gc-sections");
-//            ccArgs.add("-Wl,--print-gc-sections");
+            ccArgs.add("-Wl,-Map=" + mapFile.getAbsolutePath());
+
+            if (orderFile != null) {
+                // Only gold supports ordering sections without a linker script
+                File sectionOrderingFile = new File(config.getTmpDir(), "section_ordering");
+                FileUtils.writeLines(sectionOrderingFile, "UTF-8", orderFile.toSectionOrdering());
+                ccArgs.add("-fuse-ld=gold");
+                ccArgs.add("-Wl,--section-ordering-file=" + sectionOrderingFile.getAbsolutePath());
+            }
 
             if (!exportedSymbols.isEmpty()) {
-                // Create an ld version script which makes the exported symbols global
-                // and all other symbols local.
-                StringBuilder sb = new StringBuilder();
-                sb.append("{\n    ");
-                sb.append(StringUtils.join(exportedSymbols, ";\n    "));
-                sb.append(";\n};\n");
-
                 File dynamicListFile = new File(config.getTmpDir(), "exported_symbols");
-                FileUtils.writeStringToFile(dynamicListFile, sb.toString());
+                FileUtils.writeStringToFile(dynamicListFile, toDynamicList(exportedSymbols));
                 ccArgs.add("-Wl,--dynamic-list=" + dynamicListFile.getAbsolutePath());
             }
 
@@ -194,6 +238,13 @@ public abstract class AbstractTarget implements Target {
 
             ccArgs.add("-Wl,-no_implicit_dylibs");
             ccArgs.add("-Wl,-dead_strip");
+            ccArgs.add("-Wl,-map," + mapFile.getAbsolutePath());
+
+            if (orderFile != null) {
+                File symbolOrderingFile = new File(config.getTmpDir(), "order_file");
+                FileUtils.writeLines(symbolOrderingFile, "UTF-8", orderFile.toSymbolOrdering());
+                ccArgs.add("-Wl,-order_file," + symbolOrderingFile.getAbsolutePath());
+            }
 
         }
 
@@ -260,8 +311,22 @@ public abstract class AbstractTarget implements Target {
         }
         buildCommand = flatten(ccArgs, objectFiles, libs);
         if (!config.isSkipLinking()) {
+            mapFile.delete();
             doBuild(outFile, ccArgs, objectFiles, libs);
+            reportDeadStripped(mapFile);
+        }
+    }
+
+    private void reportDeadStripped(File mapFile) throws IOException {
+        if (!mapFile.exists()) {
+            return;
         }
+        DeadStripReport report = DeadStripReport.parse(mapFile,
+                config.getOs().getFamily() == OS.Family.darwin);
+        File reportFile = new File(config.getTmpDir(), "dead_stripped");
+        report.write(reportFile);
+        config.getLogger().info("Linker removed %d unused sections or symbols (%d KB). See %s",
+                report.getEntries().size(), report.getSize() >> 10, reportFile);
     }
 
     private String flatten(LinkedList<String> ccArgs, List<File> objectFiles, LinkedList<String> libs) throws IOException {
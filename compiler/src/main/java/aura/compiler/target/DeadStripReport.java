@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.target;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Lists what the native linker removed as unused, read from the map file it
+ * writes when asked to. GNU ld lists the input sections discarded by
+ * <code>--gc-sections</code> under <code>Discarded input sections</code>.
+ * ld64 lists the symbols removed by <code>-dead_strip</code> under
+ * <code># Dead Stripped Symbols:</code>.
+ */
+public class DeadStripReport {
+    private static final String GNU_START = "Discarded input sections";
+    private static final String GNU_END = "Memory Configuration";
+    private static final String DARWIN_START = "# Dead Stripped Symbols:";
+    private static final String DARWIN_DEAD = "<<dead>>";
+
+    public static class Entry {
+        private final String name;
+        private final long size;
+        private final String file;
+
+        Entry(String name, long size, String file) {
+            this.name = name;
+            this.size = size;
+            this.file = file;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * Returns the object file the removed section came from or
+         * <code>null</code> if the linker doesn't say.
+         */
+        public String getFile() {
+            return file;
+        }
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+    private long size;
+
+    public static DeadStripReport parse(File mapFile, boolean darwin) throws IOException {
+        try (Reader reader = new FileReader(mapFile)) {
+            return parse(reader, darwin);
+        }
+    }
+
+    static DeadStripReport parse(Reader reader, boolean darwin) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
+        DeadStripReport report = new DeadStripReport();
+        if (darwin) {
+            report.parseDarwin(in);
+        } else {
+            report.parseGnu(in);
+        }
+        return report;
+    }
+
+    private void parseGnu(BufferedReader in) throws IOException {
+        skipTo(in, GNU_START);
+        String line;
+        String name = null;
+        while ((line = in.readLine()) != null && !line.startsWith(GNU_END)) {
+            if (line.length() < 2 || line.trim().isEmpty()) {
+                continue;
+            }
+            String[] parts = line.trim().split("\\s+", 4);
+            if (!Character.isWhitespace(line.charAt(1))) {
+                // ' <name>' optionally followed by '<address> <size> <file>'
+                // on the same line. Long names push them onto the next line.
+                name = parts[0];
+                if (parts.length < 4) {
+                    continue;
+                }
+                parts = new String[] {parts[1], parts[2], parts[3]};
+            } else if (parts.length < 3 || name == null) {
+                continue;
+            }
+            if (parts[0].startsWith("0x") && parts[1].startsWith("0x")) {
+                add(name, Long.parseLong(parts[1].substring(2), 16), parts[2]);
+            }
+            name = null;
+        }
+    }
+
+    private void parseDarwin(BufferedReader in) throws IOException {
+        skipTo(in, DARWIN_START);
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!line.startsWith(DARWIN_DEAD)) {
+                continue;
+            }
+            // '<<dead>> \t<size>\t<symbol>'
+            String[] parts = line.split("\t", 3);
+            if (parts.length == 3) {
+                add(parts[2], Long.parseLong(parts[1].trim().substring(2), 16), null);
+            }
+        }
+    }
+
+    private static void skipTo(BufferedReader in, String header) throws IOException {
+        String line;
+        do {
+            line = in.readLine();
+        } while (line != null && !line.startsWith(header));
+    }
+
+    private void add(String name, long size, String file) {
+        if (size > 0) {
+            entries.add(new Entry(name, size, file));
+            this.size += size;
+        }
+    }
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Returns the total number of bytes removed.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Writes the removed sections or symbols to the specified file, largest
+     * first.
+     */
+    public void write(File file) throws IOException {
+        List<Entry> sorted = new ArrayList<>(entries);
+        Collections.sort(sorted, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry o1, Entry o2) {
+                return Long.compare(o2.size, o1.size);
+            }
+        });
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            out.format("%d bytes in %d sections or symbols removed by the linker%n", size, entries.size());
+            for (Entry e : sorted) {
+                out.format("%10d  %s", e.size, e.name);
+                if (e.file != null) {
+                    out.format("  (%s)", e.file);
+                }
+                out.println();
+            }
+        }
+    }
+}
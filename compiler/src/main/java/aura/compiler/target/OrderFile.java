@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.target;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * A list of function symbols in the order they should be laid out in the
+ * executable, e.g. the order recorded by an executable built with
+ * <code>-recordstartuporder</code>. Blank lines and lines starting with
+ * <code>#</code> are ignored and only the first occurrence of a symbol
+ * counts.
+ * <p>
+ * ld64 takes the symbols directly using <code>-order_file</code>. GNU ld
+ * can't order symbols so on Linux the functions' sections, which are named
+ * <code>.text.&lt;symbol&gt;</code> since we compile with function sections,
+ * are passed to gold using <code>--section-ordering-file</code>.
+ */
+public class OrderFile {
+    private final List<String> symbols;
+
+    OrderFile(List<String> lines) {
+        Set<String> symbols = new LinkedHashSet<>();
+        for (String line : lines) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                symbols.add(line);
+            }
+        }
+        this.symbols = new ArrayList<>(symbols);
+    }
+
+    public static OrderFile read(File file) throws IOException {
+        return new OrderFile(FileUtils.readLines(file, "UTF-8"));
+    }
+
+    public List<String> getSymbols() {
+        return symbols;
+    }
+
+    /**
+     * Returns the symbols in the format expected by ld64's
+     * <code>-order_file</code>, i.e. prefixed with <code>_</code>.
+     */
+    public List<String> toSymbolOrdering() {
+        List<String> result = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            result.add("_" + symbol);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the sections of the symbols in the format expected by gold's
+     * <code>--section-ordering-file</code>. gold looks up each line as an
+     * exact section name before trying it as a glob pattern, so the
+     * <code>[J]</code> prefix of our method symbols needs no escaping.
+     */
+    public List<String> toSectionOrdering() {
+        List<String> result = new ArrayList<>(symbols.size());
+        for (String symbol : symbols) {
+            result.add(".text." + symbol);
+        }
+        return result;
+    }
+}
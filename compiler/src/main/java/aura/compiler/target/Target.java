@@ -18,9 +18,11 @@ package aura.compiler.target;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
+import aura.compiler.clazz.ClazzInfo;
 import aura.compiler.clazz.Path;
 import aura.compiler.config.Arch;
 import aura.compiler.config.Config;
@@ -79,9 +81,11 @@ public interface Target {
     boolean canLaunchInPlace();
 
     /**
-     * Builds a binary out of the specified object files.
+     * Builds a binary out of the specified object files. The specified
+     * symbols, collected from the linked classes' {@link ClazzInfo}s, are
+     * exported from the binary.
      */
-    void build(List<File> objectFiles) throws IOException;
+    void build(List<File> objectFiles, Collection<String> classExportedSymbols) throws IOException;
 
     /**
      * Builds a fat binary out of the specified slices.
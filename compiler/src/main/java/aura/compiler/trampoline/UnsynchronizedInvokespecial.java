@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.trampoline;
+
+/**
+ * {@link Invokespecial} which calls the resolved method directly even if it
+ * is synchronized. Used when the receiver is known to be confined to the
+ * calling thread.
+ */
+public class UnsynchronizedInvokespecial extends Invokespecial {
+    private static final long serialVersionUID = 1L;
+
+    public UnsynchronizedInvokespecial(String callingClass, String targetClass, String methodName, 
+            String methodDesc, String runtimeClass) {
+        super(callingClass, targetClass, methodName, methodDesc, runtimeClass);
+    }
+}
@@ -42,6 +42,18 @@ public class DigestUtil {
         }
     }
     
+    /**
+     * Returns the hex encoded SHA-1 hash of the concatenation of the specified
+     * byte arrays.
+     */
+    public static String sha1(byte[] ... parts) {
+        MessageDigest md = getDigest("SHA1");
+        for (byte[] part : parts) {
+            md.update(part);
+        }
+        return encodeHex(md.digest());
+    }
+
     private static byte[] digest(String algorithm, byte[] bytes) {
         return getDigest(algorithm).digest(bytes);
     }
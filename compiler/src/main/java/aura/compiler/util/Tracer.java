@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.json.simple.JSONValue;
+
+/**
+ * Records the phases of a build as spans and writes them in the Chrome trace
+ * event format which can be viewed in <code>chrome://tracing</code> or
+ * Perfetto. Spans are recorded per thread so the phases running on the
+ * machine code generation workers show up as separate tracks. Use
+ * {@link #NULL_TRACER} when tracing is disabled, it records nothing.
+ */
+public class Tracer {
+    public static final Tracer NULL_TRACER = new Tracer(null);
+
+    private static final Span NULL_SPAN = new Span(null, null, null, null);
+
+    private final File file;
+    private final long start = System.nanoTime();
+    private final List<String> events = new ArrayList<>();
+    private final Map<Long, String> threadNames = new HashMap<>();
+
+    public Tracer(File file) {
+        this.file = file;
+    }
+
+    public boolean isEnabled() {
+        return file != null;
+    }
+
+    /**
+     * Starts a span on the current thread. The span ends when it's closed.
+     * <code>detail</code> is typically the class or method the span applies
+     * to and may be <code>null</code>.
+     */
+    public Span span(String category, String name, String detail) {
+        if (file == null) {
+            return NULL_SPAN;
+        }
+        return new Span(this, category, name, detail);
+    }
+
+    /**
+     * Records an event without duration on the current thread, e.g. a cache
+     * hit.
+     */
+    public void instant(String category, String name, String detail) {
+        if (file != null) {
+            add(event(category, name, detail, "i", micros(System.nanoTime()), -1));
+        }
+    }
+
+    private long micros(long nanos) {
+        return (nanos - start) / 1000;
+    }
+
+    private static String event(String category, String name, String detail, String phase, long ts, long dur) {
+        Thread thread = Thread.currentThread();
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"name\":\"").append(JSONValue.escape(name)).append('"');
+        sb.append(",\"cat\":\"").append(JSONValue.escape(category)).append('"');
+        sb.append(",\"ph\":\"").append(phase).append('"');
+        sb.append(",\"ts\":").append(ts);
+        if (dur >= 0) {
+            sb.append(",\"dur\":").append(dur);
+        } else {
+            sb.append(",\"s\":\"t\"");
+        }
+        sb.append(",\"pid\":1,\"tid\":").append(thread.getId());
+        if (detail != null) {
+            sb.append(",\"args\":{\"detail\":\"").append(JSONValue.escape(detail)).append("\"}");
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private synchronized void add(String event) {
+        Thread thread = Thread.currentThread();
+        if (!threadNames.containsKey(thread.getId())) {
+            threadNames.put(thread.getId(), thread.getName());
+        }
+        events.add(event);
+    }
+
+    /**
+     * Writes all events recorded so far to the trace file. Does nothing if
+     * tracing is disabled.
+     */
+    public synchronized void write() throws IOException {
+        if (file == null) {
+            return;
+        }
+        List<String> all = new ArrayList<>();
+        for (Map.Entry<Long, String> entry : threadNames.entrySet()) {
+            all.add("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + entry.getKey()
+                    + ",\"args\":{\"name\":\"" + JSONValue.escape(entry.getValue()) + "\"}}");
+        }
+        all.addAll(events);
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        try (Writer out = new OutputStreamWriter(FileUtils.openOutputStream(file), "UTF-8")) {
+            out.write("{\"traceEvents\":[\n");
+            for (int i = 0; i < all.size(); i++) {
+                out.write(all.get(i));
+                out.write(i < all.size() - 1 ? ",\n" : "\n");
+            }
+            out.write("]}\n");
+        }
+    }
+
+    /**
+     * A span started by {@link Tracer#span(String, String, String)}. Close it
+     * using try-with-resources.
+     */
+    public static final class Span implements AutoCloseable {
+        private final Tracer tracer;
+        private final String category;
+        private final String name;
+        private final String detail;
+        private final long start = System.nanoTime();
+
+        private Span(Tracer tracer, String category, String name, String detail) {
+            this.tracer = tracer;
+            this.category = category;
+            this.name = name;
+            this.detail = detail;
+        }
+
+        @Override
+        public void close() {
+            if (tracer != null) {
+                long ts = tracer.micros(start);
+                tracer.add(event(category, name, detail, "X", ts, tracer.micros(System.nanoTime()) - ts));
+            }
+        }
+    }
+}
@@ -6,7 +6,7 @@
 %TypeInfo = type {i32, i32, i32, i32, i32, [0 x i32]}
 %VITable = type {i16, [0 x i8*]}
 %ITable = type {%TypeInfo*, %VITable}
-%ITables = type {i16, %ITable*, [0 x %ITable*]}
+%ITables = type {i16, %ITable*, i8**, [0 x %ITable*]}
 ; NOTE: The compiler assumes that %Class is a multiple of 8 in size (currently 88 bytes + 0 bytes padding)
 %Class = type {i8*, i8*, i8*, i8*, %TypeInfo*, %VITable*, %ITables*, i8*, i8*, i8*, i8*, i8*, i32, i8*, i8*, i8*, i8*, i8*, i32, i32, i32, i16, i16}
 %Method = type opaque
@@ -43,11 +43,11 @@
 @array_F = external global %Class*
 @array_D = external global %Class*
 
-declare void @_bcInitializeClass(%Env*, i8**)
+declare void @_bcInitializeClass(%Env*, i8**) cold
 declare %Object* @_bcAllocate(%Env*, i8**)
 declare %Object* @_bcLdcArrayBootClass(%Env*, %Object**, i8*)
 declare %Object* @_bcLdcArrayClass(%Env*, %Object**, i8*)
-declare %Object* @_bcLdcClass(%Env*, i8**)
+declare %Object* @_bcLdcClass(%Env*, i8**) cold
 declare %Object* @_bcNewObjectArray(%Env*, i32, %Object*)
 declare %Object* @_bcCheckcast(%Env*, i8**, %Object*)
 declare %Object* @_bcCheckcastArray(%Env*, %Object*, %Object*)
@@ -58,30 +58,30 @@ declare void @_bcRegisterFinalizer(%Env* %env, %Object* %o)
 declare i8* @_bcLookupVirtualMethod(%Env*, %Object*, i8*, i8*)
 declare i8* @_bcLookupInterfaceMethod(%Env*, i8**, %Object*, i8*, i8*)
 declare i8* @_bcLookupInterfaceMethodImpl(%Env*, i8**, %Object*, i32)
-declare void @_bcAbstractMethodCalled(%Env*, %Object*)
-declare void @_bcNonPublicMethodCalled(%Env*, %Object*)
+declare void @_bcAbstractMethodCalled(%Env*, %Object*) cold
+declare void @_bcNonPublicMethodCalled(%Env*, %Object*) cold
 declare void @_bcMoveMemory16(i8*, i8*, i64)
 declare void @_bcMoveMemory32(i8*, i8*, i64)
-declare void @_bcThrow(%Env*, %Object*) noreturn
+declare void @_bcThrow(%Env*, %Object*) noreturn cold
 declare void @_bcThrowIfExceptionOccurred(%Env*)
 declare %Object* @_bcExceptionClear(%Env*)
 declare i32 @rvmTrycatchEnter(%Env*, %TrycatchContext*) returns_twice
 declare void @_bcTrycatchLeave(%Env*)
-declare void @_bcThrowNullPointerException(%Env*) noreturn
-declare void @_bcThrowArrayIndexOutOfBoundsException(%Env*, i32, i32) noreturn
-declare void @_bcThrowArithmeticException(%Env*) noreturn
-declare void @_bcThrowUnsatisfiedLinkError(%Env*, i8*) noreturn
-declare void @_bcThrowUnsatisfiedLinkErrorBridgeNotBound(%Env*, i8*, i8*, i8*) noreturn
-declare void @_bcThrowUnsatisfiedLinkErrorOptionalBridgeNotBound(%Env*, i8*, i8*, i8*) noreturn
-declare void @_bcThrowNoClassDefFoundError(%Env*, i8*) noreturn
-declare void @_bcThrowNoSuchFieldError(%Env*, i8*) noreturn
-declare void @_bcThrowNoSuchMethodError(%Env*, i8*) noreturn
-declare void @_bcThrowIllegalAccessError(%Env*, i8*) noreturn
-declare void @_bcThrowInstantiationError(%Env*, i8*) noreturn
-declare void @_bcThrowIncompatibleClassChangeError(%Env*, i8*) noreturn
-declare void @_bcThrowAbstractMethodError(%Env*, i8*) noreturn
-declare void @_bcThrowClassCastException(%Env*, i8**, %Object*) noreturn
-declare void @_bcThrowClassCastExceptionArray(%Env*, %Class*, %Object*) noreturn
+declare void @_bcThrowNullPointerException(%Env*) noreturn cold
+declare void @_bcThrowArrayIndexOutOfBoundsException(%Env*, i32, i32) noreturn cold
+declare void @_bcThrowArithmeticException(%Env*) noreturn cold
+declare void @_bcThrowUnsatisfiedLinkError(%Env*, i8*) noreturn cold
+declare void @_bcThrowUnsatisfiedLinkErrorBridgeNotBound(%Env*, i8*, i8*, i8*) noreturn cold
+declare void @_bcThrowUnsatisfiedLinkErrorOptionalBridgeNotBound(%Env*, i8*, i8*, i8*) noreturn cold
+declare void @_bcThrowNoClassDefFoundError(%Env*, i8*) noreturn cold
+declare void @_bcThrowNoSuchFieldError(%Env*, i8*) noreturn cold
+declare void @_bcThrowNoSuchMethodError(%Env*, i8*) noreturn cold
+declare void @_bcThrowIllegalAccessError(%Env*, i8*) noreturn cold
+declare void @_bcThrowInstantiationError(%Env*, i8*) noreturn cold
+declare void @_bcThrowIncompatibleClassChangeError(%Env*, i8*) noreturn cold
+declare void @_bcThrowAbstractMethodError(%Env*, i8*) noreturn cold
+declare void @_bcThrowClassCastException(%Env*, i8**, %Object*) noreturn cold
+declare void @_bcThrowClassCastExceptionArray(%Env*, %Class*, %Object*) noreturn cold
 
 declare %Object* @_bcNew(%Env*, i8*)
 declare %Object* @_bcNewBooleanArray(%Env*, i32)
@@ -97,6 +97,8 @@ declare void @_bcSetObjectArrayElement(%Env*, %Object*, i32, %Object*)
 
 declare %Object* @_bcLdcString(%Env*, %Object**, i8*, i32)
         
+declare void @_bcRecordMethodEntry(%Env*, i8*, i8*)
+
 declare void @_bcMonitorEnter(%Env*, %Object*)
 declare void @_bcMonitorExit(%Env*, %Object*)
 
@@ -155,7 +157,7 @@ define private void @Env_gatewayFrames_store(%Env* %env, %GatewayFrame* %value)
 
 define private %Class* @Object_class(%Object* %o) alwaysinline {
     %1 = getelementptr %Object* %o, i32 0, i32 0
-    %2 = load volatile %Class** %1
+    %2 = load %Class** %1, !tbaa !2
     ret %Class* %2
 }
 
@@ -190,6 +192,12 @@ define private %ITables* @Class_itables(%Class* %c) alwaysinline {
     ret %ITables* %2
 }
 
+define private i8** @ITables_imt(%ITables* %t) alwaysinline {
+    %1 = getelementptr %ITables* %t, i32 0, i32 2 ; ITables->imt
+    %2 = load i8*** %1
+    ret i8** %2
+}
+
 define private %Class* @Class_superclass(%Class* %c) alwaysinline {
     %1 = getelementptr %Class* %c, i32 0, i32 9 ; Class->superclass
     %2 = load volatile i8** %1
@@ -210,6 +218,12 @@ define private i32 @Class_flags(%Class* %c) alwaysinline {
     ret i32 %2
 }
 
+define private i32 @TypeInfo_id(%TypeInfo* %ti) alwaysinline {
+    %1 = getelementptr %TypeInfo* %ti, i32 0, i32 0 ; TypeInfo->id
+    %2 = load volatile i32* %1
+    ret i32 %2
+}
+
 define private i32 @TypeInfo_offset(%TypeInfo* %ti) alwaysinline {
     %1 = getelementptr %TypeInfo* %ti, i32 0, i32 1 ; TypeInfo->offset
     %2 = load volatile i32* %1
@@ -395,10 +409,13 @@ define private void @intrinsics.aura_rt_VM_memmove64(%Env* %env, i64 %s1, i64 %s
     ret void
 }
 
+; The null and bounds checks are explicit calls made before these helpers
+; are called, so nothing relies on a trapping access here. The accesses are
+; plain, not volatile, so the TBAA tags let LLVM hoist and CSE them.
 define linkonce_odr i32 @arraylength(%Object* %o) alwaysinline {
     %array = bitcast %Object* %o to %Array*
     %length = getelementptr %Array* %array, i32 0, i32 1
-    %res = load volatile i32* %length
+    %res = load i32* %length, !tbaa !4, !range !21
     ret i32 %res
 }
 
@@ -406,7 +423,7 @@ define linkonce_odr i32 @iaload(%Object* %o, i32 %index) alwaysinline {
     %array = bitcast %Object* %o to %IntArray*
     %base = getelementptr %IntArray* %array, i32 0, i32 2
     %ptr = getelementptr i32* %base, i32 %index
-    %value = load volatile i32* %ptr
+    %value = load i32* %ptr, !tbaa !12
     ret i32 %value
 }
 
@@ -414,7 +431,7 @@ define linkonce_odr void @iastore(%Object* %o, i32 %index, i32 %value) alwaysinl
     %array = bitcast %Object* %o to %IntArray*
     %base = getelementptr %IntArray* %array, i32 0, i32 2
     %ptr = getelementptr i32* %base, i32 %index
-    store volatile i32 %value, i32* %ptr
+    store i32 %value, i32* %ptr, !tbaa !12
     ret void
 }
 
@@ -422,7 +439,7 @@ define linkonce_odr i8 @baload(%Object* %o, i32 %index) alwaysinline {
     %array = bitcast %Object* %o to %ByteArray*
     %base = getelementptr %ByteArray* %array, i32 0, i32 2
     %ptr = getelementptr i8* %base, i32 %index
-    %value = load volatile i8* %ptr
+    %value = load i8* %ptr, !tbaa !6
     ret i8 %value
 }
 
@@ -430,7 +447,7 @@ define linkonce_odr void @bastore(%Object* %o, i32 %index, i8 %value) alwaysinli
     %array = bitcast %Object* %o to %ByteArray*
     %base = getelementptr %ByteArray* %array, i32 0, i32 2
     %ptr = getelementptr i8* %base, i32 %index
-    store volatile i8 %value, i8* %ptr
+    store i8 %value, i8* %ptr, !tbaa !6
     ret void
 }
 
@@ -438,7 +455,7 @@ define linkonce_odr i16 @saload(%Object* %o, i32 %index) alwaysinline {
     %array = bitcast %Object* %o to %ShortArray*
     %base = getelementptr %ShortArray* %array, i32 0, i32 2
     %ptr = getelementptr i16* %base, i32 %index
-    %value = load volatile i16* %ptr
+    %value = load i16* %ptr, !tbaa !8
     ret i16 %value
 }
 
@@ -446,7 +463,7 @@ define linkonce_odr void @sastore(%Object* %o, i32 %index, i16 %value) alwaysinl
     %array = bitcast %Object* %o to %ShortArray*
     %base = getelementptr %ShortArray* %array, i32 0, i32 2
     %ptr = getelementptr i16* %base, i32 %index
-    store volatile i16 %value, i16* %ptr
+    store i16 %value, i16* %ptr, !tbaa !8
     ret void
 }
 
@@ -454,7 +471,7 @@ define linkonce_odr i16 @caload(%Object* %o, i32 %index) alwaysinline {
     %array = bitcast %Object* %o to %CharArray*
     %base = getelementptr %CharArray* %array, i32 0, i32 2
     %ptr = getelementptr i16* %base, i32 %index
-    %value = load volatile i16* %ptr
+    %value = load i16* %ptr, !tbaa !10
     ret i16 %value
 }
 
@@ -462,7 +479,7 @@ define linkonce_odr void @castore(%Object* %o, i32 %index, i16 %value) alwaysinl
     %array = bitcast %Object* %o to %CharArray*
     %base = getelementptr %CharArray* %array, i32 0, i32 2
     %ptr = getelementptr i16* %base, i32 %index
-    store volatile i16 %value, i16* %ptr
+    store i16 %value, i16* %ptr, !tbaa !10
     ret void
 }
 
@@ -470,7 +487,7 @@ define linkonce_odr float @faload(%Object* %o, i32 %index) alwaysinline {
     %array = bitcast %Object* %o to %FloatArray*
     %base = getelementptr %FloatArray* %array, i32 0, i32 2
     %ptr = getelementptr float* %base, i32 %index
-    %value = load volatile float* %ptr
+    %value = load float* %ptr, !tbaa !16
     ret float %value
 }
 
@@ -478,7 +495,7 @@ define linkonce_odr void @fastore(%Object* %o, i32 %index, float %value) alwaysi
     %array = bitcast %Object* %o to %FloatArray*
     %base = getelementptr %FloatArray* %array, i32 0, i32 2
     %ptr = getelementptr float* %base, i32 %index
-    store volatile float %value, float* %ptr
+    store float %value, float* %ptr, !tbaa !16
     ret void
 }
 
@@ -486,7 +503,7 @@ define linkonce_odr i64 @laload(%Object* %o, i32 %index) alwaysinline {
     %array = bitcast %Object* %o to %LongArray*
     %base = getelementptr %LongArray* %array, i32 0, i32 2
     %ptr = getelementptr i64* %base, i32 %index
-    %value = load volatile i64* %ptr
+    %value = load i64* %ptr, !tbaa !14
     ret i64 %value
 }
 
@@ -494,7 +511,7 @@ define linkonce_odr void @lastore(%Object* %o, i32 %index, i64 %value) alwaysinl
     %array = bitcast %Object* %o to %LongArray*
     %base = getelementptr %LongArray* %array, i32 0, i32 2
     %ptr = getelementptr i64* %base, i32 %index
-    store volatile i64 %value, i64* %ptr
+    store i64 %value, i64* %ptr, !tbaa !14
     ret void
 }
 
@@ -502,7 +519,7 @@ define linkonce_odr double @daload(%Object* %o, i32 %index) alwaysinline {
     %array = bitcast %Object* %o to %DoubleArray*
     %base = getelementptr %DoubleArray* %array, i32 0, i32 2
     %ptr = getelementptr double* %base, i32 %index
-    %value = load volatile double* %ptr
+    %value = load double* %ptr, !tbaa !18
     ret double %value
 }
 
@@ -510,7 +527,7 @@ define linkonce_odr void @dastore(%Object* %o, i32 %index, double %value) always
     %array = bitcast %Object* %o to %DoubleArray*
     %base = getelementptr %DoubleArray* %array, i32 0, i32 2
     %ptr = getelementptr double* %base, i32 %index
-    store volatile double %value, double* %ptr
+    store double %value, double* %ptr, !tbaa !18
     ret void
 }
 
@@ -518,7 +535,7 @@ define linkonce_odr %Object* @aaload(%Object* %o, i32 %index) alwaysinline {
     %array = bitcast %Object* %o to %ObjectArray*
     %base = getelementptr %ObjectArray* %array, i32 0, i32 2
     %ptr = getelementptr %Object** %base, i32 %index
-    %value = load volatile %Object** %ptr
+    %value = load %Object** %ptr, !tbaa !20
     ret %Object* %value
 }
 
@@ -526,7 +543,7 @@ define linkonce_odr void @aastore(%Object* %o, i32 %index, %Object* %value) alwa
     %array = bitcast %Object* %o to %ObjectArray*
     %base = getelementptr %ObjectArray* %array, i32 0, i32 2
     %ptr = getelementptr %Object** %base, i32 %index
-    store volatile %Object* %value, %Object** %ptr
+    store %Object* %value, %Object** %ptr, !tbaa !20
     ret void
 }
 
@@ -538,7 +555,7 @@ define linkonce_odr i8 @checknull(%Env* %env, %Object* %o) alwaysinline {
 
 define linkonce_odr void @checklower(%Env* %env, %Object* %o, i32 %index) alwaysinline {
     %cond = icmp sge i32 %index, 0
-    br i1 %cond, label %success, label %failure
+    br i1 %cond, label %success, label %failure, !prof !22
 success:
     ret void
 failure:
@@ -550,7 +567,7 @@ failure:
 define linkonce_odr void @checkupper(%Env* %env, %Object* %o, i32 %index) alwaysinline {
     %length = call i32 @arraylength(%Object* %o)
     %cond = icmp slt i32 %index, %length
-    br i1 %cond, label %success, label %failure
+    br i1 %cond, label %success, label %failure, !prof !22
 success:
     ret void
 failure:
@@ -558,6 +575,19 @@ failure:
     unreachable
 }
 
+; Calls _bcRecordMethodEntry() the first time a method is called in builds
+; which record the startup order. %recorded is set by _bcRecordMethodEntry().
+define linkonce_odr void @recordentry(%Env* %env, i8* %recorded, i8* %symbol) alwaysinline {
+    %r = load volatile i8* %recorded
+    %cond = icmp ne i8 %r, 0
+    br i1 %cond, label %done, label %record, !prof !22
+done:
+    ret void
+record:
+    call void @_bcRecordMethodEntry(%Env* %env, i8* %recorded, i8* %symbol)
+    ret void
+}
+
 define linkonce_odr i32 @f2i(float %op) alwaysinline {
     ; if (%op != %op) %res = 0       (%op == NaN)
     ; if (%op >= MAX_VALUE) %res = MAX_VALUE
@@ -620,7 +650,7 @@ define linkonce_odr i64 @d2l(double %op) alwaysinline {
 
 define linkonce_odr i32 @idiv(%Env* %env, i32 %op1, i32 %op2) alwaysinline {
     %condZero = icmp ne i32 %op2, 0
-    br i1 %condZero, label %notZero, label %zero
+    br i1 %condZero, label %notZero, label %zero, !prof !22
 notZero:
     %condNotMinusOne = icmp ne i32 %op2, -1
     br i1 %condNotMinusOne, label %notMinusOne, label %minusOne
@@ -637,7 +667,7 @@ zero:
 
 define linkonce_odr i64 @ldiv(%Env* %env, i64 %op1, i64 %op2) alwaysinline {
     %condZero = icmp ne i64 %op2, 0
-    br i1 %condZero, label %notZero, label %zero
+    br i1 %condZero, label %notZero, label %zero, !prof !22
 notZero:
     %condNotMinusOne = icmp ne i64 %op2, -1
     br i1 %condNotMinusOne, label %notMinusOne, label %minusOne
@@ -654,7 +684,7 @@ zero:
 
 define linkonce_odr i32 @irem(%Env* %env, i32 %op1, i32 %op2) alwaysinline {
     %condZero = icmp ne i32 %op2, 0
-    br i1 %condZero, label %notZero, label %zero
+    br i1 %condZero, label %notZero, label %zero, !prof !22
 notZero:
     %condNotMinusOne = icmp ne i32 %op2, -1
     br i1 %condNotMinusOne, label %notMinusOne, label %minusOne
@@ -670,7 +700,7 @@ zero:
 
 define linkonce_odr i64 @lrem(%Env* %env, i64 %op1, i64 %op2) alwaysinline {
     %condZero = icmp ne i64 %op2, 0
-    br i1 %condZero, label %notZero, label %zero
+    br i1 %condZero, label %notZero, label %zero, !prof !22
 notZero:
     %condNotMinusOne = icmp ne i64 %op2, -1
     br i1 %condNotMinusOne, label %notMinusOne, label %minusOne
@@ -728,7 +758,7 @@ define linkonce_odr i32 @dcmpg(double %op1, double %op2) alwaysinline {
 define private %Object* @ldcClassWrapper(%Env* %env, i8** %header) alwaysinline {
     %1 = load volatile i8** %header
     %2 = icmp ne i8* %1, null
-    br i1 %2, label %loaded, label %notLoaded
+    br i1 %2, label %loaded, label %notLoaded, !prof !22
 loaded:
     %3 = bitcast i8* %1 to %Object*
     ret %Object* %3
@@ -752,9 +782,24 @@ done:
     ret void
 }
 
-define private i1 @isinstance_class(%Object* %o, i32 %offset, i32 %id) alwaysinline {
+; The Linker assigns class ids in depth-first preorder so the ids of all 
+; linked subclasses of a class lie in [firstId, lastId]. Classes created at 
+; runtime get ids outside of all such ranges and must be checked using the 
+; TypeInfo tables.
+define private i1 @isinstance_range(%TypeInfo* %ti, i32 %firstId, i32 %lastId) alwaysinline {
+    %id = call i32 @TypeInfo_id(%TypeInfo* %ti)
+    %delta = sub i32 %id, %firstId
+    %size = sub i32 %lastId, %firstId
+    %inRange = icmp ule i32 %delta, %size
+    ret i1 %inRange
+}
+
+define private i1 @isinstance_class(%Object* %o, i32 %offset, i32 %id, i32 %lastId) alwaysinline {
     %c = call %Class* @Object_class(%Object* %o)
     %ti = call %TypeInfo* @Class_typeInfo(%Class* %c)
+    %inRange = call i1 @isinstance_range(%TypeInfo* %ti, i32 %id, i32 %lastId)
+    br i1 %inRange, label %found, label %checkCache
+checkCache:
     %cachedId = call i32 @TypeInfo_cache(%TypeInfo* %ti)
     %isCachedEQ = icmp eq i32 %id, %cachedId
     br i1 %isCachedEQ, label %found, label %notInCache
@@ -815,13 +860,13 @@ notFound:
     ret i1 0
 }
 
-define private %Object* @checkcast_class(%Env* %env, i8** %header, %Object* %o, i32 %offset, i32 %id) alwaysinline {
+define private %Object* @checkcast_class(%Env* %env, i8** %header, %Object* %o, i32 %offset, i32 %id, i32 %lastId) alwaysinline {
     %isNotNull = icmp ne %Object* %o, null
     br i1 %isNotNull, label %notNull, label %null
 null:
     ret %Object* null
 notNull:
-    %isInstance = call i1 @isinstance_class(%Object* %o, i32 %offset, i32 %id)
+    %isInstance = call i1 @isinstance_class(%Object* %o, i32 %offset, i32 %id, i32 %lastId)
     br i1 %isInstance, label %ok, label %throw
 ok:
     ret %Object* %o
@@ -845,11 +890,11 @@ throw:
     unreachable
 }
 
-define private i32 @instanceof_class(%Env* %env, i8** %header, %Object* %o, i32 %offset, i32 %id) alwaysinline {
+define private i32 @instanceof_class(%Env* %env, i8** %header, %Object* %o, i32 %offset, i32 %id, i32 %lastId) alwaysinline {
     %isNotNull = icmp ne %Object* %o, null
     br i1 %isNotNull, label %notNull, label %false
 notNull:
-    %isInstance = call i1 @isinstance_class(%Object* %o, i32 %offset, i32 %id)
+    %isInstance = call i1 @isinstance_class(%Object* %o, i32 %offset, i32 %id, i32 %lastId)
     br i1 %isInstance, label %true, label %false
 true:
     ret i32 1
@@ -869,6 +914,47 @@ false:
     ret i32 0
 }
 
+; Used for interfaces whose linked implementations all descend from a single
+; class with ids in [firstId, lastId].
+define private i1 @isinstance_interface_range(%Object* %o, i32 %id, i32 %firstId, i32 %lastId) alwaysinline {
+    %c = call %Class* @Object_class(%Object* %o)
+    %ti = call %TypeInfo* @Class_typeInfo(%Class* %c)
+    %inRange = call i1 @isinstance_range(%TypeInfo* %ti, i32 %firstId, i32 %lastId)
+    br i1 %inRange, label %found, label %notInRange
+notInRange:
+    %isInstance = call i1 @isinstance_interface(%Object* %o, i32 %id)
+    ret i1 %isInstance
+found:
+    ret i1 1
+}
+
+define private %Object* @checkcast_interface_range(%Env* %env, i8** %header, %Object* %o, i32 %id, i32 %firstId, i32 %lastId) alwaysinline {
+    %isNotNull = icmp ne %Object* %o, null
+    br i1 %isNotNull, label %notNull, label %null
+null:
+    ret %Object* null
+notNull:
+    %isInstance = call i1 @isinstance_interface_range(%Object* %o, i32 %id, i32 %firstId, i32 %lastId)
+    br i1 %isInstance, label %ok, label %throw
+ok:
+    ret %Object* %o
+throw:
+    call void @_bcThrowClassCastException(%Env* %env, i8** %header, %Object* %o)
+    unreachable
+}
+
+define private i32 @instanceof_interface_range(%Env* %env, i8** %header, %Object* %o, i32 %id, i32 %firstId, i32 %lastId) alwaysinline {
+    %isNotNull = icmp ne %Object* %o, null
+    br i1 %isNotNull, label %notNull, label %false
+notNull:
+    %isInstance = call i1 @isinstance_interface_range(%Object* %o, i32 %id, i32 %firstId, i32 %lastId)
+    br i1 %isInstance, label %true, label %false
+true:
+    ret i32 1
+false:
+    ret i32 0
+}
+
 define private %Object* @checkcast_prim_array(%Env* %env, %Class* %arrayClass, %Object* %o) alwaysinline {
     %isNotNull = icmp ne %Object* %o, null
     br i1 %isNotNull, label %notNull, label %dontThrow
@@ -987,3 +1073,36 @@ define private void @popNativeFrame(%Env* %env) alwaysinline {
     call void @Env_gatewayFrames_store(%Env* %env, %GatewayFrame* %prev_gw)
     ret void
 }
+
+; Type-based alias analysis hierarchy for Java heap accesses. Unnamed
+; metadata !0 - !31 are reserved for nodes defined here (see Tbaa.java).
+; Field accesses use one type node per field directly below the root. The
+; class pointer and array length never change once an object has been
+; allocated and are tagged as constant.
+!0 = !{!"aura tbaa"}
+!1 = !{!"Object.class", !0, i64 0}
+!2 = !{!1, !1, i64 0, i64 1}
+!3 = !{!"Array.length", !0, i64 0}
+!4 = !{!3, !3, i64 0, i64 1}
+!5 = !{!"[B", !0, i64 0} ; Shared by boolean[] and byte[]
+!6 = !{!5, !5, i64 0}
+!7 = !{!"[S", !0, i64 0}
+!8 = !{!7, !7, i64 0}
+!9 = !{!"[C", !0, i64 0}
+!10 = !{!9, !9, i64 0}
+!11 = !{!"[I", !0, i64 0}
+!12 = !{!11, !11, i64 0}
+!13 = !{!"[J", !0, i64 0}
+!14 = !{!13, !13, i64 0}
+!15 = !{!"[F", !0, i64 0}
+!16 = !{!15, !15, i64 0}
+!17 = !{!"[D", !0, i64 0}
+!18 = !{!17, !17, i64 0}
+!19 = !{!"[Ljava/lang/Object;", !0, i64 0}
+!20 = !{!19, !19, i64 0}
+!21 = !{i32 0, i32 -2147483648} ; [0, INT_MAX]. Array lengths are never negative
+
+; Branch weights for branches guarding exception and slow-path code (see 
+; ColdCode.java). !22 makes the true successor hot, !23 the false successor.
+!22 = !{!"branch_weights", i32 2000, i32 1}
+!23 = !{!"branch_weights", i32 1, i32 2000}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import aura.compiler.config.Config;
+
+/**
+ * Tests {@link BuildScheduler}.
+ */
+public class BuildSchedulerTest {
+
+    private static Runnable record(final List<String> order, final String name) {
+        return new Runnable() {
+            public void run() {
+                order.add(name);
+            }
+        };
+    }
+
+    private static Runnable await(final CountDownLatch latch) {
+        return new Runnable() {
+            public void run() {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+
+    @Test
+    public void testLargestFirst() throws Exception {
+        BuildScheduler scheduler = new BuildScheduler(new Config() {}, 1, Long.MAX_VALUE);
+        CountDownLatch latch = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        scheduler.execute(await(latch));
+        scheduler.execute("A", 10, record(order, "A"));
+        scheduler.execute("B", 1000, record(order, "B"));
+        scheduler.execute("C", 100, record(order, "C"));
+        latch.countDown();
+        scheduler.shutdown();
+        assertTrue(scheduler.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("B", "C", "A"), order);
+    }
+
+    @Test
+    public void testStealsWhenOverBudget() throws Exception {
+        BuildScheduler scheduler = new BuildScheduler(new Config() {}, 1,
+                10 * BuildScheduler.HEAP_BYTES_PER_IR_BYTE);
+        CountDownLatch latch = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        scheduler.execute(await(latch));
+        scheduler.execute("A", 100, new Runnable() {
+            public void run() {
+                threads.add(Thread.currentThread());
+            }
+        });
+        // The only worker is busy so A must have been run by this thread.
+        assertEquals(Collections.singletonList(Thread.currentThread()), threads);
+        latch.countDown();
+        scheduler.shutdown();
+        assertTrue(scheduler.awaitTermination(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import aura.compiler.clazz.Clazz;
+import aura.compiler.clazz.ClazzInfo;
+import aura.compiler.clazz.Dependency;
+import aura.compiler.clazz.Clazzes;
+import aura.compiler.config.Arch;
+import aura.compiler.config.Config;
+
+/**
+ * Tests the object file reuse of {@link ClassCompiler}, the cached
+ * {@link ClazzInfo} used to inline calls and the method size patching of
+ * object files emitted directly in fast compile builds.
+ */
+public class ClassCompilerTest {
+    private static final int PLACEHOLDER = 0x01abcdef;
+
+    public static class Sample {
+    }
+
+    private static class TestConfig extends Config {
+        TestConfig(File cacheDir) throws IOException {
+            osArchCacheDir = cacheDir;
+            sliceArch = Arch.x86_64;
+        }
+
+        void setClazzes(Clazzes clazzes) {
+            this.clazzes = clazzes;
+        }
+    }
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = File.createTempFile(getClass().getSimpleName(), ".tmp");
+        dir.delete();
+        dir.mkdirs();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testObjectFileCacheHitUpdatesTimestamp() throws Exception {
+        String internalName = Sample.class.getName().replace('.', '/');
+        File classes = new File(dir, "classes");
+        File classFile = new File(classes, internalName + ".class");
+        try (InputStream in = Sample.class.getResourceAsStream("ClassCompilerTest$Sample.class")) {
+            FileUtils.copyInputStreamToFile(in, classFile);
+        }
+        TestConfig config = new TestConfig(new File(dir, "cache"));
+        Clazzes clazzes = new Clazzes(config, Collections.<File>emptyList(), Collections.singletonList(classes));
+        config.setClazzes(clazzes);
+        Clazz clazz = clazzes.load(internalName);
+        clazz.resetClazzInfo().addClassDependency("java/lang/Object", false);
+        clazz.saveClazzInfo();
+
+        // The object file and its key were written by an earlier build
+        byte[] llData = "; IR\n".getBytes("UTF-8");
+        List<String> cCode = Collections.emptyList();
+        File oFile = config.getOFile(clazz);
+        FileUtils.writeStringToFile(oFile, "object", "ASCII");
+        FileUtils.writeStringToFile(config.getOHashFile(clazz),
+                ClassCompiler.getObjectKey(config, llData, cCode), "ASCII");
+        oFile.setLastModified(1000000000L);
+
+        // The class file has been touched since
+        classFile.setLastModified(2000000000L);
+        ClassCompiler classCompiler = new ClassCompiler(config);
+        assertTrue(classCompiler.mustCompile(clazz));
+
+        // Recompiling the class yields the same IR and the object is reused
+        ClassCompiler.generateMachineCode(config, clazz, llData, cCode);
+        assertEquals("object", FileUtils.readFileToString(oFile, "ASCII"));
+        assertFalse(classCompiler.mustCompile(clazz));
+    }
+
+    @Test
+    public void testCachedClazzInfoIsThatOfTheLastBuild() throws Exception {
+        String internalName = Sample.class.getName().replace('.', '/');
+        File classes = new File(dir, "classes");
+        try (InputStream in = Sample.class.getResourceAsStream("ClassCompilerTest$Sample.class")) {
+            FileUtils.copyInputStreamToFile(in, new File(classes, internalName + ".class"));
+        }
+        TestConfig config = new TestConfig(new File(dir, "cache"));
+        Clazzes clazzes = new Clazzes(config, Collections.<File>emptyList(), Collections.singletonList(classes));
+        config.setClazzes(clazzes);
+        Clazz clazz = clazzes.load(internalName);
+
+        // First build
+        clazz.resetClazzInfo().addClassDependency("a/A", false);
+        clazz.saveClazzInfo();
+        assertNull(clazz.getCachedClazzInfo());
+
+        // Second build. Compiling the class doesn't change the cached ClazzInfo.
+        clazzes.refresh(Long.MAX_VALUE);
+        assertTrue(dependsOn(clazz.getCachedClazzInfo(), "a/A"));
+        clazz.resetClazzInfo().addClassDependency("a/B", false);
+        clazz.saveClazzInfo();
+        assertTrue(dependsOn(clazz.getCachedClazzInfo(), "a/A"));
+        assertFalse(dependsOn(clazz.getCachedClazzInfo(), "a/B"));
+        assertTrue(dependsOn(clazz.getClazzInfo(), "a/B"));
+
+        // Third build
+        clazzes.refresh(Long.MAX_VALUE);
+        assertTrue(dependsOn(clazz.getCachedClazzInfo(), "a/B"));
+    }
+
+    private static boolean dependsOn(ClazzInfo ci, String className) {
+        for (Dependency dep : ci.getAllDependencies()) {
+            if (dep.getClassName().equals(className)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testReplaceInts() {
+        byte[] data = {
+            0x00, (byte) 0xef, (byte) 0xcd, (byte) 0xab, 0x01, 0x7f,
+            (byte) 0xef, (byte) 0xcd, (byte) 0xab, 0x01
+        };
+        assertTrue(ClassCompiler.replaceInts(data, PLACEHOLDER, Arrays.asList(0x1234L, 0x10L)));
+        assertArrayEquals(new byte[] {
+            0x00, 0x34, 0x12, 0x00, 0x00, 0x7f,
+            0x10, 0x00, 0x00, 0x00
+        }, data);
+    }
+
+    @Test
+    public void testReplaceIntsCountMismatch() {
+        byte[] data = {(byte) 0xef, (byte) 0xcd, (byte) 0xab, 0x01, (byte) 0xef, (byte) 0xcd, (byte) 0xab, 0x01};
+        byte[] copy = data.clone();
+        assertFalse(ClassCompiler.replaceInts(data, PLACEHOLDER, Collections.singletonList(0x20L)));
+        assertArrayEquals(copy, data);
+        assertFalse(ClassCompiler.replaceInts(data, PLACEHOLDER, Arrays.asList(0x20L, 0x30L, 0x40L)));
+        assertArrayEquals(copy, data);
+    }
+
+    @Test
+    public void testReplaceIntsNoPlaceholders() {
+        assertTrue(ClassCompiler.replaceInts(new byte[] {1, 2, 3}, PLACEHOLDER, Collections.<Long>emptyList()));
+    }
+}
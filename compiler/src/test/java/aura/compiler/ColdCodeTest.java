@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import aura.compiler.config.OS;
+import aura.compiler.llvm.FunctionType;
+import aura.compiler.llvm.Type;
+
+/**
+ * Tests {@link ColdCode}.
+ */
+public class ColdCodeTest {
+
+    @Test
+    public void testBranchWeights() {
+        assertEquals("!prof !22", ColdCode.LIKELY.toString());
+        assertEquals("!prof !23", ColdCode.UNLIKELY.toString());
+        assertEquals("!prof !{!\"branch_weights\", i32 2000, i32 1, i32 1}", 
+                ColdCode.switchDefaultLikely(2).toString());
+    }
+
+    @Test
+    public void testSection() {
+        assertEquals(".text.unlikely", ColdCode.section(OS.linux));
+        assertEquals("__TEXT,__text_unlikely,regular,pure_instructions", ColdCode.section(OS.ios));
+    }
+
+    @Test
+    public void testColdFunction() {
+        String s = new FunctionBuilder("f", new FunctionType(Type.VOID)).cold(OS.linux).build().toString();
+        assertTrue(s, s.contains("nounwind cold noinline optsize section \".text.unlikely\""));
+    }
+}
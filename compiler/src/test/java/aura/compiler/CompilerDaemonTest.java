@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+import java.io.File;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the access control of {@link CompilerDaemon}.
+ */
+public class CompilerDaemonTest {
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = File.createTempFile(getClass().getSimpleName(), ".tmp");
+        dir.delete();
+        dir.mkdirs();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testCheckToken() throws Exception {
+        String token = CompilerDaemon.createToken();
+        assertEquals("build", CompilerDaemon.checkToken(token, token + " build"));
+        assertNull(CompilerDaemon.checkToken(token, "build"));
+        assertNull(CompilerDaemon.checkToken(token, "0123 build"));
+        assertNull(CompilerDaemon.checkToken(token, token));
+        assertNull(CompilerDaemon.checkToken(token, null));
+    }
+
+    @Test
+    public void testTokensAreRandom() {
+        assertNotEquals(CompilerDaemon.createToken(), CompilerDaemon.createToken());
+    }
+
+    @Test
+    public void testTokenFileIsOwnerOnly() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        File file = CompilerDaemon.getTokenFile(new File(dir, "cache"), 4711);
+        CompilerDaemon.writeTokenFile(file, "secret");
+        assertEquals("secret", FileUtils.readFileToString(file, "UTF8"));
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(file.toPath())));
+    }
+}
@@ -20,6 +20,7 @@ import static org.junit.Assert.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
 
 import aura.compiler.config.ConfigBuilder;
 import org.apache.commons.lang3.tuple.ImmutableTriple;
@@ -30,6 +31,7 @@ import aura.compiler.clazz.Clazz;
 import aura.compiler.config.Config;
 import aura.compiler.config.FakeHome;
 import aura.compiler.config.Config.TreeShakerMode;
+import aura.compiler.DependencyGraph.Reachability;
 import aura.rt.annotation.StronglyLinked;
 import aura.rt.annotation.WeaklyLinked;
 
@@ -295,4 +297,29 @@ public class DependencyGraphTest {
         assertTrue(graph.findReachableMethods().contains(new ImmutableTriple<>(C.getInternalName(), "a", "()V")));
         assertTrue(graph.findReachableMethods().contains(new ImmutableTriple<>(C.getInternalName(), "b", "()V")));
     }
+
+    @Test
+    public void testFindClassReachability() throws Exception {
+        A.getClazzInfo().addClassDependency(B.getInternalName(), true);
+        DependencyGraph graph = new DependencyGraph(TreeShakerMode.none);
+        graph.add(Root, true);
+        graph.add(A, false);
+        graph.add(B, false);
+        graph.add(C, false);
+
+        Map<String, Reachability> reachability = graph.findClassReachability();
+        assertEquals(Reachability.root, reachability.get(Root.getInternalName()));
+        assertEquals(Reachability.strong, reachability.get(A.getInternalName()));
+        assertEquals(Reachability.strong, reachability.get(B.getInternalName()));
+
+        graph = new DependencyGraph(TreeShakerMode.none);
+        graph.add(A, true);
+        graph.add(B, false);
+        graph.add(C, false);
+
+        reachability = graph.findClassReachability();
+        assertEquals(Reachability.root, reachability.get(A.getInternalName()));
+        assertEquals(Reachability.weak, reachability.get(B.getInternalName()));
+        assertEquals(Reachability.unreachable, reachability.get(C.getInternalName()));
+    }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2013 RoboVM AB
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import aura.compiler.llvm.ArrayConstant;
+import soot.Scene;
+import soot.SootClass;
+import soot.options.Options;
+
+/**
+ * Tests the IMT created by {@link ITable}.
+ */
+public class ITableTest {
+
+    public interface I1 {
+        void first();
+        void third();
+    }
+
+    public interface I2 {
+        void second11(); // Same IMT slot as first()
+        void third();
+    }
+
+    public static class Impl implements I1, I2 {
+        public void first() {}
+        public void second11() {}
+        public void third() {}
+    }
+
+    public static class I2Impl implements I2 {
+        public void second11() {}
+        public void third() {}
+    }
+
+    @Before
+    public void initializeSoot() {
+        soot.G.reset();
+        Options.v().set_output_format(Options.output_format_jimple);
+        Options.v().set_include_all(true);
+        Options.v().set_allow_phantom_refs(true);
+        Options.v().set_soot_classpath(System.getProperty("sun.boot.class.path") + 
+                ":" + System.getProperty("java.class.path"));
+        Scene.v().loadNecessaryClasses();
+    }
+    
+    private SootClass getSootClass(Class<?> c) {
+        return Scene.v().loadClassAndSupport(c.getName());
+    }
+    
+    @Test
+    public void testImtSlot() {
+        assertEquals(ITable.getImtSlot("first", "()V"), ITable.getImtSlot("second11", "()V"));
+        assertNotEquals(ITable.getImtSlot("first", "()V"), ITable.getImtSlot("third", "()V"));
+        for (String name : Arrays.asList("first", "second11", "third", "iterator", "compareTo")) {
+            int slot = ITable.getImtSlot(name, "()V");
+            assertTrue(slot >= 0 && slot < ITable.IMT_SIZE);
+        }
+    }
+
+    @Test
+    public void testImt() {
+        ITable.Cache cache = new ITable.Cache();
+        SootClass impl = getSootClass(Impl.class);
+        String[] slots = getImt(impl, cache.get(getSootClass(I2.class)), cache.get(getSootClass(I1.class)));
+        assertEquals(ITable.IMT_SIZE * 2, slots.length);
+        
+        String third = Symbols.methodSymbol(impl.getMethodByName("third"));
+        for (int i = 0; i < ITable.IMT_SIZE; i++) {
+            if (i == ITable.getImtSlot("third", "()V")) {
+                // Both interfaces resolve third() to the same method. The
+                // interface with the lowest name owns the slot.
+                assertTrue(slots[i * 2], slots[i * 2].contains(Symbols.typeInfoSymbol(Types.getInternalName(getSootClass(I1.class)))));
+                assertTrue(slots[i * 2 + 1], slots[i * 2 + 1].contains(third));
+            } else {
+                // Empty, or first() and second11() conflicting
+                assertEquals("i8* null", slots[i * 2]);
+                assertEquals("i8* null", slots[i * 2 + 1]);
+            }
+        }
+    }
+
+    @Test
+    public void testImtSlotsAreOwnedByImplementedInterfaces() {
+        ITable.Cache cache = new ITable.Cache();
+        SootClass impl = getSootClass(I2Impl.class);
+        String[] slots = getImt(impl, cache.get(getSootClass(I2.class)));
+        
+        // A call to I1.third() on an I2Impl must not use the slot
+        int slot = ITable.getImtSlot("third", "()V");
+        assertTrue(slots[slot * 2], slots[slot * 2].contains(Symbols.typeInfoSymbol(Types.getInternalName(getSootClass(I2.class)))));
+        assertFalse(slots[slot * 2], slots[slot * 2].contains(Symbols.typeInfoSymbol(Types.getInternalName(getSootClass(I1.class)))));
+    }
+    
+    private String[] getImt(SootClass clazz, ITable ... itables) {
+        ArrayConstant imt = ITable.getImt(new ModuleBuilder(), clazz, Arrays.asList(itables));
+        String s = imt.toString();
+        return s.substring(1, s.length() - 1).split(", (?=i8\\* (null|bitcast))");
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import aura.compiler.DependencyGraph.Reachability;
+import aura.compiler.SizeReport.Origin;
+import aura.compiler.SizeReport.Section;
+import aura.compiler.config.Arch;
+import aura.compiler.config.Config;
+import aura.compiler.config.OS;
+
+/**
+ * Tests {@link SizeReport}.
+ */
+public class SizeReportTest {
+
+    private static Config config(final OS targetOs) throws IOException {
+        return new Config() {
+            {
+                this.os = targetOs;
+                this.sliceArch = Arch.x86_64;
+            }
+        };
+    }
+
+    private static SizeReport report(OS os) throws IOException {
+        Map<String, Reachability> reachability = new HashMap<>();
+        reachability.put("a/b/Main", Reachability.root);
+        reachability.put("a/b/Foo", Reachability.weak);
+        return new SizeReport(config(os), Collections.singleton("a/b/Main.main([Ljava/lang/String;)V"),
+                reachability);
+    }
+
+    @Test
+    public void testGetOrigin() throws Exception {
+        SizeReport report = report(OS.linux);
+        assertEquals(Origin.method, report.getOrigin("[J]a.b.Main.main([Ljava/lang/String;)V"));
+        assertEquals(Origin.stripped, report.getOrigin("[J]a.b.Main.unused()V"));
+        assertEquals(Origin.stripped, report.getOrigin("_stripped_method1"));
+        assertEquals(Origin.trampoline,
+                report.getOrigin("[j]java.lang.String.length()I[Invokevirtual(a/b/Main)]"));
+        assertEquals(Origin.trampoline, report.getOrigin("[j]a.b.Foo[LdcClass(a/b/Main)]"));
+        assertEquals(Origin.classinfo, report.getOrigin("[j]a.b.Main[infostruct]"));
+        assertEquals(Origin.classinfo, report.getOrigin("[j]a.b.Main[itable2]"));
+        assertEquals(Origin.reflection, report.getOrigin("[j]a.b.Main.main([Ljava/lang/String;)V[mattributes]"));
+        assertEquals(Origin.reflection, report.getOrigin("[j]a.b.Main.x([I)[fattributes]"));
+        assertEquals(Origin.string, report.getOrigin("[j]str_Hello[ldcstring]"));
+        assertEquals(Origin.string, report.getOrigin("str_Hello_ptr"));
+        assertEquals(Origin.other, report.getOrigin("[j]a.b.Main.main([Ljava/lang/String;)V[lookup]"));
+        assertEquals(Origin.other, report.getOrigin("_bcRuntimeData"));
+    }
+
+    @Test
+    public void testGetSection() {
+        assertEquals(Section.text, SizeReport.getSection(".text"));
+        assertEquals(Section.text, SizeReport.getSection("__text"));
+        assertEquals(Section.text, SizeReport.getSection(".text.unlikely"));
+        assertEquals(Section.data, SizeReport.getSection(".rodata.str1.1"));
+        assertEquals(Section.data, SizeReport.getSection("__const"));
+        assertEquals(Section.metadata, SizeReport.getSection(".eh_frame"));
+        assertEquals(Section.metadata, SizeReport.getSection("__compact_unwind"));
+        assertNull(SizeReport.getSection(".rela.text"));
+        assertNull(SizeReport.getSection(".symtab"));
+        assertNull(SizeReport.getSection(""));
+    }
+
+    @Test
+    public void testWrite() throws Exception {
+        SizeReport report = report(OS.macosx);
+        report.addSection("a/b/Main", "__text", 100);
+        report.addSection("a/b/Main", "__data", 50);
+        report.addSymbol("a/b/Main", "_[J]a.b.Main.main([Ljava/lang/String;)V", 60);
+        report.addSymbol("a/b/Main", "_[J]a.b.Main.unused()V", 30);
+        report.addSymbol("a/b/Main", "_[j]a.b.Main[infostruct]", 40);
+        report.addSection("a/b/Foo", "__text", 10);
+        report.addSection(SizeReport.LINKER, "__data", 5);
+        StringWriter sw = new StringWriter();
+        try (PrintWriter out = new PrintWriter(sw)) {
+            report.write(out);
+        }
+        String s = sw.toString();
+        assertTrue(s, s.contains("165 bytes in 3 classes"));
+        assertTrue(s, s.matches("(?s).*\\n +60  method\\n.*"));
+        assertTrue(s, s.matches("(?s).*\\n +30  stripped\\n.*"));
+        assertTrue(s, s.matches("(?s).*\\n +35  unattributed\\n.*"));
+        assertTrue(s, s.matches("(?s).*\\n +160( +\\d+)+  a\\.b\\n.*"));
+        assertTrue(s, s.matches("(?s).*\\n +150( +\\d+)+  root a\\.b\\.Main\\n.*"));
+        assertTrue(s, s.matches("(?s).*\\n +10( +\\d+)+  weak a\\.b\\.Foo\\n.*"));
+        assertTrue(s, s.matches("(?s).*\\n +5( +\\d+)+  \\(linker\\)\\n.*"));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.clazz;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import aura.compiler.config.Config;
+import soot.SootMethod;
+
+/**
+ * Tests {@link Clazzes#refresh(long)} and {@link Clazz#releaseBodies()}.
+ */
+public class ClazzesTest {
+
+    public static class Sample {
+        int twice(int x) {
+            return x * 2;
+        }
+    }
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = File.createTempFile(getClass().getSimpleName(), ".classes");
+        dir.delete();
+        dir.mkdirs();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    private File writeClass(String internalName, long lastModified) throws Exception {
+        File f = new File(dir, internalName + ".class");
+        FileUtils.writeByteArrayToFile(f, new byte[] {(byte) 0xca, (byte) 0xfe});
+        f.setLastModified(lastModified);
+        return f;
+    }
+
+    @Test
+    public void testRefresh() throws Exception {
+        File a = writeClass("a/A", 1000000L);
+        writeClass("a/B", 1000000L);
+        Clazzes clazzes = new Clazzes(new Config() {}, Collections.<File>emptyList(),
+                Collections.singletonList(dir));
+        Clazz clazzA = clazzes.load("a/A");
+        Clazz clazzB = clazzes.load("a/B");
+        assertNotNull(clazzA);
+        assertNotNull(clazzB);
+
+        assertTrue(clazzes.refresh(2000000L).isEmpty());
+        assertSame(clazzA, clazzes.load("a/A"));
+
+        a.setLastModified(3000000L);
+        Set<Clazz> modified = clazzes.refresh(2000000L);
+        assertEquals(Collections.singleton(clazzA), modified);
+        assertSame(clazzA, clazzes.load("a/A"));
+        assertSame(clazzB, clazzes.load("a/B"));
+
+        writeClass("a/C", 1000000L);
+        a.delete();
+        assertTrue(clazzes.refresh(4000000L).isEmpty());
+        assertNull(clazzes.load("a/A"));
+        assertSame(clazzB, clazzes.load("a/B"));
+        assertNotNull(clazzes.load("a/C"));
+        assertEquals(2, clazzes.listClasses().size());
+    }
+
+    @Test
+    public void testReleaseBodies() throws Exception {
+        File classes = new File(Sample.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        Clazzes clazzes = new Clazzes(new Config() {}, Collections.<File>emptyList(),
+                Collections.singletonList(classes));
+        Clazz clazz = clazzes.load(Sample.class.getName().replace('.', '/'));
+        SootMethod method = clazz.getSootClass().getMethodByName("twice");
+        assertNotNull(method.retrieveActiveBody());
+
+        clazz.releaseBodies();
+        assertFalse(method.hasActiveBody());
+        try {
+            method.retrieveActiveBody();
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+        }
+    }
+}
@@ -32,68 +32,112 @@ public class HashTableGeneratorTest {
     @Test
     public void testEmpty() {
         HashTableGenerator<String, Constant> gen =
-                new HashTableGenerator<String, Constant>(new StringHash(), 2);
+                new HashTableGenerator<String, Constant>(new StringHash(), 0);
         StructureConstant result = gen.generate();
-        assertEquals("{i32 0, i32 4, i32 0, i32 0, i32 0, i32 0, i32 0}", result.toString());
+        assertEquals("{i32 0, i32 1, i32 0, i32 0}", result.toString());
     }
 
     @Test
-    public void testNoRehashNoCollisions() {
+    public void testSingle() {
         HashTableGenerator<Integer, Constant> gen = 
-                new HashTableGenerator<Integer, Constant>(new IntegerHash(), 2);
-        gen.put(0, new IntegerConstant(0));
-        gen.put(1, new IntegerConstant(1));
-        gen.put(2, new IntegerConstant(2));
+                new HashTableGenerator<Integer, Constant>(new IntegerHash(), 0);
+        gen.put(7, new IntegerConstant(7));
         StructureConstant result = gen.generate();
-        assertEquals("{i32 3, i32 4, i32 0, i32 1, i32 2, i32 3, i32 3, i32 0, i32 1, i32 2}", result.toString());
+        assertEquals("{i32 1, i32 1, i32 0, i32 0, i32 7}", result.toString());
     }
     
     @Test
-    public void testRehashNoCollisions() {
+    public void testReplace() {
         HashTableGenerator<Integer, Constant> gen = 
-                new HashTableGenerator<Integer, Constant>(new IntegerHash(), 2);
-        gen.put(0, new IntegerConstant(0));
-        gen.put(1, new IntegerConstant(1));
-        gen.put(2, new IntegerConstant(2));
-        gen.put(3, new IntegerConstant(3));
+                new HashTableGenerator<Integer, Constant>(new IntegerHash(), 0);
+        gen.put(7, new IntegerConstant(7));
+        gen.put(7, new IntegerConstant(8));
         StructureConstant result = gen.generate();
-        assertEquals("{i32 4, i32 8, i32 0, i32 1, i32 2, i32 3, i32 4, i32 4, i32 4, i32 4, i32 4, i32 0, i32 1, i32 2, i32 3}", result.toString());
+        assertEquals("{i32 1, i32 1, i32 0, i32 0, i32 8}", result.toString());
     }
     
     @Test
-    public void testNoRehashCollisions() {
-        HashTableGenerator<Integer, Constant> gen = 
-                new HashTableGenerator<Integer, Constant>(new IntegerHash(), 2);
-        gen.put(0, new IntegerConstant(0));
-        gen.put(4, new IntegerConstant(4));
-        gen.put(8, new IntegerConstant(8));
-        StructureConstant result = gen.generate();
-        assertEquals("{i32 3, i32 4, i32 0, i32 3, i32 3, i32 3, i32 3, i32 0, i32 4, i32 8}", result.toString());
+    public void testPerfect() {
+        int count = 5000;
+        HashTableGenerator<String, Constant> gen = 
+                new HashTableGenerator<String, Constant>(new ModifiedUtf8HashFunction());
+        for (int i = 0; i < count; i++) {
+            gen.put("java/lang/Class" + i, new IntegerConstant(i));
+        }
+        assertTable(gen.generate(), count, new ModifiedUtf8HashFunction());
     }
     
     @Test
-    public void testRehashCollisions() {
+    public void testReseedOnIdenticalHashes() {
+        // Hashes 0 and 4 collide for the initial seed 0 only
+        HashFunction<Integer> fn = new HashFunction<Integer>() {
+            public int hash(Integer k, int seed) {
+                return seed == 0 ? k & 3 : MurmurHash3.fmix32(k ^ seed);
+            }
+        };
         HashTableGenerator<Integer, Constant> gen = 
-                new HashTableGenerator<Integer, Constant>(new IntegerHash(), 2);
-        gen.put(0, new IntegerConstant(0));
-        gen.put(4, new IntegerConstant(4));
-        gen.put(8, new IntegerConstant(8));
-        gen.put(3, new IntegerConstant(3));
+                new HashTableGenerator<Integer, Constant>(fn, 0);
+        for (int i = 0; i < 5; i++) {
+            gen.put(i, new IntegerConstant(i));
+        }
         StructureConstant result = gen.generate();
-        assertEquals("{i32 4, i32 8, i32 0, i32 2, i32 2, i32 2, i32 3, i32 4, i32 4, i32 4, i32 4, i32 0, i32 8, i32 3, i32 4}", result.toString());
+        assertNotEquals(0, ints(result)[2]);
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testIdenticalHashesForAllSeeds() {
+        HashFunction<Integer> fn = new HashFunction<Integer>() {
+            public int hash(Integer k, int seed) {
+                return seed;
+            }
+        };
+        HashTableGenerator<Integer, Constant> gen = 
+                new HashTableGenerator<Integer, Constant>(fn, 0);
+        gen.put(1, new IntegerConstant(1));
+        gen.put(2, new IntegerConstant(2));
+        gen.generate();
+    }
+    
+    /**
+     * Looks up every key the same way bc.c does and checks that the value
+     * found is the one which was put for the key.
+     */
+    private static void assertTable(StructureConstant table, int count, HashFunction<String> fn) {
+        int[] values = ints(table);
+        assertEquals(count, values[0]);
+        int size = values[1];
+        int seed = values[2];
+        assertEquals(0, size & (size - 1));
+        assertEquals(3 + size + count, values.length);
+        for (int i = 0; i < count; i++) {
+            int h = fn.hash("java/lang/Class" + i, seed);
+            int d = values[3 + (h & (size - 1))];
+            int index = HashTableGenerator.index(h, d, count);
+            assertEquals(i, values[3 + size + index]);
+        }
+    }
+    
+    private static int[] ints(StructureConstant table) {
+        String s = table.toString();
+        String[] parts = s.substring(1, s.length() - 1).split(", ");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].substring("i32 ".length()));
+        }
+        return result;
     }
     
     private static class IntegerHash implements HashFunction<Integer> {
         @Override
-        public int hash(Integer k) {
-            return k;
+        public int hash(Integer k, int seed) {
+            return k ^ seed;
         }
     }
     
     private static class StringHash implements HashFunction<String> {
         @Override
-        public int hash(String k) {
-            return k.hashCode();
+        public int hash(String k, int seed) {
+            return k.hashCode() ^ seed;
         }
     }
 }
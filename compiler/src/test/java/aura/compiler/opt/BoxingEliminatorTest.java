@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.opt;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.Body;
+import soot.Scene;
+import soot.SootClass;
+import soot.Unit;
+import soot.jimple.AssignStmt;
+import soot.jimple.InvokeExpr;
+import soot.jimple.StaticFieldRef;
+import soot.jimple.Stmt;
+import soot.options.Options;
+
+/**
+ * Tests {@link BoxingEliminator}.
+ */
+public class BoxingEliminatorTest {
+
+    public static class Boxing {
+        public static int roundTrip(int x) {
+            Integer i = x;
+            x++;
+            return i + x;
+        }
+
+        public static Object escape(long x) {
+            Long l = x;
+            return l.longValue() > 0 ? l : null;
+        }
+
+        public static Boolean constant() {
+            return true;
+        }
+    }
+
+    @Before
+    public void initializeSoot() {
+        soot.G.reset();
+        Options.v().set_output_format(Options.output_format_jimple);
+        Options.v().set_include_all(true);
+        Options.v().set_allow_phantom_refs(true);
+        Options.v().set_soot_classpath(System.getProperty("sun.boot.class.path") + 
+                ":" + System.getProperty("java.class.path"));
+        Scene.v().loadNecessaryClasses();
+    }
+
+    private Body getBody(String methodName) {
+        SootClass sc = Scene.v().loadClassAndSupport(Boxing.class.getName());
+        return sc.getMethodByName(methodName).retrieveActiveBody();
+    }
+
+    private int countCalls(Body body, String methodName) {
+        int count = 0;
+        for (Unit unit : body.getUnits()) {
+            Stmt stmt = (Stmt) unit;
+            if (stmt.containsInvokeExpr()) {
+                InvokeExpr expr = stmt.getInvokeExpr();
+                if (expr.getMethodRef().name().equals(methodName)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testRoundTripIsEliminated() {
+        Body body = getBody("roundTrip");
+        assertEquals(1, countCalls(body, "valueOf"));
+        assertEquals(1, countCalls(body, "intValue"));
+
+        BoxingEliminator eliminator = new BoxingEliminator();
+        eliminator.transform(body);
+        assertEquals(0, countCalls(body, "valueOf"));
+        assertEquals(0, countCalls(body, "intValue"));
+        assertEquals(1, eliminator.getBoxesEliminated());
+        assertEquals(1, eliminator.getUnboxesEliminated());
+    }
+
+    @Test
+    public void testEscapingBoxIsKept() {
+        Body body = getBody("escape");
+        BoxingEliminator eliminator = new BoxingEliminator();
+        eliminator.transform(body);
+        assertEquals(1, countCalls(body, "valueOf"));
+        assertEquals(0, countCalls(body, "longValue"));
+        assertEquals(0, eliminator.getBoxesEliminated());
+        assertEquals(1, eliminator.getUnboxesEliminated());
+    }
+
+    @Test
+    public void testBooleanConstantIsFolded() {
+        Body body = getBody("constant");
+        BoxingEliminator eliminator = new BoxingEliminator();
+        eliminator.transform(body);
+        assertEquals(0, countCalls(body, "valueOf"));
+        assertEquals(1, eliminator.getConstantsFolded());
+        boolean found = false;
+        for (Unit unit : body.getUnits()) {
+            if (unit instanceof AssignStmt && ((AssignStmt) unit).getRightOp() instanceof StaticFieldRef) {
+                StaticFieldRef ref = (StaticFieldRef) ((AssignStmt) unit).getRightOp();
+                assertEquals("TRUE", ref.getFieldRef().name());
+                found = true;
+            }
+        }
+        assertTrue(found);
+    }
+}
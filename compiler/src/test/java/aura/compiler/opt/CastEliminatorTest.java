@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.opt;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.Body;
+import soot.RefType;
+import soot.Scene;
+import soot.SootClass;
+import soot.Unit;
+import soot.jimple.AssignStmt;
+import soot.jimple.CastExpr;
+import soot.options.Options;
+
+/**
+ * Tests {@link CastEliminator}.
+ */
+public class CastEliminatorTest {
+
+    public interface Shape {
+        int area();
+    }
+
+    public static class Square implements Shape {
+        public int area() {
+            return 1;
+        }
+    }
+
+    public static class Casts {
+        public static int knownClass(Square s) {
+            Object o = s;
+            return ((Shape) o).area();
+        }
+
+        public static int castTwice(Object o) {
+            Shape s = (Shape) o;
+            Object x = s;
+            return ((Shape) x).area();
+        }
+
+        public static int unknown(Object o) {
+            return ((Square) o).area();
+        }
+    }
+
+    @Before
+    public void initializeSoot() {
+        soot.G.reset();
+        Options.v().set_output_format(Options.output_format_jimple);
+        Options.v().set_include_all(true);
+        Options.v().set_allow_phantom_refs(true);
+        Options.v().set_soot_classpath(System.getProperty("sun.boot.class.path") + 
+                ":" + System.getProperty("java.class.path"));
+        Scene.v().loadNecessaryClasses();
+    }
+
+    private Body getBody(String methodName) {
+        SootClass sc = Scene.v().loadClassAndSupport(Casts.class.getName());
+        return sc.getMethodByName(methodName).retrieveActiveBody();
+    }
+
+    private int countCasts(Body body) {
+        int count = 0;
+        for (Unit unit : body.getUnits()) {
+            if (unit instanceof AssignStmt && ((AssignStmt) unit).getRightOp() instanceof CastExpr) {
+                if (((CastExpr) ((AssignStmt) unit).getRightOp()).getCastType() instanceof RefType) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testCastToKnownClassIsRemoved() {
+        Body body = getBody("knownClass");
+        CastEliminator eliminator = new CastEliminator();
+        eliminator.transform(body);
+        assertEquals(0, countCasts(body));
+        assertEquals(1, eliminator.getCastsEliminated());
+        // The caller must be recompiled if Square stops implementing Shape
+        assertTrue(eliminator.getDependencies().contains(Square.class.getName().replace('.', '/')));
+    }
+
+    @Test
+    public void testRepeatedInterfaceCastIsRemoved() {
+        Body body = getBody("castTwice");
+        assertEquals(2, countCasts(body));
+        CastEliminator eliminator = new CastEliminator();
+        eliminator.transform(body);
+        assertEquals(1, countCasts(body));
+        assertEquals(1, eliminator.getCastsEliminated());
+    }
+
+    @Test
+    public void testUnknownCastIsKept() {
+        Body body = getBody("unknown");
+        CastEliminator eliminator = new CastEliminator();
+        eliminator.transform(body);
+        assertEquals(1, countCasts(body));
+        assertEquals(0, eliminator.getCastsEliminated());
+        assertTrue(eliminator.getDependencies().isEmpty());
+    }
+}
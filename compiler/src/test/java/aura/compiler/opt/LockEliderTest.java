@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.opt;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.Body;
+import soot.Scene;
+import soot.SootClass;
+import soot.Unit;
+import soot.jimple.MonitorStmt;
+import soot.options.Options;
+
+/**
+ * Tests {@link LockElider}.
+ */
+public class LockEliderTest {
+
+    public static class Locks {
+        public static String confined(String s) {
+            StringBuffer sb = new StringBuffer();
+            synchronized (sb) {
+                sb.append(s).append(s);
+            }
+            return sb.toString();
+        }
+
+        public static String escaping(List<Object> l, String s) {
+            StringBuffer sb = new StringBuffer();
+            l.add(sb);
+            synchronized (sb) {
+                sb.append(s);
+            }
+            return sb.toString();
+        }
+
+        public static StringBuffer escapingAlias(String s) {
+            StringBuffer sb = new StringBuffer();
+            synchronized (sb) {
+                sb.append(s);
+            }
+            return sb.append(s);
+        }
+
+        public synchronized void nested() {
+            synchronized (this) {
+                notify();
+            }
+        }
+    }
+
+    @Before
+    public void initializeSoot() {
+        soot.G.reset();
+        Options.v().set_output_format(Options.output_format_jimple);
+        Options.v().set_include_all(true);
+        Options.v().set_allow_phantom_refs(true);
+        Options.v().set_soot_classpath(System.getProperty("sun.boot.class.path") + 
+                ":" + System.getProperty("java.class.path"));
+        Scene.v().loadNecessaryClasses();
+    }
+
+    private Body getBody(String methodName) {
+        SootClass sc = Scene.v().loadClassAndSupport(Locks.class.getName());
+        return sc.getMethodByName(methodName).retrieveActiveBody();
+    }
+
+    private int countMonitors(Body body) {
+        int count = 0;
+        for (Unit unit : body.getUnits()) {
+            if (unit instanceof MonitorStmt) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testConfinedMonitorIsRemoved() {
+        Body body = getBody("confined");
+        int monitors = countMonitors(body);
+        assertTrue(monitors > 0);
+        LockElider elider = new LockElider();
+        elider.transform(body);
+        assertEquals(0, countMonitors(body));
+        assertEquals(monitors, elider.getMonitorsRemoved());
+    }
+
+    @Test
+    public void testEscapingMonitorIsKept() {
+        for (String name : new String[] {"escaping", "escapingAlias"}) {
+            Body body = getBody(name);
+            int monitors = countMonitors(body);
+            LockElider elider = new LockElider();
+            elider.transform(body);
+            assertEquals(name, monitors, countMonitors(body));
+            assertEquals(name, 0, elider.getMonitorsRemoved());
+        }
+    }
+
+    @Test
+    public void testNestedMonitorIsRemoved() {
+        Body body = getBody("nested");
+        assertTrue(countMonitors(body) > 0);
+        new LockElider().transform(body);
+        assertEquals(0, countMonitors(body));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.opt;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import aura.compiler.clazz.MethodSummary;
+import aura.compiler.clazz.MethodSummary.Kind;
+import soot.Body;
+import soot.Scene;
+import soot.SootClass;
+import soot.options.Options;
+
+/**
+ * Tests {@link MethodSummarizer}.
+ */
+public class MethodSummarizerTest {
+
+    public static class Point {
+        private int x;
+        private long y;
+
+        public int getX() {
+            return x;
+        }
+
+        public void setX(int x) {
+            this.x = x;
+        }
+
+        public long getY() {
+            return y;
+        }
+
+        public int answer() {
+            return 42;
+        }
+
+        public String name() {
+            return "point";
+        }
+
+        public static int max(int a, int b) {
+            return Math.max(a, b);
+        }
+
+        public static int swapped(int a, int b) {
+            return Math.max(b, a);
+        }
+
+        public int twice() {
+            return x + x;
+        }
+
+        public synchronized int getXLocked() {
+            return x;
+        }
+    }
+
+    @Before
+    public void initializeSoot() {
+        soot.G.reset();
+        Options.v().set_output_format(Options.output_format_jimple);
+        Options.v().set_include_all(true);
+        Options.v().set_allow_phantom_refs(true);
+        Options.v().set_soot_classpath(System.getProperty("sun.boot.class.path") + 
+                ":" + System.getProperty("java.class.path"));
+        Scene.v().loadNecessaryClasses();
+    }
+
+    private MethodSummary summarize(String methodName) {
+        SootClass sc = Scene.v().loadClassAndSupport(Point.class.getName());
+        Body body = sc.getMethodByName(methodName).retrieveActiveBody();
+        return MethodSummarizer.summarize(body);
+    }
+
+    @Test
+    public void testGetter() {
+        MethodSummary s = summarize("getX");
+        assertEquals(Kind.GETFIELD, s.getKind());
+        assertEquals("aura/compiler/opt/MethodSummarizerTest$Point", s.getOwner());
+        assertEquals("x", s.getName());
+        assertEquals("I", s.getDesc());
+        assertEquals(MethodSummary.getField(s.getOwner(), "y", "J"), summarize("getY"));
+    }
+
+    @Test
+    public void testSetter() {
+        MethodSummary s = summarize("setX");
+        assertEquals(MethodSummary.putField("aura/compiler/opt/MethodSummarizerTest$Point", "x", "I"), s);
+    }
+
+    @Test
+    public void testConstant() {
+        assertEquals(MethodSummary.constant(42), summarize("answer"));
+        assertEquals(MethodSummary.constant("point"), summarize("name"));
+    }
+
+    @Test
+    public void testForwardStatic() {
+        assertEquals(MethodSummary.forwardStatic("java/lang/Math", "max", "(II)I"), summarize("max"));
+        assertNull(summarize("swapped"));
+    }
+
+    @Test
+    public void testNonTrivial() {
+        assertNull(summarize("twice"));
+        assertNull(summarize("getXLocked"));
+        assertNull(summarize("<init>"));
+    }
+}
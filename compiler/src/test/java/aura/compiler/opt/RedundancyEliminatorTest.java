@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.opt;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.Body;
+import soot.IntType;
+import soot.Scene;
+import soot.SootClass;
+import soot.Unit;
+import soot.jimple.AssignStmt;
+import soot.jimple.FieldRef;
+import soot.jimple.InstanceFieldRef;
+import soot.jimple.LengthExpr;
+import soot.options.Options;
+
+/**
+ * Tests {@link RedundancyEliminator}.
+ */
+public class RedundancyEliminatorTest {
+
+    public static class Point {
+        int x;
+        int y;
+        volatile int v;
+
+        int sumOfSquares(int[] a) {
+            int s = 0;
+            for (int i = 0; i < a.length; i++) {
+                s += a[i] * a[i] + a.length;
+            }
+            return s;
+        }
+
+        int loads(Point p) {
+            int a = p.x;
+            p.y = 1;
+            int b = p.x;
+            int c = p.y;
+            return a + b + c;
+        }
+
+        int loadsAcrossCall(Point p) {
+            int a = p.x;
+            toString();
+            int b = p.x;
+            return a + b;
+        }
+
+        int volatileLoads(Point p) {
+            return p.v + p.v;
+        }
+    }
+
+    @Before
+    public void initializeSoot() {
+        soot.G.reset();
+        Options.v().set_output_format(Options.output_format_jimple);
+        Options.v().set_include_all(true);
+        Options.v().set_allow_phantom_refs(true);
+        Options.v().set_soot_classpath(System.getProperty("sun.boot.class.path") + 
+                ":" + System.getProperty("java.class.path"));
+        Scene.v().loadNecessaryClasses();
+    }
+
+    private Body getBody(String methodName) {
+        SootClass sc = Scene.v().loadClassAndSupport(Point.class.getName());
+        return sc.getMethodByName(methodName).retrieveActiveBody();
+    }
+
+    private static int count(Body body, Class<?> cls) {
+        int n = 0;
+        for (Unit unit : body.getUnits()) {
+            if (unit instanceof AssignStmt && cls.isInstance(((AssignStmt) unit).getRightOp())) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    @Test
+    public void testExpressionsAreReused() {
+        Body body = getBody("sumOfSquares");
+        int lengths = count(body, LengthExpr.class);
+        RedundancyEliminator eliminator = new RedundancyEliminator();
+        eliminator.transform(body);
+        assertTrue(eliminator.getExpressionsReused() > 0);
+        assertTrue(count(body, LengthExpr.class) < lengths);
+        assertEquals(0, eliminator.getLoadsForwarded());
+    }
+
+    @Test
+    public void testLoadsAreForwarded() {
+        Body body = getBody("loads");
+        RedundancyEliminator eliminator = new RedundancyEliminator();
+        eliminator.setLoadForwarding(true);
+        eliminator.transform(body);
+        // p.x is reloaded across a store to p.y and p.y is read back
+        assertEquals(2, eliminator.getLoadsForwarded());
+        assertEquals(1, count(body, FieldRef.class));
+    }
+
+    @Test
+    public void testLoadsAreNotForwardedAcrossCalls() {
+        Body body = getBody("loadsAcrossCall");
+        RedundancyEliminator eliminator = new RedundancyEliminator();
+        eliminator.setLoadForwarding(true);
+        eliminator.transform(body);
+        assertEquals(0, eliminator.getLoadsForwarded());
+    }
+
+    @Test
+    public void testVolatileLoadsAreNotForwarded() {
+        Body body = getBody("volatileLoads");
+        RedundancyEliminator eliminator = new RedundancyEliminator();
+        eliminator.setLoadForwarding(true);
+        eliminator.transform(body);
+        assertEquals(0, eliminator.getLoadsForwarded());
+        assertEquals(2, count(body, FieldRef.class));
+    }
+
+    @Test
+    public void testUnresolvableFieldsAreNotForwarded() {
+        Body body = getBody("loads");
+        SootClass sc = body.getMethod().getDeclaringClass();
+        // Make p.x refer to a field which doesn't exist
+        for (Unit unit : body.getUnits()) {
+            if (unit instanceof AssignStmt && ((AssignStmt) unit).getRightOp() instanceof InstanceFieldRef) {
+                InstanceFieldRef ref = (InstanceFieldRef) ((AssignStmt) unit).getRightOp();
+                if (ref.getFieldRef().name().equals("x")) {
+                    ref.setFieldRef(Scene.v().makeFieldRef(sc, "missing", IntType.v(), false));
+                }
+            }
+        }
+        RedundancyEliminator eliminator = new RedundancyEliminator();
+        eliminator.setLoadForwarding(true);
+        eliminator.transform(body);
+        // The loads of the missing field throw NoSuchFieldError and are barriers
+        assertEquals(0, eliminator.getLoadsForwarded());
+        assertEquals(3, count(body, FieldRef.class));
+    }
+}
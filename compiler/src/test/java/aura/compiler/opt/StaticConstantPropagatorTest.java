@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.opt;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.Body;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootField;
+import soot.Unit;
+import soot.jimple.Constant;
+import soot.jimple.IfStmt;
+import soot.jimple.IntConstant;
+import soot.jimple.InvokeExpr;
+import soot.jimple.Stmt;
+import soot.options.Options;
+
+/**
+ * Tests {@link StaticConstantPropagator}.
+ */
+public class StaticConstantPropagatorTest {
+
+    public static class Config {
+        private static boolean DEBUG = false;
+        private static int LIMIT = 16;
+        private static int counter = 0;
+        private static Object lock = new Object();
+        private static boolean late = true;
+
+        public static int limit() {
+            if (DEBUG) {
+                System.out.println("limit");
+            }
+            return LIMIT;
+        }
+
+        public static int next() {
+            return counter++;
+        }
+
+        public static boolean late() {
+            return late;
+        }
+    }
+
+    @Before
+    public void initializeSoot() {
+        soot.G.reset();
+        Options.v().set_output_format(Options.output_format_jimple);
+        Options.v().set_include_all(true);
+        Options.v().set_allow_phantom_refs(true);
+        Options.v().set_soot_classpath(System.getProperty("sun.boot.class.path") + 
+                ":" + System.getProperty("java.class.path"));
+        Scene.v().loadNecessaryClasses();
+    }
+
+    private SootClass getConfigClass() {
+        return Scene.v().loadClassAndSupport(Config.class.getName());
+    }
+
+    @Test
+    public void testFindConstants() {
+        SootClass sc = getConfigClass();
+        Map<SootField, Constant> constants = StaticConstantPropagator.findConstants(sc);
+        assertEquals(2, constants.size());
+        assertEquals(IntConstant.v(0), constants.get(sc.getFieldByName("DEBUG")));
+        assertEquals(IntConstant.v(16), constants.get(sc.getFieldByName("LIMIT")));
+        // counter is also written by next(). late is assigned after an 
+        // allocation which could run code reading it.
+        assertFalse(constants.containsKey(sc.getFieldByName("counter")));
+        assertFalse(constants.containsKey(sc.getFieldByName("late")));
+    }
+
+    @Test
+    public void testDeadBranchIsRemoved() {
+        Body body = getConfigClass().getMethodByName("limit").retrieveActiveBody();
+        StaticConstantPropagator propagator = new StaticConstantPropagator();
+        propagator.transform(body);
+        for (Unit unit : body.getUnits()) {
+            assertFalse(unit instanceof IfStmt);
+            assertFalse(((Stmt) unit).containsInvokeExpr() 
+                    && ((InvokeExpr) ((Stmt) unit).getInvokeExpr()).getMethodRef().name().equals("println"));
+            assertFalse(((Stmt) unit).containsFieldRef());
+        }
+        assertEquals(2, propagator.getReadsReplaced());
+        assertEquals(1, propagator.getBranchesFolded());
+        assertTrue(propagator.getUnitsRemoved() > 0);
+        assertEquals("[DEBUG, LIMIT]", propagator.getFieldsPropagated().toString());
+    }
+
+    @Test
+    public void testNotEffectivelyFinalIsKept() {
+        Body body = getConfigClass().getMethodByName("late").retrieveActiveBody();
+        StaticConstantPropagator propagator = new StaticConstantPropagator();
+        propagator.transform(body);
+        assertEquals(0, propagator.getReadsReplaced());
+        assertTrue(propagator.getFieldsPropagated().isEmpty());
+    }
+}
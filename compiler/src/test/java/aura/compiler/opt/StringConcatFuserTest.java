@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.opt;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import soot.Body;
+import soot.Scene;
+import soot.SootClass;
+import soot.Unit;
+import soot.jimple.Stmt;
+import soot.options.Options;
+
+/**
+ * Tests {@link StringConcatFuser}.
+ */
+public class StringConcatFuserTest {
+
+    public static class Concat {
+        public static String concat(String s, int i, char c, long l, Object o, boolean z) {
+            return "<" + s + i + c + l + o + z + '>';
+        }
+
+        public static String escaping(String s) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(s);
+            sb.append(1);
+            return sb.toString();
+        }
+    }
+
+    @Before
+    public void initializeSoot() {
+        soot.G.reset();
+        Options.v().set_output_format(Options.output_format_jimple);
+        Options.v().set_include_all(true);
+        Options.v().set_allow_phantom_refs(true);
+        Options.v().set_soot_classpath(System.getProperty("sun.boot.class.path") + 
+                ":" + System.getProperty("java.class.path"));
+        Scene.v().loadNecessaryClasses();
+    }
+
+    private Body getBody(String methodName) {
+        SootClass sc = Scene.v().loadClassAndSupport(Concat.class.getName());
+        return sc.getMethodByName(methodName).retrieveActiveBody();
+    }
+
+    private int countCalls(Body body, String className, String methodName) {
+        int count = 0;
+        for (Unit unit : body.getUnits()) {
+            Stmt stmt = (Stmt) unit;
+            if (stmt.containsInvokeExpr()) {
+                if (stmt.getInvokeExpr().getMethodRef().declaringClass().getName().equals(className)
+                        && stmt.getInvokeExpr().getMethodRef().name().equals(methodName)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testChainIsFused() {
+        Body body = getBody("concat");
+        StringConcatFuser fuser = new StringConcatFuser();
+        fuser.transform(body);
+        assertEquals(1, fuser.getChainsFused());
+        assertEquals(0, countCalls(body, StringConcatFuser.STRING_BUILDER, "append"));
+        assertEquals(0, countCalls(body, StringConcatFuser.STRING_BUILDER, "toString"));
+        // s, i, l, and the converted o and z need their lengths computed. The
+        // lengths of the constants and c are known at compile time.
+        assertEquals(5, countCalls(body, StringConcatFuser.STRING_CONCAT, "length"));
+        assertEquals(8, countCalls(body, StringConcatFuser.STRING_CONCAT, "put"));
+        assertEquals(1, countCalls(body, StringConcatFuser.STRING_CONCAT, "newString"));
+        assertEquals(2, countCalls(body, "java.lang.String", "valueOf"));
+    }
+
+    @Test
+    public void testEscapingBuilderIsNotFused() {
+        Body body = getBody("escaping");
+        StringConcatFuser fuser = new StringConcatFuser();
+        fuser.transform(body);
+        assertEquals(0, fuser.getChainsFused());
+        assertEquals(2, countCalls(body, StringConcatFuser.STRING_BUILDER, "append"));
+        assertEquals(0, countCalls(body, StringConcatFuser.STRING_CONCAT, "newString"));
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.opt;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import aura.compiler.Types;
+import aura.compiler.config.Arch;
+import aura.compiler.config.OS;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootField;
+import soot.Unit;
+import soot.jimple.Stmt;
+import soot.options.Options;
+
+/**
+ * Tests {@link WriteOnlyFieldEliminator}.
+ */
+public class WriteOnlyFieldEliminatorTest {
+
+    public static class Node {
+        private int id;
+        private long createdAt;
+        private Object debugName;
+        private Node next;
+        private int state;
+
+        public Node(int id, Object debugName) {
+            this.id = id;
+            this.createdAt = 1234;
+            this.debugName = debugName;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        void link(Node other) {
+            other.next = this;
+        }
+
+        String stateFieldName() {
+            return "state";
+        }
+    }
+
+    public static class Reflected {
+        private int unused;
+
+        public Reflected() {
+            unused = 1;
+        }
+    }
+
+    @Before
+    public void initializeSoot() {
+        soot.G.reset();
+        Options.v().set_output_format(Options.output_format_jimple);
+        Options.v().set_include_all(true);
+        Options.v().set_allow_phantom_refs(true);
+        Options.v().set_soot_classpath(System.getProperty("sun.boot.class.path") + 
+                ":" + System.getProperty("java.class.path"));
+        Scene.v().loadNecessaryClasses();
+        WriteOnlyFieldEliminator.configure(true, Arrays.asList("**.*$Reflected"));
+    }
+
+    @After
+    public void disable() {
+        WriteOnlyFieldEliminator.configure(false, Collections.<String>emptyList());
+    }
+
+    @Test
+    public void testWriteOnlyFieldsAreRemoved() {
+        SootClass sc = Scene.v().loadClassAndSupport(Node.class.getName());
+        assertEquals(3, Types.getInstanceFields(OS.linux, Arch.x86_64, sc).size());
+        assertEquals(Arrays.asList("createdAt", "debugName"), WriteOnlyFieldEliminator.getRemovedFields(sc));
+        assertFalse(sc.declaresFieldByName("createdAt"));
+        assertTrue(sc.declaresFieldByName("id"));
+        // Written through another reference than this
+        assertTrue(sc.declaresFieldByName("next"));
+        // Name used as a string constant
+        assertTrue(sc.declaresFieldByName("state"));
+        for (Unit unit : sc.getMethodByName("<init>").retrieveActiveBody().getUnits()) {
+            if (((Stmt) unit).containsFieldRef()) {
+                assertEquals("id", ((Stmt) unit).getFieldRef().getFieldRef().name());
+            }
+        }
+    }
+
+    @Test
+    public void testGetFieldsFromSeveralThreads() throws Exception {
+        final SootClass sc = Scene.v().loadClassAndSupport(Node.class.getName());
+        final List<List<String>> results = Collections.synchronizedList(new ArrayList<List<String>>());
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread() {
+                public void run() {
+                    List<String> names = new ArrayList<>();
+                    for (SootField f : WriteOnlyFieldEliminator.getFields(sc)) {
+                        names.add(f.getName());
+                    }
+                    results.add(names);
+                }
+            });
+        }
+        for (Thread t : threads) {
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(threads.size(), results.size());
+        for (List<String> names : results) {
+            assertEquals(Arrays.asList("id", "next", "state"), names);
+        }
+    }
+
+    @Test
+    public void testKeepPatterns() {
+        SootClass sc = Scene.v().loadClassAndSupport(Reflected.class.getName());
+        assertEquals(1, Types.getInstanceFields(OS.linux, Arch.x86_64, sc).size());
+        assertTrue(WriteOnlyFieldEliminator.getRemovedFields(sc).isEmpty());
+    }
+
+    @Test
+    public void testDisabled() {
+        WriteOnlyFieldEliminator.configure(false, Collections.<String>emptyList());
+        SootClass sc = Scene.v().loadClassAndSupport(Node.class.getName());
+        assertEquals(5, Types.getInstanceFields(OS.linux, Arch.x86_64, sc).size());
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.target;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests the exported symbols list built by {@link AbstractTarget}.
+ */
+public class AbstractTargetTest {
+
+    @Test
+    public void testExportsInternalLibrarySymbols() {
+        List<String> symbols = AbstractTarget.getExportedSymbols(
+                Collections.<String>emptyList(),
+                Arrays.asList("my_bridged_function", "my_optional_global*"),
+                Collections.<String>emptyList());
+        assertEquals(Arrays.asList("Java_*", "JNI_OnLoad", "JNI_OnLoad_*",
+                "my_bridged_function", "my_optional_global*"), symbols);
+    }
+
+    @Test
+    public void testExportsTargetAndConfiguredSymbols() {
+        List<String> symbols = AbstractTarget.getExportedSymbols(
+                Arrays.asList("target_symbol"),
+                Collections.<String>emptyList(),
+                Arrays.asList("user_symbol"));
+        assertEquals(Arrays.asList("target_symbol", "Java_*", "JNI_OnLoad", "JNI_OnLoad_*",
+                "user_symbol"), symbols);
+        assertFalse(symbols.contains("*"));
+    }
+
+    @Test
+    public void testToDynamicList() {
+        assertEquals("{\n    Java_*;\n    my_bridged_function;\n};\n",
+                AbstractTarget.toDynamicList(Arrays.asList("Java_*", "my_bridged_function")));
+    }
+}
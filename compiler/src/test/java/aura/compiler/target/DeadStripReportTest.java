@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.target;
+
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.Test;
+
+import aura.compiler.target.DeadStripReport.Entry;
+
+/**
+ * Tests {@link DeadStripReport}.
+ */
+public class DeadStripReportTest {
+
+    @Test
+    public void testParseGnu() throws Exception {
+        String map = "Archive member included to satisfy reference by file (symbol)\n"
+                + "\n"
+                + "Discarded input sections\n"
+                + "\n"
+                + " .data          0x0000000000000000        0x4 /usr/lib/crt1.o\n"
+                + " .bss           0x0000000000000000        0x0 /usr/lib/crt1.o\n"
+                + " .note.GNU-stack\n"
+                + "                0x0000000000000000        0x0 /usr/lib/crt1.o\n"
+                + " .text.[J]a.b.C.foo(Ljava/lang/String;)V\n"
+                + "                0x0000000000000000       0x40 /tmp/a/b/C.class.o\n"
+                + " .text.bar      0x0000000000000000        0xb /tmp/bar.o\n"
+                + "\n"
+                + "Memory Configuration\n"
+                + "\n"
+                + " .text.not_discarded 0x0000000000001000   0x10 /tmp/bar.o\n";
+        DeadStripReport report = DeadStripReport.parse(new StringReader(map), false);
+        List<Entry> entries = report.getEntries();
+        assertEquals(3, entries.size());
+        assertEquals(".data", entries.get(0).getName());
+        assertEquals(4, entries.get(0).getSize());
+        assertEquals("/usr/lib/crt1.o", entries.get(0).getFile());
+        assertEquals(".text.[J]a.b.C.foo(Ljava/lang/String;)V", entries.get(1).getName());
+        assertEquals(0x40, entries.get(1).getSize());
+        assertEquals("/tmp/a/b/C.class.o", entries.get(1).getFile());
+        assertEquals(".text.bar", entries.get(2).getName());
+        assertEquals(4 + 0x40 + 0xb, report.getSize());
+    }
+
+    @Test
+    public void testParseDarwin() throws Exception {
+        String map = "# Path: /tmp/Main\n"
+                + "# Symbols:\n"
+                + "# Address\tSize    \tFile  Name\n"
+                + "0x100000F50\t0x00000010\t[  1] _main\n"
+                + "\n"
+                + "# Dead Stripped Symbols:\n"
+                + "#        \tSize    \tSymbol\n"
+                + "<<dead>> \t0x00000040\t_[J]a.b.C.foo(Ljava/lang/String;)V\n"
+                + "<<dead>> \t0x00000000\t_empty\n"
+                + "<<dead>> \t0x0000000C\tliteral string: hello world\n";
+        DeadStripReport report = DeadStripReport.parse(new StringReader(map), true);
+        List<Entry> entries = report.getEntries();
+        assertEquals(2, entries.size());
+        assertEquals("_[J]a.b.C.foo(Ljava/lang/String;)V", entries.get(0).getName());
+        assertEquals(0x40, entries.get(0).getSize());
+        assertNull(entries.get(0).getFile());
+        assertEquals("literal string: hello world", entries.get(1).getName());
+        assertEquals(0x40 + 0xc, report.getSize());
+    }
+
+    @Test
+    public void testParseWithoutDiscardedSections() throws Exception {
+        DeadStripReport report = DeadStripReport.parse(new StringReader("Memory Configuration\n"), false);
+        assertTrue(report.getEntries().isEmpty());
+        assertEquals(0, report.getSize());
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.target;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link OrderFile}.
+ */
+public class OrderFileTest {
+
+    private static OrderFile orderFile(String ... lines) {
+        return new OrderFile(Arrays.asList(lines));
+    }
+
+    @Test
+    public void testSkipsCommentsBlankLinesAndDuplicates() {
+        OrderFile f = orderFile("# recorded order", "[J]a.Main.main([Ljava/lang/String;)V", "",
+                "  [J]a.Main.<clinit>()V  ", "[J]a.Main.main([Ljava/lang/String;)V");
+        assertEquals(Arrays.asList("[J]a.Main.main([Ljava/lang/String;)V", "[J]a.Main.<clinit>()V"),
+                f.getSymbols());
+    }
+
+    @Test
+    public void testToSymbolOrdering() {
+        assertEquals(Arrays.asList("_[J]a.Main.main([Ljava/lang/String;)V", "_[J]a.B.foo()V"),
+                orderFile("[J]a.Main.main([Ljava/lang/String;)V", "[J]a.B.foo()V").toSymbolOrdering());
+    }
+
+    @Test
+    public void testToSectionOrdering() {
+        assertEquals(Arrays.asList(".text.[J]a.Main.main([Ljava/lang/String;)V", ".text.[J]a.B.foo()V"),
+                orderFile("[J]a.Main.main([Ljava/lang/String;)V", "[J]a.B.foo()V").toSectionOrdering());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.compiler.util;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+import org.junit.Test;
+
+/**
+ * Tests {@link Tracer}.
+ */
+public class TracerTest {
+
+    @Test
+    @SuppressWarnings("try")
+    public void testNullTracer() throws Exception {
+        try (Tracer.Span span = Tracer.NULL_TRACER.span("frontend", "Generate IR", "Foo")) {
+        }
+        Tracer.NULL_TRACER.instant("backend", "Object file cache hit", "Foo");
+        Tracer.NULL_TRACER.write();
+        assertFalse(Tracer.NULL_TRACER.isEnabled());
+    }
+
+    @Test
+    @SuppressWarnings("try")
+    public void testWrite() throws Exception {
+        File file = File.createTempFile(getClass().getSimpleName(), ".json");
+        try {
+            final Tracer tracer = new Tracer(file);
+            try (Tracer.Span span = tracer.span("frontend", "Generate IR", "a.\"B\"")) {
+                Thread t = new Thread("worker") {
+                    public void run() {
+                        tracer.instant("backend", "Object file cache hit", "a.\"B\"");
+                    }
+                };
+                t.start();
+                t.join();
+            }
+            tracer.write();
+
+            JSONObject root = (JSONObject) JSONValue.parse(FileUtils.readFileToString(file, "UTF-8"));
+            JSONArray events = (JSONArray) root.get("traceEvents");
+            List<String> phases = new ArrayList<>();
+            Set<String> threads = new HashSet<>();
+            for (Object o : events) {
+                JSONObject event = (JSONObject) o;
+                phases.add((String) event.get("ph"));
+                if ("M".equals(event.get("ph"))) {
+                    threads.add((String) ((JSONObject) event.get("args")).get("name"));
+                } else {
+                    assertEquals("a.\"B\"", ((JSONObject) event.get("args")).get("detail"));
+                }
+                if ("X".equals(event.get("ph"))) {
+                    assertEquals("Generate IR", event.get("name"));
+                    assertTrue(((Number) event.get("dur")).longValue() >= 0);
+                }
+            }
+            assertEquals(4, events.size());
+            assertTrue(phases.contains("X"));
+            assertTrue(phases.contains("i"));
+            assertTrue(threads.contains("worker"));
+            assertTrue(threads.contains(Thread.currentThread().getName()));
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -22,11 +22,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 import aura.llvm.binding.LLVM;
+import aura.llvm.binding.Linkage;
 import aura.llvm.binding.MemoryBufferRef;
 import aura.llvm.binding.ModuleRef;
 import aura.llvm.binding.StringOut;
 import aura.llvm.binding.ModuleRefOut;
 import aura.llvm.binding.ValueRef;
+import aura.llvm.binding.Visibility;
 
 /**
  * 
@@ -76,6 +78,39 @@ public class Module implements AutoCloseable {
         return result.toArray(new Function[result.size()]);
     }
     
+    /**
+     * Sets the visibility of every function and global variable defined in
+     * this module which isn't local to it. Declarations and symbols with
+     * private or internal linkage are left untouched. Returns the number of
+     * symbols which were changed.
+     */
+    public int setDefinitionsVisibility(Visibility visibility) {
+        int count = 0;
+        for (ValueRef ref = LLVM.GetFirstFunction(getRef()); ref != null; ref = LLVM.GetNextFunction(ref)) {
+            count += setDefinitionVisibility(ref, visibility);
+        }
+        for (ValueRef ref = LLVM.GetFirstGlobal(getRef()); ref != null; ref = LLVM.GetNextGlobal(ref)) {
+            count += setDefinitionVisibility(ref, visibility);
+        }
+        return count;
+    }
+
+    private static int setDefinitionVisibility(ValueRef ref, Visibility visibility) {
+        if (LLVM.IsDeclaration(ref)) {
+            return 0;
+        }
+        Linkage linkage = LLVM.GetLinkage(ref);
+        if (linkage == Linkage.PrivateLinkage || linkage == Linkage.InternalLinkage
+                || linkage == Linkage.LinkerPrivateLinkage || linkage == Linkage.LinkerPrivateWeakLinkage) {
+            return 0;
+        }
+        if (LLVM.GetVisibility(ref) == visibility) {
+            return 0;
+        }
+        LLVM.SetVisibility(ref, visibility);
+        return 1;
+    }
+
     public void writeBitcode(File file) {
         if (LLVM.WriteBitcodeToFile(getRef(), file.getAbsolutePath()) != 0) {
             throw new LlvmException("Write failed");
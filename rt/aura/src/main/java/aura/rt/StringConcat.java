@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package aura.rt;
+
+/**
+ * Runtime support for string concatenations fused by the compiler. The
+ * compiler replaces <code>new StringBuilder().append(a).append(b)...toString()</code>
+ * chains with a sequence of {@link #length} calls computing the exact length
+ * of the result, a single <code>char[]</code> allocation, a sequence of
+ * {@link #put} calls filling the array and finally {@link #newString(char[])}
+ * which wraps the array without copying it. Pieces of other types than
+ * <code>String</code>, <code>char</code>, <code>int</code> and
+ * <code>long</code> are converted using <code>String.valueOf()</code> first.
+ */
+public final class StringConcat {
+
+    private StringConcat() {
+    }
+
+    public static int length(int length, String s) {
+        return checkLength(length + (s == null ? 4 : s.length()));
+    }
+
+    public static int length(int length, char c) {
+        return checkLength(length + 1);
+    }
+
+    public static int length(int length, int i) {
+        return checkLength(length + stringSize(i));
+    }
+
+    public static int length(int length, long l) {
+        return checkLength(length + stringSize(l));
+    }
+
+    public static int put(char[] buf, int pos, String s) {
+        if (s == null) {
+            s = "null";
+        }
+        int n = s.length();
+        s.getChars(0, n, buf, pos);
+        return pos + n;
+    }
+
+    public static int put(char[] buf, int pos, char c) {
+        buf[pos] = c;
+        return pos + 1;
+    }
+
+    public static int put(char[] buf, int pos, int i) {
+        if (i == Integer.MIN_VALUE) {
+            return put(buf, pos, "-2147483648");
+        }
+        int end = pos + stringSize(i);
+        int p = end;
+        if (i < 0) {
+            buf[pos] = '-';
+            i = -i;
+        }
+        do {
+            buf[--p] = (char) ('0' + i % 10);
+            i /= 10;
+        } while (i != 0);
+        return end;
+    }
+
+    public static int put(char[] buf, int pos, long l) {
+        if (l == Long.MIN_VALUE) {
+            return put(buf, pos, "-9223372036854775808");
+        }
+        if (l == (int) l) {
+            return put(buf, pos, (int) l);
+        }
+        int end = pos + stringSize(l);
+        int p = end;
+        if (l < 0) {
+            buf[pos] = '-';
+            l = -l;
+        }
+        do {
+            buf[--p] = (char) ('0' + l % 10);
+            l /= 10;
+        } while (l != 0);
+        return end;
+    }
+
+    public static String newString(char[] buf) {
+        return VM.newStringNoCopy(buf, 0, buf.length);
+    }
+
+    private static int checkLength(int length) {
+        if (length < 0) {
+            // Overflow. StringBuilder would also fail to grow its buffer.
+            throw new OutOfMemoryError();
+        }
+        return length;
+    }
+
+    private static int stringSize(int i) {
+        if (i == Integer.MIN_VALUE) {
+            return 11;
+        }
+        int size = 1;
+        if (i < 0) {
+            size++;
+            i = -i;
+        }
+        while (i >= 10) {
+            i /= 10;
+            size++;
+        }
+        return size;
+    }
+
+    private static int stringSize(long l) {
+        if (l == Long.MIN_VALUE) {
+            return 20;
+        }
+        int size = 1;
+        if (l < 0) {
+            size++;
+            l = -l;
+        }
+        while (l >= 10) {
+            l /= 10;
+            size++;
+        }
+        return size;
+    }
+}
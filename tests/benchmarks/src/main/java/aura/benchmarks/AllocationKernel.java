@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.benchmarks;
+
+/**
+ * Allocates short lived linked lists and arrays, keeping a small part of
+ * them alive, to stress the allocator and the garbage collector.
+ */
+public class AllocationKernel extends Kernel {
+    private static final int ROUNDS = 40;
+    private static final int NODES = 10000;
+
+    static final class Node {
+        final int value;
+        final Node next;
+        final byte[] payload;
+
+        Node(int value, Node next) {
+            this.value = value;
+            this.next = next;
+            this.payload = new byte[value & 0x3f];
+        }
+    }
+
+    private final Node[] survivors = new Node[64];
+
+    @Override
+    public String getName() {
+        return "allocation";
+    }
+
+    @Override
+    public long run() {
+        long sum = 0;
+        for (int r = 0; r < ROUNDS; r++) {
+            Node head = null;
+            for (int i = 0; i < NODES; i++) {
+                head = new Node(i + r, head);
+            }
+            survivors[r & 63] = head;
+            for (Node n = head; n != null; n = n.next) {
+                sum += n.payload.length;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Runs the benchmark kernels and writes the results as JSON. Usage:
+ * <pre>
+ * benchmarks [-warmup n] [-iterations n] [-o results.json] [kernel ...]
+ * </pre>
+ * All kernels are run if none is specified. Each kernel is run
+ * <code>warmup</code> times unmeasured followed by <code>iterations</code>
+ * measured runs. The results file holds the time of every measured
+ * iteration in nanoseconds as well as the minimum, median and mean so that
+ * results of different compiler and runtime builds can be compared.
+ */
+public class BenchmarkRunner {
+    private static final int DEFAULT_WARMUP = 5;
+    private static final int DEFAULT_ITERATIONS = 10;
+
+    static List<Kernel> createKernels() {
+        return Arrays.asList(
+                new CollectionsKernel(),
+                new StringBuildingKernel(),
+                new RegexKernel(),
+                new JsonKernel(),
+                new InflateKernel(),
+                new DigestKernel(),
+                new DispatchKernel(),
+                new AllocationKernel());
+    }
+
+    public static void main(String[] args) throws Exception {
+        int warmup = DEFAULT_WARMUP;
+        int iterations = DEFAULT_ITERATIONS;
+        File out = null;
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("-warmup".equals(args[i])) {
+                warmup = Integer.parseInt(args[++i]);
+            } else if ("-iterations".equals(args[i])) {
+                iterations = Integer.parseInt(args[++i]);
+            } else if ("-o".equals(args[i])) {
+                out = new File(args[++i]);
+            } else {
+                names.add(args[i]);
+            }
+        }
+
+        JSONArray results = new JSONArray();
+        for (Kernel kernel : createKernels()) {
+            if (!names.isEmpty() && !names.contains(kernel.getName())) {
+                continue;
+            }
+            results.put(run(kernel, warmup, iterations));
+        }
+
+        JSONObject json = new JSONObject();
+        json.put("os", System.getProperty("os.name"));
+        json.put("arch", System.getProperty("os.arch"));
+        json.put("vm", System.getProperty("java.vm.name") + " " + System.getProperty("java.vm.version"));
+        json.put("timestamp", System.currentTimeMillis());
+        json.put("warmup", warmup);
+        json.put("iterations", iterations);
+        json.put("results", results);
+        if (out != null) {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(out), "UTF-8")) {
+                writer.write(json.toString(2));
+                writer.write('\n');
+            }
+            System.out.println("Results written to " + out);
+        } else {
+            System.out.println(json.toString(2));
+        }
+    }
+
+    static JSONObject run(Kernel kernel, int warmup, int iterations) throws Exception {
+        kernel.setUp();
+        long checksum = 0;
+        for (int i = 0; i < warmup; i++) {
+            checksum = kernel.run();
+        }
+        long[] times = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            long result = kernel.run();
+            times[i] = System.nanoTime() - start;
+            if (i > 0 || warmup > 0) {
+                if (result != checksum) {
+                    throw new IllegalStateException("Kernel " + kernel.getName() 
+                            + " returned different checksums: " + checksum + " and " + result);
+                }
+            }
+            checksum = result;
+        }
+
+        JSONArray timesJson = new JSONArray();
+        long total = 0;
+        for (long t : times) {
+            timesJson.put(t);
+            total += t;
+        }
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        JSONObject json = new JSONObject();
+        json.put("name", kernel.getName());
+        json.put("checksum", checksum);
+        json.put("times", timesJson);
+        json.put("min", sorted[0]);
+        json.put("median", sorted[sorted.length / 2]);
+        json.put("mean", total / times.length);
+        System.err.format("%-12s min %8.3f ms  median %8.3f ms%n", kernel.getName(), 
+                sorted[0] / 1e6, sorted[sorted.length / 2] / 1e6);
+        return json;
+    }
+}
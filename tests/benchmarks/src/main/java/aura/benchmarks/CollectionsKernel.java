@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Fills, sorts and iterates {@link ArrayList}s, {@link HashMap}s and
+ * {@link TreeMap}s of boxed integers and strings.
+ */
+public class CollectionsKernel extends Kernel {
+    private static final int SIZE = 50000;
+
+    @Override
+    public String getName() {
+        return "collections";
+    }
+
+    @Override
+    public long run() {
+        List<Integer> list = new ArrayList<>();
+        Map<String, Integer> hashMap = new HashMap<>();
+        Map<Integer, String> treeMap = new TreeMap<>();
+        int x = 17;
+        for (int i = 0; i < SIZE; i++) {
+            x = x * 1103515245 + 12345;
+            list.add(x);
+            hashMap.put("k" + (x & 0xffff), i);
+            treeMap.put(x & 0xfffff, "v" + i);
+        }
+        Collections.sort(list);
+        long sum = 0;
+        for (int v : list) {
+            sum = sum * 31 + v;
+        }
+        for (Map.Entry<String, Integer> e : hashMap.entrySet()) {
+            sum += e.getKey().length() + e.getValue();
+        }
+        for (Integer k : treeMap.keySet()) {
+            sum ^= k;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.benchmarks;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes MD5, SHA-1 and SHA-256 digests of a buffer using the security
+ * providers of the runtime library.
+ */
+public class DigestKernel extends Kernel {
+    private static final String[] ALGORITHMS = {"MD5", "SHA-1", "SHA-256"};
+
+    private final byte[] data = new byte[256 * 1024];
+
+    @Override
+    public String getName() {
+        return "digest";
+    }
+
+    @Override
+    public void setUp() {
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+    }
+
+    @Override
+    public long run() throws NoSuchAlgorithmException {
+        long sum = 0;
+        for (String algorithm : ALGORITHMS) {
+            MessageDigest md = MessageDigest.getInstance(algorithm);
+            for (int i = 0; i < 4; i++) {
+                md.update(data);
+            }
+            for (byte b : md.digest()) {
+                sum = sum * 31 + b;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.benchmarks;
+
+/**
+ * Megamorphic virtual and interface calls over a small class hierarchy.
+ */
+public class DispatchKernel extends Kernel {
+    private static final int CALLS = 5000000;
+
+    interface Op {
+        int apply(int x);
+    }
+
+    static abstract class Base implements Op {
+        abstract int eval(int x);
+
+        @Override
+        public int apply(int x) {
+            return eval(x) + 1;
+        }
+    }
+
+    static class Add extends Base {
+        int eval(int x) { return x + 3; }
+    }
+
+    static class Mul extends Base {
+        int eval(int x) { return x * 3; }
+    }
+
+    static class Xor extends Base {
+        int eval(int x) { return x ^ 0x5a5a; }
+    }
+
+    static class Shift extends Base {
+        int eval(int x) { return x >>> 1; }
+
+        @Override
+        public int apply(int x) { return x << 1; }
+    }
+
+    private final Base[] bases = {new Add(), new Mul(), new Xor(), new Shift()};
+    private final Op[] ops = bases.clone();
+
+    @Override
+    public String getName() {
+        return "dispatch";
+    }
+
+    @Override
+    public long run() {
+        int x = 1;
+        for (int i = 0; i < CALLS; i++) {
+            x = bases[i & 3].eval(x);
+            x = ops[(i >> 2) & 3].apply(x);
+        }
+        return x;
+    }
+}
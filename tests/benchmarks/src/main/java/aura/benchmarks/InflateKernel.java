@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.benchmarks;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Inflates a deflated block of semi-random text. The data is deflated once
+ * in {@link #setUp()} so only inflating is measured.
+ */
+public class InflateKernel extends Kernel {
+    private static final int SIZE = 1 << 20;
+
+    private byte[] compressed;
+
+    @Override
+    public String getName() {
+        return "inflate";
+    }
+
+    @Override
+    public void setUp() {
+        byte[] data = new byte[SIZE];
+        int x = 1;
+        for (int i = 0; i < data.length; i++) {
+            x = x * 1103515245 + 12345;
+            data[i] = (byte) ('a' + ((x >>> 16) & 0xf));
+        }
+        Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        byte[] buffer = new byte[SIZE];
+        int length = deflater.deflate(buffer);
+        deflater.end();
+        compressed = new byte[length];
+        System.arraycopy(buffer, 0, compressed, 0, length);
+    }
+
+    @Override
+    public long run() throws DataFormatException {
+        Inflater inflater = new Inflater();
+        inflater.setInput(compressed);
+        byte[] buffer = new byte[64 * 1024];
+        long sum = 0;
+        while (!inflater.finished()) {
+            int n = inflater.inflate(buffer);
+            for (int i = 0; i < n; i++) {
+                sum += buffer[i];
+            }
+        }
+        inflater.end();
+        return sum;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.benchmarks;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Serializes a tree of {@link JSONObject}s and parses it back.
+ */
+public class JsonKernel extends Kernel {
+
+    @Override
+    public String getName() {
+        return "json";
+    }
+
+    @Override
+    public long run() throws JSONException {
+        JSONArray items = new JSONArray();
+        for (int i = 0; i < 2000; i++) {
+            JSONObject item = new JSONObject();
+            item.put("id", i);
+            item.put("name", "item " + i);
+            item.put("price", i * 1.25);
+            item.put("available", i % 3 != 0);
+            item.put("tags", new JSONArray().put("a" + (i % 5)).put("b" + (i % 7)));
+            items.put(item);
+        }
+        String json = new JSONObject().put("items", items).toString();
+
+        JSONArray parsed = new JSONObject(json).getJSONArray("items");
+        long sum = json.length();
+        for (int i = 0; i < parsed.length(); i++) {
+            JSONObject item = parsed.getJSONObject(i);
+            sum += item.getInt("id") + item.getString("name").length() + (long) item.getDouble("price");
+            if (item.getBoolean("available")) {
+                sum += item.getJSONArray("tags").length();
+            }
+        }
+        return sum;
+    }
+}
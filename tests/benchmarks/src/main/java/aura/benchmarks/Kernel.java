@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.benchmarks;
+
+/**
+ * A benchmark kernel. {@link #run()} is called once per warmup and measured
+ * iteration and should take in the order of tens of milliseconds. It returns
+ * a checksum of the work done so that the work can't be optimized away and
+ * so that results from different builds can be sanity checked.
+ */
+public abstract class Kernel {
+
+    /**
+     * Returns the name used to select the kernel on the command line and in
+     * the results file.
+     */
+    public abstract String getName();
+
+    /**
+     * Prepares any input data. Not measured.
+     */
+    public void setUp() throws Exception {
+    }
+
+    public abstract long run() throws Exception;
+}
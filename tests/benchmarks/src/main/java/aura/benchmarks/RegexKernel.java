@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.benchmarks;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Matches e-mail addresses and dates in a generated log using
+ * {@link Pattern}s.
+ */
+public class RegexKernel extends Kernel {
+    private static final Pattern EMAIL = Pattern.compile("[a-z0-9._]+@[a-z0-9.]+\\.[a-z]{2,}");
+    private static final Pattern DATE = Pattern.compile("(\\d{4})-(\\d{2})-(\\d{2})");
+
+    private String text;
+
+    @Override
+    public String getName() {
+        return "regex";
+    }
+
+    @Override
+    public void setUp() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.append(String.format("2016-%02d-%02d user%d@example%d.com logged in from 10.0.%d.%d\n", 
+                    i % 12 + 1, i % 28 + 1, i, i % 7, i % 256, i % 100));
+        }
+        text = sb.toString();
+    }
+
+    @Override
+    public long run() {
+        long sum = 0;
+        Matcher m = EMAIL.matcher(text);
+        while (m.find()) {
+            sum += m.end() - m.start();
+        }
+        m = DATE.matcher(text);
+        while (m.find()) {
+            sum += Integer.parseInt(m.group(2)) * 31 + Integer.parseInt(m.group(3));
+        }
+        return sum + text.replaceAll("\\d+", "#").length();
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2016 Aura Project
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/gpl-2.0.html>.
+ */
+package aura.benchmarks;
+
+/**
+ * Builds strings with {@link StringBuilder}, formats numbers and splits and
+ * compares the results.
+ */
+public class StringBuildingKernel extends Kernel {
+    private static final int LINES = 20000;
+
+    @Override
+    public String getName() {
+        return "strings";
+    }
+
+    @Override
+    public long run() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            sb.append("line ").append(i).append(": ").append(i * 0.5).append(' ').append(Integer.toHexString(i))
+                    .append('\n');
+        }
+        String text = sb.toString();
+        long sum = 0;
+        for (String line : text.split("\n")) {
+            sum += line.hashCode();
+            if (line.endsWith("ff")) {
+                sum += line.toUpperCase().indexOf("FF");
+            }
+        }
+        return sum + text.length();
+    }
+}
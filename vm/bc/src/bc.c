@@ -107,8 +107,8 @@ static ClassInfoHeader** getClassInfosBase(void* hash) {
     void* base = hash
             + sizeof(uint32_t) /* count */
             + sizeof(uint32_t) /* size */
-            + (size << 2)
-            + sizeof(uint32_t) /* this is for the last end index in the hash */;
+            + sizeof(uint32_t) /* seed */
+            + (size << 2);
     // Make sure base is properly aligned
     return (ClassInfoHeader**) (((uintptr_t) base + sizeof(void*) - 1) & ~(sizeof(void*) - 1));
 }
@@ -117,26 +117,35 @@ static uint32_t getClassInfosCount(void* hash) {
     return ((uint32_t*) hash)[0];
 }
 
+static inline uint32_t fmix32(uint32_t h) {
+    h ^= h >> 16;
+    h *= 0x85ebca6b;
+    h ^= h >> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >> 16;
+    return h;
+}
+
 static ClassInfoHeader* lookupClassInfo(Env* env, const char* className, void* hash) {
+    uint32_t count = getClassInfosCount(hash);
+    if (count == 0) return NULL;
     ClassInfoHeader** base = getClassInfosBase(hash);
+    uint32_t size = ((uint32_t*) hash)[1];
+    uint32_t seed = ((uint32_t*) hash)[2];
+    uint32_t* displacements = ((uint32_t*) hash) + 3;
 
     // Hash the class name
     uint32_t h = 0;
-    MurmurHash3_x86_32(className, strlen(className) + 1, 0x1ce79e5c, &h);
-    uint32_t size = ((uint32_t*) hash)[1];
-    h &= size - 1;
-
-    // Get the start and end indexes
-    hash += sizeof(uint32_t) + sizeof(uint32_t); // Skip count and size
-    uint32_t start = ((uint32_t*) hash)[h];
-    uint32_t end = ((uint32_t*) hash)[h + 1];
-
-    // Iterate through the ClassInfoHeaders between start and end
-    for (uint32_t i = start; i < end; i++) {
-        ClassInfoHeader* header = base[i];
-        if (header && !strcmp(header->className, className)) {
-            return header;
-        }
+    MurmurHash3_x86_32(className, strlen(className) + 1, seed, &h);
+
+    // The table is a minimal perfect hash over the class names generated by 
+    // HashTableGenerator. The displaced hash gives the only slot the class 
+    // can be in.
+    uint32_t d = displacements[h & (size - 1)];
+    uint32_t i = (uint32_t) (((uint64_t) fmix32(h ^ d) * count) >> 32);
+    ClassInfoHeader* header = base[i];
+    if (header && !strcmp(header->className, className)) {
+        return header;
     }
     return NULL;
 }
@@ -345,35 +354,23 @@ static Field* loadFields(Env* env, Class* clazz) {
         !clazz->classLoader || !rvmGetParentClassLoader(env, clazz->classLoader) ? _bcBootClassesHash : _bcClassesHash);
     if (!header) return NULL;
 
-    ClassInfo ci;
-    jint i;
-    void* p = header;
-    readClassInfo(&p, &ci);
-
-    skipInterfaceNames(&p, &ci);
-
-    Field* first = NULL;
-    for (i = 0; i < ci.fieldCount; i++) {
-        FieldInfo fi;
-        readFieldInfo(&p, &fi);
-        Field* f = rvmAllocateField(env, clazz, fi.name, fi.desc, fi.access, fi.offset, fi.attributes);
-        if (!f) goto error;
-        LL_PREPEND(first, f);
-    }
-    return first;
-error:
-    while (first) {
-        Field* next = first->next;
-        rvmFreeMemoryUncollectable(env, first);
-        first = next;
+    // The Fields have been preformed by the compiler. Static fields hold
+    // their offset into the Class until the Class is known.
+    Field* f;
+    for (f = header->fields; f; f = f->next) {
+        if (IS_STATIC(f->access)) {
+            ClassField* cf = (ClassField*) f;
+            cf->address = ((jbyte*) clazz) + ((jbyte*) cf->address - (jbyte*) f->clazz);
+        }
+        f->clazz = clazz;
     }
-    return NULL;
+    return header->fields;
 }
 
-static inline jboolean isStrippedMethod(MethodInfo* mi) {
-    if (mi->impl) {
+static inline jboolean isStrippedImpl(void* impl) {
+    if (impl) {
         for (void** p = &_bcStrippedMethodStubs; *p; p++) {
-            if (mi->impl == *p) {
+            if (impl == *p) {
                 return TRUE;
             }
         }
@@ -381,44 +378,29 @@ static inline jboolean isStrippedMethod(MethodInfo* mi) {
     return FALSE;
 }
 
+static inline jboolean isStrippedMethod(MethodInfo* mi) {
+    return isStrippedImpl(mi->impl);
+}
+
 static Method* loadMethods(Env* env, Class* clazz) {
     ClassInfoHeader* header = lookupClassInfo(env, clazz->name, 
         !clazz->classLoader || !rvmGetParentClassLoader(env, clazz->classLoader) ? _bcBootClassesHash : _bcClassesHash);
     if (!header) return NULL;
 
-    ClassInfo ci;
-    jint i;
-    void* p = header;
-    readClassInfo(&p, &ci);
-    
-    skipInterfaceNames(&p, &ci);
-    skipFieldInfos(&p, &ci);
-
-    Method* first = NULL;
-    for (i = 0; i < ci.methodCount; i++) {
-        MethodInfo mi;
-        readMethodInfo(&p, &mi);
-        if (!isStrippedMethod(&mi)) {
-            Method* m = NULL;
-            if (mi.targetFnPtr) {
-                m = (Method*) rvmAllocateBridgeMethod(env, clazz, mi.name, mi.desc, mi.vtableIndex, mi.access, mi.size, mi.impl, mi.synchronizedImpl, mi.targetFnPtr, mi.attributes);
-            } else if (mi.callbackImpl) {
-                m = (Method*) rvmAllocateCallbackMethod(env, clazz, mi.name, mi.desc, mi.vtableIndex, mi.access, mi.size, mi.impl, mi.synchronizedImpl, mi.linetable, mi.callbackImpl, mi.attributes);
-            } else {
-                m = rvmAllocateMethod(env, clazz, mi.name, mi.desc, mi.vtableIndex, mi.access, mi.size, mi.impl, mi.synchronizedImpl, mi.linetable, mi.attributes);
-            }
-            if (!m) goto error;
-            LL_PREPEND(first, m);
+    // The Methods have been preformed by the compiler. Unlink the ones
+    // which have been stripped by the linker.
+    Method* first = header->methods;
+    Method** link = &first;
+    Method* m;
+    while ((m = *link)) {
+        if (isStrippedImpl(m->impl)) {
+            *link = m->next;
+        } else {
+            m->clazz = clazz;
+            link = &m->next;
         }
     }
     return first;
-error:
-    while (first) {
-        Method* next = first->next;
-        rvmFreeMemoryUncollectable(env, first);
-        first = next;
-    }
-    return NULL;
 }
 
 static inline jboolean hasImpl(MethodInfo* mi) {
@@ -925,6 +907,37 @@ Object* _bcLdcClass(Env* env, ClassInfoHeader* header) {
 }
 
 
+static Mutex startupOrderLock = PTHREAD_MUTEX_INITIALIZER;
+static FILE* startupOrderOut = NULL;
+static jboolean startupOrderFailed = FALSE;
+
+/*
+ * Called by the recordentry function in header.ll the first time a method is
+ * called in executables built with -recordstartuporder. Appends the method's
+ * symbol to the startup order file. Each line is flushed immediately so the
+ * order survives the process being killed.
+ */
+void _bcRecordMethodEntry(Env* env, jbyte* recorded, const char* symbol) {
+    rvmLockMutex(&startupOrderLock);
+    if (!*recorded) {
+        *recorded = 1;
+        if (!startupOrderOut && !startupOrderFailed) {
+            const char* path = options.startupOrderFile ? options.startupOrderFile : "startup.order";
+            startupOrderOut = fopen(path, "w");
+            if (!startupOrderOut) {
+                WARNF("Failed to open startup order file %s", path);
+                startupOrderFailed = TRUE;
+            }
+        }
+        if (startupOrderOut) {
+            fputs(symbol, startupOrderOut);
+            fputc('\n', startupOrderOut);
+            fflush(startupOrderOut);
+        }
+    }
+    rvmUnlockMutex(&startupOrderLock);
+}
+
 void _bcMonitorEnter(Env* env, Object* obj) {
     ENTER;
     rvmLockObject(env, obj);
@@ -48,6 +48,8 @@ typedef struct {
     jint instanceDataOffset;
     unsigned short classRefCount;
     unsigned short instanceRefCount;
+    Field* fields;   // Preformed Fields, clazz is filled in by loadFields()
+    Method* methods; // Preformed Methods, clazz is filled in by loadMethods()
 } ClassInfoHeader;
 
 typedef struct {
@@ -139,9 +139,15 @@ struct ITable {
   VITable table;
 };
 
+// Number of slots in an interface method table. Must match ITable.IMT_SIZE 
+// in the compiler.
+#define IMT_SIZE 32
+
 struct ITables {
   uint16_t count;
   ITable* cache;
+  void** imt; // IMT_SIZE (TypeInfo*, function) pairs. Slots not owned by the
+              // called interface are resolved through table.
   ITable* table[0];
 };
 
@@ -333,6 +339,7 @@ typedef struct Options {
     char* pidFile;
     jboolean printDebugPort;
     char* debugPortFile;
+    char* startupOrderFile;
     char resourcesPath[PATH_MAX];
     char imagePath[PATH_MAX];
     char** rawBootclasspath; 
@@ -129,7 +129,8 @@ static LoadedClassEntry* loadedClasses = NULL;
 static uint32_t classIdCounter = 0x10000000;
 
 static ITable emptyITable = {NULL, {0}};
-static ITables emptyITables = {0, &emptyITable};
+static void* emptyIMT[IMT_SIZE * 2];
+static ITables emptyITables = {0, &emptyITable, emptyIMT};
 
 static Class* findClassByDescriptor(Env* env, const char* desc, Object* classLoader, Class* (*loaderFunc)(Env*, const char*, Object*));
 static Class* findClass(Env* env, const char* className, Object* classLoader, Class* (*loaderFunc)(Env*, const char*, Object*));
@@ -172,6 +172,10 @@ void rvmParseOption(char* arg, Options* options) {
         }
     } else if (startsWith(arg, "PrintDebugPort")) {
         options->printDebugPort = TRUE;
+    } else if (startsWith(arg, "StartupOrderFile=")) {
+        if (!options->startupOrderFile) {
+            options->startupOrderFile = strdup(&arg[17]);
+        }
     } else if (startsWith(arg, "D")) {
         char* s = strdup(&arg[1]);
         // Split the arg string on the '='. 'key' will have the
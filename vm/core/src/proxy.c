@@ -329,10 +329,13 @@ static ITables* createITables(Env* env, Class* superclass, jint interfacesCount,
     }
     if (count == 0) return NULL;
 
-    ITables* itables = rvmAllocateMemory(env, sizeof(ITables) + sizeof(ITable*) * count);
+    // The IMT is left empty and follows the ITable pointers. Calls through
+    // interfaces implemented by proxies always search the ITables.
+    ITables* itables = rvmAllocateMemory(env, sizeof(ITables) + sizeof(ITable*) * count + sizeof(void*) * IMT_SIZE * 2);
     if (!itables) return NULL;
 
     itables->count = count;
+    itables->imt = (void**) &itables->table[count];
     jint index = 0;
     for (i = 0; i < interfacesCount; i++) {
         initITableArray(env, interfaces[i], &index, itables->table);